@@ -31,6 +31,14 @@ android {
         sourceCompatibility = JavaVersion.VERSION_21
         targetCompatibility = JavaVersion.VERSION_21
     }
+    testOptions {
+        unitTests.all {
+            // BoardSoakTest 설정 (예: -Dsoak.seconds=14400) 을 테스트 JVM으로 전달
+            System.getProperties().stringPropertyNames().filter { it.startsWith("soak.") }.forEach { key ->
+                it.systemProperty(key, System.getProperty(key))
+            }
+        }
+    }
 }
 
 dependencies {
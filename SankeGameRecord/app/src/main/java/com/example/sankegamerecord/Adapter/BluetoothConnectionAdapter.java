@@ -5,20 +5,23 @@ import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
 import android.bluetooth.BluetoothSocket;
 import android.content.Context;
-import android.content.Intent;
-import android.util.Log;
 
 import androidx.annotation.RequiresPermission;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
+import com.example.sankegamerecord.Background.BoardConnectionManager;
+
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.util.Set;
 import java.util.UUID;
 
-public class BluetoothConnectionAdapter {
+/**
+ * 블루투스 RFCOMM으로 보드에 연결하는 Connector입니다.
+ * 연결 유지, 수신, 파싱은 BoardConnectionManager가 보드마다 따로 처리하고, 이 클래스는 소켓을 여는 일과
+ * 페어링된 장치 목록만 맡습니다.
+ */
+public class BluetoothConnectionAdapter implements BoardConnectionManager.Connector {
 
     public static final String TAG = "BTConnectionAdapter";
 
@@ -26,46 +29,22 @@ public class BluetoothConnectionAdapter {
     public static final String ACTION_BT_EVENT = "com.example.sankegamerecord.BT_EVENT";
     public static final String EXTRA_STATE = "BT_STATE";
     public static final String EXTRA_MESSAGE = "BT_MESSAGE";
-    public static final String EXTRA_DATA = "BT_DATA";
-
-    public static final int STATE_NONE = 0;
-    public static final int STATE_CONNECTED = 1;
-    public static final int STATE_DISCONNECTED = 2;
+    public static final String EXTRA_DEVICE_ADDRESS = "BT_DEVICE_ADDRESS"; // 상태가 바뀐 보드의 MAC
 
-    public static int CurrentState=STATE_NONE;
+    public static final int STATE_NONE = BoardConnectionManager.STATE_NONE;
+    public static final int STATE_CONNECTED = BoardConnectionManager.STATE_CONNECTED;
+    public static final int STATE_DISCONNECTED = BoardConnectionManager.STATE_DISCONNECTED;
+    public static final int STATE_CONNECTING = BoardConnectionManager.STATE_CONNECTING;
 
-    private Context context;
-    private BluetoothAdapter adapter;
-    private BluetoothSocket socket;
-    private BluetoothDevice connectedDevice;
+    // SPP(Serial Port Profile) UUID
+    private static final UUID SPP_UUID = UUID.fromString("00001101-0000-1000-8000-00805F9B34FB");
 
-    private InputStream inStream;
-    private OutputStream outStream;
-    private boolean running = false;
-    private Thread readThread;
-    private final StringBuilder buffer = new StringBuilder();
+    private final BluetoothAdapter adapter;
 
     public BluetoothConnectionAdapter(Context ctx) {
-        context = ctx;
         adapter = BluetoothAdapter.getDefaultAdapter();
     }
 
-    /** 상태 브로드캐스트 */
-    private void broadcastState(int state, String msg) {
-        Intent intent = new Intent(ACTION_BT_EVENT);
-        intent.putExtra(EXTRA_STATE, state);
-        intent.putExtra(EXTRA_MESSAGE, msg);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
-    }
-
-    /** 데이터 브로드캐스트 */
-    private void broadcastData(byte[] data, int length) {
-        Intent intent = new Intent(ACTION_BT_EVENT);
-        intent.putExtra(EXTRA_STATE, STATE_CONNECTED);
-        intent.putExtra(EXTRA_DATA, Arrays.copyOf(data, length));
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
-    }
-
     /** 장치 선택 다이얼로그용: 이름/주소 배열 반환 */
     @RequiresPermission(Manifest.permission.BLUETOOTH_CONNECT)
     public String[] getPairedDeviceNames() {
@@ -89,84 +68,44 @@ public class BluetoothConnectionAdapter {
         return macs;
     }
 
-    public int getCurrentState(){
-        return CurrentState;
+    /**
+     * 보드에 RFCOMM 소켓을 연결합니다. (BoardConnectionManager의 리더 스레드에서 호출, 연결될 때까지 블록)
+     */
+    @SuppressWarnings("MissingPermission") // 권한은 연결을 요청하는 화면에서 확인
+    @Override
+    public BoardConnectionManager.Link connect(String mac) throws IOException {
+        BluetoothDevice device = adapter.getRemoteDevice(mac);
+        BluetoothSocket socket = device.createRfcommSocketToServiceRecord(SPP_UUID);
+        try {
+            socket.connect();
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        return new SocketLink(socket);
     }
 
-    /** 실제 연결 */
-    @RequiresPermission(Manifest.permission.BLUETOOTH_CONNECT)
-    public void connect(String mac) {
-        new Thread(() -> {
-            try {
-                BluetoothDevice device = adapter.getRemoteDevice(mac);
-                socket = device.createRfcommSocketToServiceRecord(
-                        UUID.fromString("00001101-0000-1000-8000-00805F9B34FB")
-                );
-                socket.connect();
-
-                inStream = socket.getInputStream();
-                outStream = socket.getOutputStream();
-                connectedDevice = device;
-
-                broadcastState(STATE_CONNECTED, device.getName());
-                CurrentState=STATE_CONNECTED;
-                startReceive();
-
-            } catch (Exception e) {
-                Log.e(TAG, "Connect failed", e);
-                broadcastState(STATE_DISCONNECTED, e.getMessage());
-                CurrentState=STATE_DISCONNECTED;
-            }
-        }).start();
-    }
+    /** BluetoothSocket을 Link로 감쌈 */
+    private static final class SocketLink implements BoardConnectionManager.Link {
+        private final BluetoothSocket socket;
 
-    /** 데이터 수신 스레드 */
-    public void startReceive() {
-        new Thread(() -> {
-            byte[] readBuffer = new byte[1024];
-            int read;
-
-            try {
-                while (!Thread.currentThread().isInterrupted()) {
-                    read = inStream.read(readBuffer);
-                    if (read > 0) {
-                        String chunk = new String(readBuffer, 0, read, StandardCharsets.UTF_8);
-                        buffer.append(chunk);
-
-                        int newlineIndex;
-                        while ((newlineIndex = buffer.indexOf("\n")) != -1) {
-                            String completeMessage = buffer.substring(0, newlineIndex).trim();
-                            buffer.delete(0, newlineIndex + 1);
-
-                            // 완전 메시지만 브로드캐스트
-                            Intent intent = new Intent(ACTION_BT_EVENT);
-                            intent.putExtra(EXTRA_DATA, completeMessage.getBytes(StandardCharsets.UTF_8));
-                            LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }).start();
-    }
+        SocketLink(BluetoothSocket socket) {
+            this.socket = socket;
+        }
 
-    /** 연결 종료 */
-    public void stop() {
-        running = false;
-        try {
-            if (inStream != null) inStream.close();
-            if (outStream != null) outStream.close();
-            if (socket != null) socket.close();
-            broadcastState(STATE_NONE, "disconnect");
-            CurrentState=STATE_NONE;
-        } catch (Exception e) {
-            Log.e(TAG, "Close error", e);
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return socket.getInputStream();
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return socket.getOutputStream();
         }
-    }
 
-    /** 연결된 장치 MAC 반환 */
-    public String getConnectedDeviceAddress() {
-        return connectedDevice != null ? connectedDevice.getAddress() : null;
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
     }
 }
@@ -3,8 +3,27 @@ package com.example.sankegamerecord.Adapter;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
+/**
+ * 게임 기록 한 건입니다.
+ * Device는 기록을 보낸 보드(블루투스 MAC 주소 등)이며, 장치를 모르는 기록(이전 버전 데이터)은 빈 문자열입니다.
+ */
 public record GameRecord(
         LocalDateTime Playdate,
         Duration Playtime,
-        Boolean Success
-){}
+        Boolean Success,
+        String Device
+){
+    /** 장치 정보가 없는 기록 */
+    public GameRecord(LocalDateTime Playdate, Duration Playtime, Boolean Success) {
+        this(Playdate, Playtime, Success, "");
+    }
+
+    public GameRecord {
+        if (Device == null) Device = "";
+    }
+
+    /** 같은 기록에 보낸 장치를 붙인 복사본 */
+    public GameRecord withDevice(String device) {
+        return new GameRecord(Playdate, Playtime, Success, device);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.sankegamerecord.Adapter;
+
+/**
+ * 0 이상의 값을 로그-선형 버킷으로 나누는 규칙입니다. (LatencyHistogram, PlaytimeSketch 공용)
+ * <p>
+ * - 2^subBucketBits 미만의 값은 1 단위로 정확한 버킷에 들어갑니다.
+ * - 그 위로는 2의 거듭제곱 구간마다 2^subBucketBits개의 같은 폭 버킷으로 나누므로,
+ *   버킷 폭은 버킷 하한의 1/2^subBucketBits 이하입니다.
+ * - magnitudes개 구간보다 큰 값은 모두 마지막 버킷에 넣습니다.
+ * <p>
+ * 버킷 번호는 값 순서를 따르고 경계가 고정이라, 같은 규칙으로 센 분포는 버킷별로 더하기만 하면 합쳐집니다.
+ * 불변 객체라 여러 스레드가 함께 써도 됩니다.
+ */
+public final class LogLinearBuckets {
+
+    private final int subBucketBits;
+    private final int subBuckets;
+    private final int magnitudes;
+    private final int bucketCount;
+
+    /**
+     * @param subBucketBits 구간 하나를 나누는 버킷 수의 log2 (상대 오차 = 1/2^subBucketBits)
+     * @param magnitudes 1 단위 구간 위로 둘 2의 거듭제곱 구간 수
+     */
+    public LogLinearBuckets(int subBucketBits, int magnitudes) {
+        if (subBucketBits < 1 || subBucketBits > 16) throw new IllegalArgumentException("subBucketBits " + subBucketBits);
+        if (magnitudes < 1 || magnitudes + subBucketBits > 63) throw new IllegalArgumentException("magnitudes " + magnitudes);
+        this.subBucketBits = subBucketBits;
+        this.subBuckets = 1 << subBucketBits;
+        this.magnitudes = magnitudes;
+        this.bucketCount = (magnitudes + 1) * subBuckets;
+    }
+
+    /** 전체 버킷 수 (마지막 버킷 = 범위를 넘는 값) */
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    /** 값이 들어갈 버킷 번호 (음수는 0으로 봄) */
+    public int bucketOf(long value) {
+        if (value < subBuckets) return (int) Math.max(0, value);
+        int magnitude = 63 - Long.numberOfLeadingZeros(value) - subBucketBits + 1;
+        if (magnitude > magnitudes) return bucketCount - 1;
+        int sub = (int) (value >>> (magnitude - 1)) & (subBuckets - 1);
+        return magnitude * subBuckets + sub;
+    }
+
+    /** 버킷에 들어가는 가장 작은 값 */
+    public long lowerBound(int bucket) {
+        int magnitude = bucket / subBuckets;
+        int sub = bucket % subBuckets;
+        if (magnitude == 0) return sub;
+        return (long) (subBuckets + sub) << (magnitude - 1);
+    }
+
+    /** 버킷에 들어가는 값의 개수 */
+    public long width(int bucket) {
+        int magnitude = bucket / subBuckets;
+        return magnitude == 0 ? 1 : 1L << (magnitude - 1);
+    }
+
+    /** 버킷에 들어가는 가장 큰 값 */
+    public long upperBound(int bucket) {
+        return lowerBound(bucket) + width(bucket) - 1;
+    }
+}
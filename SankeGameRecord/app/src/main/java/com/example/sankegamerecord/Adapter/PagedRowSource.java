@@ -0,0 +1,332 @@
+package com.example.sankegamerecord.Adapter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * 목록 화면이 요청한 위치의 행만 페이지 단위로 데이터베이스에서 읽어 오는 소스입니다.
+ * <p>
+ * - 페이지는 최근에 사용한 maxCachedPages개만 메모리에 남기므로, 기록이 아무리 많아도 메모리 사용량이 일정합니다.
+ * - 바로 앞 페이지가 캐시에 있으면 그 마지막 행을 기준으로 다음 페이지를 읽습니다(keyset, "id &lt; 마지막 id").
+ *   스크롤을 건너뛰어 앞 페이지가 없을 때만 OFFSET으로 읽습니다.
+ * - 전체 행 수는 refresh() 때 한 번만 셉니다.
+ * - refresh()는 앞쪽부터 이어서 캐시된 페이지(창, window)를 background에서 다시 읽고 이전 창과 비교(RowDiff)해
+ *   바뀐 행만 알려 주므로, 새 게임 한 판이면 행 하나 삽입으로 끝납니다.
+ * <p>
+ * 조회는 background Executor에서 실행되고 결과는 mainThread Executor로 전달됩니다.
+ * 아직 읽지 않은 위치는 get()이 null을 반환하고, 페이지가 도착하면 Listener로 알려 줍니다.
+ * refresh()/cancel()을 호출하면 세대(generation)가 바뀌어, 대기 중인 이전 조회는 실행되지 않고
+ * 이미 실행 중이던 조회의 결과도 버려집니다. (탭 전환 시 취소)
+ * <p>
+ * 페이지 캐시와 Listener 호출은 메인 스레드 전용입니다.
+ */
+public final class PagedRowSource {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_MAX_CACHED_PAGES = 6;
+
+    /** 페이지를 읽어 오는 방법 (목록 종류마다 구현). background 스레드에서 호출됩니다. */
+    public interface PageLoader {
+        /** 전체 행 수 */
+        int count();
+
+        /** 첫 페이지 */
+        List<RecordRow> loadFirst(int limit);
+
+        /** last 바로 다음 행부터 limit개 (keyset) */
+        List<RecordRow> loadAfter(RecordRow last, int limit);
+
+        /** offset번째 행부터 limit개 (앞 페이지를 모를 때) */
+        List<RecordRow> loadAt(int offset, int limit);
+    }
+
+    /** 조회 결과 알림 (메인 스레드에서 호출) */
+    public interface Listener {
+        /** refresh()가 끝나 전체 행 수와 앞쪽 창이 준비됨. refresh.dispatchTo()로 바뀐 부분만 반영 */
+        void onRefreshed(Refresh refresh);
+
+        /** position부터 count개의 행이 새로 읽혀 옴 */
+        void onRowsLoaded(int position, int count);
+    }
+
+    private final PageLoader loader;
+    private final Executor background;
+    private final Executor mainThread;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private final LinkedHashMap<Integer, List<RecordRow>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+
+    private Listener listener;
+    private int count;
+    private volatile int generation; // background 작업이 시작 전에 취소 여부를 확인하므로 volatile
+    private boolean refreshing;      // refresh 결과를 기다리는 중
+    private boolean refreshPending;  // 기다리는 동안 requestRefresh()가 다시 들어옴
+    private long keysetLoads;
+    private long offsetLoads;
+    private long lastTimeToFirstRowNanos = -1;
+
+    public PagedRowSource(PageLoader loader, Executor background, Executor mainThread) {
+        this(loader, background, mainThread, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CACHED_PAGES);
+    }
+
+    public PagedRowSource(PageLoader loader, Executor background, Executor mainThread,
+                          int pageSize, int maxCachedPages) {
+        if (pageSize <= 0 || maxCachedPages <= 1) {
+            throw new IllegalArgumentException("invalid page configuration: " + pageSize + " x " + maxCachedPages);
+        }
+        this.loader = loader;
+        this.background = background;
+        this.mainThread = mainThread;
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        // accessOrder = true: 가장 오래 사용하지 않은 페이지부터 버림
+        this.pages = new LinkedHashMap<Integer, List<RecordRow>>(maxCachedPages * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<RecordRow>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 진행 중인 조회를 모두 취소하고, 전체 행 수와 앞쪽 창을 background에서 다시 읽어 이전 창과 비교합니다.
+     * (데이터가 바뀌었을 때) 결과가 도착하기 전까지는 이전 행을 그대로 유지합니다.
+     */
+    public void refresh() {
+        final int gen = cancel();
+        refreshing = true;
+        final long started = System.nanoTime();
+        final List<RecordRow> oldWindow = currentWindow();
+        final int oldCount = count;
+        // 이전 창보다 한 페이지 더 읽어, 이전 창의 마지막 행이 새 목록 어디로 갔는지 찾음
+        final int loadRows = oldWindow.size() + pageSize;
+        loading.add(0);
+        background.execute(() -> {
+            if (gen != generation) return; // 시작 전에 취소됨
+            int newCount = loader.count();
+            List<RecordRow> loaded = loader.loadFirst(loadRows);
+            Refresh refresh = compare(oldWindow, oldCount, loaded, newCount); // 비교도 background에서
+            mainThread.execute(() -> {
+                if (gen != generation) return; // 결과가 도착하기 전에 취소됨
+                keysetLoads++;
+                loading.remove(0);
+                pages.clear();
+                // 꽉 찬 페이지만 캐시 (목록 끝이면 마지막 부분 페이지까지)
+                // 창이 가득 차 있었으면 한 페이지 더 읽었으므로 캐시 한도만큼만 넣고,
+                // 뒤 페이지부터 넣어 0번 페이지가 가장 최근에 사용한 페이지가 되게 함 (다음 창의 시작이 밀려나지 않음)
+                int cacheRows = loaded.size() < loadRows ? loaded.size() : loaded.size() / pageSize * pageSize;
+                cacheRows = Math.min(cacheRows, maxCachedPages * pageSize);
+                int cachedPages = (cacheRows + pageSize - 1) / pageSize;
+                for (int pageIndex = cachedPages - 1; pageIndex >= 0; pageIndex--) {
+                    int from = pageIndex * pageSize;
+                    pages.put(pageIndex, loaded.subList(from, Math.min(from + pageSize, cacheRows)));
+                }
+                count = newCount;
+                lastTimeToFirstRowNanos = System.nanoTime() - started;
+                refresh.timeToFirstRowNanos = lastTimeToFirstRowNanos;
+                refreshing = false;
+                if (listener != null) listener.onRefreshed(refresh);
+                if (refreshPending) {
+                    refreshPending = false;
+                    refresh(); // 기다리는 동안 들어온 변경을 한 번에 반영
+                }
+            });
+        });
+    }
+
+    /**
+     * 이전 창과 새로 읽은 앞쪽 행을 비교합니다. (background 스레드)
+     * <p>
+     * 이전 창의 마지막 행이 새 목록에서 j번째에 있고, 그 뒤쪽 행 수가 늘지 않았다면
+     * 창 뒤쪽은 (끝에서 지워진 것 말고는) 그대로라고 보고 새 목록의 0..j만 비교합니다.
+     * 기록은 id 내림차순이라 새 기록은 항상 앞에, 정리(retention)되는 기록은 항상 끝에 있기 때문입니다.
+     * 그렇지 않으면 읽은 행 전체와 비교하고 창 뒤쪽은 다시 그리도록 합니다.
+     */
+    static Refresh compare(List<RecordRow> oldWindow, int oldCount, List<RecordRow> loaded, int newCount) {
+        int oldTail = oldCount - oldWindow.size();
+        if (!oldWindow.isEmpty()) {
+            RecordRow anchor = oldWindow.get(oldWindow.size() - 1);
+            for (int j = 0; j < loaded.size(); j++) {
+                if (!RowDiff.sameRow(loaded.get(j), anchor)) continue;
+                if (newCount - (j + 1) <= oldTail) {
+                    List<RecordRow> newWindow = loaded.subList(0, j + 1);
+                    return new Refresh(RowDiff.calculate(oldWindow, newWindow), oldWindow.size(), oldCount,
+                            newWindow.size(), newCount, true);
+                }
+                break;
+            }
+        }
+        return new Refresh(RowDiff.calculate(oldWindow, loaded), oldWindow.size(), oldCount,
+                loaded.size(), newCount, false);
+    }
+
+    /**
+     * 데이터가 바뀌었을 때 새로고침을 요청합니다. (변경 알림용)
+     * 이미 새로고침 중이면 진행 중인 조회를 취소하지 않고, 끝난 뒤 한 번만 더 새로고침합니다.
+     * 기록이 연달아 들어와도 조회가 계속 취소되어 화면이 멈추는 일 없이 최대 두 번으로 합쳐집니다.
+     */
+    public void requestRefresh() {
+        if (refreshing) refreshPending = true;
+        else refresh();
+    }
+
+    /** 0번 페이지부터 빠짐없이 캐시된 페이지들을 이어 붙인 행 목록 (refresh 비교 기준) */
+    private List<RecordRow> currentWindow() {
+        List<RecordRow> window = new ArrayList<>();
+        for (int pageIndex = 0; ; pageIndex++) {
+            List<RecordRow> page = pages.get(pageIndex);
+            if (page == null) break;
+            window.addAll(page);
+            if (page.size() < pageSize) break; // 마지막 페이지
+        }
+        return window;
+    }
+
+    /**
+     * 대기 중인 조회를 취소하고 캐시와 행 수를 비웁니다. (다른 목록으로 바꾼 뒤 처음부터 다시 보여 줄 때)
+     */
+    public void reset() {
+        cancel();
+        pages.clear();
+        count = 0;
+    }
+
+    /**
+     * 대기 중이거나 실행 중인 조회 결과를 모두 버립니다. (탭 전환, 화면 종료 시)
+     * @return 새 세대 번호
+     */
+    public int cancel() {
+        loading.clear();
+        refreshing = false;
+        refreshPending = false;
+        return ++generation;
+    }
+
+    /** 전체 행 수 (마지막으로 refresh가 끝난 시점 기준) */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * position 위치의 행을 반환합니다. 해당 페이지가 캐시에 없으면 background에서 읽도록 요청합니다.
+     * @return 행, 아직 읽지 않았거나 데이터가 그 사이 줄어들어 해당 위치에 행이 없으면 null
+     */
+    public RecordRow get(int position) {
+        if (position < 0 || position >= count) return null;
+        int pageIndex = position / pageSize;
+        List<RecordRow> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            page = pages.get(pageIndex); // 동기 Executor(테스트)라면 이미 도착해 있음
+            if (page == null) return null;
+        }
+        int index = position - pageIndex * pageSize;
+        return index < page.size() ? page.get(index) : null;
+    }
+
+    private void requestPage(int pageIndex) {
+        if (!loading.add(pageIndex)) return; // 이미 읽는 중
+        final int gen = generation;
+        // 앞 페이지의 마지막 행은 메인 스레드에서 미리 꺼내 둠 (캐시는 메인 스레드 전용)
+        List<RecordRow> previous = pageIndex > 0 ? pages.get(pageIndex - 1) : null;
+        final RecordRow last = previous != null && previous.size() == pageSize ? previous.get(pageSize - 1) : null;
+        final boolean keyset = pageIndex == 0 || last != null;
+        background.execute(() -> {
+            if (gen != generation) return;
+            List<RecordRow> page;
+            if (pageIndex == 0) page = loader.loadFirst(pageSize);
+            else if (last != null) page = loader.loadAfter(last, pageSize);
+            else page = loader.loadAt(pageIndex * pageSize, pageSize);
+            mainThread.execute(() -> {
+                if (gen != generation) return;
+                if (keyset) keysetLoads++;
+                else offsetLoads++;
+                loading.remove(pageIndex);
+                pages.put(pageIndex, page);
+                if (listener != null) listener.onRowsLoaded(pageIndex * pageSize, page.size());
+            });
+        });
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /** 현재 메모리에 있는 페이지 수 */
+    public int getCachedPageCount() {
+        return pages.size();
+    }
+
+    /** keyset(첫 페이지 포함)으로 읽은 페이지 수 */
+    public long getKeysetLoadCount() {
+        return keysetLoads;
+    }
+
+    /** OFFSET으로 읽은 페이지 수 */
+    public long getOffsetLoadCount() {
+        return offsetLoads;
+    }
+
+    /** 마지막 refresh()부터 첫 페이지가 도착할 때까지 걸린 시간 (아직 없으면 -1) */
+    public long getLastTimeToFirstRowNanos() {
+        return lastTimeToFirstRowNanos;
+    }
+
+    /**
+     * refresh() 한 번의 결과입니다. 앞쪽 창의 diff와 창 뒤쪽(아직 읽지 않은 부분)의 행 수 변화를 함께 담습니다.
+     */
+    public static final class Refresh {
+        private final RowDiff windowDiff;
+        private final int oldWindowSize, oldCount, newWindowSize, newCount;
+        private final boolean tailUnchanged;
+        private long timeToFirstRowNanos = -1;
+
+        Refresh(RowDiff windowDiff, int oldWindowSize, int oldCount, int newWindowSize, int newCount,
+                boolean tailUnchanged) {
+            this.windowDiff = windowDiff;
+            this.oldWindowSize = oldWindowSize;
+            this.oldCount = oldCount;
+            this.newWindowSize = newWindowSize;
+            this.newCount = newCount;
+            this.tailUnchanged = tailUnchanged;
+        }
+
+        /**
+         * 이전 목록(oldCount개)을 새 목록(newCount개)으로 바꾸는 연산을 순서대로 전달합니다.
+         * 창 안은 행 단위 diff로 전달하고, 창 뒤쪽은 행 수 차이만큼 끝에서 삽입/삭제합니다.
+         * 창 뒤쪽이 그대로라는 보장이 없으면 남은 부분도 다시 그리도록(변경) 알립니다. (화면에 보이는 행만 실제로 다시 그려짐)
+         */
+        public void dispatchTo(RowDiff.UpdateCallback callback) {
+            windowDiff.dispatchTo(callback); // 이제 목록 = 새 창 + 이전 꼬리
+            int oldTail = oldCount - oldWindowSize;
+            int newTail = newCount - newWindowSize;
+            int common = Math.min(oldTail, newTail);
+            if (!tailUnchanged && common > 0) callback.onChanged(newWindowSize, common);
+            if (newTail > oldTail) callback.onInserted(newWindowSize + oldTail, newTail - oldTail);
+            else if (oldTail > newTail) callback.onRemoved(newWindowSize + newTail, oldTail - newTail);
+        }
+
+        public int getSize() {
+            return newCount;
+        }
+
+        /** 창 안에서 발생한 삽입/삭제/변경 범위 수 */
+        public int getWindowOperationCount() {
+            return windowDiff.size();
+        }
+
+        public long getTimeToFirstRowNanos() {
+            return timeToFirstRowNanos;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.sankegamerecord.Adapter;
+
+/**
+ * RecordRow를 화면 표시용 문자열로 만드는 포맷터입니다.
+ * String.format 대신 StringBuilder에 직접 이어 붙이므로, 한 StringBuilder를 재사용하면 행마다 포맷 객체를 만들지 않습니다.
+ * <p>
+ * 랭킹 행: "1. 2025-11-13T17:11 01:30.123"
+ * 기록 행: "2025-11-13T17:11 01:30.123 성공"
+ * 보드 주소가 있는 기록은 뒤에 주소 끝자리를 붙입니다. (예: "... 성공 @EE:FF")
+ */
+public final class RecordFormatter {
+
+    // 보드 주소(MAC) 중 표시할 끝자리 수 ("EE:FF")
+    private static final int DEVICE_LABEL_LENGTH = 5;
+
+    private RecordFormatter() {}
+
+    /** sb를 비우고 행 전체를 포맷합니다. */
+    public static CharSequence formatRow(RecordRow row, StringBuilder sb) {
+        sb.setLength(0);
+        GameRecord gr = row.record();
+        if (row.rank() > 0) sb.append(row.rank()).append(". ");
+        sb.append(gr.Playdate()).append(' ');
+        appendDuration(sb, gr.Playtime().toMillis());
+        if (row.rank() == 0) sb.append(' ').append(Boolean.TRUE.equals(gr.Success()) ? "성공" : "실패");
+        String device = gr.Device();
+        if (!device.isEmpty()) {
+            sb.append(" @").append(device, Math.max(0, device.length() - DEVICE_LABEL_LENGTH), device.length());
+        }
+        return sb;
+    }
+
+    /** 플레이 시간(밀리초)을 "분:초.밀리초" 형태로 붙입니다. (예: "01:30.123") */
+    public static StringBuilder appendDuration(StringBuilder sb, long millis) {
+        long minutes = millis / 60_000;
+        int seconds = (int) (millis / 1000 % 60);
+        int ms = (int) (millis % 1000);
+        if (minutes < 10) sb.append('0');
+        sb.append(minutes).append(':');
+        if (seconds < 10) sb.append('0');
+        sb.append(seconds).append('.');
+        if (ms < 100) sb.append('0');
+        if (ms < 10) sb.append('0');
+        return sb.append(ms);
+    }
+}
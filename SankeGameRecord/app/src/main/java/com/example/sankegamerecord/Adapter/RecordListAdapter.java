@@ -5,38 +5,98 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.sankegamerecord.Background.PipelineMetrics;
 import com.example.sankegamerecord.R; // 리소스(레이아웃, ID 등) 접근 클래스
 
-import java.util.*;
-
 /**
  * RecyclerView를 위한 어댑터 클래스입니다.
- * 리스트 형태의 문자열 데이터(랭킹 또는 기록)를 받아 화면의 각 행(row)에 표시하는 역할을 합니다.
+ * 랭킹 또는 기록 행을 PagedRowSource에서 받아 화면의 각 행(row)에 표시하는 역할을 합니다.
+ * 행은 화면에 그려질 때(onBindViewHolder) 필요한 페이지만 읽어 오고, 그 자리에서 문자열로 포맷합니다.
+ * 새로고침 결과는 background에서 계산한 diff(RowDiff)로 바뀐 범위만 알리므로, 움직이지 않은 행은 다시 그리지 않습니다.
  * RecyclerView를 사용하려면 반드시 이 Adapter, ViewHolder, LayoutManager 세 가지 구성요소가 필요합니다.
  */
-public class RecordListAdapter extends RecyclerView.Adapter<RecordListAdapter.ViewHolder> {
+public class RecordListAdapter extends RecyclerView.Adapter<RecordListAdapter.ViewHolder>
+        implements PagedRowSource.Listener, RowDiff.UpdateCallback {
+
+    /** 새로고침(refresh)이 끝났을 때 알림을 받는 리스너 (새로고침 애니메이션 종료, 측정값 기록 등) */
+    public interface OnRefreshedListener {
+        void onRefreshed(int size, long timeToFirstRowNanos);
+    }
+
+    // 화면에 표시할 행을 페이지 단위로 읽어 오는 소스 (전체 목록을 메모리에 들고 있지 않음)
+    private PagedRowSource source;
+    private OnRefreshedListener onRefreshedListener;
+
+    // 행 문자열을 만들 때 재사용하는 버퍼 (UI 스레드 전용)
+    private final StringBuilder textBuffer = new StringBuilder(48);
+
+    /**
+     * 생성자: 소스 없이 빈 목록으로 시작합니다. (데이터베이스가 열린 뒤 setSource로 연결)
+     */
+    public RecordListAdapter() {
+    }
 
-    // 화면에 표시할 데이터를 담는 리스트 (문자열 형태, 예: "1위 2025-11-13 이름 01:30.123")
-    private List<String> dataList;
+    public void setOnRefreshedListener(OnRefreshedListener listener) {
+        this.onRefreshedListener = listener;
+    }
 
     /**
-     * 생성자: 초기 데이터를 받아 dataList를 초기화합니다.
-     * @param dataList 초기 문자열 데이터 리스트
+     * 표시할 행 소스를 바꾸고(탭 전환) 처음부터 다시 읽도록 합니다.
+     * 이전 소스에서 진행 중이던 조회는 취소됩니다.
+     * @param newSource 새로 표시할 행 소스
      */
-    public RecordListAdapter(List<String> dataList) {
-        // 불변성을 위해 외부 리스트를 복사하여 내부 리스트를 초기화합니다.
-        this.dataList = new ArrayList<>(dataList);
+    public void setSource(PagedRowSource newSource) {
+        int oldSize = getItemCount();
+        if (source != null) {
+            source.cancel();
+            source.setListener(null);
+        }
+        // 이전 목록은 통째로 지우고, 새 목록은 빈 상태에서 diff로 채움 (처음 도착한 행들이 한 번의 삽입으로 반영됨)
+        if (oldSize > 0) notifyItemRangeRemoved(0, oldSize);
+        this.source = newSource;
+        newSource.reset();
+        newSource.setListener(this);
+        newSource.refresh();
     }
 
     /**
-     * 어댑터가 관리하는 데이터 리스트를 완전히 새로운 데이터로 갱신합니다.
-     * @param newList 새로 표시할 문자열 데이터 리스트
+     * 현재 소스의 데이터를 background에서 다시 읽도록 합니다. (새로고침)
+     * 결과가 도착하면 onRefreshed에서 화면을 갱신합니다.
      */
-    public void updateData(List<String> newList) {
-        this.dataList.clear(); // 기존 데이터 삭제
-        this.dataList.addAll(newList); // 새 데이터 추가
-        // 데이터가 변경되었음을 RecyclerView에 알려 화면을 새로 그리도록 요청합니다.
-        notifyDataSetChanged();
+    public void refresh() {
+        if (source != null) source.refresh();
+    }
+
+    /** 전체 행 수와 앞쪽 행들이 도착함 (메인 스레드) → 바뀐 범위만 RecyclerView에 알림 */
+    @Override
+    public void onRefreshed(PagedRowSource.Refresh refresh) {
+        refresh.dispatchTo(this);
+        if (onRefreshedListener != null) {
+            onRefreshedListener.onRefreshed(refresh.getSize(), refresh.getTimeToFirstRowNanos());
+        }
+    }
+
+    // RowDiff.UpdateCallback: diff 결과를 RecyclerView 알림으로 그대로 전달
+
+    @Override
+    public void onInserted(int position, int count) {
+        notifyItemRangeInserted(position, count);
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        notifyItemRangeRemoved(position, count);
+    }
+
+    @Override
+    public void onChanged(int position, int count) {
+        notifyItemRangeChanged(position, count);
+    }
+
+    /** 요청했던 페이지가 도착함 (메인 스레드) → 그 범위만 다시 그림 */
+    @Override
+    public void onRowsLoaded(int position, int count) {
+        notifyItemRangeChanged(position, count);
     }
 
     /**
@@ -63,18 +123,21 @@ public class RecordListAdapter extends RecyclerView.Adapter<RecordListAdapter.Vi
      */
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        // dataList에서 position에 해당하는 문자열을 가져와 TextView에 설정합니다.
-        holder.textItem.setText(dataList.get(position));
+        // position에 해당하는 행을 가져와 그 자리에서 포맷합니다.
+        // 아직 읽지 않은 페이지면 background 조회를 요청하고 빈 행으로 두었다가 도착하면 다시 그립니다.
+        RecordRow row = source != null ? source.get(position) : null;
+        holder.textItem.setText(row != null ? RecordFormatter.formatRow(row, textBuffer).toString() : "");
+        if (row != null) PipelineMetrics.getInstance().rowBound(row.record()); // 새로 커밋된 기록이면 지연 시간 기록
     }
 
     /**
      * 어댑터가 관리하는 전체 아이템(행)의 개수를 반환합니다.
      * RecyclerView는 이 값을 바탕으로 화면에 몇 개의 행을 표시해야 할지 결정합니다.
-     * @return 데이터 리스트의 크기
+     * @return 전체 행 수
      */
     @Override
     public int getItemCount() {
-        return dataList.size();
+        return source != null ? source.size() : 0;
     }
 
     /**
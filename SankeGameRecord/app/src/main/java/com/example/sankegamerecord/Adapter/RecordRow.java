@@ -0,0 +1,13 @@
+package com.example.sankegamerecord.Adapter;
+
+/**
+ * 목록 화면의 한 행입니다. 표시용 문자열이 아니라 원본 기록을 들고 있다가 화면에 그릴 때 포맷합니다.
+ * @param id     데이터베이스 행 ID (페이지 경계 키로 사용)
+ * @param rank   랭킹 순위 (1위부터), 랭킹 행이 아니면 0
+ * @param record 게임 기록
+ */
+public record RecordRow(
+        long id,
+        int rank,
+        GameRecord record
+){}
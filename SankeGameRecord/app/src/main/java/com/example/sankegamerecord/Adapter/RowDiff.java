@@ -0,0 +1,180 @@
+package com.example.sankegamerecord.Adapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 두 행 목록의 차이를 계산해 RecyclerView의 notifyItemRange*() 호출 순서로 바꿔 주는 diff입니다.
+ * <p>
+ * 행은 (종류, 데이터베이스 id)로 같은 행인지 판단하고, 같은 행의 내용(순위, 기록)이 바뀌었으면 변경으로 봅니다.
+ * Myers O((N+M)·D) 알고리즘이라 새 게임 한 판처럼 차이(D)가 작으면 목록 길이에 거의 비례하는 시간에 끝납니다.
+ * 계산은 background 스레드에서 하고, 결과(dispatchTo)만 메인 스레드에서 적용합니다.
+ */
+public final class RowDiff {
+
+    /** 변경 내용을 받는 콜백 (RecyclerView.Adapter의 notifyItemRange*에 그대로 연결) */
+    public interface UpdateCallback {
+        void onInserted(int position, int count);
+
+        void onRemoved(int position, int count);
+
+        void onChanged(int position, int count);
+    }
+
+    private static final int INSERT = 0, REMOVE = 1, CHANGE = 2;
+
+    // 적용 순서대로 기록된 연산 (종류, 위치, 개수)
+    private final int[] ops;
+    private final int opCount;
+
+    private RowDiff(int[] ops, int opCount) {
+        this.ops = ops;
+        this.opCount = opCount;
+    }
+
+    /** 연산 수 (삽입/삭제/변경 범위의 개수) */
+    public int size() {
+        return opCount;
+    }
+
+    /** 변경 내용을 콜백에 순서대로 전달합니다. 위치는 전달 시점의 목록 기준입니다. */
+    public void dispatchTo(UpdateCallback callback) {
+        for (int i = 0; i < opCount; i++) {
+            int type = ops[i * 3], position = ops[i * 3 + 1], count = ops[i * 3 + 2];
+            switch (type) {
+                case INSERT: callback.onInserted(position, count); break;
+                case REMOVE: callback.onRemoved(position, count); break;
+                default: callback.onChanged(position, count); break;
+            }
+        }
+    }
+
+    /** 같은 행인지 (랭킹 행과 기록 행은 id가 같아도 다른 행) */
+    static boolean sameRow(RecordRow a, RecordRow b) {
+        return a.id() == b.id() && (a.rank() > 0) == (b.rank() > 0);
+    }
+
+    /** 같은 행의 표시 내용이 같은지 */
+    static boolean sameContent(RecordRow a, RecordRow b) {
+        return a.rank() == b.rank() && Objects.equals(a.record(), b.record());
+    }
+
+    /**
+     * before를 after로 바꾸는 연산을 계산합니다.
+     */
+    public static RowDiff calculate(List<RecordRow> before, List<RecordRow> after) {
+        int n = before.size(), m = after.size();
+        int[] matches = lcs(before, after); // (oldIndex, newIndex) 쌍, 오름차순
+        int matchCount = matches.length / 2;
+
+        Builder out = new Builder();
+        // 뒤에서부터 적용해야 앞쪽 위치가 바뀌지 않음
+        int nextOld = n, nextNew = m;
+        for (int i = matchCount; i >= 0; i--) {
+            int oldIndex = i > 0 ? matches[(i - 1) * 2] : -1;
+            int newIndex = i > 0 ? matches[(i - 1) * 2 + 1] : -1;
+            int removed = nextOld - oldIndex - 1;
+            int inserted = nextNew - newIndex - 1;
+            if (removed > 0) out.add(REMOVE, oldIndex + 1, removed);
+            if (inserted > 0) out.add(INSERT, oldIndex + 1, inserted);
+            if (i > 0 && !sameContent(before.get(oldIndex), after.get(newIndex))) {
+                out.add(CHANGE, oldIndex, 1);
+            }
+            nextOld = oldIndex;
+            nextNew = newIndex;
+        }
+        return new RowDiff(out.ops, out.count);
+    }
+
+    /**
+     * Myers 알고리즘으로 최장 공통 부분열(같은 행 기준)을 구합니다.
+     * @return (oldIndex, newIndex) 쌍을 이어 붙인 배열, 오름차순
+     */
+    private static int[] lcs(List<RecordRow> a, List<RecordRow> b) {
+        int n = a.size(), m = b.size();
+        int max = n + m;
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+
+        int found = -1;
+        for (int d = 0; d <= max && found < 0; d++) {
+            // 이번 단계가 읽는 범위(k-1..k+1, k = -d..d)만 저장
+            int[] snapshot = new int[2 * d + 3];
+            System.arraycopy(v, offset - d - 1, snapshot, 0, snapshot.length);
+            trace.add(snapshot);
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) x = v[offset + k + 1]; // 삽입
+                else x = v[offset + k - 1] + 1; // 삭제
+                int y = x - k;
+                while (x < n && y < m && sameRow(a.get(x), b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    found = d;
+                    break;
+                }
+            }
+        }
+
+        // 역추적: 대각선(같은 행) 구간을 모음
+        int[] pairs = new int[2 * Math.min(n, m)];
+        int count = 0;
+        int x = n, y = m;
+        for (int d = found; d >= 0; d--) {
+            int[] snap = trace.get(d); // snap[k + d + 1] = 단계 d 직전의 v[k]
+            int k = x - y;
+            int prevK = (k == -d || (k != d && snap[k - 1 + d + 1] < snap[k + 1 + d + 1])) ? k + 1 : k - 1;
+            int prevX = snap[prevK + d + 1];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+                pairs[count * 2] = x;
+                pairs[count * 2 + 1] = y;
+                count++;
+            }
+            x = prevX;
+            y = prevY;
+        }
+
+        // 뒤에서부터 모았으므로 뒤집어서 반환
+        int[] result = new int[count * 2];
+        for (int i = 0; i < count; i++) {
+            result[i * 2] = pairs[(count - 1 - i) * 2];
+            result[i * 2 + 1] = pairs[(count - 1 - i) * 2 + 1];
+        }
+        return result;
+    }
+
+    /** 연산 목록을 쌓으면서 인접한 같은 종류의 연산은 하나의 범위로 합칩니다. */
+    private static final class Builder {
+        int[] ops = new int[3 * 8];
+        int count;
+
+        void add(int type, int position, int itemCount) {
+            if (count > 0) {
+                int last = (count - 1) * 3;
+                // 뒤에서부터 적용하므로 바로 앞 위치의 같은 종류 연산이면 범위를 앞으로 넓힘
+                if (ops[last] == type && type != INSERT && ops[last + 1] == position + itemCount) {
+                    ops[last + 1] = position;
+                    ops[last + 2] += itemCount;
+                    return;
+                }
+            }
+            if ((count + 1) * 3 > ops.length) {
+                int[] grown = new int[ops.length * 2];
+                System.arraycopy(ops, 0, grown, 0, ops.length);
+                ops = grown;
+            }
+            ops[count * 3] = type;
+            ops[count * 3 + 1] = position;
+            ops[count * 3 + 2] = itemCount;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,663 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 여러 보드(STM32 게임기)와 동시에 연결을 유지하며 기록을 수집하는 연결 관리자입니다.
+ * <p>
+ * - 보드마다 세션(Session) 하나를 두고, 세션은 자기 연결, 리더, FrameDecoder, ProtocolInterpreter를 따로 가집니다.
+ *   그래서 한 보드의 미완성 프레임이나 파싱 상태가 다른 보드에 섞이지 않습니다.
+ * - 리더는 IoWorkerPool의 스레드 하나에서 세션 작업으로 실행되며, 한 세션을 두 스레드가 동시에 읽을 수 없습니다.
+ *   shutdown()은 모든 연결을 닫고 I/O 스레드가 모두 끝날 때까지 기다립니다.
+ * - 파싱된 GameRecord에는 보낸 보드의 주소가 Device로 붙고, 모든 세션이 같은 RecordSink(수집 큐)로 넘깁니다.
+ * - 보드별로 수신 바이트, 프레임, 기록, 파싱 오류, 큐 거부 수 등의 통계를 제공합니다.
+ * - 연결이 끊기면 ReconnectPolicy에 따라 백오프하며 다시 연결합니다. 세션(과 일련번호 상태)은 재연결 사이에도 유지됩니다.
+ * <p>
+ * 프로토콜 버전 2 보드와는 일련번호로 전달을 보장합니다. (at-least-once, 형식은 WireProtocol 참고)
+ * - 수집 큐가 받은 기록만 ACK하므로, 큐가 가득 차 거부된 기록은 보드의 재전송 버퍼에 남습니다.
+ * - 일련번호가 건너뛰면 빠진 번호부터 다시 요청(RRQ)하고, HEARTBEAT마다 아직 채워지지 않은 구멍을 다시 요청합니다.
+ * - 재전송으로 같은 기록이 두 번 올 수 있으며, 이 경우 데이터베이스의 (playdate, device) 중복 검사가 걸러 냅니다.
+ * <p>
+ * FrameJournal을 주면 기록 프레임을 수집 큐에 넘기기(ACK하기) 전에 저널에 먼저 씁니다.
+ * ACK한 기록은 보드의 재전송 버퍼에서 지워지므로, 저장되기 전에 앱이 죽어도 저널에서 다시 읽을 수 있어야 합니다.
+ * <p>
+ * 실제 연결 방법(블루투스 RFCOMM 등)은 Connector로 주입합니다.
+ */
+public class BoardConnectionManager {
+
+    // 연결 상태 (BluetoothConnectionAdapter의 상태 값과 같음)
+    public static final int STATE_NONE = 0;
+    public static final int STATE_CONNECTED = 1;
+    public static final int STATE_DISCONNECTED = 2;
+    public static final int STATE_CONNECTING = 3;
+
+    /** 연결된 통신 채널 하나 (예: BluetoothSocket) */
+    public interface Link extends Closeable {
+        InputStream getInputStream() throws IOException;
+
+        OutputStream getOutputStream() throws IOException;
+    }
+
+    /** 주소로 보드에 연결합니다. 리더 스레드에서 호출되므로 오래 걸려도 됩니다. */
+    public interface Connector {
+        Link connect(String address) throws IOException;
+    }
+
+    /** 파싱된 기록을 받는 곳 (보통 RecordIngestPipeline). 받을 수 없으면 false */
+    public interface RecordSink {
+        boolean offer(GameRecord record);
+    }
+
+    /** 보드 연결 상태 변화 알림 (리더 스레드에서 호출) */
+    public interface StateListener {
+        void onStateChanged(String address, int state, String message);
+    }
+
+    private final Connector connector;
+    private final RecordSink sink;
+    private final StateListener stateListener;
+    private final ReconnectPolicy reconnectPolicy;
+    private final FrameJournal journal; // 없으면 null
+    private final Random random = new Random();
+    private final IoWorkerPool ioPool = new IoWorkerPool("BoardIo");
+    private final PipelineMetrics metrics = PipelineMetrics.getInstance();
+
+    // 주소 → 세션 (연결 순서 유지)
+    private final Map<String, Session> sessions = new LinkedHashMap<>();
+    // 끝난 세션까지 포함한 보드별 통계 (다시 연결해도 이어서 집계)
+    private final Map<String, BoardStats> stats = new LinkedHashMap<>();
+
+    /**
+     * @param reconnectPolicy 연결이 끊기거나 실패했을 때의 재연결 정책 (ReconnectPolicy.NONE이면 다시 연결하지 않음)
+     */
+    public BoardConnectionManager(Connector connector, RecordSink sink, StateListener stateListener,
+                                  ReconnectPolicy reconnectPolicy) {
+        this(connector, sink, stateListener, reconnectPolicy, null);
+    }
+
+    /**
+     * @param journal 수집 큐에 넘기기 전에 기록 프레임을 남길 저널 (null이면 쓰지 않음).
+     *                sink가 받은 기록은 저장한 뒤 journal.commit()으로 알려야 합니다.
+     */
+    public BoardConnectionManager(Connector connector, RecordSink sink, StateListener stateListener,
+                                  ReconnectPolicy reconnectPolicy, FrameJournal journal) {
+        this.connector = connector;
+        this.sink = sink;
+        this.stateListener = stateListener;
+        this.reconnectPolicy = reconnectPolicy;
+        this.journal = journal;
+    }
+
+    /**
+     * 보드에 연결을 시작합니다. 연결, 수신, 재연결은 I/O 스레드 하나에서 진행됩니다.
+     * @return 새로 연결을 시작했으면 true, 이미 연결 중이거나 연결된 보드거나 shutdown() 이후면 false
+     */
+    public synchronized boolean connect(String address) {
+        if (sessions.containsKey(address)) return false;
+        BoardStats boardStats = stats.get(address);
+        if (boardStats == null) {
+            boardStats = new BoardStats(address);
+            stats.put(address, boardStats);
+        }
+        Session session = new Session(address, boardStats);
+        sessions.put(address, session);
+        try {
+            ioPool.submit(address, session::run);
+        } catch (RejectedExecutionException e) {
+            sessions.remove(address); // 이미 종료됨
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 보드 하나의 연결을 끊습니다. 리더가 끝날 때까지 최대 timeoutMillis 기다립니다.
+     * timeoutMillis가 0 이하면 기다리지 않습니다. (종료는 StateListener로 알림)
+     */
+    public void disconnect(String address, long timeoutMillis) {
+        Session session;
+        synchronized (this) {
+            session = sessions.get(address);
+        }
+        if (session != null) session.stop(timeoutMillis);
+    }
+
+    /**
+     * 모든 보드의 연결을 끊습니다. 리더들이 끝날 때까지 합쳐서 최대 timeoutMillis 기다립니다.
+     * @return 모든 리더가 시간 안에 끝났으면 true
+     */
+    public boolean disconnectAll(long timeoutMillis) {
+        List<Session> all;
+        synchronized (this) {
+            all = new ArrayList<>(sessions.values());
+        }
+        for (Session session : all) session.close(); // 먼저 모두 닫고
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        boolean finished = true;
+        for (Session session : all) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            finished &= session.join(Math.max(remaining, 1)); // 리더 종료를 기다림
+        }
+        return finished;
+    }
+
+    /**
+     * 모든 연결을 끊고 I/O 스레드 풀을 종료합니다. 이후 connect()는 false를 반환합니다. (서비스 종료 시)
+     * @return 시간 안에 모든 I/O 스레드가 끝났으면 true
+     */
+    public boolean shutdown(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (this) {
+            // 닫는 도중 새 세션이 시작되지 않게 먼저 막음 (이미 넣은 작업은 그대로 실행됨)
+            ioPool.shutdown(0);
+        }
+        boolean sessionsDone = disconnectAll(timeoutMillis);
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        return ioPool.shutdown(Math.max(remaining, 1)) && sessionsDone;
+    }
+
+    /** 보드 I/O 스레드 풀 (살아 있는 스레드 수 등 확인용) */
+    public IoWorkerPool getIoWorkerPool() {
+        return ioPool;
+    }
+
+    /** 현재 연결된 보드 주소 목록 (재연결을 기다리는 보드는 제외) */
+    public synchronized List<String> getConnectedAddresses() {
+        List<String> connected = new ArrayList<>();
+        for (Session session : sessions.values()) {
+            if (session.state == STATE_CONNECTED) connected.add(session.address);
+        }
+        return connected;
+    }
+
+    /** 연결 중이거나, 연결됐거나, 재연결을 기다리는 보드 수 */
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    /** 보드별 통계 (한 번이라도 연결을 시도한 보드, 없으면 null) */
+    public synchronized BoardStats getStats(String address) {
+        return stats.get(address);
+    }
+
+    public synchronized List<BoardStats> getAllStats() {
+        return new ArrayList<>(stats.values());
+    }
+
+    private synchronized void removeSession(Session session) {
+        if (sessions.get(session.address) == session) sessions.remove(session.address);
+    }
+
+    /**
+     * 보드 하나의 통계입니다. 해당 보드의 리더 스레드만 값을 바꾸고, 다른 스레드는 읽기만 합니다.
+     */
+    public static final class BoardStats {
+        private final String address;
+        volatile long bytesRead;
+        volatile long frames;
+        volatile long records;
+        volatile long ignoredFrames;  // 기록이 아닌 프레임 (HEARTBEAT 등)
+        volatile long parseErrors;
+        volatile long rejected;       // 수집 큐가 받지 못한 기록
+        volatile long journalErrors;  // 저널에 쓰지 못하고 넘긴 기록
+        volatile long droppedFrames;  // 디코더가 버린 프레임 (최대 길이 초과)
+        volatile long connects;
+        volatile long connectFailures;
+        volatile long reconnects;      // 끊기거나 실패한 뒤 다시 연결을 시도한 횟수
+        volatile long acks;            // 보낸 ACK 수
+        volatile long retransmitRequests; // 보낸 RRQ 수
+        volatile long duplicates;      // 이미 받은 일련번호라 버린 기록
+        volatile long lostRecords;     // 보드의 재전송 버퍼가 넘쳐 받지 못한 기록 (SYNC로 확인)
+        volatile long lastAcked = -1;  // 마지막으로 ACK한 일련번호
+        volatile long connectedSinceMillis;
+        volatile long connectedMillis; // 끝난 연결들의 연결 시간 합계
+        volatile long reads;           // read 호출 수
+        volatile long readBlockedNanos;    // read에서 블록된 시간 합계
+        volatile long maxReadBlockedNanos;
+        volatile long lastReadBlockedNanos;
+        volatile long readStartedNanos;    // 지금 블록 중인 read의 시작 시각 (read 중이 아니면 0)
+        volatile String lastError;
+
+        BoardStats(String address) {
+            this.address = address;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getFrameCount() {
+            return frames;
+        }
+
+        public long getRecordCount() {
+            return records;
+        }
+
+        public long getParseErrorCount() {
+            return parseErrors;
+        }
+
+        public long getRejectedCount() {
+            return rejected;
+        }
+
+        public long getJournalErrorCount() {
+            return journalErrors;
+        }
+
+        public long getDroppedFrameCount() {
+            return droppedFrames;
+        }
+
+        public long getConnectCount() {
+            return connects;
+        }
+
+        public long getConnectFailureCount() {
+            return connectFailures;
+        }
+
+        public long getReconnectCount() {
+            return reconnects;
+        }
+
+        public long getAckCount() {
+            return acks;
+        }
+
+        public long getRetransmitRequestCount() {
+            return retransmitRequests;
+        }
+
+        public long getDuplicateCount() {
+            return duplicates;
+        }
+
+        public long getLostRecordCount() {
+            return lostRecords;
+        }
+
+        /** 마지막으로 ACK한 일련번호, 일련번호를 쓰지 않는 보드면 -1 */
+        public long getLastAcked() {
+            return lastAcked;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+
+        /** 연결되어 있던 전체 시간 (현재 연결 포함, 밀리초) */
+        public long getConnectedMillis() {
+            long since = connectedSinceMillis;
+            return connectedMillis + (since > 0 ? System.currentTimeMillis() - since : 0);
+        }
+
+        public long getReadCount() {
+            return reads;
+        }
+
+        /** read에서 블록된 시간 합계 (밀리초) */
+        public long getReadBlockedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(readBlockedNanos);
+        }
+
+        /** read 한 번의 평균 블록 시간 (밀리초) */
+        public double getAverageReadBlockedMillis() {
+            long count = reads;
+            return count == 0 ? 0 : readBlockedNanos / 1e6 / count;
+        }
+
+        public long getMaxReadBlockedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxReadBlockedNanos);
+        }
+
+        public long getLastReadBlockedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(lastReadBlockedNanos);
+        }
+
+        /** 지금 진행 중인 read가 블록된 시간 (밀리초), read 중이 아니면 0 */
+        public long getCurrentReadBlockedMillis() {
+            long started = readStartedNanos;
+            return started == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        }
+
+        /** 연결되어 있던 시간 기준 초당 수신 바이트 */
+        public double getBytesPerSecond() {
+            long millis = getConnectedMillis();
+            return millis == 0 ? 0 : bytesRead * 1000.0 / millis;
+        }
+
+        @Override
+        public String toString() {
+            return "BoardStats{" + address + ", bytes=" + bytesRead
+                    + String.format(" (%.1f B/s)", getBytesPerSecond())
+                    + ", frames=" + frames + ", records=" + records + ", ignored=" + ignoredFrames
+                    + ", parseErrors=" + parseErrors + ", dropped=" + droppedFrames + ", rejected=" + rejected
+                    + (journalErrors > 0 ? ", journalErrors=" + journalErrors : "")
+                    + ", reads=" + reads + String.format(" (avg %.1f ms, max %d ms)",
+                    getAverageReadBlockedMillis(), getMaxReadBlockedMillis())
+                    + ", connects=" + connects + ", connectFailures=" + connectFailures + ", reconnects=" + reconnects
+                    + (lastAcked >= 0 ? ", lastAcked=" + lastAcked + ", rrq=" + retransmitRequests
+                    + ", duplicates=" + duplicates + ", lost=" + lostRecords : "")
+                    + (lastError != null ? ", lastError=" + lastError : "") + "}";
+        }
+    }
+
+    /**
+     * 보드 하나와의 연결입니다. I/O 스레드 하나(리더)가 연결, 수신, 재연결, 종료까지 모두 처리합니다.
+     * 아래 필드는 (stopping, state, link, reader 제외) 리더만 사용합니다.
+     */
+    private final class Session implements FrameDecoder.FrameListener {
+        final String address;
+        final BoardStats boardStats;
+        final FrameDecoder decoder = new FrameDecoder();
+        final ProtocolInterpreter interpreter;
+        // 이 세션을 읽고 있는 스레드. 한 번만 설정되므로 리더는 세션당 하나
+        private final AtomicReference<Thread> reader = new AtomicReference<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        volatile int state = STATE_CONNECTING;
+        private volatile boolean stopping;
+        private Link link; // this로 동기화
+
+        private OutputStream out;
+        private final byte[] command = new byte[WireProtocol.MAX_COMMAND_SIZE];
+
+        // 일련번호 상태 (재연결 사이에도 유지)
+        private long contiguous = -1;   // 이 번호까지는 빠짐없이 수집 큐에 넘김 (-1: 아직 모름)
+        private long highestSeen = -1;  // 받은 가장 큰 일련번호
+        private long requestedFrom = -1; // 마지막으로 RRQ한 번호 (같은 구멍을 프레임마다 다시 요청하지 않음)
+        private boolean receivedFrame;  // 이번 연결에서 프레임을 하나라도 받았는지
+
+        Session(String address, BoardStats boardStats) {
+            this.address = address;
+            this.boardStats = boardStats;
+            this.interpreter = new ProtocolInterpreter(address);
+        }
+
+        /** 연결을 닫아 블록된 read를 깨우고 리더가 끝날 때까지 기다림 */
+        void stop(long timeoutMillis) {
+            close();
+            join(timeoutMillis);
+        }
+
+        void close() {
+            stopping = true;
+            Link current;
+            synchronized (this) {
+                current = link;
+            }
+            closeQuietly(current);
+            // 재연결 대기 중이면 깨움. 리더가 세션을 끝낸 뒤의 스레드(다른 작업을 맡았을 수 있음)는 건드리지 않음
+            synchronized (this) {
+                Thread thread = reader.get();
+                if (thread != null && finished.getCount() > 0) thread.interrupt();
+            }
+        }
+
+        /** @return 리더가 끝났으면 true */
+        boolean join(long timeoutMillis) {
+            if (timeoutMillis <= 0) return finished.getCount() == 0;
+            try {
+                return finished.await(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /** 풀 스레드에서 세션이 끝날 때까지 실행됨 */
+        void run() {
+            if (!reader.compareAndSet(null, Thread.currentThread())) {
+                throw new IllegalStateException("session " + address + " already has a reader");
+            }
+            String endMessage = "reader failed";
+            try {
+                endMessage = receiveLoop();
+            } finally {
+                // 수신 루프가 예외로 끝나도 세션을 목록에서 빼야 같은 보드에 다시 연결할 수 있음
+                state = stopping ? STATE_NONE : STATE_DISCONNECTED;
+                removeSession(this);
+                try {
+                    stateListener.onStateChanged(address, state, endMessage);
+                } finally {
+                    synchronized (this) {
+                        finished.countDown();
+                    }
+                }
+            }
+        }
+
+        /** @return 세션이 끝난 이유 */
+        private String receiveLoop() {
+            long droppedBase = boardStats.droppedFrames;
+            boolean everConnected = false;
+            int failures = 0;
+            String endMessage = "disconnect";
+            while (!stopping) {
+                state = STATE_CONNECTING;
+                stateListener.onStateChanged(address, STATE_CONNECTING, address);
+                String error = connectAndReceive(droppedBase);
+                if (state == STATE_CONNECTED) everConnected = true;
+                if (stopping) break;
+
+                // 보드가 실제로 데이터를 보냈던 연결이면 백오프를 처음부터 다시 시작
+                failures = receivedFrame ? 1 : failures + 1;
+                long delay = reconnectPolicy.delayMillis(failures, everConnected, random);
+                if (delay < 0) {
+                    endMessage = error;
+                    break;
+                }
+                boardStats.reconnects++;
+                state = STATE_CONNECTING;
+                stateListener.onStateChanged(address, STATE_CONNECTING, error + " (reconnect in " + delay + " ms)");
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    if (stopping) break;
+                }
+            }
+            return endMessage;
+        }
+
+        /**
+         * 한 번 연결해서 끊길 때까지 수신합니다.
+         * @return 연결이 끝난 이유
+         */
+        private String connectAndReceive(long droppedBase) {
+            Link opened = null;
+            String reason = "connection closed by board";
+            receivedFrame = false;
+            try {
+                opened = connector.connect(address);
+                synchronized (this) {
+                    link = opened;
+                }
+                if (stopping) return "disconnect"; // 연결되는 사이에 끊기 요청
+                InputStream in = opened.getInputStream();
+                out = opened.getOutputStream();
+                decoder.reset(); // 이전 연결에서 끊긴 미완성 프레임은 버림
+
+                // 바이너리 프로토콜 요청 (구 펌웨어는 무시하고 텍스트 프레임을 계속 보냄)
+                // 버전 2 보드는 SYNC로 답하고 아직 ACK받지 못한 기록을 다시 보냄
+                out.write(WireProtocol.HELLO_FRAME);
+                out.flush();
+
+                boardStats.connects++;
+                boardStats.connectedSinceMillis = System.currentTimeMillis();
+                state = STATE_CONNECTED;
+                stateListener.onStateChanged(address, STATE_CONNECTED, address);
+
+                int read;
+                while (!stopping && (read = timedRead(in)) >= 0) {
+                    boardStats.bytesRead += read;
+                    boardStats.droppedFrames = droppedBase + decoder.getDroppedFrameCount();
+                }
+            } catch (IOException e) {
+                reason = String.valueOf(e.getMessage());
+                if (!stopping) {
+                    boardStats.lastError = e.toString();
+                    if (state == STATE_CONNECTING) boardStats.connectFailures++;
+                }
+            } finally {
+                synchronized (this) {
+                    link = null;
+                }
+                out = null;
+                closeQuietly(opened);
+                long since = boardStats.connectedSinceMillis;
+                if (since > 0) {
+                    boardStats.connectedMillis += System.currentTimeMillis() - since;
+                    boardStats.connectedSinceMillis = 0;
+                }
+            }
+            return reason;
+        }
+
+        /** read 한 번이 블록된 시간을 재며 읽음 (프레임 처리 시간 포함) */
+        private int timedRead(InputStream in) throws IOException {
+            long started = System.nanoTime();
+            boardStats.readStartedNanos = started;
+            try {
+                return decoder.readFrom(in, this);
+            } finally {
+                long blocked = System.nanoTime() - started;
+                boardStats.readStartedNanos = 0;
+                boardStats.reads++;
+                boardStats.readBlockedNanos += blocked;
+                boardStats.lastReadBlockedNanos = blocked;
+                if (blocked > boardStats.maxReadBlockedNanos) boardStats.maxReadBlockedNanos = blocked;
+            }
+        }
+
+        /** 리더 스레드: 완성된 프레임 하나를 해석해 수집 큐로 넘김 */
+        @Override
+        public void onFrame(byte[] buffer, int offset, int length) {
+            long frameNanos = System.nanoTime();
+            boardStats.frames++;
+            receivedFrame = true;
+            GameRecord record = interpreter.makeRecord(buffer, offset, length);
+            if (record == null) {
+                if (interpreter.getLastStatus() != RplFrameParser.Status.NOT_RPL) {
+                    boardStats.parseErrors++;
+                    return;
+                }
+                boardStats.ignoredFrames++;
+                long sync = WireProtocol.parseSync(buffer, offset, length);
+                if (sync >= 0) onSync(sync);
+                else requestMissing(true); // HEARTBEAT 등: 아직 채워지지 않은 구멍이 있으면 다시 요청
+                return;
+            }
+            boardStats.records++;
+            metrics.frameParsed(record, frameNanos);
+            long seq = interpreter.getLastSequence();
+            if (seq < 0) {
+                // 일련번호 없는 보드 (텍스트, 바이너리 버전 1): 전달 보장 없이 그대로 넘김
+                deliver(record, buffer, offset, length);
+                return;
+            }
+            if (contiguous < 0) contiguous = seq - 1; // SYNC 없이 시작한 경우
+            if (seq <= contiguous) {
+                boardStats.duplicates++;
+                sendCommand(WireProtocol.ACK_PREFIX, contiguous); // ACK가 유실됐을 수 있으므로 다시 알림
+                return;
+            }
+            highestSeen = Math.max(highestSeen, seq);
+            if (!deliver(record, buffer, offset, length)) {
+                // ACK하지 않으면 보드의 재전송 버퍼에 남아 있다가 다음 RRQ나 재연결 때 다시 옴
+                return;
+            }
+            if (seq == contiguous + 1) {
+                contiguous = seq;
+                sendCommand(WireProtocol.ACK_PREFIX, contiguous);
+                boardStats.acks++;
+                boardStats.lastAcked = contiguous;
+            } else {
+                requestMissing(false);
+            }
+        }
+
+        /** 저널에 남긴 뒤 수집 큐로 넘김. 큐가 받지 못하면 저널에서도 뺌 */
+        private boolean deliver(GameRecord record, byte[] buffer, int offset, int length) {
+            if (journal != null) {
+                try {
+                    journal.append(address, buffer, offset, length, record);
+                } catch (IOException e) {
+                    // 저널을 쓸 수 없으면(디스크 가득 참 등) 저널 없이 예전처럼 넘김
+                    boardStats.journalErrors++;
+                    boardStats.lastError = e.toString();
+                }
+            }
+            if (sink.offer(record)) return true;
+            if (journal != null) journal.discard(record);
+            boardStats.rejected++;
+            return false;
+        }
+
+        /** 보드가 알려 준 가장 오래된 미확인 번호에 맞춤 (연결 직후, 또는 RRQ한 번호가 버퍼에서 밀려났을 때) */
+        private void onSync(long firstUnacked) {
+            if (contiguous >= 0 && firstUnacked > contiguous + 1) {
+                // 앱이 받지 못한 기록이 보드 버퍼에서도 밀려남 (끊긴 동안 버퍼보다 많은 게임)
+                boardStats.lostRecords += firstUnacked - 1 - contiguous;
+            }
+            // 보드가 재시작했으면 번호가 처음부터 다시 시작하므로 그대로 따름
+            contiguous = firstUnacked - 1;
+            highestSeen = contiguous;
+            requestedFrom = -1;
+        }
+
+        /**
+         * contiguous 다음 번호가 빠져 있으면 재전송을 요청합니다.
+         * @param retry 이미 요청한 구멍도 다시 요청할지 (HEARTBEAT 주기의 재시도). false면 새 구멍만 요청
+         */
+        private void requestMissing(boolean retry) {
+            if (contiguous < 0 || highestSeen <= contiguous) return;
+            long from = contiguous + 1;
+            if (from == requestedFrom && !retry) return;
+            requestedFrom = from;
+            sendCommand(WireProtocol.RRQ_PREFIX, from);
+            boardStats.retransmitRequests++;
+        }
+
+        private void sendCommand(byte[] prefix, long sequence) {
+            OutputStream current = out;
+            if (current == null) return;
+            try {
+                int n = WireProtocol.encodeCommand(prefix, sequence, command, 0);
+                current.write(command, 0, n);
+                current.flush();
+            } catch (IOException e) {
+                // 연결이 끊김: read가 곧 실패하며 재연결하고, 보드는 SYNC부터 다시 보냄
+                boardStats.lastError = e.toString();
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // 이미 닫힘
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.sankegamerecord.Background;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * 한쪽 스레드가 쓰고 다른 쪽 스레드가 읽는 고정 크기 바이트 파이프입니다. (메모리 안의 소켓 한 방향)
+ * <p>
+ * - 가득 차면 write가 기다리므로 실제 연결처럼 받는 쪽이 느리면 보내는 쪽도 느려집니다.
+ * - 어느 쪽이든 close()하면, 읽는 쪽은 남은 바이트를 다 읽은 뒤 -1을 받고 쓰는 쪽은 IOException을 받습니다.
+ * - java.io.PipedInputStream과 달리 쓰는 스레드가 끝나도 파이프가 깨지지 않습니다.
+ */
+public final class BytePipe {
+
+    public static final int DEFAULT_CAPACITY = 16 * 1024;
+
+    private final byte[] buffer;
+    private int head;  // 다음에 읽을 위치
+    private int count; // 들어 있는 바이트 수
+    private boolean closed;
+
+    private final InputStream in = new PipeInputStream();
+    private final OutputStream out = new PipeOutputStream();
+
+    public BytePipe() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BytePipe(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("invalid capacity: " + capacity);
+        this.buffer = new byte[capacity];
+    }
+
+    /** 읽는 쪽 */
+    public InputStream getInputStream() {
+        return in;
+    }
+
+    /** 쓰는 쪽 */
+    public OutputStream getOutputStream() {
+        return out;
+    }
+
+    /** 양쪽을 모두 닫습니다. 기다리고 있는 read/write를 깨웁니다. */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        while (count == 0) {
+            if (closed) return -1;
+            await();
+        }
+        int n = Math.min(len, count);
+        int first = Math.min(n, buffer.length - head); // 버퍼 끝까지
+        System.arraycopy(buffer, head, b, off, first);
+        System.arraycopy(buffer, 0, b, off + first, n - first);
+        head = (head + n) % buffer.length;
+        count -= n;
+        notifyAll(); // 공간이 생김
+        return n;
+    }
+
+    private synchronized void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (closed) throw new IOException("pipe closed");
+            if (count == buffer.length) {
+                await();
+                continue;
+            }
+            int tail = (head + count) % buffer.length;
+            int n = Math.min(len, Math.min(buffer.length - count, buffer.length - tail));
+            System.arraycopy(b, off, buffer, tail, n);
+            count += n;
+            off += n;
+            len -= n;
+            notifyAll(); // 읽을 것이 생김
+        }
+    }
+
+    private synchronized int available() {
+        return count;
+    }
+
+    private void await() throws InterruptedIOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted");
+        }
+    }
+
+    private final class PipeInputStream extends InputStream {
+        private final byte[] one = new byte[1];
+
+        @Override
+        public int read() throws IOException {
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return BytePipe.this.read(b, off, len);
+        }
+
+        @Override
+        public int available() {
+            return BytePipe.this.available();
+        }
+
+        @Override
+        public void close() {
+            BytePipe.this.close();
+        }
+    }
+
+    private final class PipeOutputStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            BytePipe.this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            BytePipe.this.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            BytePipe.this.close();
+        }
+    }
+}
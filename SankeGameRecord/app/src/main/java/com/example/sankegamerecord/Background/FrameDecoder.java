@@ -0,0 +1,222 @@
+package com.example.sankegamerecord.Background;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 블루투스 스트림에서 '\n'으로 끝나는 텍스트 프레임과 SOF로 시작하는 바이너리 프레임(WireProtocol)을
+ * 바이트 단위로 잘라내는 증분(incremental) 디코더입니다. 두 형식은 프레임마다 첫 바이트로 자동 구분됩니다.
+ * <p>
+ * 소켓에서 읽은 바이트를 내부 버퍼에 그대로 쌓고, 구분자 탐색은 직전에 멈춘 위치부터 이어서 진행합니다.
+ * 완성된 프레임은 복사하지 않고 (버퍼, 시작 위치, 길이) 슬라이스로 리스너에 전달되므로
+ * 프레임마다 String/byte[]를 새로 만들지 않습니다.
+ * <p>
+ * 한 연결(리더 스레드) 전용 객체이며 스레드 안전하지 않습니다.
+ */
+public final class FrameDecoder {
+
+    /** 프레임 최대 길이 기본값 (텍스트 RPL 프레임은 보통 40바이트 이하, 바이너리 프레임은 최대 261바이트) */
+    public static final int DEFAULT_MAX_FRAME_SIZE = 512;
+
+    /** InputStream.read() 한 번에 요청하는 최대 바이트 수 */
+    public static final int READ_CHUNK_SIZE = 1024;
+
+    /**
+     * 완성된 프레임을 전달받는 콜백입니다.
+     * 텍스트 프레임은 구분자와 앞뒤 공백을 뺀 부분이, 바이너리 프레임은 SOF부터 CRC까지 전체가 전달됩니다.
+     * 전달된 buffer는 디코더 내부 버퍼이므로 콜백이 반환된 뒤에는 내용이 바뀔 수 있습니다.
+     * 데이터를 보관해야 한다면 콜백 안에서 복사해야 합니다.
+     */
+    public interface FrameListener {
+        void onFrame(byte[] buffer, int offset, int length);
+    }
+
+    private final int maxFrameSize;
+    private final byte[] buffer;
+
+    private int start;      // 아직 전달되지 않은 프레임의 시작 위치
+    private int end;        // 유효 데이터의 끝 (다음에 쓸 위치)
+    private int scan;       // 구분자 탐색을 이어서 시작할 위치
+    private boolean discarding; // 최대 길이를 넘은 프레임을 다음 구분자까지 버리는 중인지
+
+    private long frameCount;
+    private long droppedFrameCount;
+
+    public FrameDecoder() {
+        this(DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    /**
+     * @param maxFrameSize 구분자를 제외한 프레임 최대 길이. 이보다 긴 프레임은 버려집니다.
+     */
+    public FrameDecoder(int maxFrameSize) {
+        if (maxFrameSize <= 0) {
+            throw new IllegalArgumentException("maxFrameSize must be positive: " + maxFrameSize);
+        }
+        this.maxFrameSize = maxFrameSize;
+        // 미완성 프레임(최대 maxFrameSize) 뒤에 항상 한 번의 read 분량이 들어갈 수 있도록 잡습니다.
+        this.buffer = new byte[maxFrameSize + READ_CHUNK_SIZE];
+    }
+
+    /**
+     * InputStream에서 한 번 읽어 내부 버퍼에 바로 채우고, 완성된 프레임을 모두 전달합니다.
+     * 중간 byte[] 복사 없이 소켓 데이터를 디코더 버퍼로 직접 읽어 들입니다.
+     *
+     * @return 읽은 바이트 수, 스트림이 끝났으면 -1
+     */
+    public int readFrom(InputStream in, FrameListener listener) throws IOException {
+        ensureWritable();
+        int read = in.read(buffer, end, Math.min(READ_CHUNK_SIZE, buffer.length - end));
+        if (read > 0) {
+            end += read;
+            drain(listener);
+        }
+        return read;
+    }
+
+    /**
+     * 외부에서 받은 바이트 배열을 디코더에 넣습니다. (테스트, 시뮬레이터 등 스트림이 아닌 입력용)
+     */
+    public void feed(byte[] src, int offset, int length, FrameListener listener) {
+        while (length > 0) {
+            ensureWritable();
+            int n = Math.min(length, buffer.length - end);
+            System.arraycopy(src, offset, buffer, end, n);
+            end += n;
+            offset += n;
+            length -= n;
+            drain(listener);
+        }
+    }
+
+    /** 지금까지 전달한 프레임 수 */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /** 최대 길이를 넘어 버려진 프레임 수 */
+    public long getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+
+    /** 버퍼에 남아 있는 미완성 데이터를 모두 버립니다. (재연결 시 사용) */
+    public void reset() {
+        start = end = scan = 0;
+        discarding = false;
+    }
+
+    /**
+     * 버퍼 끝에 여유가 없으면 미완성 프레임을 버퍼 앞으로 당깁니다.
+     * 미완성 프레임은 항상 maxFrameSize 이하이므로 당긴 뒤에는 read 한 번 분량의 공간이 보장됩니다.
+     */
+    private void ensureWritable() {
+        if (start == end) {
+            start = end = scan = 0;
+            return;
+        }
+        if (buffer.length - end >= READ_CHUNK_SIZE || start == 0) {
+            return;
+        }
+        int pending = end - start;
+        System.arraycopy(buffer, start, buffer, 0, pending);
+        scan -= start;
+        start = 0;
+        end = pending;
+    }
+
+    /**
+     * 직전 탐색 위치부터 완성된 프레임을 모두 전달합니다.
+     * 프레임 시작 바이트가 SOF이면 바이너리 프레임(길이 + CRC)으로, 아니면 '\n'으로 끝나는 텍스트 프레임으로 처리합니다.
+     */
+    private void drain(FrameListener listener) {
+        final byte[] buf = buffer;
+        int i = scan;
+        while (i < end) {
+            if ((buf[i] & 0xFF) == WireProtocol.SOF) {
+                if (i != start || discarding) {
+                    // 텍스트 도중 SOF를 만나면 앞부분은 잘린 프레임으로 보고 바이너리 프레임부터 다시 시작
+                    if (discarding || hasContent(start, i)) droppedFrameCount++;
+                    discarding = false;
+                    start = i;
+                }
+                int total = WireProtocol.frameLength(buf, start, end - start);
+                if (total > maxFrameSize) {
+                    // 처리할 수 없는 길이: SOF 한 바이트를 건너뛰고 재동기화
+                    droppedFrameCount++;
+                    start = ++i;
+                    continue;
+                }
+                if (total < 0 || end - start < total) break; // 나머지 바이트가 아직 도착하지 않음
+                if (WireProtocol.checkCrc(buf, start, total)) {
+                    frameCount++;
+                    listener.onFrame(buf, start, total);
+                    start += total;
+                } else {
+                    // CRC 오류: 길이 바이트가 깨졌을 수 있으므로 선언된 길이를 믿지 않고
+                    // SOF 한 바이트를 건너뛴 뒤 그 구간 안의 다음 SOF에서 재동기화 (없으면 구간 전체가 깨진 프레임)
+                    droppedFrameCount++;
+                    start = nextSof(start + 1, start + total);
+                }
+                i = start;
+                continue;
+            }
+            if (buf[i] != '\n') {
+                i++;
+                continue;
+            }
+            if (discarding) {
+                discarding = false;
+            } else if (i - start > maxFrameSize) {
+                droppedFrameCount++;
+            } else {
+                deliver(listener, start, i);
+            }
+            i++;
+            start = i;
+        }
+        scan = i;
+
+        // 구분자 없이 최대 길이를 넘으면 지금까지의 데이터를 버리고 다음 구분자까지 무시합니다.
+        if (end - start > maxFrameSize) {
+            if (!discarding) {
+                discarding = true;
+                droppedFrameCount++;
+            }
+            start = scan = end;
+        } else if (discarding) {
+            start = scan = end;
+        }
+    }
+
+    /** [from, to) 구간에서 처음 나오는 SOF 위치, 없으면 to */
+    private int nextSof(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((buffer[i] & 0xFF) == WireProtocol.SOF) return i;
+        }
+        return to;
+    }
+
+    /** 구간에 공백이 아닌 바이트가 있는지 */
+    private boolean hasContent(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isWhitespace(buffer[i])) return true;
+        }
+        return false;
+    }
+
+    /** 앞뒤 공백('\r' 포함)을 잘라낸 뒤 비어 있지 않은 프레임만 전달합니다. */
+    private void deliver(FrameListener listener, int from, int to) {
+        final byte[] buf = buffer;
+        while (from < to && isWhitespace(buf[from])) from++;
+        while (to > from && isWhitespace(buf[to - 1])) to--;
+        if (to > from) {
+            frameCount++;
+            listener.onFrame(buf, from, to - from);
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        // String.trim()과 동일하게 0x20 이하의 제어 문자를 공백으로 봅니다.
+        return (b & 0xFF) <= ' ';
+    }
+}
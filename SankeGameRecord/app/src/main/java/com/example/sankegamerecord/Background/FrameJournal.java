@@ -0,0 +1,560 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 수신한 기록 프레임을 데이터베이스에 저장하기 전에 먼저 남겨 두는 추가 전용(append-only) 저널입니다.
+ * <p>
+ * - 보드 리더 스레드가 프레임을 수집 큐에 넘기기(그리고 ACK하기) 전에 append()로 원본 프레임을 씁니다.
+ *   writer 스레드는 묶음을 커밋한 뒤 commit()으로 알리고, 그 앞까지의 위치를 체크포인트에 남깁니다.
+ * - 서비스가 커밋 전에 죽으면, 다음 시작 때 replay()가 체크포인트 뒤의 프레임을 다시 돌려줍니다.
+ *   이미 커밋됐지만 체크포인트가 따라가지 못한 기록도 다시 올 수 있으며, 데이터베이스의 중복 검사가 걸러 냅니다.
+ * - 세그먼트 파일(segmentSize 바이트)을 메모리 매핑해 씁니다. 프로세스가 강제 종료되어도 쓴 내용은
+ *   커널 페이지 캐시에 남아 파일에 기록됩니다. (전원이 꺼지는 경우는 force()한 곳까지만 보장)
+ * - 항목마다 CRC32를 두어, 쓰다가 끊긴 마지막 항목은 열 때 잘라 냅니다.
+ * - 세그먼트가 차면 다음 세그먼트로 넘어가고, 모두 커밋된 세그먼트 파일은 지웁니다.
+ *   그래서 저널 크기는 아직 커밋되지 않은 프레임 + 세그먼트 하나 정도로 유지됩니다.
+ * - 저장에 실패한 기록은 requeue()로 저널 끝에 다시 써 두고(보류), 세그먼트를 넘어갈 때마다 새 세그먼트로 옮깁니다.
+ *   그래서 보류된 기록이 있어도 그 뒤의 커밋이 체크포인트를 옮기고 지난 세그먼트를 지울 수 있습니다.
+ * <p>
+ * 세그먼트: [헤더: "SGRJ" + 버전 + 세그먼트 번호][항목]... 빈 자리는 0
+ * 항목: [본문 길이(int)][CRC32(int)][장치 길이(short)][장치(UTF-8)][프레임]
+ * <p>
+ * 모든 메서드는 스레드 안전합니다. (리더 스레드 여러 개와 writer 스레드 하나가 함께 사용)
+ */
+public final class FrameJournal implements Closeable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 256 * 1024;
+    static final int MIN_SEGMENT_SIZE = 4096;
+    static final int MAGIC = 0x5347524A; // "SGRJ"
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 16;
+    static final int ENTRY_HEADER_SIZE = 8;
+    static final int MAX_DEVICE_BYTES = 1024;
+    static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // 체크포인트: 슬롯 두 개를 번갈아 씀 ([위치(long)][CRC32(int)]). 쓰다가 끊겨도 다른 슬롯이 남음
+    private static final int CHECKPOINT_SLOT_SIZE = 16;
+
+    /** replay()에서 다시 읽은 프레임을 기록으로 바꿉니다. 기록이 아닌 프레임이면 null */
+    public interface ReplayListener {
+        GameRecord onFrame(String device, byte[] frame, int offset, int length);
+    }
+
+    /** 아직 커밋되지 않은 항목 하나 (append 순서대로 줄을 섬) */
+    private static final class Pending {
+        final long start; // 항목이 시작하는 저널 위치
+        final long end;   // 항목이 끝나는 저널 위치
+        GameRecord record; // 커밋을 기다리는 기록 (replay() 전의 항목은 null)
+        boolean parked;    // requeue()로 보류됨 (세그먼트를 넘어갈 때 함께 옮김)
+        boolean done;
+
+        Pending(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final File dir;
+    private final int segmentSize;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>(); // 세그먼트 번호 → 매핑
+    private final MappedByteBuffer checkpoint;
+    private final CRC32 crc = new CRC32();
+
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    // 같은 내용의 기록이 두 번 와도 구별되도록 객체 자체로 찾음 (리더가 만든 객체가 writer까지 그대로 감)
+    private final Map<GameRecord, Pending> pendingByRecord = new IdentityHashMap<>();
+    // 열 때 찾은, 체크포인트 뒤의 항목 (replay() 전에 append()가 시작되어도 순서가 맞도록 열 때 줄을 세움)
+    private final List<Pending> replayEntries = new ArrayList<>();
+
+    private long writePosition;     // 다음 항목을 쓸 위치 (세그먼트 번호 * segmentSize + 세그먼트 안 위치)
+    private long committedPosition; // 이 위치 앞의 항목은 모두 커밋됨
+    private int checkpointSlot;
+    private boolean closed;
+
+    // 카운터
+    private long appended;
+    private long committed;
+    private long discarded;
+    private long replayed;
+    private long requeued;
+    private long truncated; // 열 때 잘라 낸 끊긴 항목 수
+
+    public FrameJournal(File dir) throws IOException {
+        this(dir, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * 저널 디렉터리를 열고(없으면 만듦) 끊긴 마지막 항목을 잘라 냅니다.
+     * 체크포인트 뒤에 남은 항목은 replay()로 가져갑니다.
+     * @param segmentSize 세그먼트 파일 하나의 크기
+     * @throws IOException 디렉터리나 파일을 만들거나 매핑할 수 없을 때
+     */
+    public FrameJournal(File dir, int segmentSize) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) throw new IllegalArgumentException("segment too small: " + segmentSize);
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("cannot create " + dir);
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.checkpoint = map(new File(dir, CHECKPOINT_FILE), 2 * CHECKPOINT_SLOT_SIZE);
+        recover();
+    }
+
+    // -----------------------------
+    // 열기 / 복구
+    // -----------------------------
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String hex = file.getName().substring(SEGMENT_PREFIX.length(),
+                        file.getName().length() - SEGMENT_SUFFIX.length());
+                long index;
+                try {
+                    index = Long.parseLong(hex, 16);
+                } catch (NumberFormatException e) {
+                    continue; // 저널 파일이 아님
+                }
+                if (file.length() != segmentSize) {
+                    // 크기가 다르면(세그먼트 크기 변경, 만드는 중 종료) 읽지 않음
+                    deleteQuietly(file);
+                    continue;
+                }
+                MappedByteBuffer segment = map(file, segmentSize);
+                if (segment.getInt(0) != MAGIC || segment.getInt(4) != VERSION || segment.getLong(8) != index) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                segments.put(index, segment);
+            }
+        }
+
+        committedPosition = readCheckpoint();
+        if (segments.isEmpty()) {
+            long index = Math.max(0, committedPosition / segmentSize);
+            segments.put(index, createSegment(index));
+            writePosition = committedPosition = index * segmentSize + SEGMENT_HEADER_SIZE;
+            writeCheckpoint();
+            return;
+        }
+        // 체크포인트가 없거나 (처음 연 경우) 남은 세그먼트보다 앞이면 남은 세그먼트 처음부터
+        long first = segments.firstKey() * segmentSize + SEGMENT_HEADER_SIZE;
+        if (committedPosition < first) committedPosition = first;
+
+        writePosition = committedPosition;
+        for (Map.Entry<Long, MappedByteBuffer> e : segments.entrySet()) {
+            long base = e.getKey() * segmentSize;
+            if (base + segmentSize <= committedPosition) continue;
+            int offset = (int) Math.max(SEGMENT_HEADER_SIZE, committedPosition - base);
+            MappedByteBuffer segment = e.getValue();
+            boolean last = e.getKey().equals(segments.lastKey());
+            while (true) {
+                int size = validEntrySize(segment, offset);
+                if (size <= 0) {
+                    if (size < 0) {
+                        // 쓰다가 끊긴 항목: 지워서 다음 append가 그 자리부터 쓰게 함
+                        truncated++;
+                        for (int i = offset; i < segmentSize; i++) segment.put(i, (byte) 0);
+                    }
+                    break;
+                }
+                Pending entry = new Pending(base + offset, base + offset + size);
+                pending.add(entry);
+                replayEntries.add(entry);
+                offset += size;
+            }
+            if (last) writePosition = base + offset;
+        }
+        long current = writePosition / segmentSize;
+        if (current > segments.lastKey()) {
+            // 체크포인트가 가리키는 세그먼트 파일이 없음 (모두 커밋된 뒤 만들다 종료): 새로 시작
+            segments.put(current, createSegment(current));
+            writePosition = committedPosition = current * segmentSize + SEGMENT_HEADER_SIZE;
+        }
+        compact();
+        writeCheckpoint();
+    }
+
+    /**
+     * offset의 항목 전체 크기를 확인합니다.
+     * @return 항목 크기, 빈 자리(세그먼트 끝)면 0, 깨진 항목이면 -1
+     */
+    private int validEntrySize(MappedByteBuffer segment, int offset) {
+        if (offset + ENTRY_HEADER_SIZE > segmentSize) return 0;
+        int length = segment.getInt(offset);
+        if (length == 0) return 0;
+        if (length < 2 || length > segmentSize - offset - ENTRY_HEADER_SIZE) return -1;
+        int deviceLength = segment.getShort(offset + ENTRY_HEADER_SIZE) & 0xFFFF;
+        if (deviceLength > length - 2) return -1;
+        if (checksum(segment, offset + ENTRY_HEADER_SIZE, length) != segment.getInt(offset + 4)) return -1;
+        return ENTRY_HEADER_SIZE + length;
+    }
+
+    /**
+     * 열 때 찾은 커밋되지 않은 프레임을 순서대로 listener에 넘기고, 기록이 된 것은 다시 커밋을 기다리게 합니다.
+     * 한 번만 의미가 있으며(두 번째부터는 빈 목록), 리더의 append()와 함께 불려도 됩니다.
+     * 부르기 전까지 이 항목들은 커밋되지 않은 것으로 남아 체크포인트를 붙잡습니다.
+     * @return 다시 수집 큐에 넣어야 할 기록 (append()로 넘긴 기록과 똑같이 commit()으로 알림)
+     */
+    public synchronized List<GameRecord> replay(ReplayListener listener) {
+        List<GameRecord> records = new ArrayList<>(replayEntries.size());
+        for (Pending entry : replayEntries) {
+            byte[] body = readBody(entry.start);
+            int deviceLength = ((body[0] & 0xFF) << 8) | (body[1] & 0xFF);
+            String device = new String(body, 2, deviceLength, StandardCharsets.UTF_8);
+            GameRecord record = listener.onFrame(device, body, 2 + deviceLength, body.length - 2 - deviceLength);
+            if (record == null) {
+                entry.done = true; // 더 저장할 것이 없음
+            } else {
+                entry.record = record;
+                pendingByRecord.put(record, entry);
+                records.add(record);
+            }
+        }
+        replayed += records.size();
+        replayEntries.clear();
+        if (advance() && !closed) {
+            compact();
+            writeCheckpoint();
+        }
+        return records;
+    }
+
+    /** position에 있는 항목의 본문 ([장치 길이][장치][프레임]) */
+    private byte[] readBody(long position) {
+        MappedByteBuffer segment = segments.get(position / segmentSize);
+        int offset = (int) (position % segmentSize);
+        byte[] body = new byte[segment.getInt(offset)];
+        ByteBuffer view = segment.duplicate();
+        view.position(offset + ENTRY_HEADER_SIZE);
+        view.get(body);
+        return body;
+    }
+
+    // -----------------------------
+    // 쓰기 / 커밋
+    // -----------------------------
+
+    /**
+     * 기록이 된 프레임 하나를 씁니다. 이 메서드가 끝나면 프로세스가 죽어도 프레임이 남습니다.
+     * @param device 보낸 보드 주소
+     * @param record frame을 해석한 기록 (이 객체 그대로 commit() 또는 discard()로 알려야 함)
+     * @throws IOException 새 세그먼트를 만들 수 없을 때 (디스크 가득 참 등)
+     */
+    public void append(String device, byte[] frame, int offset, int length, GameRecord record)
+            throws IOException {
+        byte[] deviceBytes = device.getBytes(StandardCharsets.UTF_8);
+        if (deviceBytes.length > MAX_DEVICE_BYTES) throw new IllegalArgumentException("device too long");
+        List<MappedByteBuffer> full = new ArrayList<>(1);
+        synchronized (this) {
+            if (closed) throw new IOException("journal closed");
+            Pending entry = writeEntry(deviceBytes, null, frame, offset, length, full, true);
+            entry.record = record;
+            pending.add(entry);
+            pendingByRecord.put(record, entry);
+            appended++;
+        }
+        forceAll(full);
+    }
+
+    /**
+     * 쓰는 위치에 항목 하나를 씁니다. 본문은 deviceBytes와 frame으로 만들거나, body(이미 만든 본문)를 그대로 씁니다.
+     * 세그먼트가 차면 다음 세그먼트로 넘어가고, 다 쓴 세그먼트를 full에 넣습니다. (락 밖에서 force())
+     * 넘어갈 때 carryParked면 보류된 항목을 먼저 새 세그먼트로 옮깁니다. (항목은 위치 순서대로 줄을 서야 함)
+     * @return 줄에 세울 항목 (호출자가 pending에 넣음)
+     */
+    private Pending writeEntry(byte[] deviceBytes, byte[] body, byte[] frame, int offset, int length,
+                               List<MappedByteBuffer> full, boolean carryParked) throws IOException {
+        int bodyLength = body != null ? body.length : 2 + deviceBytes.length + length;
+        int size = ENTRY_HEADER_SIZE + bodyLength;
+        if (size > segmentSize - SEGMENT_HEADER_SIZE) throw new IllegalArgumentException("frame too large: " + length);
+
+        int at = (int) (writePosition % segmentSize);
+        while (at + size > segmentSize) {
+            // 세그먼트 끝의 남는 자리는 0으로 둠 (읽을 때 끝으로 인식). 다 쓴 세그먼트는 락을 놓은 뒤 디스크로 내보냄
+            long next = writePosition / segmentSize + 1;
+            MappedByteBuffer created = createSegment(next);
+            full.add(segments.get(next - 1));
+            segments.put(next, created);
+            writePosition = next * segmentSize + SEGMENT_HEADER_SIZE;
+            if (carryParked) carryParked(next * segmentSize, full);
+            if (advance()) {
+                compact(); // 보류된 항목만 남아 있던 세그먼트는 여기서 지워짐
+                writeCheckpoint();
+            }
+            at = (int) (writePosition % segmentSize);
+        }
+        MappedByteBuffer segment = segments.lastEntry().getValue();
+        // 본문과 CRC를 먼저 쓰고 길이를 마지막에 씀 (길이가 0이면 아직 없는 항목)
+        int bodyAt = at + ENTRY_HEADER_SIZE;
+        segment.position(bodyAt);
+        if (body != null) {
+            segment.put(body);
+        } else {
+            segment.putShort((short) deviceBytes.length);
+            segment.put(deviceBytes);
+            segment.put(frame, offset, length);
+        }
+        segment.putInt(at + 4, checksum(segment, bodyAt, bodyLength));
+        segment.putInt(at, bodyLength);
+
+        long start = writePosition;
+        writePosition += size;
+        return new Pending(start, writePosition);
+    }
+
+    /** before 위치 앞에 있는 보류 항목을 모두 저널 끝으로 옮김 */
+    private void carryParked(long before, List<MappedByteBuffer> full) throws IOException {
+        List<Pending> stale = new ArrayList<>();
+        for (Pending entry : pending) {
+            if (entry.start >= before) break;
+            if (entry.parked && !entry.done) stale.add(entry);
+        }
+        for (Pending entry : stale) moveToTail(entry, full);
+    }
+
+    /** 항목의 프레임을 저널 끝에 다시 쓰고 기록을 그쪽으로 옮김. 원래 자리는 끝난 것으로 넘김 */
+    private void moveToTail(Pending entry, List<MappedByteBuffer> full) throws IOException {
+        Pending copy = writeEntry(null, readBody(entry.start), null, 0, 0, full, false);
+        copy.record = entry.record;
+        copy.parked = true;
+        pending.add(copy);
+        pendingByRecord.put(entry.record, copy);
+        entry.done = true;
+    }
+
+    private static void forceAll(List<MappedByteBuffer> segments) {
+        for (MappedByteBuffer segment : segments) segment.force();
+    }
+
+    /**
+     * writer 스레드: 묶음이 데이터베이스에 커밋됐음을 알립니다. 앞선 항목이 모두 커밋됐으면 체크포인트를 옮기고
+     * 다 쓴 세그먼트를 지웁니다. append()로 넘기지 않은 기록은 무시합니다.
+     */
+    public synchronized void commit(List<GameRecord> batch) {
+        for (GameRecord record : batch) {
+            Pending entry = pendingByRecord.remove(record);
+            if (entry == null) continue;
+            entry.done = true;
+            committed++;
+        }
+        if (advance() && !closed) {
+            compact();
+            writeCheckpoint();
+        }
+    }
+
+    /**
+     * 저장하지 못한 기록(롤백된 묶음, 수집 큐가 받지 못한 replay 기록)의 프레임을 저널 끝에 다시 써서 보류하고
+     * 원래 자리는 끝난 것으로 넘깁니다. 보류된 기록은 세그먼트를 넘어갈 때마다 새 세그먼트로 옮겨지므로
+     * 그 뒤의 기록이 커밋되면 체크포인트가 옮겨지고 세그먼트도 지워집니다.
+     * 기록은 계속 커밋을 기다리며, commit()되거나 다음 시작 때 replay()로 돌아옵니다.
+     * @return 다시 쓴 기록 수 (append()나 replay()로 넘기지 않았거나 이미 커밋된 기록은 무시)
+     * @throws IOException 새 세그먼트를 만들 수 없을 때 (그때까지 못 옮긴 기록은 제자리에 남음)
+     */
+    public int requeue(List<GameRecord> records) throws IOException {
+        List<MappedByteBuffer> full = new ArrayList<>(1);
+        int moved = 0;
+        try {
+            synchronized (this) {
+                if (closed) return 0;
+                try {
+                    for (GameRecord record : records) {
+                        Pending entry = pendingByRecord.get(record);
+                        if (entry == null || entry.parked) continue; // 이미 보류됨
+                        moveToTail(entry, full);
+                        moved++;
+                    }
+                } finally {
+                    requeued += moved;
+                    if (advance()) {
+                        compact();
+                        writeCheckpoint();
+                    }
+                }
+            }
+        } finally {
+            forceAll(full);
+        }
+        return moved;
+    }
+
+    /** 수집 큐가 받지 못한 기록: 저장하지 않을 것이므로 커밋된 것처럼 넘어감 (보드가 다시 보냄) */
+    public synchronized void discard(GameRecord record) {
+        Pending entry = pendingByRecord.remove(record);
+        if (entry == null) return;
+        entry.done = true;
+        discarded++;
+        if (advance() && !closed) writeCheckpoint();
+    }
+
+    /** 맨 앞부터 끝난 항목을 걷어 내고 committedPosition을 옮김. 옮겼으면 true */
+    private boolean advance() {
+        long before = committedPosition;
+        while (!pending.isEmpty() && pending.peekFirst().done) {
+            committedPosition = pending.pollFirst().end;
+        }
+        if (pending.isEmpty()) committedPosition = writePosition;
+        return committedPosition != before;
+    }
+
+    /** committedPosition보다 앞의 세그먼트 파일을 지움 (쓰고 있는 세그먼트는 남김) */
+    private void compact() {
+        long keep = Math.min(committedPosition, writePosition) / segmentSize;
+        while (segments.firstKey() < keep) {
+            long index = segments.pollFirstEntry().getKey();
+            deleteQuietly(segmentFile(index)); // 매핑은 GC가 풀 때까지 남지만 파일은 바로 사라짐
+        }
+    }
+
+    /** 지금까지 쓴 항목을 저장 장치까지 내보냅니다. (전원이 꺼져도 남도록) */
+    public void force() {
+        MappedByteBuffer last;
+        synchronized (this) {
+            if (closed) return;
+            last = segments.lastEntry().getValue();
+        }
+        // 디스크 쓰기를 기다리는 동안 리더의 append()를 막지 않음
+        last.force();
+        checkpoint.force();
+    }
+
+    /** 체크포인트를 쓰고 내보낸 뒤 닫습니다. 커밋되지 않은 항목은 다음에 열 때 replay()로 돌아옵니다. */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        advance();
+        compact();
+        writeCheckpoint();
+        segments.lastEntry().getValue().force();
+        checkpoint.force();
+        closed = true;
+    }
+
+    // -----------------------------
+    // 체크포인트
+    // -----------------------------
+
+    private long readCheckpoint() {
+        long best = -1;
+        for (int slot = 0; slot < 2; slot++) {
+            int at = slot * CHECKPOINT_SLOT_SIZE;
+            long position = checkpoint.getLong(at);
+            if (position <= 0 || checkpoint.getInt(at + 8) != checksum(checkpoint, at, 8)) continue;
+            if (position > best) {
+                best = position;
+                checkpointSlot = slot;
+            }
+        }
+        return best;
+    }
+
+    private void writeCheckpoint() {
+        checkpointSlot ^= 1; // 최신 슬롯은 그대로 두고 다른 슬롯에 씀
+        int at = checkpointSlot * CHECKPOINT_SLOT_SIZE;
+        checkpoint.putInt(at + 8, 0);
+        checkpoint.putLong(at, committedPosition);
+        checkpoint.putInt(at + 8, checksum(checkpoint, at, 8));
+    }
+
+    // -----------------------------
+    // 파일
+    // -----------------------------
+
+    private File segmentFile(long index) {
+        return new File(dir, String.format("%s%016x%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private MappedByteBuffer createSegment(long index) throws IOException {
+        File file = segmentFile(index);
+        deleteQuietly(file); // 남아 있던 파일이면 0부터 다시
+        MappedByteBuffer segment = map(file, segmentSize);
+        segment.putLong(8, index);
+        segment.putInt(4, VERSION);
+        segment.putInt(0, MAGIC);
+        return segment;
+    }
+
+    /** 파일을 size 바이트로 맞춰 매핑 (새 파일은 0으로 채워짐). 채널을 닫아도 매핑은 유지됨 */
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() != size) raf.setLength(size);
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private int checksum(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(offset + length);
+        slice.position(offset);
+        crc.reset();
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+
+    private static void deleteQuietly(File file) {
+        if (file.exists() && !file.delete()) file.deleteOnExit();
+    }
+
+    // -----------------------------
+    // 카운터
+    // -----------------------------
+
+    /** 아직 커밋을 기다리는 기록 수 */
+    public synchronized int getPendingCount() {
+        return pendingByRecord.size();
+    }
+
+    /** 디스크에 남아 있는 세그먼트 파일 수 */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /** 다음 시작 때 다시 읽어야 하는 바이트 수 (체크포인트부터 쓴 위치까지) */
+    public synchronized long getUncommittedBytes() {
+        return writePosition - committedPosition;
+    }
+
+    public synchronized long getAppendedCount() {
+        return appended;
+    }
+
+    public synchronized long getReplayedCount() {
+        return replayed;
+    }
+
+    /** requeue()로 저널 끝에 다시 쓴 기록 수 */
+    public synchronized long getRequeuedCount() {
+        return requeued;
+    }
+
+    /** 열 때 잘라 낸 끊긴 항목 수 */
+    public synchronized long getTruncatedCount() {
+        return truncated;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FrameJournal{segments=" + segments.size() + ", pending=" + pendingByRecord.size()
+                + ", uncommittedBytes=" + getUncommittedBytes()
+                + ", appended=" + appended + ", committed=" + committed + ", discarded=" + discarded
+                + ", replayed=" + replayed + ", requeued=" + requeued + ", truncated=" + truncated + "}";
+    }
+}
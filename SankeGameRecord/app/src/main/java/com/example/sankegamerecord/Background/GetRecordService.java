@@ -2,10 +2,7 @@ package com.example.sankegamerecord.Background;
 
 import android.Manifest;
 import android.app.Service;
-import android.content.BroadcastReceiver;
-import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.os.IBinder;
 import android.util.Log;
 
@@ -15,29 +12,213 @@ import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import com.example.sankegamerecord.Adapter.BluetoothConnectionAdapter;
 import com.example.sankegamerecord.Adapter.GameRecord;
+import com.example.sankegamerecord.DataBaseAdapter.PlaytimeRankIndex;
 import com.example.sankegamerecord.DataBaseAdapter.RankAdapter;
 import com.example.sankegamerecord.DataBaseAdapter.RecordAdapter;
+import com.example.sankegamerecord.DataBaseAdapter.RetentionPolicy;
 
-import java.nio.charset.StandardCharsets;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class GetRecordService extends Service {
 
     private static final String TAG = "YourNameService";
 
     public static final String ACTION_CONNECT = "ACTION_CONNECT";
+    public static final String ACTION_DISCONNECT = "ACTION_DISCONNECT";
     public static final String EXTRA_DEVICE_ADDRESS = "EXTRA_DEVICE_ADDRESS";
-    private BluetoothConnectionAdapter btAdapter;
-    private ProtocolInterpreter ptInterpreter;
+    // 새 성공 기록이 저장된 뒤 전체 순위를 화면으로 알림 (묶음마다 마지막 성공 기록 하나)
+    public static final String ACTION_RECORD_PLACED = "ACTION_RECORD_PLACED";
+    public static final String EXTRA_PLAYTIME_MS = "EXTRA_PLAYTIME_MS";
+    public static final String EXTRA_RANK = "EXTRA_RANK";
+    public static final String EXTRA_RANKED_COUNT = "EXTRA_RANKED_COUNT";
+    private BoardConnectionManager boards; // 보드마다 연결/수신/파싱을 따로 처리하고 같은 수집 큐로 넘김
     private RankAdapter RankDB;
     private RecordAdapter RecordDB;
-    private BroadcastReceiver btReceiver;
+    private RecordIngestPipeline ingestPipeline;
+    private volatile FrameJournal journal; // 저장 전 기록 프레임 (열지 못했으면 null, writer 스레드가 시작된 뒤에 열림)
+    private ScheduledExecutorService databaseExecutor; // 데이터베이스 열기와 보존 정책 정리를 맡는 스레드
+    private Future<?> databaseOpened;
+
+    // 수집 단계 설정
+    private static final int INGEST_QUEUE_CAPACITY = RecordIngestPipeline.DEFAULT_QUEUE_CAPACITY;
+    private static final int INGEST_BATCH_SIZE = RecordIngestPipeline.DEFAULT_MAX_BATCH_SIZE;
+    private static final long INGEST_LINGER_MS = RecordIngestPipeline.DEFAULT_LINGER_MILLIS;
+    private static final long INGEST_SUBMIT_TIMEOUT_MS = 100; // 큐가 가득 찼을 때 기다리는 최대 시간
+    private static final long REPLAY_SUBMIT_TIMEOUT_MS = 5000; // 저널에서 되살린 기록은 더 오래 기다림
+    private static final String JOURNAL_DIR = "frame-journal";
+    private static final long DISCONNECT_TIMEOUT_MS = 2000;   // 보드 I/O 스레드 종료를 기다리는 최대 시간
+    // 연결이 끊기면 백오프하며 다시 연결 (끊긴 동안 끝난 게임은 보드가 재연결 후 다시 보냄)
+    private static final ReconnectPolicy RECONNECT_POLICY = ReconnectPolicy.DEFAULT;
+
+    // 보존 정책 설정 (저장할 때마다가 아니라 주기적으로 한꺼번에 정리)
+    private static final RetentionPolicy RETENTION_POLICY = RetentionPolicy.DEFAULT;
+    private static final long RETENTION_INITIAL_DELAY_MIN = 1;
+    private static final long RETENTION_PERIOD_MIN = 30;
 
     @Override
     public void onCreate() {
         super.onCreate();
-        ptInterpreter = new ProtocolInterpreter();
+
+        // 데이터베이스는 메인 스레드가 아닌 전용 스레드에서 열고(마이그레이션 포함), 같은 스레드에서 주기적으로 정리
+        databaseExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "RecordDatabase"));
+        databaseOpened = databaseExecutor.submit(this::openDatabases);
+        databaseExecutor.scheduleWithFixedDelay(this::applyRetention,
+                RETENTION_INITIAL_DELAY_MIN, RETENTION_PERIOD_MIN, TimeUnit.MINUTES);
+
+        // 파싱된 기록은 큐에 넣고, writer 스레드가 묶음 단위로 RECORD/RANK를 한 트랜잭션에 저장
+        ingestPipeline = new RecordIngestPipeline(this::writeBatch, this::onBatchFailed,
+                INGEST_QUEUE_CAPACITY, INGEST_BATCH_SIZE, INGEST_LINGER_MS);
+        ingestPipeline.start();
+
+        // 지난 실행에서 ACK했지만 저장하지 못한 기록은 저널에만 남아 있음 (보드는 이미 버림)
+        // 여는 것은 세그먼트 몇 개를 매핑할 뿐이라 여기서 하고, 큐가 찼을 때 기다릴 수 있는 다시 넣기는 데이터베이스 스레드에서
+        openJournal();
+        if (journal != null) databaseExecutor.execute(this::replayJournal);
+
+        // 모든 보드의 리더 스레드가 같은 수집 큐로 기록을 넘김 (기록에는 보낸 보드의 주소가 붙어 있음)
+        // MAC 주소는 블루투스로, "tcp://호스트:포트"는 PC의 보드 시뮬레이터나 시리얼-TCP 브리지로 연결
+        BoardConnectionManager.Connector connector = new RoutingConnector(new BluetoothConnectionAdapter(this))
+                .register("tcp", new TcpConnector());
+        boards = new BoardConnectionManager(connector, this::submitRecord, this::broadcastState, RECONNECT_POLICY,
+                journal);
+    }
+
+    /** 저널을 엶 (커밋되지 않은 기록은 열 때 줄을 세워 두므로 리더의 append()가 먼저 와도 됨) */
+    private void openJournal() {
+        try {
+            journal = new FrameJournal(new File(getNoBackupFilesDir(), JOURNAL_DIR));
+        } catch (IOException e) {
+            Log.e(TAG, "Frame journal unavailable, records are not crash-safe", e);
+        }
+    }
+
+    /** 데이터베이스 스레드: 저널에서 커밋되지 않은 기록을 되살려 수집 큐에 다시 넣음 */
+    private void replayJournal() {
+        Map<String, ProtocolInterpreter> interpreters = new HashMap<>();
+        List<GameRecord> replayed = journal.replay((device, frame, offset, length) ->
+                interpreters.computeIfAbsent(device, ProtocolInterpreter::new).makeRecord(frame, offset, length));
+        List<GameRecord> deferred = new ArrayList<>();
+        for (GameRecord record : replayed) {
+            if (!ingestPipeline.submit(record, REPLAY_SUBMIT_TIMEOUT_MS)) deferred.add(record);
+        }
+        if (!deferred.isEmpty()) requeue(deferred); // 넣지 못한 기록은 다음 시작 때 다시 시도
+        if (!replayed.isEmpty() || journal.getTruncatedCount() > 0) {
+            Log.i(TAG, "Replayed " + (replayed.size() - deferred.size()) + " uncommitted records from journal"
+                    + (deferred.isEmpty() ? "" : " (" + deferred.size() + " deferred)") + ": " + journal);
+        }
+    }
+
+    /** 저장하지 못한 기록을 저널 끝으로 옮겨, 뒤의 기록이 커밋될 때 체크포인트가 막히지 않게 함 */
+    private void requeue(List<GameRecord> records) {
+        try {
+            journal.requeue(records);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not requeue " + records.size() + " records in journal: " + journal, e);
+        }
+    }
+
+    /** 보드 리더 스레드: 파싱된 기록을 수집 큐에 넣음 */
+    private boolean submitRecord(GameRecord record) {
+        if (ingestPipeline.submit(record, INGEST_SUBMIT_TIMEOUT_MS)) return true;
+        Log.e(TAG, "Ingest queue full, record dropped (" + record.Device() + "): " + ingestPipeline);
+        return false;
+    }
+
+    /** 보드 리더 스레드: 연결 상태 변화를 화면으로 알림 */
+    private void broadcastState(String address, int state, String message) {
+        if (state == BluetoothConnectionAdapter.STATE_DISCONNECTED || state == BluetoothConnectionAdapter.STATE_NONE) {
+            Log.i(TAG, "Board " + address + " closed: " + boards.getStats(address));
+        }
+        Intent intent = new Intent(BluetoothConnectionAdapter.ACTION_BT_EVENT);
+        intent.putExtra(BluetoothConnectionAdapter.EXTRA_STATE, state);
+        intent.putExtra(BluetoothConnectionAdapter.EXTRA_MESSAGE, message);
+        intent.putExtra(BluetoothConnectionAdapter.EXTRA_DEVICE_ADDRESS, address);
+        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+    }
+
+    /** 데이터베이스 스레드: 공유 연결을 가져와 어댑터를 만듦 */
+    private void openDatabases() {
         RecordDB = new RecordAdapter(this);
-        RankDB = new RankAdapter(this);
+        RankDB = new RankAdapter(RecordDB); // 같은 연결을 공유해 한 트랜잭션으로 커밋
+    }
+
+    /** writer 스레드: 데이터베이스가 열릴 때까지 기다림 (보통 첫 묶음 전에 이미 열려 있음) */
+    private void awaitDatabase() {
+        try {
+            databaseOpened.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("database open failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while opening database", e);
+        }
+    }
+
+    /** 보존 스레드: 정책에 따라 오래된 기록을 정리 */
+    private void applyRetention() {
+        long t0 = System.nanoTime();
+        int pruned = RecordDB.applyRetention(RETENTION_POLICY);
+        if (pruned > 0) {
+            Log.i(TAG, "Retention pruned " + pruned + " records in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0) + " ms (" + RETENTION_POLICY + ")");
+        }
+    }
+
+    /** writer 스레드: 묶음 하나를 트랜잭션 하나로 저장 */
+    private void writeBatch(List<GameRecord> batch) {
+        awaitDatabase();
+        long startNanos = System.nanoTime();
+        GameRecord[] lastSuccess = new GameRecord[1];
+        try {
+            RecordDB.runInTransaction(() -> {
+                for (GameRecord record : batch) {
+                    // 중복(재전송) 기록은 랭킹에도 반영하지 않음
+                    long id = RecordDB.addRecord(record);
+                    if (id != -1) {
+                        RankDB.addScore(record, id);
+                        if (Boolean.TRUE.equals(record.Success())) lastSuccess[0] = record;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // 롤백되면 최근 키 캐시에 저장되지 않은 키가 남으므로 비움 → 다시 시도할 때 중복 여부는 UNIQUE 인덱스가 판단함
+            // (메모리 랭킹은 커밋된 뒤에만 바뀜)
+            // 이 묶음은 저널에서 커밋되지 않은 채 남아 다음 시작 때 다시 저장을 시도함
+            RecordDB.forgetRecentKeys();
+            throw e;
+        }
+        if (journal != null) journal.commit(batch); // 저장됐으므로 다음 시작 때 다시 읽지 않음
+        PipelineMetrics.getInstance().batchCommitted(batch, startNanos);
+        if (lastSuccess[0] != null) broadcastPlacement(lastSuccess[0]);
+    }
+
+    /** writer 스레드: 다시 시도해도 저장하지 못한 묶음 (저널에서 커밋되지 않은 채 남아 다음 시작 때 다시 저장됨) */
+    private void onBatchFailed(List<GameRecord> batch, Exception cause) {
+        Log.e(TAG, "Batch of " + batch.size() + " records not saved after "
+                + RecordIngestPipeline.MAX_WRITE_ATTEMPTS + " attempts: " + ingestPipeline, cause);
+        if (journal != null) requeue(batch);
+    }
+
+    /** writer 스레드: 커밋된 성공 기록이 전체 성공 기록 중 몇 위인지 화면으로 알림 (O(log n)) */
+    private void broadcastPlacement(GameRecord record) {
+        long millis = record.Playtime().toMillis();
+        PlaytimeRankIndex.Placement placement = RankDB.getPlacement(millis);
+        Intent intent = new Intent(ACTION_RECORD_PLACED);
+        intent.putExtra(EXTRA_PLAYTIME_MS, millis);
+        intent.putExtra(EXTRA_RANK, placement.rank());
+        intent.putExtra(EXTRA_RANKED_COUNT, placement.total());
+        intent.putExtra(EXTRA_DEVICE_ADDRESS, record.Device());
+        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
     }
 
     @Nullable
@@ -50,72 +231,52 @@ public class GetRecordService extends Service {
     @RequiresPermission(Manifest.permission.BLUETOOTH_CONNECT)
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        if (intent != null && ACTION_CONNECT.equals(intent.getAction())) {
+        if (intent != null) {
             String mac = intent.getStringExtra(EXTRA_DEVICE_ADDRESS);
-            if (mac != null) {
-                startCommunication(mac);
-            } else {
+            if (mac == null) {
                 Log.w(TAG, "No MAC address received");
+            } else if (ACTION_CONNECT.equals(intent.getAction())) {
+                // 이미 연결된 보드는 그대로 두고, 새 보드만 추가로 연결
+                if (!boards.connect(mac)) Log.i(TAG, "Board already connected: " + mac);
+            } else if (ACTION_DISCONNECT.equals(intent.getAction())) {
+                // 리더 스레드가 끝날 때까지 메인 스레드를 막지 않도록 기다리지 않음
+                boards.disconnect(mac, 0);
             }
         }
         return START_STICKY;
     }
 
-    /**
-     * Bluetooth 연결 + 수신 처리
-     */
-    @RequiresPermission(Manifest.permission.BLUETOOTH_CONNECT)
-    private void startCommunication(String mac) {
-        btAdapter = new BluetoothConnectionAdapter(this);
-
-        // 연결 시작
-        btAdapter.connect(mac);
-
-        // 수신 Receiver 등록
-        btReceiver = new BroadcastReceiver() {
-            @Override
-            public void onReceive(Context context, Intent intent) {
-                byte[] data = intent.getByteArrayExtra(BluetoothConnectionAdapter.EXTRA_DATA);
-                if (data != null) {
-                    String received = new String(data, StandardCharsets.UTF_8);
-                    Log.i(TAG, "RECEIVED: " + received);
-
-                    GameRecord record = ptInterpreter.makeRecord(received);
-                    if (record != null) {
-                        // GameRecord 내부 확인 로그
-                        Log.i(TAG, "GameRecord parsed: " +
-                                "Success=" + record.Success() +
-                                ", Timestamp=" + record.Playdate() +
-                                ", AnyOtherField=" + record.Playtime()); // 필요하면 필드 추가
-
-                        RankDB.addScore(record);
-                        RecordDB.addRecord(record);
-                    } else {
-                        Log.e(TAG, "Failed to parse GameRecord from received data: " + received);
-                    }
-                }
-            }
-        };
-
-        LocalBroadcastManager.getInstance(this).registerReceiver(
-                btReceiver,
-                new IntentFilter(BluetoothConnectionAdapter.ACTION_BT_EVENT)
-        );
-
-        btAdapter.startReceive(); // 내부에서 패킷 누적 로직 포함
-    }
-
-
-    protected void onStop() {
-        if (btReceiver != null) {
-            LocalBroadcastManager.getInstance(this).unregisterReceiver(btReceiver);
-        }
-    }
-
-
     @Override
     public void onDestroy() {
-        if (btAdapter != null) btAdapter.stop();
+        if (!boards.shutdown(DISCONNECT_TIMEOUT_MS)) {
+            Log.w(TAG, "Board I/O threads still alive after shutdown: " + boards.getIoWorkerPool());
+        }
+        for (BoardConnectionManager.BoardStats stats : boards.getAllStats()) {
+            Log.i(TAG, "Board stats: " + stats);
+        }
+        // 큐에 남은 기록을 모두 저장한 뒤 연결 종료
+        boolean writerStopped = ingestPipeline.stop(5000);
+        Log.i(TAG, "Ingest stats: " + ingestPipeline);
+        if (journal != null) {
+            Log.i(TAG, "Journal stats: " + journal);
+            journal.close(); // 남은 기록(저장 실패 등)은 다음 시작 때 다시 읽음
+        }
+        databaseExecutor.shutdownNow();
+        boolean databaseStopped = false;
+        try {
+            databaseStopped = databaseExecutor.awaitTermination(5, TimeUnit.SECONDS); // 진행 중인 정리를 기다림
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerStopped && databaseStopped) {
+            // 공유 연결을 반납 (다른 화면이 아직 쓰고 있으면 닫히지 않음)
+            if (RankDB != null) RankDB.close();
+            if (RecordDB != null) RecordDB.close();
+        } else {
+            // 아직 트랜잭션 안에 있을 수 있는 스레드에서 연결을 빼앗지 않음 (프로세스와 함께 정리됨)
+            Log.w(TAG, "Database still in use after shutdown (writer stopped=" + writerStopped
+                    + ", database thread stopped=" + databaseStopped + "), connection left open");
+        }
         super.onDestroy();
     }
 }
@@ -0,0 +1,91 @@
+package com.example.sankegamerecord.Background;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 같은 프로세스 안의 가짜 보드(시뮬레이터)와 BytePipe 두 개로 연결하는 전송 방식입니다.
+ * 실제 장치 없이 수집 경로 전체(BoardConnectionManager → RecordIngestPipeline)를 돌려 보는 데 씁니다.
+ * <p>
+ * 보드 쪽은 주소마다 Listener를 등록해 두고, 앱이 connect(address)하면 보드 쪽 Link를 accept()로 받습니다.
+ * 등록된 보드가 없으면 연결이 거부됩니다. (블루투스에서 보드가 꺼져 있는 경우와 같음)
+ */
+public final class InMemoryTransport implements BoardConnectionManager.Connector {
+
+    /** 보드 쪽: 앱이 연결할 때마다 호출됩니다. 빨리 반환하고, 통신은 보드 쪽 스레드에서 해야 합니다. */
+    public interface Listener {
+        void accept(BoardConnectionManager.Link boardSide) throws IOException;
+    }
+
+    private final Map<String, Listener> listeners = new ConcurrentHashMap<>();
+    private final int pipeCapacity;
+
+    public InMemoryTransport() {
+        this(BytePipe.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param pipeCapacity 방향마다의 버퍼 크기 (작을수록 받는 쪽이 느릴 때 보내는 쪽이 빨리 막힘)
+     */
+    public InMemoryTransport(int pipeCapacity) {
+        this.pipeCapacity = pipeCapacity;
+    }
+
+    /** address로 연결을 받을 보드를 등록합니다. (이미 있으면 바꿈) */
+    public void register(String address, Listener listener) {
+        listeners.put(address, listener);
+    }
+
+    /** 보드를 제거합니다. 이미 맺어진 연결은 그대로입니다. */
+    public void unregister(String address) {
+        listeners.remove(address);
+    }
+
+    @Override
+    public BoardConnectionManager.Link connect(String address) throws IOException {
+        Listener listener = listeners.get(address);
+        if (listener == null) throw new ConnectException("no board at " + address);
+        BytePipe toBoard = new BytePipe(pipeCapacity);
+        BytePipe toApp = new BytePipe(pipeCapacity);
+        PipeLink appSide = new PipeLink(toApp, toBoard);
+        PipeLink boardSide = new PipeLink(toBoard, toApp);
+        try {
+            listener.accept(boardSide);
+        } catch (IOException | RuntimeException e) {
+            appSide.close();
+            throw e;
+        }
+        return appSide;
+    }
+
+    /** 읽는 파이프와 쓰는 파이프 한 쌍. 어느 쪽이 닫아도 양방향 모두 닫힘 (소켓과 같음) */
+    private static final class PipeLink implements BoardConnectionManager.Link {
+        private final BytePipe incoming;
+        private final BytePipe outgoing;
+
+        PipeLink(BytePipe incoming, BytePipe outgoing) {
+            this.incoming = incoming;
+            this.outgoing = outgoing;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return incoming.getInputStream();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return outgoing.getOutputStream();
+        }
+
+        @Override
+        public void close() {
+            incoming.close();
+            outgoing.close();
+        }
+    }
+}
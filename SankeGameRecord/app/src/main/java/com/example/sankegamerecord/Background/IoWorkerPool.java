@@ -0,0 +1,111 @@
+package com.example.sankegamerecord.Background;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 보드 연결의 블로킹 I/O(연결, read)를 맡는 스레드 풀입니다.
+ * <p>
+ * - 연결 하나가 작업 하나를 차지하므로 연결마다 리더 스레드가 정확히 하나입니다.
+ *   연결이 끝난 스레드는 idleMillis 동안 다음 연결을 기다렸다가 재사용되고, 그 뒤에는 종료됩니다.
+ * - 스레드 이름은 "prefix-번호"이며, 작업 중에는 "prefix-번호:보드주소"로 바꿔 어떤 보드를 읽는지 보이게 합니다.
+ * - 살아 있는 스레드 수와 작업 중인 스레드 수를 셉니다. (스레드 누수 확인용)
+ * - shutdown()은 새 작업을 받지 않고, 모든 스레드가 끝날 때까지 정해진 시간만큼 기다립니다.
+ */
+public final class IoWorkerPool {
+
+    public static final long DEFAULT_IDLE_MILLIS = 30_000;
+
+    private final String prefix;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    private final AtomicInteger busy = new AtomicInteger();
+
+    public IoWorkerPool(String prefix) {
+        this(prefix, DEFAULT_IDLE_MILLIS);
+    }
+
+    public IoWorkerPool(String prefix, long idleMillis) {
+        this.prefix = prefix;
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // 대기 큐 없이 바로 스레드에 넘김: 쉬는 스레드가 없으면 새로 만듦 (연결 수만큼만 늘어남)
+        this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, idleMillis, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), factory);
+    }
+
+    /**
+     * 작업을 풀 스레드 하나에서 실행합니다. 실행하는 동안 스레드 이름 뒤에 name을 붙입니다.
+     * 작업이 던진 예외는 반환된 Future를 아무도 확인하지 않아도 묻히지 않도록 여기서 로그로 남깁니다.
+     * @throws java.util.concurrent.RejectedExecutionException shutdown() 이후
+     */
+    public Future<?> submit(String name, Runnable task) {
+        FutureTask<?> future = new FutureTask<>(() -> {
+            Thread thread = Thread.currentThread();
+            String baseName = thread.getName();
+            thread.setName(baseName + ":" + name);
+            busy.incrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                System.err.println(thread.getName() + " failed");
+                e.printStackTrace();
+                throw e;
+            } finally {
+                busy.decrementAndGet();
+                Thread.interrupted(); // 작업 중 받은 interrupt가 다음 작업으로 넘어가지 않게 지움
+                thread.setName(baseName);
+            }
+        }, null);
+        executor.execute(future);
+        return future;
+    }
+
+    /**
+     * 새 작업을 받지 않고, 실행 중인 작업이 끝나 모든 스레드가 종료될 때까지 기다립니다.
+     * 실행 중인 작업을 끝내는 것(연결 닫기)은 호출자의 몫입니다.
+     * @return 시간 안에 모두 종료되었으면 true
+     */
+    public boolean shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** 살아 있는 I/O 스레드 수 (쉬는 스레드 포함) */
+    public int getAliveThreadCount() {
+        return executor.getPoolSize(); // 종료가 끝나면 0
+    }
+
+    /** 연결을 맡아 작업 중인 스레드 수 */
+    public int getBusyThreadCount() {
+        return busy.get();
+    }
+
+    /** 지금까지 만든 스레드 수 (재사용이 잘 되면 연결 횟수보다 작음) */
+    public int getCreatedThreadCount() {
+        return threadNumber.get();
+    }
+
+    public long getCompletedTaskCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    @Override
+    public String toString() {
+        return "IoWorkerPool{" + prefix + ", alive=" + getAliveThreadCount() + ", busy=" + getBusyThreadCount()
+                + ", created=" + getCreatedThreadCount() + ", completed=" + getCompletedTaskCount() + "}";
+    }
+}
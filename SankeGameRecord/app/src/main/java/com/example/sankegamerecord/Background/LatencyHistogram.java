@@ -0,0 +1,156 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.LogLinearBuckets;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 지연 시간 분포를 고정 크기 버킷으로 모으는 히스토그램입니다. 여러 스레드가 락 없이 기록할 수 있습니다.
+ * <p>
+ * - 값은 마이크로초 단위로, 2의 거듭제곱 구간마다 8개로 나눈 로그-선형 버킷(LogLinearBuckets)에 셉니다.
+ *   (구간 안 오차 최대 1/8 = 12.5%, 1µs ~ 약 50일까지)
+ * - 기록은 배열 원소 하나의 증가와 합계/최대 갱신뿐이라 할당이 없습니다.
+ * - 분위수(p50/p99 등)는 snapshot()으로 복사한 뒤 계산하며, 버킷 상한값으로 보고합니다. 최대값은 정확한 값입니다.
+ */
+public final class LatencyHistogram {
+
+    private static final LogLinearBuckets BUCKETS = new LogLinearBuckets(3, 40);
+    static final int BUCKET_COUNT = BUCKETS.getBucketCount();
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** 걸린 시간 하나를 기록합니다. 음수(시계 역전 등)는 0으로 봅니다. */
+    public void recordNanos(long nanos) {
+        if (nanos < 0) nanos = 0;
+        long micros = nanos / 1000;
+        counts.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        sumMicros.addAndGet(micros);
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // 다른 스레드가 먼저 갱신함 → 다시 비교
+        }
+    }
+
+    /** 모든 기록을 지웁니다. (기록과 동시에 호출하면 몇 건이 남거나 빠질 수 있음) */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) counts.set(i, 0);
+        count.set(0);
+        sumMicros.set(0);
+        maxNanos.set(0);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /** 현재 분포의 복사본 (분위수 계산용) */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(name, copy, total, sumMicros.get(), maxNanos.get());
+    }
+
+    /** 마이크로초 값이 들어갈 버킷 번호 */
+    static int bucketOf(long micros) {
+        return BUCKETS.bucketOf(micros); // 0~7µs는 1µs 단위
+    }
+
+    /** 버킷이 담는 가장 큰 마이크로초 값 */
+    static long bucketUpperMicros(int bucket) {
+        return BUCKETS.upperBound(bucket);
+    }
+
+    /**
+     * 한 시점의 분포입니다. 시간 값은 모두 마이크로초입니다.
+     */
+    public static final class Snapshot {
+        private final String name;
+        private final long[] counts;
+        private final long count;
+        private final long sumMicros;
+        private final long maxNanos;
+
+        Snapshot(String name, long[] counts, long count, long sumMicros, long maxNanos) {
+            this.name = name;
+            this.counts = counts;
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxNanos = maxNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxNanos);
+        }
+
+        public double getMeanMicros() {
+            return count == 0 ? 0 : (double) sumMicros / count;
+        }
+
+        /**
+         * 분위수 값 (버킷 상한, 최대값을 넘지 않음)
+         * @param quantile 0.0 ~ 1.0 (예: 0.99)
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(bucketUpperMicros(i), getMaxMicros());
+            }
+            return getMaxMicros();
+        }
+
+        /**
+         * 분석용 원본 분포를 "upper_us count" 줄로 씁니다. (비어 있는 버킷은 생략)
+         */
+        public void appendBuckets(StringBuilder out) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) out.append(bucketUpperMicros(i)).append(' ').append(counts[i]).append('\n');
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: n=%d p50=%s p90=%s p99=%s max=%s mean=%s", name, count,
+                    formatMicros(getValueAtQuantile(0.5)), formatMicros(getValueAtQuantile(0.9)),
+                    formatMicros(getValueAtQuantile(0.99)), formatMicros(getMaxMicros()),
+                    formatMicros((long) getMeanMicros()));
+        }
+    }
+
+    /** 사람이 읽기 쉬운 단위로 (µs / ms / s) */
+    static String formatMicros(long micros) {
+        if (micros < 1000) return micros + "us";
+        if (micros < 1_000_000) return String.format(Locale.US, "%.1fms", micros / 1000.0);
+        return String.format(Locale.US, "%.2fs", micros / 1_000_000.0);
+    }
+}
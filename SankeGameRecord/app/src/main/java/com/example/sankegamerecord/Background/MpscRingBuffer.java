@@ -0,0 +1,109 @@
+package com.example.sankegamerecord.Background;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 여러 생산자(보드 리더 스레드)와 소비자 하나(writer 스레드)가 락 없이 주고받는 고정 크기 링 버퍼입니다.
+ * <p>
+ * - 슬롯마다 순번(sequence)을 두어, 생산자는 tail을 CAS로 한 칸 예약한 뒤 값을 쓰고 순번을 올려 공개합니다.
+ *   (Vyukov 방식 bounded MPMC 큐를 소비자 하나로 단순화한 형태)
+ * - 소비자는 순번으로 슬롯이 채워졌는지 확인하고 읽은 뒤 한 바퀴 뒤의 순번으로 돌려 놓습니다.
+ * - 가득 차면 offer()가 바로 false를 반환합니다. 기다리는 정책은 사용하는 쪽(RecordIngestPipeline)이 정합니다.
+ * <p>
+ * poll(), drainTo()는 한 스레드에서만 호출해야 합니다.
+ *
+ * @param <E> 원소 타입
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(); // 다음에 예약할 생산 위치
+    private volatile long head;                      // 다음에 읽을 위치 (소비자만 씀)
+
+    /**
+     * @param capacity 최대 원소 수 (2의 거듭제곱으로 올림)
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    /** 생산자: 원소를 넣습니다. 가득 차 있으면 false (기다리지 않음) */
+    public boolean offer(E element) {
+        if (element == null) throw new NullPointerException();
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(index, element);
+                    // 소비자가 잠들기 직전 확인과 엇갈리지 않도록 순번은 volatile로 공개
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // 소비자가 아직 한 바퀴 전 원소를 가져가지 않음 (가득 참)
+            } else {
+                pos = tail.get(); // 다른 생산자가 먼저 예약함
+            }
+        }
+    }
+
+    /** 소비자: 가장 오래된 원소를 꺼냅니다. 비어 있으면 null */
+    public E poll() {
+        long pos = head;
+        int index = (int) pos & mask;
+        if (sequences.get(index) != pos + 1) return null; // 아직 공개되지 않음
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.lazySet(index, pos + capacity);
+        head = pos + 1;
+        return element;
+    }
+
+    /**
+     * 소비자: 최대 maxElements개를 꺼내 target에 추가합니다.
+     * @return 꺼낸 원소 수
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int count = 0;
+        E element;
+        while (count < maxElements && (element = poll()) != null) {
+            target.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /** 현재 들어 있는 원소 수 (동시에 변하므로 근삿값) */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /** 소비자가 바로 꺼낼 원소가 없는지 (예약만 되고 아직 공개되지 않은 원소는 없는 것으로 봄) */
+    public boolean isEmpty() {
+        long pos = head;
+        return sequences.get((int) pos & mask) != pos + 1;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
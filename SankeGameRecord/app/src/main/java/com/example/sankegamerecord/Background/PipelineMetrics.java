@@ -0,0 +1,181 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기록 한 건이 보드에서 도착해 랭킹/기록 화면에 그려지기까지 단계별로 걸린 시간을 모으는 프로세스 전역 측정기입니다.
+ * <p>
+ * 단계와 기록 위치:
+ * - 수신: 리더 스레드가 완성된 프레임을 받은 시각 (BoardConnectionManager)
+ * - 파싱: 프레임 → GameRecord 완료 (BoardConnectionManager, ProtocolInterpreter.makeRecord 직후)
+ * - 커밋: 묶음 트랜잭션이 커밋된 시각 (GetRecordService.writeBatch, RecordAdapter.addRecord/RankAdapter.addScore 포함)
+ * - 화면: 그 기록의 행이 처음 그려진 시각 (RecordListAdapter.onBindViewHolder)
+ * <p>
+ * 기록마다 (장치, playdate)로 만든 키로 앞 단계 시각을 작은 고정 크기 표에 잠시 기억했다가 다음 단계에서 찾아
+ * 구간 시간을 LatencyHistogram에 더합니다. 표가 넘치면 오래된 항목을 덮어쓰므로 일부 기록은 측정에서 빠질 수 있지만,
+ * 측정 때문에 수집 경로가 기다리거나 메모리가 늘어나지는 않습니다.
+ * 화면이 닫혀 있다가 나중에 그려진 기록처럼 MAX_TRACE_AGE_MILLIS보다 오래된 항목은 지연으로 세지 않습니다.
+ */
+public final class PipelineMetrics {
+
+    public static final long MAX_TRACE_AGE_MILLIS = 60_000;
+    private static final long MAX_TRACE_AGE_NANOS = TimeUnit.MILLISECONDS.toNanos(MAX_TRACE_AGE_MILLIS);
+    private static final int TRACE_SLOTS = 1024; // 2의 거듭제곱
+
+    private static final PipelineMetrics INSTANCE = new PipelineMetrics();
+
+    /** 프로세스 전체에서 공유하는 측정기 (서비스의 수집 경로 → 진단 화면) */
+    public static PipelineMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    private final LatencyHistogram parse = new LatencyHistogram("parse");
+    private final LatencyHistogram readToCommit = new LatencyHistogram("read->commit");
+    private final LatencyHistogram commit = new LatencyHistogram("commit(batch)");
+    private final LatencyHistogram commitToBind = new LatencyHistogram("commit->bind");
+    private final LatencyHistogram readToBind = new LatencyHistogram("read->bind");
+
+    // 진행 중인 기록: 키 → 수신 시각, 커밋 시각 (0이면 아직). 칸 하나에 하나, 충돌하면 덮어씀 (this로 동기화)
+    private final long[] traceKeys = new long[TRACE_SLOTS];
+    private final long[] receivedNanos = new long[TRACE_SLOTS];
+    private final long[] committedNanos = new long[TRACE_SLOTS];
+    private volatile int awaitingBind; // 커밋됐지만 아직 화면에 그려지지 않은 항목 수 (0이면 화면 쪽은 바로 반환)
+    private volatile long startedMillis = System.currentTimeMillis();
+
+    PipelineMetrics() {
+    }
+
+    /**
+     * 리더 스레드: 프레임을 받아 record로 파싱함
+     * @param frameNanos 프레임을 받은 시각 (System.nanoTime)
+     */
+    public void frameParsed(GameRecord record, long frameNanos) {
+        long now = System.nanoTime();
+        parse.recordNanos(now - frameNanos);
+        long key = traceKey(record);
+        int slot = slotOf(key);
+        synchronized (this) {
+            if (committedNanos[slot] != 0) awaitingBind--; // 그려지지 않은 항목을 덮어씀
+            traceKeys[slot] = key;
+            receivedNanos[slot] = frameNanos;
+            committedNanos[slot] = 0;
+        }
+    }
+
+    /**
+     * writer 스레드: 묶음 하나가 트랜잭션 하나로 커밋됨
+     * @param startNanos 트랜잭션을 시작한 시각 (System.nanoTime)
+     */
+    public void batchCommitted(List<GameRecord> batch, long startNanos) {
+        long now = System.nanoTime();
+        commit.recordNanos(now - startNanos);
+        synchronized (this) {
+            for (GameRecord record : batch) {
+                long key = traceKey(record);
+                int slot = slotOf(key);
+                if (traceKeys[slot] != key || committedNanos[slot] != 0) continue; // 덮어써졌거나 재전송된 중복
+                readToCommit.recordNanos(now - receivedNanos[slot]);
+                committedNanos[slot] = now;
+                awaitingBind++;
+            }
+        }
+    }
+
+    /** UI 스레드: 기록의 행이 화면에 그려짐. 커밋 후 처음 그려질 때만 셉니다. */
+    public void rowBound(GameRecord record) {
+        if (awaitingBind == 0) return; // 대부분의 bind (스크롤 등)는 여기서 끝남
+        long now = System.nanoTime();
+        long key = traceKey(record);
+        int slot = slotOf(key);
+        synchronized (this) {
+            long committed = committedNanos[slot];
+            if (traceKeys[slot] != key || committed == 0) return;
+            if (now - committed <= MAX_TRACE_AGE_NANOS) {
+                commitToBind.recordNanos(now - committed);
+                readToBind.recordNanos(now - receivedNanos[slot]);
+            }
+            traceKeys[slot] = 0;
+            committedNanos[slot] = 0;
+            awaitingBind--;
+        }
+    }
+
+    /** 단계 순서대로의 현재 분포 */
+    public List<LatencyHistogram.Snapshot> snapshots() {
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>(5);
+        for (LatencyHistogram histogram : histograms()) snapshots.add(histogram.snapshot());
+        return snapshots;
+    }
+
+    /** 모든 분포와 진행 중인 항목을 지우고 새로 측정을 시작합니다. */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms()) histogram.reset();
+        synchronized (this) {
+            for (int i = 0; i < TRACE_SLOTS; i++) {
+                traceKeys[i] = 0;
+                committedNanos[i] = 0;
+            }
+            awaitingBind = 0;
+        }
+        startedMillis = System.currentTimeMillis();
+    }
+
+    /** 측정을 시작한(마지막으로 reset한) 시각 */
+    public long getStartedMillis() {
+        return startedMillis;
+    }
+
+    /** 화면 표시용 요약 (단계마다 한 줄) */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (LatencyHistogram.Snapshot snapshot : snapshots()) sb.append(snapshot).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * 오프라인 분석용으로 요약과 단계별 원본 버킷을 씁니다.
+     * 형식: "# stage <이름>" 줄 다음에 "upper_us count" 줄들
+     */
+    public void dumpTo(Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# pipeline latency since ").append(new Date(startedMillis)).append('\n');
+        for (LatencyHistogram.Snapshot snapshot : snapshots()) sb.append("# ").append(snapshot).append('\n');
+        for (LatencyHistogram.Snapshot snapshot : snapshots()) {
+            sb.append("# stage ").append(snapshot.getName()).append('\n');
+            snapshot.appendBuckets(sb);
+        }
+        out.write(sb.toString());
+        out.flush();
+    }
+
+    private LatencyHistogram[] histograms() {
+        return new LatencyHistogram[]{parse, readToCommit, commit, commitToBind, readToBind};
+    }
+
+    /** (장치, playdate)를 섞은 키. 0은 빈 칸 표시라 쓰지 않음 */
+    static long traceKey(GameRecord record) {
+        LocalDateTime playdate = record.Playdate();
+        long h = playdate.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + playdate.getNano();
+        h = h * 31 + record.Device().hashCode();
+        // 64비트 섞기 (murmur3 finalizer): 비슷한 playdate가 이웃 칸에 고르게 퍼지도록
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h != 0 ? h : 1;
+    }
+
+    private static int slotOf(long key) {
+        return (int) key & (TRACE_SLOTS - 1);
+    }
+}
@@ -1,100 +1,75 @@
 package com.example.sankegamerecord.Background;
 
-import android.os.Build;
-
 import com.example.sankegamerecord.Adapter.GameRecord;
 
-import java.time.Duration; // 시간 간격 (플레이 시간)을 나타내는 클래스
-import java.time.LocalDateTime; // 날짜와 시간 정보를 나타내는 클래스
-import java.time.format.DateTimeFormatter; // 날짜/시간 문자열 형식을 지정하는 클래스
-import java.time.format.DateTimeParseException; // 날짜/시간 파싱 실패 시 발생하는 예외
-import java.util.Objects; // 객체의 null 여부 등을 확인하는 유틸리티
+import java.nio.charset.StandardCharsets;
 
 /**
  * 블루투스를 통해 주고받는 통신 프레임(문자열)을 해석(파싱)하거나 생성하는 유틸리티 클래스입니다.
  * 외부 장치(게임 기기 등)와의 데이터 통신 규약(프로토콜)을 처리합니다.
+ * <p>
+ * 실제 파싱은 RplFrameParser(텍스트)와 WireProtocol(바이너리)이 바이트 슬라이스 위에서 수행하며,
+ * 이 클래스는 파싱 결과 홀더를 재사용하면서 GameRecord로 변환하는 역할만 합니다.
+ * 결과 홀더를 재사용하므로 한 인스턴스는 한 스레드에서만 사용해야 합니다.
  */
 public class ProtocolInterpreter {
 
-    // 생성자를 private으로 선언하여 외부에서 객체를 생성할 수 없도록 합니다.
-    // 이 클래스는 모든 메서드가 static처럼 사용되는 유틸리티 클래스임을 의미합니다.
-    public ProtocolInterpreter() {}
-
-    /**
-     * "HH:mm:ss:SSS" 형태의 문자열을 Java의 Duration 객체로 변환합니다.
-     * @param timeString 파싱할 시간 문자열 (예: "01:30:500" -> 1분 30초 500밀리초)
-     * @return Duration 객체
-     * @throws DateTimeParseException 형식이 맞지 않거나 숫자가 아닐 경우 발생
-     */
-    private static Duration parseDuration(String timeString) {
-        // null 체크: timeString이 null이면 NullPointerException 발생
-        Objects.requireNonNull(timeString, "Duration 문자열은 null일 수 없습니다.");
-
-        // 문자열을 ':' 기준으로 분(mm), 초(ss), 밀리초(SSS)로 분리
-        String[] parts = timeString.split(":");
-        if (parts.length != 3) {
-            // 구분자가 3개가 아니면 형식 오류
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                throw new DateTimeParseException("Duration 형식이 'mm:ss:SSS'가 아닙니다.", timeString, 0);
-            }
-        }
+    // 파싱 결과를 담는 재사용 홀더 (프레임마다 새로 만들지 않음)
+    private final RplFrameParser.Result result = new RplFrameParser.Result();
 
-        try {
-            // 각 부분을 Long 타입으로 변환
+    // 마지막 파싱 결과 코드 (실패 원인 확인용)
+    private RplFrameParser.Status lastStatus = RplFrameParser.Status.OK;
 
-            long minutes = Long.parseLong(parts[0]);
-            long seconds = Long.parseLong(parts[1]);
-            long millis = Long.parseLong(parts[2]);
+    // 이 인터프리터가 해석하는 프레임을 보낸 보드 (GameRecord.Device에 붙음)
+    private final String device;
 
-            // 각 단위별로 Duration 객체를 생성하고 합산
-            return Duration.ofMinutes(minutes)
-                    .plusSeconds(seconds)
-                    .plusMillis(millis);
+    public ProtocolInterpreter() {
+        this("");
+    }
 
-        } catch (NumberFormatException e) {
-            // Long.parseLong() 중 숫자가 아닌 문자가 포함되었을 경우
-            throw new DateTimeParseException("Duration 구성 요소가 유효한 숫자가 아닙니다.", timeString, 0, e);
-        }
+    /**
+     * 보드 하나(연결 하나) 전용 인터프리터를 만듭니다.
+     * @param device 보드 식별자 (블루투스 MAC 주소 등)
+     */
+    public ProtocolInterpreter(String device) {
+        this.device = device;
     }
+
     /**
      * 수신된 게임 기록 프레임 문자열을 GameRecord 객체로 변환(파싱)합니다.
-     * 프로토콜 형식: "[날짜 시간] [플레이시간] [성공여부]"
-     * 예: "2025-11-13 17:00:00 01:30:500 true"
+     * 프로토콜 형식: "RPL|[날짜 시간]|[플레이시간]|[성공여부]"
+     * 예: "RPL|2025-11-13 17:00:00|01:30:500|true"
      * @param Frame 파싱할 기록 프레임 문자열
      * @return GameRecord 객체, 파싱 실패 시 null
      */
     public GameRecord makeRecord(String Frame) {
+        if (Frame == null) return null;
+        byte[] bytes = Frame.getBytes(StandardCharsets.UTF_8);
+        return makeRecord(bytes, 0, bytes.length);
+    }
 
-        // LocalDateTime 파싱을 위한 형식 지정
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-        try {
-            // 프레임을 공백(' ') 기준으로 분리합니다.
-            String[] data = Frame.split("\\|");
-            // 예상되는 data 배열의 요소:
-            // data[0]: [구분자], data[1]: "yyyy-MM-dd HH:mm:ss", data[2]: [플레이시간], data[3]: [성공여부]
-            if(data.length == 4 && data[0].equals("RPL")) {
-                // 1. 날짜 및 시간 파싱
-                LocalDateTime dateTime = LocalDateTime.parse(data[1], formatter);
-
-                // 2. 플레이 시간(Duration) 파싱 (위의 parseDuration 메서드 사용)
-                Duration duration = parseDuration(data[2]);
-                Boolean success = Boolean.parseBoolean(data[3]);
-                // 3. GameRecord 객체 생성
-                // dataTime, success: data[3] (boolean)
-                return new GameRecord(dateTime, duration, success);
-            }
-
-        } catch (DateTimeParseException e) {
-            // 날짜/시간 또는 Duration 형식 파싱 실패 시
-            System.err.println("기록 프레임 파싱 실패: " + e.getMessage());
-            return null;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            // split 결과 배열의 크기가 예상과 다를 때 (프레임 형식이 잘못되었을 때)
-            System.err.println("프레임 요소 개수 오류: 예상치 못한 형식입니다.");
+    /**
+     * 수신 버퍼의 프레임 슬라이스를 String으로 바꾸지 않고 바로 GameRecord로 변환합니다.
+     * 첫 바이트가 SOF이면 바이너리 RECORD 프레임으로, 아니면 기존 텍스트 프레임으로 해석합니다.
+     * @return GameRecord 객체, 파싱 실패 시 null (원인은 getLastStatus()로 확인)
+     */
+    public GameRecord makeRecord(byte[] frame, int offset, int length) {
+        lastStatus = WireProtocol.isBinaryFrame(frame, offset, length)
+                ? WireProtocol.decodeRecord(frame, offset, length, result)
+                : RplFrameParser.parse(frame, offset, length, result);
+        if (lastStatus != RplFrameParser.Status.OK) {
             return null;
         }
-        return null;
+        return result.toGameRecord(device);
     }
 
-}
\ No newline at end of file
+    /** 마지막으로 파싱에 성공한 기록의 일련번호 (프로토콜 버전 2), 일련번호가 없는 형식이면 -1 */
+    public long getLastSequence() {
+        return lastStatus == RplFrameParser.Status.OK ? result.sequence : -1;
+    }
+
+    /** 마지막 makeRecord 호출의 파싱 결과 코드 */
+    public RplFrameParser.Status getLastStatus() {
+        return lastStatus;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.sankegamerecord.Background;
+
+import java.util.Random;
+
+/**
+ * 보드 연결이 끊기거나 연결에 실패했을 때 다시 연결할지, 얼마나 기다릴지 정하는 정책입니다.
+ * <p>
+ * - 대기 시간은 실패할 때마다 두 배로 늘어나고(지수 백오프) maxDelayMillis를 넘지 않습니다.
+ * - 여러 보드가 같은 순간에 끊겨도 한꺼번에 재연결하지 않도록, 대기 시간의 절반은 무작위로 정합니다.
+ *   (equal jitter: 상한의 절반 ~ 상한)
+ * - 한 번도 연결되지 않은 보드(잘못 고른 장치, 꺼진 보드)는 maxInitialRetries번까지만 다시 시도하고,
+ *   한 번이라도 연결됐던 보드는 maxRetries번까지 다시 시도합니다.
+ * <p>
+ * 변경할 수 없는 객체이므로 여러 세션이 함께 써도 됩니다. 연속 실패 횟수는 세션이 직접 셉니다.
+ */
+public final class ReconnectPolicy {
+
+    /** 다시 연결하지 않음 */
+    public static final ReconnectPolicy NONE = new ReconnectPolicy(0, 0, 0, 0);
+
+    /** 0.5초부터 최대 30초 간격으로, 연결됐던 보드는 끊길 때마다 계속 다시 연결 */
+    public static final ReconnectPolicy DEFAULT = new ReconnectPolicy(500, 30_000, 2, Integer.MAX_VALUE);
+
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int maxInitialRetries;
+    private final int maxRetries;
+
+    /**
+     * @param baseDelayMillis   첫 재시도 전 대기 시간의 상한
+     * @param maxDelayMillis    대기 시간 상한의 최댓값
+     * @param maxInitialRetries 한 번도 연결되지 않은 보드의 최대 재시도 횟수
+     * @param maxRetries        연결됐던 보드의 연속 최대 재시도 횟수
+     */
+    public ReconnectPolicy(long baseDelayMillis, long maxDelayMillis, int maxInitialRetries, int maxRetries) {
+        if (baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis || maxInitialRetries < 0 || maxRetries < 0) {
+            throw new IllegalArgumentException("invalid reconnect policy");
+        }
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxInitialRetries = maxInitialRetries;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * 다음 재연결 전에 기다릴 시간을 계산합니다.
+     * @param failures      연속 실패 횟수 (방금 실패한 것 포함, 1부터)
+     * @param everConnected 이 세션에서 한 번이라도 연결된 적이 있는지
+     * @return 대기 시간(밀리초), 더 이상 다시 연결하지 않으면 -1
+     */
+    public long delayMillis(int failures, boolean everConnected, Random random) {
+        if (failures > (everConnected ? maxRetries : maxInitialRetries)) return -1;
+        long cap = maxDelayMillis;
+        int shift = failures - 1;
+        if (shift < 62 && baseDelayMillis <= maxDelayMillis >> shift) cap = baseDelayMillis << shift;
+        long half = cap / 2;
+        return cap - half + (long) (random.nextDouble() * (half + 1));
+    }
+
+    @Override
+    public String toString() {
+        return "ReconnectPolicy{" + baseDelayMillis + ".." + maxDelayMillis + " ms, initialRetries="
+                + maxInitialRetries + ", retries=" + (maxRetries == Integer.MAX_VALUE ? "∞" : maxRetries) + "}";
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 파싱된 GameRecord를 bounded 큐에 모았다가 전용 writer 스레드 하나가 묶음(batch) 단위로 저장하는 수집 단계입니다.
+ * <p>
+ * - 큐는 락 없는 MpscRingBuffer입니다. 여러 보드 리더 스레드가 동시에 넣어도 서로 락을 기다리지 않고,
+ *   writer 스레드가 잠들어 있을 때만 깨웁니다.
+ * - 큐가 가득 차면 submit()이 지정한 시간만큼 기다리며(back-pressure), 그래도 자리가 없으면 거부합니다.
+ * - writer 스레드는 첫 기록을 받은 뒤 최대 lingerMillis 동안 또는 maxBatchSize개가 찰 때까지 더 모아서
+ *   BatchWriter에 한 번에 넘깁니다. BatchWriter는 묶음 하나를 트랜잭션 하나로 커밋하는 것을 전제로 합니다.
+ * - 저장이 실패하면 간격을 늘려 가며 MAX_WRITE_ATTEMPTS번까지 다시 시도하고, 그래도 실패하면 FailureListener에 넘깁니다.
+ * - submit()이 true를 반환한 기록은 stop() 뒤에도 빠짐없이 BatchWriter에 넘어갑니다.
+ * - 큐 깊이, 커밋 수, 커밋 지연 시간 등의 카운터를 제공합니다.
+ */
+public class RecordIngestPipeline {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    public static final long DEFAULT_LINGER_MILLIS = 200;
+
+    /** 한 묶음을 저장하는 최대 시도 횟수 (첫 시도 포함) */
+    public static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 100; // 다시 시도하기 전 쉬는 시간 (시도마다 두 배)
+
+    /** writer 스레드에서 호출되어 묶음 하나를 저장합니다. 예외를 던지면 묶음 전체를 다시 시도합니다. */
+    public interface BatchWriter {
+        void writeBatch(List<GameRecord> batch) throws Exception;
+    }
+
+    /** 다시 시도해도 저장하지 못한 묶음을 받습니다. (writer 스레드에서 호출) */
+    public interface FailureListener {
+        /**
+         * @param batch 저장하지 못한 기록 (호출자가 보관해도 되는 복사본)
+         * @param cause 마지막 시도의 예외
+         */
+        void onBatchFailed(List<GameRecord> batch, Exception cause);
+    }
+
+    private final BatchWriter writer;
+    private final FailureListener failureListener;
+    private final MpscRingBuffer<GameRecord> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+    private volatile boolean writerParked; // writer가 빈 큐에서 잠들려는 중 (submit이 깨워야 함)
+    // running을 확인하고 큐에 넣는 중인 submit() 수 (writer는 0이 된 뒤에 마지막으로 비움)
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    // 큐가 가득 찼을 때 생산자가 다시 시도하기 전 잠드는 시간 (짧게 시작해 점점 늘림)
+    private static final long FULL_BACKOFF_MIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long FULL_BACKOFF_MAX_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // 카운터
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private volatile long lastCommitNanos;
+    private volatile long maxCommitNanos;
+    private volatile int maxQueueDepth;
+
+    public RecordIngestPipeline(BatchWriter writer) {
+        this(writer, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH_SIZE, DEFAULT_LINGER_MILLIS);
+    }
+
+    /**
+     * @param writer        묶음을 저장하는 콜백 (writer 스레드에서 호출)
+     * @param capacity      큐 최대 크기 (2의 거듭제곱으로 올림)
+     * @param maxBatchSize  한 번에 커밋할 최대 기록 수
+     * @param lingerMillis  첫 기록 이후 묶음을 더 모으며 기다리는 최대 시간
+     */
+    public RecordIngestPipeline(BatchWriter writer, int capacity, int maxBatchSize, long lingerMillis) {
+        this(writer, null, capacity, maxBatchSize, lingerMillis);
+    }
+
+    /**
+     * @param writer          묶음을 저장하는 콜백 (writer 스레드에서 호출)
+     * @param failureListener 끝내 저장하지 못한 묶음을 받을 콜백 (null이면 실패 수만 셈)
+     * @param capacity        큐 최대 크기 (2의 거듭제곱으로 올림)
+     * @param maxBatchSize    한 번에 커밋할 최대 기록 수
+     * @param lingerMillis    첫 기록 이후 묶음을 더 모으며 기다리는 최대 시간
+     */
+    public RecordIngestPipeline(BatchWriter writer, FailureListener failureListener,
+                                int capacity, int maxBatchSize, long lingerMillis) {
+        if (capacity <= 0 || maxBatchSize <= 0 || lingerMillis < 0) {
+            throw new IllegalArgumentException("invalid pipeline configuration");
+        }
+        this.writer = writer;
+        this.failureListener = failureListener;
+        this.queue = new MpscRingBuffer<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+    }
+
+    /** writer 스레드를 시작합니다. */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        Thread thread = new Thread(this::writerLoop, "RecordIngestWriter");
+        writerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * 기록을 큐에 넣습니다. 큐가 가득 차 있으면 최대 timeoutMillis 동안 기다립니다.
+     * @return 큐에 들어갔으면 true, 시간 안에 자리가 나지 않았거나 중지된 상태면 false
+     */
+    public boolean submit(GameRecord record, long timeoutMillis) {
+        // running 확인과 offer 사이에 stop()이 끼어들어도 writer가 마지막으로 비우기 전에 이 기록을 기다림
+        submitting.incrementAndGet();
+        try {
+            if (!running || (!queue.offer(record) && !offerWithBackoff(record, timeoutMillis))) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        } finally {
+            submitting.decrementAndGet();
+        }
+        submitted.incrementAndGet();
+        int depth = queue.size();
+        if (depth > maxQueueDepth) maxQueueDepth = depth;
+        if (writerParked) LockSupport.unpark(writerThread);
+        return true;
+    }
+
+    /** 큐가 가득 찬 경우: writer가 자리를 비울 때까지 조금씩 쉬며 다시 시도 */
+    private boolean offerWithBackoff(GameRecord record, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long backoff = FULL_BACKOFF_MIN_NANOS;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            LockSupport.parkNanos(this, Math.min(backoff, remaining));
+            if (queue.offer(record)) return true;
+            backoff = Math.min(backoff * 2, FULL_BACKOFF_MAX_NANOS);
+        }
+        return false;
+    }
+
+    /**
+     * 새 기록을 더 받지 않고, 큐에 남은 기록을 모두 저장한 뒤 writer 스레드를 종료합니다.
+     * @param timeoutMillis writer 스레드 종료를 기다리는 최대 시간
+     * @return writer 스레드가 끝났으면 true, 시간 안에 끝나지 않았으면 false (아직 BatchWriter 안에 있을 수 있음)
+     */
+    public boolean stop(long timeoutMillis) {
+        Thread thread;
+        synchronized (this) {
+            thread = writerThread;
+            if (thread == null) return true; // 시작한 적 없음
+            if (running) {
+                running = false;
+                LockSupport.unpark(thread); // 빈 큐에서 잠들어 있으면 바로 깨워 종료
+            }
+        }
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !thread.isAlive();
+    }
+
+    private void writerLoop() {
+        List<GameRecord> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            GameRecord first = take(TimeUnit.MILLISECONDS.toNanos(100));
+            if (first == null) continue;
+            batch.add(first);
+
+            // linger 시간 동안 묶음을 더 모음
+            long deadline = System.nanoTime() + lingerNanos;
+            while (batch.size() < maxBatchSize) {
+                if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) continue;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) break;
+                GameRecord next = take(remaining);
+                if (next == null) break;
+                batch.add(next);
+            }
+
+            commit(batch);
+            batch.clear();
+        }
+        // stop() 직전에 들어온 기록까지 저장 (이미 running을 확인한 submit()이 끝나기를 기다림)
+        while (submitting.get() > 0) LockSupport.parkNanos(this, FULL_BACKOFF_MIN_NANOS);
+        if (queue.drainTo(batch, Integer.MAX_VALUE) > 0) commit(batch);
+    }
+
+    /**
+     * writer 스레드: 기록 하나를 꺼냅니다. 비어 있으면 submit()이 깨울 때까지 최대 nanos 동안 잠듭니다.
+     * @return 기록, 시간이 지났거나 중지되었으면 null
+     */
+    private GameRecord take(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        GameRecord record;
+        while ((record = queue.poll()) == null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) return null;
+            // 잠들겠다고 먼저 알린 뒤 한 번 더 확인 (그 사이 들어온 기록의 unpark를 놓치지 않음)
+            writerParked = true;
+            record = queue.poll();
+            if (record == null) LockSupport.parkNanos(this, remaining);
+            writerParked = false;
+            if (record != null) return record;
+        }
+        return record;
+    }
+
+    /** writer 스레드: 묶음 하나를 저장합니다. 실패하면 간격을 두 배로 늘려 가며 다시 시도합니다. */
+    private void commit(List<GameRecord> batch) {
+        long t0 = System.nanoTime();
+        long backoff = RETRY_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writer.writeBatch(batch);
+                committed.addAndGet(batch.size());
+                break;
+            } catch (Exception e) {
+                if (attempt < MAX_WRITE_ATTEMPTS && sleepBeforeRetry(backoff)) {
+                    retried.incrementAndGet();
+                    backoff *= 2;
+                    continue;
+                }
+                failed.addAndGet(batch.size());
+                e.printStackTrace();
+                if (failureListener != null) {
+                    try {
+                        failureListener.onBatchFailed(new ArrayList<>(batch), e);
+                    } catch (RuntimeException listenerFailure) {
+                        listenerFailure.printStackTrace();
+                    }
+                }
+                break;
+            }
+        }
+        long elapsed = System.nanoTime() - t0;
+        batches.incrementAndGet();
+        totalCommitNanos.addAndGet(elapsed);
+        lastCommitNanos = elapsed;
+        if (elapsed > maxCommitNanos) maxCommitNanos = elapsed;
+    }
+
+    /** @return 다시 시도해도 되면 true, 인터럽트되었으면 false (인터럽트 상태는 유지) */
+    private static boolean sleepBeforeRetry(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // -----------------------------
+    // 카운터
+    // -----------------------------
+
+    /** 현재 큐에 쌓여 있는 기록 수 */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /** 큐가 가득 차거나 중지되어 거부된 기록 수 */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getCommittedCount() {
+        return committed.get();
+    }
+
+    /** 다시 시도해도 저장하지 못한 기록 수 */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /** 실패한 묶음을 다시 시도한 횟수 */
+    public long getRetryCount() {
+        return retried.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getLastCommitLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(lastCommitNanos);
+    }
+
+    public long getMaxCommitLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxCommitNanos);
+    }
+
+    public long getAverageCommitLatencyMicros() {
+        long count = batches.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalCommitNanos.get() / count);
+    }
+
+    @Override
+    public String toString() {
+        return "RecordIngestPipeline{queue=" + getQueueDepth() + "/max " + maxQueueDepth
+                + ", submitted=" + getSubmittedCount() + ", rejected=" + getRejectedCount()
+                + ", committed=" + getCommittedCount() + ", failed=" + getFailedCount() + ", retries=" + getRetryCount()
+                + ", batches=" + getBatchCount()
+                + ", commitLatencyUs(avg/max)=" + getAverageCommitLatencyMicros() + "/" + getMaxCommitLatencyMicros()
+                + "}";
+    }
+}
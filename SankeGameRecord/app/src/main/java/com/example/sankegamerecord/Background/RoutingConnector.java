@@ -0,0 +1,47 @@
+package com.example.sankegamerecord.Background;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 주소 앞의 "scheme://"로 전송 방식을 고르는 Connector입니다.
+ * <p>
+ * 예: "tcp://10.0.2.2:7000" → TcpConnector에 "10.0.2.2:7000"으로 연결
+ *     "mem://board-1"       → InMemoryTransport에 "board-1"로 연결
+ *     "00:11:22:33:44:55"   → scheme이 없으므로 기본 전송(블루투스 RFCOMM)
+ * <p>
+ * BoardConnectionManager는 원래 주소 그대로를 보드 식별자로 쓰므로, 같은 보드라도 전송 방식이 다르면 다른 보드로 집계됩니다.
+ */
+public final class RoutingConnector implements BoardConnectionManager.Connector {
+
+    private static final String SEPARATOR = "://";
+
+    private final BoardConnectionManager.Connector defaultConnector;
+    private final Map<String, BoardConnectionManager.Connector> schemes = new ConcurrentHashMap<>();
+
+    /**
+     * @param defaultConnector scheme이 없는 주소를 연결할 전송 방식 (없으면 null, 그런 주소는 연결 실패)
+     */
+    public RoutingConnector(BoardConnectionManager.Connector defaultConnector) {
+        this.defaultConnector = defaultConnector;
+    }
+
+    /** scheme(예: "tcp")에 전송 방식을 등록합니다. */
+    public RoutingConnector register(String scheme, BoardConnectionManager.Connector connector) {
+        schemes.put(scheme, connector);
+        return this;
+    }
+
+    @Override
+    public BoardConnectionManager.Link connect(String address) throws IOException {
+        int separator = address.indexOf(SEPARATOR);
+        if (separator < 0) {
+            if (defaultConnector == null) throw new IOException("no transport for " + address);
+            return defaultConnector.connect(address);
+        }
+        BoardConnectionManager.Connector connector = schemes.get(address.substring(0, separator));
+        if (connector == null) throw new IOException("unknown transport: " + address);
+        return connector.connect(address.substring(separator + SEPARATOR.length()));
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * "RPL|yyyy-MM-dd HH:mm:ss|mm:ss:SSS|true" 형식의 기록 프레임을 바이트 슬라이스 위에서 한 번에 읽는 파서입니다.
+ * 바이너리 프로토콜 이전 펌웨어가 보내는 "RPL|yyyy-MM-dd HH:mm:ss|초|점수" 형식도 함께 받아들입니다.
+ * <p>
+ * 중간 String, 정규식 split, DateTimeFormatter, 예외를 사용하지 않고 각 필드를 바로 기본형(primitive)으로 읽습니다.
+ * 결과는 호출자가 재사용하는 {@link Result}에 채워지고, 실패 원인은 {@link Status}로 반환됩니다.
+ * <p>
+ * 기존 ProtocolInterpreter 구현보다 엄격합니다. 부호가 붙은 숫자, 존재하지 않는 날짜(예: 2월 30일),
+ * true/false 이외의 성공 여부 값, 필드 뒤의 여분 '|'는 모두 거부합니다.
+ */
+public final class RplFrameParser {
+
+    /** 파싱 결과 코드. OK 이외의 값은 모두 실패를 의미합니다. */
+    public enum Status {
+        OK,
+        NOT_RPL,        // "RPL|" 로 시작하지 않음
+        FIELD_COUNT,    // 필드 개수가 4개가 아님
+        BAD_DATE,       // 날짜/시간 형식 또는 범위 오류
+        BAD_DURATION,   // 플레이 시간 형식 오류
+        BAD_SUCCESS,    // 성공 여부가 true/false(또는 점수)가 아님
+        BAD_LENGTH,     // 바이너리 프레임 길이 오류
+        BAD_CRC,        // 바이너리 프레임 CRC 불일치
+        UNSUPPORTED_VERSION, // 지원하지 않는 바이너리 프로토콜 버전
+        UNKNOWN_TYPE    // 알 수 없는 바이너리 프레임 종류
+    }
+
+    /**
+     * 점수만 보내는 프레임(구 펌웨어 텍스트, 바이너리)에서 성공으로 보는 최소 점수.
+     * 펌웨어 bt.h의 BT_SUCCESS_SCORE와 같은 값이어야 합니다.
+     */
+    public static final int SUCCESS_SCORE = 10;
+
+    /** 파싱 결과를 담는 재사용 가능한 홀더 (한 스레드 전용) */
+    public static final class Result {
+        public int year, month, day, hour, minute, second;
+        public long playtimeMillis;
+        public boolean success;
+        public int score; // 점수를 보내지 않는 형식이면 -1
+        public long sequence = -1; // 보드가 붙인 일련번호 (프로토콜 버전 2), 없으면 -1
+
+        /** 파싱된 값으로 GameRecord를 만듭니다. (이 단계에서만 객체가 할당됩니다) */
+        public GameRecord toGameRecord() {
+            return toGameRecord("");
+        }
+
+        /** 보낸 보드(device)를 붙여 GameRecord로 변환 */
+        public GameRecord toGameRecord(String device) {
+            return new GameRecord(
+                    LocalDateTime.of(year, month, day, hour, minute, second),
+                    Duration.ofMillis(playtimeMillis),
+                    success,
+                    device);
+        }
+    }
+
+    // 플레이 시간 각 구성 요소의 최대 자릿수 (long 오버플로 방지)
+    private static final int MAX_DURATION_DIGITS = 9;
+
+    private RplFrameParser() {}
+
+    /**
+     * @param frame  프레임 바이트 (구분자와 앞뒤 공백은 이미 제거된 상태)
+     * @param offset 프레임 시작 위치
+     * @param length 프레임 길이
+     * @param out    결과를 채울 홀더. OK가 아니면 내용은 정의되지 않습니다.
+     */
+    public static Status parse(byte[] frame, int offset, int length, Result out) {
+        final int end = offset + length;
+        int p = offset;
+
+        // 1. 구분자 "RPL|"
+        if (length < 4 || frame[p] != 'R' || frame[p + 1] != 'P' || frame[p + 2] != 'L' || frame[p + 3] != '|') {
+            return Status.NOT_RPL;
+        }
+        p += 4;
+
+        // 2. 날짜 "yyyy-MM-dd HH:mm:ss" (고정 19자) + '|'
+        if (end - p < 20) return Status.FIELD_COUNT;
+        int year = digits(frame, p, 4);
+        int month = digits(frame, p + 5, 2);
+        int day = digits(frame, p + 8, 2);
+        int hour = digits(frame, p + 11, 2);
+        int minute = digits(frame, p + 14, 2);
+        int second = digits(frame, p + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0
+                || frame[p + 4] != '-' || frame[p + 7] != '-' || frame[p + 10] != ' '
+                || frame[p + 13] != ':' || frame[p + 16] != ':') {
+            return Status.BAD_DATE;
+        }
+        if (!isValidDateTime(year, month, day, hour, minute, second)) {
+            return Status.BAD_DATE;
+        }
+        p += 19;
+        if (frame[p] != '|') return Status.BAD_DATE;
+        p++;
+
+        // 3-a. 구 펌웨어 형식 "초|점수"
+        int firstSeparator = p;
+        while (firstSeparator < end && frame[firstSeparator] >= '0' && frame[firstSeparator] <= '9') firstSeparator++;
+        if (firstSeparator < end && frame[firstSeparator] == '|') {
+            return parseSecondsAndScore(frame, p, firstSeparator, end,
+                    year, month, day, hour, minute, second, out);
+        }
+
+        // 3-b. 플레이 시간 "mm:ss:SSS" + '|'
+        long total = 0;
+        for (int part = 0; part < 3; part++) {
+            long value = 0;
+            int start = p;
+            while (p < end && frame[p] >= '0' && frame[p] <= '9') {
+                value = value * 10 + (frame[p] - '0');
+                p++;
+            }
+            int count = p - start;
+            if (count == 0 || count > MAX_DURATION_DIGITS) return Status.BAD_DURATION;
+            char expected = part < 2 ? ':' : '|';
+            if (p >= end) return part < 2 ? Status.BAD_DURATION : Status.FIELD_COUNT;
+            if (frame[p] != expected) {
+                return frame[p] == '|' ? Status.FIELD_COUNT : Status.BAD_DURATION;
+            }
+            p++;
+            total += value * (part == 0 ? 60_000L : part == 1 ? 1_000L : 1L);
+        }
+
+        // 4. 성공 여부 (프레임 끝까지)
+        int successLength = end - p;
+        boolean success;
+        if (matchesIgnoreCase(frame, p, successLength, "true")) {
+            success = true;
+        } else if (matchesIgnoreCase(frame, p, successLength, "false")) {
+            success = false;
+        } else {
+            for (int i = p; i < end; i++) {
+                if (frame[i] == '|') return Status.FIELD_COUNT;
+            }
+            return Status.BAD_SUCCESS;
+        }
+
+        out.year = year;
+        out.month = month;
+        out.day = day;
+        out.hour = hour;
+        out.minute = minute;
+        out.second = second;
+        out.playtimeMillis = total;
+        out.success = success;
+        out.score = -1;
+        out.sequence = -1;
+        return Status.OK;
+    }
+
+    /** "초|점수" 형식의 나머지 부분을 읽습니다. 성공 여부는 점수로 판단합니다. */
+    private static Status parseSecondsAndScore(byte[] frame, int p, int separator, int end,
+                                               int year, int month, int day, int hour, int minute, int second,
+                                               Result out) {
+        int secondsDigits = separator - p;
+        if (secondsDigits == 0 || secondsDigits > MAX_DURATION_DIGITS) return Status.BAD_DURATION;
+        long seconds = 0;
+        for (int i = p; i < separator; i++) seconds = seconds * 10 + (frame[i] - '0');
+
+        int scoreStart = separator + 1;
+        int scoreDigits = end - scoreStart;
+        if (scoreDigits == 0 || scoreDigits > 5) return Status.BAD_SUCCESS;
+        int score = 0;
+        for (int i = scoreStart; i < end; i++) {
+            if (frame[i] == '|') return Status.FIELD_COUNT;
+            int d = frame[i] - '0';
+            if (d < 0 || d > 9) return Status.BAD_SUCCESS;
+            score = score * 10 + d;
+        }
+
+        out.year = year;
+        out.month = month;
+        out.day = day;
+        out.hour = hour;
+        out.minute = minute;
+        out.second = second;
+        out.playtimeMillis = seconds * 1_000L;
+        out.score = score;
+        out.sequence = -1;
+        out.success = score >= SUCCESS_SCORE;
+        return Status.OK;
+    }
+
+    /** 날짜/시간 각 필드가 실제로 존재하는 값인지 확인합니다. */
+    static boolean isValidDateTime(int year, int month, int day, int hour, int minute, int second) {
+        return month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(year, month)
+                && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59;
+    }
+
+    /** 고정 길이 10진수를 읽습니다. 숫자가 아닌 문자가 있으면 -1 */
+    private static int digits(byte[] b, int p, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int d = b[p + i] - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /** ASCII 대소문자 무시 비교 (Boolean.parseBoolean과 같은 규칙) */
+    private static boolean matchesIgnoreCase(byte[] b, int p, int length, String word) {
+        if (length != word.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if ((b[p + i] | 0x20) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.sankegamerecord.Background;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * "host:port" 주소로 TCP 연결하는 전송 방식입니다.
+ * PC에서 돌리는 보드 시뮬레이터나 시리얼-TCP 브리지에 붙어 블루투스 없이 수집 경로를 시험할 때 씁니다.
+ * (에뮬레이터에서는 호스트 PC가 10.0.2.2, 실제 기기는 adb reverse로 연결)
+ */
+public final class TcpConnector implements BoardConnectionManager.Connector {
+
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = 5000;
+
+    private final int connectTimeoutMillis;
+
+    public TcpConnector() {
+        this(DEFAULT_CONNECT_TIMEOUT_MS);
+    }
+
+    public TcpConnector(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    @Override
+    public BoardConnectionManager.Link connect(String address) throws IOException {
+        int colon = address.lastIndexOf(':');
+        if (colon <= 0 || colon == address.length() - 1) throw new IOException("invalid address: " + address);
+        int port;
+        try {
+            port = Integer.parseInt(address.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid port: " + address);
+        }
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true); // ACK/RRQ는 짧은 명령이라 모아 보내지 않음
+            socket.connect(new InetSocketAddress(address.substring(0, colon), port), connectTimeoutMillis);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+        return new SocketLink(socket);
+    }
+
+    private static final class SocketLink implements BoardConnectionManager.Link {
+        private final Socket socket;
+
+        SocketLink(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return socket.getInputStream();
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return socket.getOutputStream();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.sankegamerecord.Background;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * STM32 보드와 주고받는 바이너리 프레임 규약입니다. (펌웨어 user/bt.h 와 같은 정의)
+ * <pre>
+ * [SOF 0xA5][VER][TYPE][LEN][PAYLOAD (LEN 바이트)][CRC16 L][CRC16 H]
+ * </pre>
+ * CRC는 CRC-16/CCITT-FALSE (다항식 0x1021, 초기값 0xFFFF)이며 VER부터 PAYLOAD 끝까지 계산합니다.
+ * <p>
+ * RECORD 페이로드 (리틀 엔디언, 13바이트):
+ * <pre>
+ * [0] 연(20xx의 xx) [1] 월 [2] 일 [3] 시 [4] 분 [5] 초
+ * [6..9] 플레이 시간 ms (u32) [10..11] 점수 (u16) [12] 플래그 (bit0 = 성공)
+ * </pre>
+ * 버전 2부터는 뒤에 [13..16] 일련번호(u32)가 붙습니다. 그보다 긴 페이로드의 나머지는 이후 버전의 확장 필드로 보고 무시합니다.
+ * <p>
+ * 보드는 기본적으로 기존 텍스트 프레임("RPL|...\r\n")을 보내며,
+ * 앱이 연결 직후 {@link #HELLO_FRAME}을 보내면 바이너리 프레임으로 전환합니다.
+ * SOF(0xA5)는 ASCII 텍스트에 나오지 않으므로 수신 측은 프레임 첫 바이트로 두 형식을 구분합니다.
+ * <p>
+ * 버전 2의 전달 보장 (앱 ↔ 보드 텍스트 명령):
+ * <pre>
+ * 보드 → 앱  "SYNC|n"  PROTO 요청에 대한 응답. n = 보드가 아직 ACK받지 못한 가장 오래된 일련번호
+ *                      (보낼 기록이 없으면 다음에 쓸 번호). 이어서 n부터의 기록을 다시 보냄
+ *                      RRQ한 번호가 이미 버퍼에서 밀려났을 때도 보냄 (앱은 n-1까지 받은 것으로 보고 넘어감)
+ * 앱 → 보드  "ACK|n"   n 이하의 기록을 모두 받음 (누적 ACK). 보드는 재전송 버퍼에서 지움
+ * 앱 → 보드  "RRQ|n"   n부터 다시 보내 달라는 요청 (중간 기록이 빠졌을 때)
+ * </pre>
+ */
+public final class WireProtocol {
+
+    public static final int SOF = 0xA5;
+    public static final int VERSION = 2;
+    public static final int VERSION_NO_SEQUENCE = 1; // 일련번호 없는 첫 바이너리 버전
+
+    public static final int TYPE_RECORD = 0x01;
+
+    public static final int HEADER_SIZE = 4;
+    public static final int CRC_SIZE = 2;
+    public static final int MAX_PAYLOAD_SIZE = 255;
+    public static final int MAX_FRAME_SIZE = HEADER_SIZE + MAX_PAYLOAD_SIZE + CRC_SIZE;
+
+    public static final int RECORD_PAYLOAD_SIZE = 13;
+    public static final int RECORD_SEQ_PAYLOAD_SIZE = RECORD_PAYLOAD_SIZE + 4; // 버전 2: 일련번호 포함
+    public static final int RECORD_FLAG_SUCCESS = 0x01;
+
+    /** 연결 직후 보드에 보내는 프로토콜 버전 요청 (구 펌웨어는 무시) */
+    public static final byte[] HELLO_FRAME = ("PROTO|" + VERSION + "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+    // 전달 보장 명령 (형식은 클래스 설명 참고)
+    private static final byte[] SYNC_PREFIX = "SYNC|".getBytes(StandardCharsets.US_ASCII);
+    public static final byte[] ACK_PREFIX = "ACK|".getBytes(StandardCharsets.US_ASCII);
+    public static final byte[] RRQ_PREFIX = "RRQ|".getBytes(StandardCharsets.US_ASCII);
+    /** 명령 한 줄의 최대 길이 (접두어 + u32 10자리 + CRLF) */
+    public static final int MAX_COMMAND_SIZE = 4 + 10 + 2;
+    /** 일련번호 최댓값 (u32) */
+    public static final long MAX_SEQUENCE = 0xFFFFFFFFL;
+
+    private WireProtocol() {}
+
+    /** 프레임 첫 바이트가 SOF이면 바이너리 프레임 */
+    public static boolean isBinaryFrame(byte[] b, int offset, int length) {
+        return length > 0 && (b[offset] & 0xFF) == SOF;
+    }
+
+    /**
+     * SOF 위치에서 시작하는 바이너리 프레임의 전체 길이를 계산합니다.
+     * @param available offset부터 사용 가능한 바이트 수
+     * @return 전체 프레임 길이, 헤더가 아직 다 들어오지 않았으면 -1
+     */
+    public static int frameLength(byte[] b, int offset, int available) {
+        if (available < HEADER_SIZE) return -1;
+        return HEADER_SIZE + (b[offset + 3] & 0xFF) + CRC_SIZE;
+    }
+
+    /** 프레임 끝의 CRC가 VER..PAYLOAD의 CRC와 일치하는지 확인합니다. */
+    public static boolean checkCrc(byte[] b, int offset, int frameLength) {
+        int crcPos = offset + frameLength - CRC_SIZE;
+        int expected = (b[crcPos] & 0xFF) | ((b[crcPos + 1] & 0xFF) << 8);
+        return crc16(b, offset + 1, frameLength - 1 - CRC_SIZE) == expected;
+    }
+
+    /** CRC-16/CCITT-FALSE */
+    public static int crc16(byte[] b, int offset, int length) {
+        int crc = 0xFFFF;
+        for (int i = offset; i < offset + length; i++) {
+            crc ^= (b[i] & 0xFF) << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            crc &= 0xFFFF;
+        }
+        return crc;
+    }
+
+    /**
+     * 완성된 바이너리 프레임(SOF..CRC)에서 RECORD를 읽어 결과 홀더에 채웁니다.
+     */
+    public static RplFrameParser.Status decodeRecord(byte[] b, int offset, int length, RplFrameParser.Result out) {
+        if (!isBinaryFrame(b, offset, length)) return RplFrameParser.Status.NOT_RPL;
+        int total = frameLength(b, offset, length);
+        if (total < 0 || total != length) return RplFrameParser.Status.BAD_LENGTH;
+        if (!checkCrc(b, offset, total)) return RplFrameParser.Status.BAD_CRC;
+        int version = b[offset + 1] & 0xFF;
+        if (version < VERSION_NO_SEQUENCE || version > VERSION) return RplFrameParser.Status.UNSUPPORTED_VERSION;
+        if ((b[offset + 2] & 0xFF) != TYPE_RECORD) return RplFrameParser.Status.UNKNOWN_TYPE;
+        int payload = b[offset + 3] & 0xFF;
+        if (payload < (version >= 2 ? RECORD_SEQ_PAYLOAD_SIZE : RECORD_PAYLOAD_SIZE)) {
+            return RplFrameParser.Status.BAD_LENGTH;
+        }
+
+        int p = offset + HEADER_SIZE;
+        int month = b[p + 1] & 0xFF;
+        int day = b[p + 2] & 0xFF;
+        int hour = b[p + 3] & 0xFF;
+        int minute = b[p + 4] & 0xFF;
+        int second = b[p + 5] & 0xFF;
+        int year = 2000 + (b[p] & 0xFF);
+        if (!RplFrameParser.isValidDateTime(year, month, day, hour, minute, second)) {
+            return RplFrameParser.Status.BAD_DATE;
+        }
+
+        out.year = year;
+        out.month = month;
+        out.day = day;
+        out.hour = hour;
+        out.minute = minute;
+        out.second = second;
+        out.playtimeMillis = (b[p + 6] & 0xFFL) | ((b[p + 7] & 0xFFL) << 8)
+                | ((b[p + 8] & 0xFFL) << 16) | ((b[p + 9] & 0xFFL) << 24);
+        out.score = (b[p + 10] & 0xFF) | ((b[p + 11] & 0xFF) << 8);
+        out.success = (b[p + 12] & RECORD_FLAG_SUCCESS) != 0;
+        out.sequence = version >= 2 ? readU32(b, p + RECORD_PAYLOAD_SIZE) : -1;
+        return RplFrameParser.Status.OK;
+    }
+
+    /**
+     * 결과 홀더의 값을 RECORD 프레임으로 인코딩합니다. (시뮬레이터, 테스트용)
+     * 일련번호(sequence)가 0 이상이면 버전 2, 아니면 버전 1 프레임을 만듭니다.
+     * @return 기록한 바이트 수
+     */
+    public static int encodeRecord(RplFrameParser.Result in, byte[] dst, int offset) {
+        boolean withSequence = in.sequence >= 0;
+        int p = offset;
+        dst[p++] = (byte) SOF;
+        dst[p++] = (byte) (withSequence ? VERSION : VERSION_NO_SEQUENCE);
+        dst[p++] = (byte) TYPE_RECORD;
+        dst[p++] = (byte) (withSequence ? RECORD_SEQ_PAYLOAD_SIZE : RECORD_PAYLOAD_SIZE);
+        dst[p++] = (byte) (in.year - 2000);
+        dst[p++] = (byte) in.month;
+        dst[p++] = (byte) in.day;
+        dst[p++] = (byte) in.hour;
+        dst[p++] = (byte) in.minute;
+        dst[p++] = (byte) in.second;
+        long ms = in.playtimeMillis;
+        dst[p++] = (byte) ms;
+        dst[p++] = (byte) (ms >>> 8);
+        dst[p++] = (byte) (ms >>> 16);
+        dst[p++] = (byte) (ms >>> 24);
+        int score = Math.max(0, Math.min(0xFFFF, in.score));
+        dst[p++] = (byte) score;
+        dst[p++] = (byte) (score >>> 8);
+        dst[p++] = (byte) (in.success ? RECORD_FLAG_SUCCESS : 0);
+        if (withSequence) {
+            long seq = in.sequence;
+            dst[p++] = (byte) seq;
+            dst[p++] = (byte) (seq >>> 8);
+            dst[p++] = (byte) (seq >>> 16);
+            dst[p++] = (byte) (seq >>> 24);
+        }
+        int crc = crc16(dst, offset + 1, p - offset - 1);
+        dst[p++] = (byte) crc;
+        dst[p++] = (byte) (crc >>> 8);
+        return p - offset;
+    }
+
+    private static long readU32(byte[] b, int p) {
+        return (b[p] & 0xFFL) | ((b[p + 1] & 0xFFL) << 8) | ((b[p + 2] & 0xFFL) << 16) | ((b[p + 3] & 0xFFL) << 24);
+    }
+
+    /**
+     * 보드가 보낸 "SYNC|n" 텍스트 프레임이면 n을 반환합니다.
+     * @return 일련번호, SYNC 프레임이 아니거나 형식이 틀리면 -1
+     */
+    public static long parseSync(byte[] b, int offset, int length) {
+        if (length <= SYNC_PREFIX.length || length > SYNC_PREFIX.length + 10) return -1;
+        for (int i = 0; i < SYNC_PREFIX.length; i++) {
+            if (b[offset + i] != SYNC_PREFIX[i]) return -1;
+        }
+        long value = 0;
+        for (int i = offset + SYNC_PREFIX.length; i < offset + length; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value <= MAX_SEQUENCE ? value : -1;
+    }
+
+    /**
+     * "ACK|n\r\n", "RRQ|n\r\n" 같은 명령 한 줄을 dst에 씁니다. (dst는 MAX_COMMAND_SIZE 이상)
+     * @param prefix ACK_PREFIX 또는 RRQ_PREFIX
+     * @return 기록한 바이트 수
+     */
+    public static int encodeCommand(byte[] prefix, long sequence, byte[] dst, int offset) {
+        int p = offset;
+        for (byte c : prefix) dst[p++] = c;
+        int digits = 1;
+        for (long v = sequence; v >= 10; v /= 10) digits++;
+        for (int i = digits - 1; i >= 0; i--) {
+            dst[p + i] = (byte) ('0' + sequence % 10);
+            sequence /= 10;
+        }
+        p += digits;
+        dst[p++] = '\r';
+        dst[p++] = '\n';
+        return p - offset;
+    }
+}
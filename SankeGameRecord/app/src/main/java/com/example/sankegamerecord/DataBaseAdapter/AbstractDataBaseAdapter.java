@@ -1,114 +1,253 @@
 package com.example.sankegamerecord.DataBaseAdapter;
 
+import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
 
 import com.example.sankegamerecord.Adapter.GameRecord;
 
 import java.time.Duration; // 시간 간격을 표현하는 자바 클래스 (예: 1분 30초)
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.json.JSONObject; // JSON 데이터를 다루기 위한 클래스 (데이터 직렬화/역직렬화에 사용)
 
 /**
  * SQLite 데이터베이스 작업을 위한 모든 Adapter 클래스의 공통 기본 클래스 (추상 클래스).
- * 데이터베이스 연결/해제, 테이블 공통 컬럼 정의, 데이터 직렬화/역직렬화(JSON) 등
+ * 데이터베이스 연결/해제, 테이블 공통 컬럼 정의, GameRecord와 컬럼 값 사이의 변환 등
  * 모든 하위 Adapter가 공통으로 사용할 기능을 정의합니다.
+ * <p>
+ * 스키마 v2부터 GameRecord는 JSON 문자열이 아니라 타입이 있는 컬럼(playdate, playtime_ms, success)에 저장되므로
+ * 조회 시 JSON 파싱이 필요 없고 인덱스를 걸 수 있습니다.
  */
 public abstract class AbstractDataBaseAdapter {
 
     // 데이터베이스 테이블의 공통 컬럼 이름 정의
     protected static final String COLUMN_ID = "id"; // 각 레코드(행)를 구분하는 고유 ID
-    protected static final String COLUMN_RECORD = "record"; // 실제 게임 기록 데이터를 JSON 문자열 형태로 저장할 컬럼
+    protected static final String COLUMN_PLAYDATE = "playdate"; // 플레이 날짜 및 시간 (epoch 밀리초, UTC 기준으로 환산한 LocalDateTime)
+    protected static final String COLUMN_PLAYTIME_MS = "playtime_ms"; // 플레이 시간 (밀리초)
+    protected static final String COLUMN_SUCCESS = "success"; // 성공 여부 (1 = 성공, 0 = 실패)
+    protected static final String COLUMN_DEVICE = "device"; // 기록을 보낸 보드 (MAC 주소, 모르면 빈 문자열)
+
+    // GameRecord 한 건을 읽을 때 조회하는 컬럼 (readGameRecord와 짝)
+    protected static final String[] RECORD_COLUMNS =
+            {COLUMN_ID, COLUMN_PLAYDATE, COLUMN_PLAYTIME_MS, COLUMN_SUCCESS, COLUMN_DEVICE};
+
+    // 스키마 v1에서 게임 기록을 JSON 문자열로 저장하던 컬럼 (v1 → v2 마이그레이션에서만 사용)
+    private static final String LEGACY_COLUMN_RECORD = "record";
+
+    private static final String TAG = "DataBaseAdapter";
 
     protected final Context context; // 안드로이드 앱의 현재 상태와 환경 정보를 담는 객체
-    protected DatabaseHelper dbHelper; // 데이터베이스 생성, 버전 관리, 연결을 도와주는 헬퍼 클래스
+    protected final DatabaseManager manager; // 프로세스 전체에서 공유하는 연결 관리자 (WAL, 참조 수로 닫기)
     protected SQLiteDatabase database; // 실제 데이터베이스에 명령을 실행하는 데 사용되는 객체
+    private final boolean ownsConnection; // 이 어댑터가 연결을 직접 acquire하는지 (공유받은 경우 release하지 않음)
+    protected final DataChangeNotifier changes = DataChangeNotifier.getInstance(); // 커밋된 변경을 화면에 알림
+
+    // 스레드별로 진행 중인 runInTransaction (같은 연결을 공유하는 다른 어댑터가 커밋/롤백을 알고 싶을 때)
+    private static final ThreadLocal<TransactionScope> transactions = ThreadLocal.withInitial(TransactionScope::new);
 
     /**
-     * 생성자: DatabaseHelper 객체를 초기화합니다.
+     * runInTransaction의 결과를 받는 쪽입니다. 트랜잭션을 시작한 어댑터가 아닌 다른 어댑터
+     * (예: 기록 저장 트랜잭션에 끼어든 RankAdapter)가 메모리에 둔 상태를 커밋된 뒤에만 반영할 때 사용합니다.
+     */
+    protected interface TransactionListener {
+        /** 가장 바깥 트랜잭션이 커밋된 뒤 (쓴 스레드에서, 트랜잭션 밖) */
+        void afterCommit();
+
+        /** 가장 바깥 트랜잭션이 롤백된 뒤 */
+        void afterRollback();
+    }
+
+    /**
+     * 생성자: 공유 연결 관리자를 가져옵니다. (연결은 open()에서 엽니다)
      * @param context 앱 컨텍스트
      */
     public AbstractDataBaseAdapter(Context context) {
         this.context = context;
-        dbHelper = new DatabaseHelper(context);
+        manager = DatabaseManager.getInstance(context);
+        ownsConnection = true;
     }
 
     /**
-     * 데이터베이스를 열고 쓰기 가능한 연결을 설정합니다.
+     * 다른 어댑터가 연 데이터베이스 연결을 그대로 공유하는 생성자입니다.
+     * 여러 테이블에 대한 작업을 하나의 트랜잭션으로 묶을 때 사용하며,
+     * 연결을 반납하는 책임은 원래 어댑터(shared)에 있습니다.
+     * @param shared 연결을 빌려줄 어댑터 (open()된 상태여야 함)
+     */
+    protected AbstractDataBaseAdapter(AbstractDataBaseAdapter shared) {
+        this.context = shared.context;
+        this.manager = shared.manager;
+        this.database = shared.database;
+        ownsConnection = false;
+    }
+
+    /**
+     * 공유 연결을 가져옵니다. 아직 열리지 않았으면 (필요하면 마이그레이션 후) 엽니다.
+     * 디스크 작업이 있을 수 있으므로 메인 스레드가 아닌 곳에서 호출해야 합니다.
      * @return 현재 어댑터 인스턴스
      * @throws SQLException 데이터베이스를 열지 못했을 때 발생
      */
     public AbstractDataBaseAdapter open() throws SQLException {
-        // 데이터베이스를 열거나, 없으면 생성하고, 쓰기 가능한 SQLiteDatabase 객체를 가져옵니다.
-        database = dbHelper.getWritableDatabase();
+        if (ownsConnection && database == null) database = manager.acquire();
         return this;
     }
 
     /**
-     * 데이터베이스 연결을 닫고 리소스를 해제합니다.
+     * 공유 연결을 반납합니다. 다른 어댑터(서비스 등)가 아직 사용 중이면 연결은 닫히지 않습니다.
      */
     public void close() {
-        if (dbHelper != null) dbHelper.close();
+        if (ownsConnection && database != null) {
+            database = null;
+            manager.release();
+        }
+    }
+
+    /**
+     * 주어진 작업을 하나의 트랜잭션 안에서 실행합니다.
+     * 작업 도중 예외가 발생하면 트랜잭션 전체가 롤백되고 예외는 호출자에게 그대로 전달됩니다.
+     * 내부에서 다시 트랜잭션을 시작하는 메서드(addScore 등)는 바깥 트랜잭션에 포함됩니다.
+     * 작업 중에 기록된 변경 알림(DataChangeNotifier)은 커밋된 뒤에 한 번에 전달되고, 롤백되면 버려집니다.
+     * 작업이 끝나면 같은 트랜잭션 안에서 beforeCommit()을, 롤백되면 afterRollback()을 호출합니다.
+     * 가장 바깥 트랜잭션이 끝나면 addTransactionListener()로 등록된 리스너에 커밋/롤백을 알립니다.
+     * @param work 실행할 데이터베이스 작업
+     */
+    public void runInTransaction(Runnable work) {
+        database.beginTransaction();
+        changes.beginTransaction();
+        TransactionScope scope = transactions.get();
+        scope.depth++;
+        boolean committed = false;
+        try {
+            work.run();
+            beforeCommit();
+            database.setTransactionSuccessful();
+            committed = true;
+        } finally {
+            try {
+                database.endTransaction();
+            } catch (RuntimeException e) {
+                committed = false; // 커밋 자체가 실패함
+                throw e;
+            } finally {
+                changes.endTransaction(committed);
+                if (!committed) afterRollback();
+                scope.end(committed);
+            }
+        }
+    }
+
+    /**
+     * 현재 스레드의 runInTransaction이 끝날 때 listener를 부르도록 등록합니다. (중첩되면 가장 바깥 트랜잭션 기준)
+     * @return 등록했으면 true, runInTransaction 밖이면 false (호출자가 바로 반영해야 함)
+     */
+    protected static boolean addTransactionListener(TransactionListener listener) {
+        TransactionScope scope = transactions.get();
+        if (scope.depth == 0) return false;
+        scope.listeners.add(listener);
+        return true;
+    }
+
+    /** 한 스레드에서 진행 중인 runInTransaction과 끝나면 부를 리스너 (SQLite 중첩 트랜잭션과 같은 규칙) */
+    private static final class TransactionScope {
+        int depth;
+        boolean failed;
+        List<TransactionListener> listeners = new ArrayList<>();
+
+        void end(boolean committed) {
+            if (!committed) failed = true;
+            if (--depth > 0) return;
+            List<TransactionListener> ended = listeners;
+            boolean successful = !failed;
+            listeners = new ArrayList<>();
+            failed = false;
+            for (TransactionListener listener : ended) {
+                if (successful) listener.afterCommit();
+                else listener.afterRollback();
+            }
+        }
+    }
+
+    /** runInTransaction의 작업이 끝난 뒤, 커밋 직전에 같은 트랜잭션 안에서 호출됩니다. (모아 둔 쓰기를 내보낼 때 재정의) */
+    protected void beforeCommit() {
+    }
+
+    /** runInTransaction이 롤백된 뒤 호출됩니다. (메모리에 둔 커밋되지 않은 상태를 버릴 때 재정의) */
+    protected void afterRollback() {
     }
 
     // -----------------------------
-    // 공통 함수 (데이터 직렬화/역직렬화 및 포맷팅)
+    // 공통 함수 (GameRecord와 컬럼 값 사이의 변환)
     // -----------------------------
 
     /**
-     * GameRecord 객체를 데이터베이스 저장을 위해 JSON 문자열로 변환합니다. (직렬화)
-     * @param gr 변환할 GameRecord 객체 (외부에서 정의된 것으로 추정)
-     * @return JSON 형식의 문자열
+     * GameRecord 객체를 데이터베이스에 저장할 컬럼 값으로 변환합니다.
+     * @param gr 변환할 GameRecord 객체
+     * @return playdate, playtime_ms, success, device 값이 담긴 ContentValues
      */
-    protected String gameRecordToJson(GameRecord gr) {
-        try {
-            JSONObject json = new JSONObject();
-            json.put("playdate", gr.Playdate().toString()); // 게임 플레이 날짜 및 시간
-            // Duration을 밀리초(long)로 변환하여 저장 (데이터베이스에 저장하기 쉬운 형태로)
-            json.put("playtime", gr.Playtime().toMillis());
-            json.put("success", gr.Success()); // 성공 여부
-            return json.toString();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "{}"; // 오류 발생 시 빈 JSON 반환
-        }
+    protected static ContentValues toContentValues(GameRecord gr) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_PLAYDATE, toEpochMillis(gr.Playdate()));
+        values.put(COLUMN_PLAYTIME_MS, gr.Playtime().toMillis());
+        values.put(COLUMN_SUCCESS, Boolean.TRUE.equals(gr.Success()) ? 1 : 0);
+        values.put(COLUMN_DEVICE, gr.Device());
+        return values;
+    }
+
+    /**
+     * 커서의 현재 행을 GameRecord 객체로 복원합니다.
+     * 커서는 RECORD_COLUMNS(playdate, playtime_ms, success, device)를 포함하고 있어야 합니다.
+     * @param cursor 조회 결과 커서 (현재 위치의 행을 읽음)
+     * @return 복원된 GameRecord 객체
+     */
+    protected static GameRecord readGameRecord(Cursor cursor) {
+        LocalDateTime playdate = fromEpochMillis(cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_PLAYDATE)));
+        Duration playtime = Duration.ofMillis(cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_PLAYTIME_MS)));
+        boolean success = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_SUCCESS)) != 0;
+        String device = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_DEVICE));
+        return new GameRecord(playdate, playtime, success, device);
+    }
+
+    /**
+     * 플레이 날짜(LocalDateTime)를 정렬/인덱스가 가능한 epoch 밀리초로 변환합니다.
+     * 기기에서 받은 시각은 시간대 정보가 없으므로 UTC로 간주해 변환하며, 되돌릴 때도 UTC를 사용합니다.
+     */
+    protected static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /** toEpochMillis()로 저장한 값을 LocalDateTime으로 되돌립니다. */
+    protected static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
     }
 
     /**
-     * 데이터베이스에서 읽어온 JSON 문자열을 GameRecord 객체로 복원합니다. (역직렬화)
+     * 스키마 v1에서 저장한 JSON 문자열을 GameRecord 객체로 복원합니다. (v1 → v2 마이그레이션 전용)
      * @param jsonStr 복원할 JSON 문자열
      * @return 복원된 GameRecord 객체, 오류 시 null
      */
-    protected GameRecord parseGameRecord(String jsonStr) {
+    static GameRecord parseLegacyJson(String jsonStr) {
         try {
             JSONObject json = new JSONObject(jsonStr);
             // 저장된 문자열을 LocalDateTime 객체로 다시 파싱
-            java.time.LocalDateTime playdate = java.time.LocalDateTime.parse(json.getString("playdate"));
+            LocalDateTime playdate = LocalDateTime.parse(json.getString("playdate"));
             // 저장된 밀리초 값을 Duration 객체로 다시 변환
             Duration playtime = Duration.ofMillis(json.getLong("playtime"));
             Boolean success = json.getBoolean("success");
-            return new GameRecord(playdate, playtime, success); // 새 GameRecord 객체 생성 (외부 정의된 생성자 사용)
+            return new GameRecord(playdate, playtime, success);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
-    /**
-     * Duration(시간 간격) 객체를 "분:초.밀리초" 형태의 보기 좋은 문자열로 포맷팅합니다.
-     * @param duration 포맷팅할 Duration 객체
-     * @return 포맷팅된 시간 문자열 (예: "01:30.123")
-     */
-    protected String formatDuration(Duration duration){
-        long minutes = duration.toMinutes(); // 전체 분 계산
-        long seconds = duration.minusMinutes(minutes).getSeconds(); // 분을 제외한 나머지 초 계산
-        long millis = duration.minusMinutes(minutes).minusSeconds(seconds).toMillis(); // 분, 초를 제외한 나머지 밀리초 계산
-        return String.format("%02d:%02d.%03d", minutes, seconds, millis); // 포맷 적용 (두 자리 수, 세 자리 수)
-    }
-
     /**
      * 특정 테이블의 모든 레코드(행)를 조회합니다.
      * @param tableName 조회할 테이블 이름
@@ -129,13 +268,24 @@ public abstract class AbstractDataBaseAdapter {
      */
     protected static class DatabaseHelper extends SQLiteOpenHelper {
         private static final String DATABASE_NAME = "myapp.db"; // 데이터베이스 파일 이름
-        private static final int DATABASE_VERSION = 1; // 데이터베이스 버전 번호 (스키마 변경 시 증가)
+        // 데이터베이스 버전 번호 (스키마 변경 시 증가)
+        // 1: JSON 문자열(record) 컬럼
+        // 2: 타입 컬럼(playdate, playtime_ms, success) + 인덱스
+        // 3: RECORD.playdate UNIQUE 인덱스 (중복 기록 방지)
+        // 4: 보존 정책으로 정리된 기록의 날짜별 집계 테이블(RECORD_DAILY)
+        // 5: 여러 보드 지원 - device 컬럼, RECORD 중복 판정을 (playdate, device)로 변경
+        // 6: 시간별/날짜별/전체 통계 테이블(RECORD_STATS)
+        // 7: 전체 성공 기록의 순위 히스토그램 테이블(RANK_HISTOGRAM)
+        // 8: 통계 분포(RECORD_STATS.sketch)를 성공 기록만으로 다시 만듦
+        private static final int DATABASE_VERSION = 8;
 
         /**
-         * 헬퍼 생성자. 데이터베이스 파일 이름과 버전을 설정합니다.
+         * 헬퍼 생성자. 데이터베이스 파일 이름과 버전을 설정하고 WAL 모드를 켭니다.
+         * (WAL: 쓰기 중에도 다른 연결에서 읽을 수 있음. 프로세스에 하나만 만들어 DatabaseManager가 공유)
          */
-        public DatabaseHelper(Context context) {
+        DatabaseHelper(Context context) {
             super(context, DATABASE_NAME, null, DATABASE_VERSION);
+            setWriteAheadLoggingEnabled(true);
         }
 
         /**
@@ -147,24 +297,103 @@ public abstract class AbstractDataBaseAdapter {
         public void onCreate(SQLiteDatabase db) {
             // RecordAdapter와 RankAdapter에 정의된 SQL문을 실행하여 필요한 테이블들을 생성합니다. (외부 정의 상수)
             db.execSQL(RecordAdapter.CREATE_TABLE_SQL);
+            db.execSQL(RecordAdapter.CREATE_INDEX_SQL);
             db.execSQL(RankAdapter.CREATE_TABLE_SQL);
+            db.execSQL(RankAdapter.CREATE_INDEX_SQL);
+            db.execSQL(RecordAdapter.CREATE_DAILY_TABLE_SQL);
+            db.execSQL(StatsAdapter.CREATE_TABLE_SQL);
+            db.execSQL(RankAdapter.CREATE_HISTOGRAM_TABLE_SQL);
         }
 
         /**
          * 데이터베이스 버전이 변경될 때 (newVersion > oldVersion) 호출됩니다.
-         * 기존 테이블을 제거하고 (DROP TABLE IF EXISTS), onCreate()를 다시 호출하여
-         * 새 스키마로 테이블을 다시 생성합니다. (간단한 버전 업그레이드 전략)
+         * 기존 기록을 지우지 않도록 버전별 마이그레이션을 순서대로 적용합니다.
+         * (onUpgrade는 SQLiteOpenHelper가 연 트랜잭션 안에서 실행되므로 중간에 실패하면 전체가 롤백됩니다.)
          * @param db 업그레이드를 수행할 SQLiteDatabase 객체
          * @param oldVersion 이전 버전 번호
          * @param newVersion 새로운 버전 번호
          */
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-            // 기존 테이블들을 삭제
-            db.execSQL("DROP TABLE IF EXISTS " + RecordAdapter.TABLE_NAME);
-            db.execSQL("DROP TABLE IF EXISTS " + RankAdapter.TABLE_NAME);
-            // 새 버전으로 테이블 다시 생성
-            onCreate(db);
+            if (oldVersion < 2) {
+                migrateJsonTable(db, RecordAdapter.TABLE_NAME, RecordAdapter.CREATE_TABLE_SQL);
+                migrateJsonTable(db, RankAdapter.TABLE_NAME, RankAdapter.CREATE_TABLE_SQL);
+                db.execSQL(RankAdapter.CREATE_INDEX_SQL);
+            }
+            if (oldVersion < 3) {
+                // UNIQUE 인덱스를 만들기 전에 같은 playdate의 중복 행은 가장 먼저 저장된 것만 남김
+                db.execSQL("DELETE FROM " + RecordAdapter.TABLE_NAME + " WHERE " + COLUMN_ID + " NOT IN ("
+                        + "SELECT MIN(" + COLUMN_ID + ") FROM " + RecordAdapter.TABLE_NAME
+                        + " GROUP BY " + COLUMN_PLAYDATE + ")");
+                db.execSQL("DROP INDEX IF EXISTS idx_record_playdate");
+                // v3 당시의 인덱스 (v5에서 device를 포함한 인덱스로 바뀜)
+                db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS ux_record_playdate ON "
+                        + RecordAdapter.TABLE_NAME + "(" + COLUMN_PLAYDATE + ")");
+            }
+            if (oldVersion < 4) {
+                db.execSQL(RecordAdapter.CREATE_DAILY_TABLE_SQL);
+            }
+            if (oldVersion < 5) {
+                // v1에서 바로 올라온 경우 migrateJsonTable이 이미 최신 스키마로 만들었으므로 컬럼이 없을 때만 추가
+                addDeviceColumn(db, RecordAdapter.TABLE_NAME);
+                addDeviceColumn(db, RankAdapter.TABLE_NAME);
+                // 다른 보드가 같은 시각에 끝낸 게임이 중복으로 걸러지지 않도록 (playdate, device)로 판정
+                db.execSQL("DROP INDEX IF EXISTS ux_record_playdate");
+                db.execSQL(RecordAdapter.CREATE_INDEX_SQL);
+            }
+            if (oldVersion < 6) {
+                // 지금까지 저장된 기록(과 정리된 날짜별 집계)으로 통계를 한 번 만들어 둠
+                db.execSQL(StatsAdapter.CREATE_TABLE_SQL);
+                StatsAdapter.rebuild(db);
+            }
+            if (oldVersion < 7) {
+                // 남아 있는 성공 기록으로 전체 순위 히스토그램을 만들어 둠
+                db.execSQL(RankAdapter.CREATE_HISTOGRAM_TABLE_SQL);
+                RankAdapter.rebuildHistogram(db);
+            }
+            if (oldVersion >= 6 && oldVersion < 8) {
+                // v6~7의 분포에는 실패한 판도 들어 있으므로 남아 있는 기록으로 통계를 다시 만듦 (v6 이전은 위에서 이미 만듦)
+                StatsAdapter.rebuild(db);
+            }
+        }
+
+        /** 테이블에 device 컬럼이 없으면 추가합니다. (기존 행은 빈 문자열 = 장치 모름) */
+        private static void addDeviceColumn(SQLiteDatabase db, String table) {
+            try (Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null)) {
+                while (cursor.moveToNext()) {
+                    if (COLUMN_DEVICE.equals(cursor.getString(cursor.getColumnIndexOrThrow("name")))) return;
+                }
+            }
+            db.execSQL("ALTER TABLE " + table + " ADD COLUMN " + COLUMN_DEVICE + " TEXT NOT NULL DEFAULT ''");
+        }
+
+        /**
+         * v1 테이블(JSON record 컬럼)을 v2 스키마로 옮깁니다.
+         * 기존 테이블 이름을 바꿔 두고 새 스키마로 테이블을 만든 뒤, 행마다 JSON을 파싱해 같은 id로 다시 넣습니다.
+         * 파싱할 수 없는 행은 건너뜁니다.
+         */
+        private static void migrateJsonTable(SQLiteDatabase db, String table, String createSql) {
+            String legacyTable = table + "_v1";
+            db.execSQL("ALTER TABLE " + table + " RENAME TO " + legacyTable);
+            db.execSQL(createSql);
+
+            int migrated = 0, skipped = 0;
+            try (Cursor cursor = db.query(legacyTable, new String[]{COLUMN_ID, LEGACY_COLUMN_RECORD},
+                    null, null, null, null, COLUMN_ID + " ASC")) {
+                while (cursor.moveToNext()) {
+                    GameRecord gr = parseLegacyJson(cursor.getString(1));
+                    if (gr == null) {
+                        skipped++;
+                        continue;
+                    }
+                    ContentValues values = toContentValues(gr);
+                    values.put(COLUMN_ID, cursor.getLong(0));
+                    db.insert(table, null, values);
+                    migrated++;
+                }
+            }
+            db.execSQL("DROP TABLE " + legacyTable);
+            Log.i(TAG, "migrated " + table + " to v2: " + migrated + " rows, skipped " + skipped);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 데이터베이스 쓰기 경로에서 화면으로 변경 사실을 알려 주는 프로세스 전역 알림 채널입니다.
+ * <p>
+ * - 테이블마다 세대(generation) 번호를 두고, 변경이 커밋될 때마다 1씩 올립니다. (행마다가 아니라 커밋마다)
+ * - 트랜잭션 안에서 기록된 변경은 스레드별로 모아 두었다가 커밋될 때 한 번에 알리고, 롤백되면 버립니다.
+ * - 리스너는 Executor(보통 메인 스레드)와 함께 등록합니다. 전달이 실행되기 전에 도착한 변경은
+ *   하나로 합쳐서(coalescing) 전달하므로, 기록이 한꺼번에 몰려 들어와도 리스너 호출은 몇 번으로 끝납니다.
+ * <p>
+ * 변경된 행 ID는 한 번의 전달마다 최대 MAX_IDS_PER_CHANGE개까지만 담고, 넘치면 isIdsOverflowed()로 알립니다.
+ */
+public final class DataChangeNotifier {
+
+    public static final int MAX_IDS_PER_CHANGE = 1024;
+
+    private static final DataChangeNotifier INSTANCE = new DataChangeNotifier();
+
+    /** 프로세스 전체에서 공유하는 알림 채널 (서비스의 쓰기 → 화면) */
+    public static DataChangeNotifier getInstance() {
+        return INSTANCE;
+    }
+
+    /** 테이블 변경 알림 (등록할 때 지정한 Executor에서 호출) */
+    public interface Listener {
+        void onTableChanged(TableChange change);
+    }
+
+    /**
+     * 합쳐진 변경 한 묶음입니다. fromGeneration 다음 세대부터 toGeneration까지의 커밋을 포함합니다.
+     */
+    public static final class TableChange {
+        private final String table;
+        private final long fromGeneration;
+        private final long toGeneration;
+        private final long[] ids;
+        private final int removedRows;
+        private final boolean idsOverflowed;
+
+        TableChange(String table, long fromGeneration, long toGeneration, long[] ids, int removedRows,
+                    boolean idsOverflowed) {
+            this.table = table;
+            this.fromGeneration = fromGeneration;
+            this.toGeneration = toGeneration;
+            this.ids = ids;
+            this.removedRows = removedRows;
+            this.idsOverflowed = idsOverflowed;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public long getFromGeneration() {
+            return fromGeneration;
+        }
+
+        public long getToGeneration() {
+            return toGeneration;
+        }
+
+        /** 합쳐진 커밋 수 */
+        public long getCommitCount() {
+            return toGeneration - fromGeneration;
+        }
+
+        /** 추가되거나 바뀐 행 ID (커밋 순서대로) */
+        public long[] getIds() {
+            return ids;
+        }
+
+        /** 삭제된 행 수 (ID 없이 개수만) */
+        public int getRemovedRows() {
+            return removedRows;
+        }
+
+        /** 바뀐 행이 너무 많아 ID 일부가 빠졌는지 */
+        public boolean isIdsOverflowed() {
+            return idsOverflowed;
+        }
+
+        @Override
+        public String toString() {
+            return table + "@" + fromGeneration + ".." + toGeneration + "{ids=" + ids.length
+                    + (idsOverflowed ? "+" : "") + ", removed=" + removedRows + "}";
+        }
+    }
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<PendingTransaction> pending = ThreadLocal.withInitial(PendingTransaction::new);
+
+    DataChangeNotifier() {
+    }
+
+    /**
+     * table의 변경을 executor에서 받도록 등록합니다.
+     * @return 등록 해제 시 넘길 토큰
+     */
+    public Object addListener(String table, Listener listener, Executor executor) {
+        Subscription subscription = new Subscription(table, listener, executor);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /** addListener()로 등록한 리스너를 해제합니다. 아직 전달되지 않은 변경은 버려집니다. */
+    public void removeListener(Object token) {
+        if (token instanceof Subscription && subscriptions.remove(token)) {
+            ((Subscription) token).active = false;
+        }
+    }
+
+    /** table의 현재 세대 번호 (한 번도 바뀌지 않았으면 0) */
+    public long getGeneration(String table) {
+        AtomicLong generation = generations.get(table);
+        return generation != null ? generation.get() : 0;
+    }
+
+    // -----------------------------
+    // 쓰기 경로에서 호출 (AbstractDataBaseAdapter)
+    // -----------------------------
+
+    /** 현재 스레드에서 트랜잭션이 시작됨 (중첩 가능) */
+    public void beginTransaction() {
+        pending.get().depth++;
+    }
+
+    /**
+     * 현재 스레드의 트랜잭션이 끝남. 가장 바깥 트랜잭션이 끝날 때,
+     * 중첩된 트랜잭션까지 모두 성공했으면 모아 둔 변경을 알리고 아니면 버립니다. (SQLite 중첩 트랜잭션과 같은 규칙)
+     */
+    public void endTransaction(boolean successful) {
+        PendingTransaction tx = pending.get();
+        if (tx.depth == 0) throw new IllegalStateException("no transaction in progress");
+        if (!successful) tx.failed = true;
+        if (--tx.depth > 0) return;
+        try {
+            if (!tx.failed) {
+                for (PendingTable table : tx.tables.values()) {
+                    publish(table.table, table.ids, table.idCount, table.removed);
+                }
+            }
+        } finally {
+            tx.tables.clear();
+            tx.failed = false;
+        }
+    }
+
+    /** 행이 추가되거나 바뀜. 트랜잭션 밖이면 바로 알립니다. */
+    public void rowChanged(String table, long id) {
+        PendingTransaction tx = pending.get();
+        if (tx.depth == 0) {
+            publish(table, new long[]{id}, 1, 0);
+            return;
+        }
+        tx.table(table).addId(id);
+    }
+
+    /**
+     * 어느 행이라고 할 수 없는 변경 (다른 테이블에서 만든 메모리 내용 등). 행 ID 없이 세대만 올립니다.
+     * 트랜잭션 밖이면 바로 알립니다.
+     */
+    public void tableChanged(String table) {
+        PendingTransaction tx = pending.get();
+        if (tx.depth == 0) {
+            publish(table, new long[0], 0, 0);
+            return;
+        }
+        tx.table(table);
+    }
+
+    /** 행이 count개 삭제됨. 트랜잭션 밖이면 바로 알립니다. */
+    public void rowsRemoved(String table, int count) {
+        if (count <= 0) return;
+        PendingTransaction tx = pending.get();
+        if (tx.depth == 0) {
+            publish(table, new long[0], 0, count);
+            return;
+        }
+        tx.table(table).removed += count;
+    }
+
+    private void publish(String table, long[] ids, int idCount, int removed) {
+        long generation = generations.computeIfAbsent(table, t -> new AtomicLong()).incrementAndGet();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.table.equals(table)) subscription.post(generation, ids, idCount, removed);
+        }
+    }
+
+    /** 리스너 하나의 등록 정보와, 아직 전달하지 않고 합쳐 둔 변경 */
+    private static final class Subscription {
+        final String table;
+        final Listener listener;
+        final Executor executor;
+        volatile boolean active = true;
+
+        // 아래는 this로 동기화
+        private boolean scheduled;
+        private long fromGeneration;
+        private long toGeneration;
+        private long[] ids = new long[16];
+        private int idCount;
+        private int removed;
+        private boolean overflowed;
+
+        Subscription(String table, Listener listener, Executor executor) {
+            this.table = table;
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void post(long generation, long[] newIds, int newIdCount, int newRemoved) {
+            boolean schedule;
+            synchronized (this) {
+                if (!scheduled) fromGeneration = generation - 1;
+                toGeneration = Math.max(toGeneration, generation);
+                int room = MAX_IDS_PER_CHANGE - idCount;
+                int copy = Math.min(room, newIdCount);
+                if (copy < newIdCount) overflowed = true;
+                if (idCount + copy > ids.length) {
+                    ids = Arrays.copyOf(ids, Math.min(MAX_IDS_PER_CHANGE, Math.max(ids.length * 2, idCount + copy)));
+                }
+                System.arraycopy(newIds, 0, ids, idCount, copy);
+                idCount += copy;
+                removed += newRemoved;
+                schedule = !scheduled;
+                scheduled = true;
+            }
+            // 이미 전달이 예약되어 있으면 거기에 합쳐짐
+            if (schedule) executor.execute(this::deliver);
+        }
+
+        private void deliver() {
+            TableChange change;
+            synchronized (this) {
+                change = new TableChange(table, fromGeneration, toGeneration, Arrays.copyOf(ids, idCount),
+                        removed, overflowed);
+                scheduled = false;
+                idCount = 0;
+                removed = 0;
+                overflowed = false;
+            }
+            if (active) listener.onTableChanged(change);
+        }
+    }
+
+    /** 한 스레드에서 진행 중인 트랜잭션이 모아 둔 변경 */
+    private static final class PendingTransaction {
+        int depth;
+        boolean failed;
+        final LinkedHashMap<String, PendingTable> tables = new LinkedHashMap<>();
+
+        PendingTable table(String name) {
+            PendingTable table = tables.get(name);
+            if (table == null) {
+                table = new PendingTable(name);
+                tables.put(name, table);
+            }
+            return table;
+        }
+    }
+
+    private static final class PendingTable {
+        final String table;
+        long[] ids = new long[8];
+        int idCount;
+        int removed;
+
+        PendingTable(String table) {
+            this.table = table;
+        }
+
+        void addId(long id) {
+            if (idCount == ids.length) ids = Arrays.copyOf(ids, ids.length * 2);
+            ids[idCount++] = id;
+        }
+    }
+}
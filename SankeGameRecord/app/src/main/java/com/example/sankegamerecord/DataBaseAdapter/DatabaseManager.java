@@ -0,0 +1,63 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * 프로세스 전체에서 데이터베이스(myapp.db) 연결 하나를 공유하도록 관리하는 클래스입니다.
+ * <p>
+ * - DatabaseHelper는 프로세스에 하나만 만들고, WAL(write-ahead logging) 모드로 엽니다.
+ *   WAL 모드의 SQLiteDatabase는 쓰기용 주 연결 하나와 읽기 전용 연결 풀을 함께 관리하므로,
+ *   서비스가 쓰는 동안에도 화면의 조회 스레드는 기다리지 않고 마지막 커밋 시점의 데이터를 읽습니다.
+ * - 연결은 처음 acquire()할 때 엽니다. (생성/마이그레이션이 일어날 수 있으므로 메인 스레드에서 호출하지 않아야 함)
+ * - 어댑터마다 acquire()/release()로 참조 수를 관리하고, 마지막 사용자가 반납했을 때만 닫습니다.
+ *   그래서 RankingActivity가 종료되며 닫아도 GetRecordService가 쓰는 연결은 그대로 유지됩니다.
+ */
+public final class DatabaseManager {
+
+    private static final String TAG = "DatabaseManager";
+
+    private static DatabaseManager instance;
+
+    private final SharedResource<SQLiteDatabase> connection;
+
+    /** 프로세스에 하나뿐인 관리자를 반환합니다. (Activity가 아니라 Application 컨텍스트를 보관) */
+    public static synchronized DatabaseManager getInstance(Context context) {
+        if (instance == null) instance = new DatabaseManager(context.getApplicationContext());
+        return instance;
+    }
+
+    private DatabaseManager(Context appContext) {
+        // WAL 모드 헬퍼 (쓰기 연결 1개 + 읽기 연결 풀)
+        AbstractDataBaseAdapter.DatabaseHelper helper = new AbstractDataBaseAdapter.DatabaseHelper(appContext);
+        connection = new SharedResource<>(() -> {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                Log.w(TAG, "Opening database on the main thread");
+            }
+            return helper.getWritableDatabase();
+        }, db -> helper.close());
+    }
+
+    /**
+     * 공유 연결을 가져옵니다. 아직 열리지 않았으면 엽니다. 사용이 끝나면 반드시 release()해야 합니다.
+     */
+    public SQLiteDatabase acquire() {
+        return connection.acquire();
+    }
+
+    /** acquire()한 연결을 반납합니다. 마지막 사용자가 반납하면 연결을 닫습니다. */
+    public void release() {
+        connection.release();
+    }
+
+    /** 현재 연결을 사용 중인 어댑터 수 */
+    public int getRefCount() {
+        return connection.getRefCount();
+    }
+
+    public boolean isOpen() {
+        return connection.isOpen();
+    }
+}
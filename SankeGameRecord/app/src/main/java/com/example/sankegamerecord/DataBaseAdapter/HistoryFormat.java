@@ -0,0 +1,44 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import java.util.Locale;
+
+/**
+ * 기록 내보내기/가져오기 파일 형식입니다. (HistoryWriter, HistoryReader)
+ * <p>
+ * CSV: 사람이 읽고 스프레드시트에서 열 수 있는 형식. 첫 줄은 헤더이고 한 줄에 기록 하나입니다.
+ * <pre>
+ * playdate,playtime_ms,success,device
+ * 2025-03-05T14:30:07,31234,1,AA:BB:CC:DD:EE:FF
+ * </pre>
+ * BINARY: 작고 빠른 형식. 헤더("SGRH" + 버전) 뒤에 기록마다
+ * [playdate 차이(zigzag varint)][playtime_ms(varint)][(장치 번호 &lt;&lt; 1) | 성공(varint)]를 적습니다.
+ * 장치 번호 0은 새 장치로 바로 뒤에 [길이(varint)][UTF-8]이 오고, k는 k번째로 나온 장치입니다.
+ * 기록 하나는 보통 5~7바이트입니다.
+ */
+public enum HistoryFormat {
+    CSV("csv", "text/csv"),
+    BINARY("sgrh", "application/octet-stream");
+
+    private final String extension;
+    private final String mimeType;
+
+    HistoryFormat(String extension, String mimeType) {
+        this.extension = extension;
+        this.mimeType = mimeType;
+    }
+
+    /** 파일 확장자 (점 제외) */
+    public String getExtension() {
+        return extension;
+    }
+
+    /** 저장 위치를 고를 때 쓰는 MIME 타입 */
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /** 파일 이름의 확장자로 형식을 고릅니다. (모르면 CSV) */
+    public static HistoryFormat forFileName(String name) {
+        return name != null && name.toLowerCase(Locale.ROOT).endsWith("." + BINARY.extension) ? BINARY : CSV;
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HistoryWriter가 쓴 CSV 또는 바이너리 기록 파일을 채널에서 한 건씩 읽습니다.
+ * <p>
+ * 고정 크기 버퍼(BUFFER_SIZE) 하나로 읽으므로 파일 크기와 관계없이 메모리 사용량이 일정합니다.
+ * next()가 true를 반환하면 getter로 현재 기록을 읽습니다. (기록마다 객체를 만들지 않고, 장치 문자열은 같은 값을 재사용)
+ * <p>
+ * 형식은 파일 앞부분으로 판단합니다. ("SGRH"로 시작하면 바이너리, 아니면 CSV)
+ * CSV는 헤더 줄이 없어도 되고, 날짜는 "yyyy-MM-ddTHH:mm:ss[.SSS]"(T 대신 공백도 가능) 또는 저장값(epoch 밀리초),
+ * 성공 여부는 1/0 또는 true/false를 받습니다. 형식이 맞지 않으면 위치(CSV는 줄 번호)를 담은 IOException을 던집니다.
+ * <p>
+ * 스레드 안전하지 않습니다. close()는 채널도 닫습니다.
+ */
+public final class HistoryReader implements Closeable {
+
+    static final int BUFFER_SIZE = HistoryWriter.BUFFER_SIZE;
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private final ReadableByteChannel channel;
+    private final HistoryFormat format;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    // 현재 기록
+    private long playdateMillis;
+    private long playtimeMillis;
+    private boolean success;
+    private String device = "";
+    private long count;
+
+    // 바이너리: 장치 번호(1부터) → 문자열
+    private final List<String> devices = new ArrayList<>();
+    // CSV: 앞 기록의 장치와 그 바이트 (같은 바이트면 문자열을 다시 만들지 않음)
+    private byte[] lastDeviceBytes = new byte[0];
+    private String lastDevice = "";
+    private long lineNumber;
+
+    /**
+     * 파일 앞부분을 읽어 형식을 정하고 헤더를 건너뜁니다.
+     * @throws IOException 읽기 실패, 또는 바이너리 헤더의 버전을 모를 때
+     */
+    public HistoryReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        while (limit < HistoryWriter.MAGIC.length + 1 && fill()) {
+            // 헤더를 판단할 만큼 채움
+        }
+        if (limit >= HistoryWriter.MAGIC.length + 1
+                && Arrays.equals(Arrays.copyOf(buffer, HistoryWriter.MAGIC.length), HistoryWriter.MAGIC)) {
+            format = HistoryFormat.BINARY;
+            int version = buffer[HistoryWriter.MAGIC.length];
+            if (version != HistoryWriter.VERSION) throw new IOException("unknown history format version " + version);
+            position = HistoryWriter.MAGIC.length + 1;
+        } else {
+            format = HistoryFormat.CSV;
+        }
+    }
+
+    /** 파일 형식 */
+    public HistoryFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * 다음 기록을 읽습니다.
+     * @return 기록이 있으면 true, 파일 끝이면 false
+     * @throws IOException 읽기 실패 또는 형식 오류 (그 전까지 읽은 기록은 유효)
+     */
+    public boolean next() throws IOException {
+        boolean read = format == HistoryFormat.BINARY ? nextBinary() : nextCsv();
+        if (read) count++;
+        return read;
+    }
+
+    /** 플레이 날짜 (데이터베이스에 저장하는 값: 현지 시각을 UTC로 환산한 epoch 밀리초) */
+    public long getPlaydateMillis() {
+        return playdateMillis;
+    }
+
+    public long getPlaytimeMillis() {
+        return playtimeMillis;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /** 보드 주소 (없으면 빈 문자열) */
+    public String getDevice() {
+        return device;
+    }
+
+    /** 지금까지 읽은 기록 수 */
+    public long getCount() {
+        return count;
+    }
+
+    // -----------------------------
+    // 바이너리
+    // -----------------------------
+
+    private boolean nextBinary() throws IOException {
+        if (!available(1)) return false;
+        available(3 * MAX_VARINT_BYTES); // 파일 끝이면 남은 만큼만
+        long delta = readVarLong();
+        long playtime = readVarLong();
+        long flags = readVarLong();
+        if (playtime < 0 || flags < 0 || flags >>> 1 > Integer.MAX_VALUE) throw corrupt("bad record");
+        int deviceId = (int) (flags >>> 1);
+        if (deviceId == 0) {
+            available(MAX_VARINT_BYTES);
+            long length = readVarLong();
+            if (length < 0 || length > HistoryWriter.MAX_DEVICE_BYTES) throw corrupt("bad device length " + length);
+            if (!available((int) length)) throw corrupt("truncated device");
+            device = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            if (devices.size() < HistoryWriter.MAX_DEVICES) devices.add(device);
+        } else {
+            if (deviceId > devices.size()) throw corrupt("unknown device " + deviceId);
+            device = devices.get(deviceId - 1);
+        }
+        playdateMillis += (delta >>> 1) ^ -(delta & 1);
+        playtimeMillis = playtime;
+        success = (flags & 1) != 0;
+        return true;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) throw corrupt("truncated record");
+            int b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw corrupt("bad varint");
+    }
+
+    private IOException corrupt(String message) {
+        return new IOException("corrupt history file after " + count + " records: " + message);
+    }
+
+    // -----------------------------
+    // CSV
+    // -----------------------------
+
+    private boolean nextCsv() throws IOException {
+        while (true) {
+            int end = indexOfNewline(); // 버퍼를 채우면서 앞으로 옮길 수 있으므로 시작 위치는 그 뒤에 읽음
+            if (end < 0) return false;
+            int start = position;
+            position = end < limit ? end + 1 : end; // 마지막 줄은 줄바꿈 없이 끝날 수 있음
+            lineNumber++;
+            if (end > start && buffer[end - 1] == '\r') end--;
+            if (end == start) continue; // 빈 줄
+            if (lineNumber == 1 && startsWith(start, end, "playdate")) continue; // 헤더
+            parseCsvLine(start, end);
+            return true;
+        }
+    }
+
+    /** 현재 위치부터 다음 줄 끝(줄바꿈 위치 또는 파일 끝의 limit)을 찾음. 남은 줄이 없으면 -1 */
+    private int indexOfNewline() throws IOException {
+        int scanned = position;
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                if (buffer[i] == '\n') return i;
+            }
+            if (eof) return position < limit ? limit : -1;
+            if (position == 0 && limit == buffer.length) {
+                throw new IOException("line " + (lineNumber + 1) + ": longer than " + buffer.length + " bytes");
+            }
+            scanned = limit - position; // fill()이 남은 바이트를 앞으로 옮김
+            fill();
+            scanned = Math.min(scanned, limit);
+        }
+    }
+
+    private void parseCsvLine(int start, int end) throws IOException {
+        int comma1 = indexOf(',', start, end);
+        int comma2 = comma1 < 0 ? -1 : indexOf(',', comma1 + 1, end);
+        int comma3 = comma2 < 0 ? -1 : indexOf(',', comma2 + 1, end);
+        if (comma3 < 0) throw csvError("expected 4 fields");
+        playdateMillis = parsePlaydate(start, comma1);
+        playtimeMillis = parseLong(comma1 + 1, comma2, "playtime_ms");
+        if (playtimeMillis < 0) throw csvError("negative playtime_ms");
+        success = parseSuccess(comma2 + 1, comma3);
+        device = parseDevice(comma3 + 1, end);
+    }
+
+    private long parsePlaydate(int start, int end) throws IOException {
+        if (indexOf('T', start, end) < 0 && indexOf(' ', start, end) < 0) {
+            return parseLong(start, end, "playdate"); // 저장값 그대로
+        }
+        // yyyy-MM-ddTHH:mm:ss[.SSS]
+        int length = end - start;
+        if ((length != 19 && length != 23) || buffer[start + 4] != '-' || buffer[start + 7] != '-'
+                || (buffer[start + 10] != 'T' && buffer[start + 10] != ' ')
+                || buffer[start + 13] != ':' || buffer[start + 16] != ':'
+                || (length == 23 && buffer[start + 19] != '.')) {
+            throw csvError("bad playdate");
+        }
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        int hour = digits(start + 11, 2);
+        int minute = digits(start + 14, 2);
+        int second = digits(start + 17, 2);
+        int millis = length == 23 ? digits(start + 20, 3) : 0;
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+            throw csvError("bad playdate");
+        }
+        long days = HistoryWriter.daysFromCivil(year, month, day);
+        return days * HistoryWriter.DAY_MILLIS + hour * 3_600_000L + minute * 60_000L + second * 1000L + millis;
+    }
+
+    private int digits(int from, int count) throws IOException {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = buffer[i] - '0';
+            if (d < 0 || d > 9) throw csvError("bad playdate");
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private long parseLong(int start, int end, String field) throws IOException {
+        boolean negative = end > start && buffer[start] == '-';
+        int i = negative ? start + 1 : start;
+        if (i >= end || end - i > 19) throw csvError("bad " + field);
+        long value = 0;
+        for (; i < end; i++) {
+            int d = buffer[i] - '0';
+            if (d < 0 || d > 9) throw csvError("bad " + field);
+            value = value * 10 + d;
+        }
+        if (value < 0) throw csvError("bad " + field); // 19자리 오버플로
+        return negative ? -value : value;
+    }
+
+    private boolean parseSuccess(int start, int end) throws IOException {
+        if (end - start == 1 && (buffer[start] == '1' || buffer[start] == '0')) return buffer[start] == '1';
+        if (equalsIgnoreCase(start, end, "true")) return true;
+        if (equalsIgnoreCase(start, end, "false")) return false;
+        throw csvError("bad success");
+    }
+
+    private String parseDevice(int start, int end) throws IOException {
+        if (end > start && buffer[start] == '"') {
+            // 따옴표로 감싼 값: "" → " (드문 경우라 문자열을 새로 만듦)
+            if (end - start < 2 || buffer[end - 1] != '"') throw csvError("unterminated quote");
+            String quoted = new String(buffer, start + 1, end - start - 2, StandardCharsets.UTF_8);
+            lastDeviceBytes = null;
+            return quoted.replace("\"\"", "\"");
+        }
+        if (end - start > HistoryWriter.MAX_DEVICE_BYTES) throw csvError("device too long");
+        if (lastDeviceBytes == null || !Arrays.equals(buffer, start, end, lastDeviceBytes, 0, lastDeviceBytes.length)) {
+            lastDeviceBytes = Arrays.copyOfRange(buffer, start, end);
+            lastDevice = new String(lastDeviceBytes, StandardCharsets.UTF_8);
+        }
+        return lastDevice;
+    }
+
+    private int indexOf(char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == c) return i;
+        }
+        return -1;
+    }
+
+    private boolean startsWith(int start, int end, String prefix) {
+        if (end - start < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer[start + i] != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private boolean equalsIgnoreCase(int start, int end, String s) {
+        if (end - start != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.toLowerCase((char) buffer[start + i]) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private IOException csvError(String message) {
+        return new IOException("line " + lineNumber + ": " + message);
+    }
+
+    // -----------------------------
+    // 버퍼
+    // -----------------------------
+
+    /** 버퍼에 n바이트가 있도록 채움. 파일 끝이라 모자라면 false */
+    private boolean available(int n) throws IOException {
+        while (limit - position < n) {
+            if (eof || !fill()) return false;
+        }
+        return true;
+    }
+
+    /** 읽은 부분을 버리고 뒤를 채널에서 채움. 더 읽은 바이트가 없으면(파일 끝) false */
+    private boolean fill() throws IOException {
+        if (eof) return false;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) return false;
+        ByteBuffer target = ByteBuffer.wrap(buffer, limit, buffer.length - limit);
+        int read;
+        do {
+            read = channel.read(target);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 기록을 CSV 또는 바이너리 형식(HistoryFormat)으로 채널에 씁니다.
+ * <p>
+ * 고정 크기 버퍼(BUFFER_SIZE) 하나에 바로 인코딩하고 차면 채널로 내보내므로, 기록 수와 관계없이 메모리 사용량이 일정합니다.
+ * 기록마다 String이나 byte[]를 만들지 않습니다. (새 장치 문자열을 처음 쓸 때만 인코딩)
+ * <p>
+ * 스레드 안전하지 않습니다. close()는 남은 버퍼를 내보내고 채널도 닫습니다.
+ */
+public final class HistoryWriter implements Closeable {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final byte[] MAGIC = {'S', 'G', 'R', 'H'};
+    static final int VERSION = 1;
+    static final String CSV_HEADER = "playdate,playtime_ms,success,device";
+    /** 장치 번호를 붙여 기억하는 최대 장치 수 (넘으면 매번 문자열을 그대로 씀) */
+    static final int MAX_DEVICES = 1024;
+    /** 장치 문자열의 최대 UTF-8 길이 */
+    static final int MAX_DEVICE_BYTES = 1024;
+
+    private final WritableByteChannel channel;
+    private final HistoryFormat format;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+    private int position;
+
+    // 바이너리: 앞 기록의 playdate, 장치 → 번호(1부터)
+    private long previousPlaydate;
+    private final Map<String, Integer> deviceIds = new HashMap<>();
+    // CSV: 앞 기록의 장치와 그 인코딩 (같은 보드 기록이 이어지므로 대부분 재사용)
+    private String lastDevice;
+    private byte[] lastDeviceBytes;
+
+    private long count;
+
+    /**
+     * 헤더를 씁니다. (채널에는 버퍼가 차거나 flush()/close()할 때 씀)
+     */
+    public HistoryWriter(WritableByteChannel channel, HistoryFormat format) {
+        this.channel = channel;
+        this.format = format;
+        if (format == HistoryFormat.BINARY) {
+            System.arraycopy(MAGIC, 0, buffer, 0, MAGIC.length);
+            buffer[MAGIC.length] = VERSION;
+            position = MAGIC.length + 1;
+        } else {
+            position = putAscii(CSV_HEADER, 0);
+            buffer[position++] = '\n';
+        }
+    }
+
+    /**
+     * 기록 하나를 씁니다.
+     * @param playdateMillis 플레이 날짜 (데이터베이스에 저장된 값: 현지 시각을 UTC로 환산한 epoch 밀리초)
+     * @param playtimeMillis 플레이 시간 (0 이상)
+     * @param device 보드 주소 (없으면 빈 문자열)
+     * @throws IllegalArgumentException 플레이 시간이 음수이거나, 장치 문자열이 너무 길거나 (CSV에서) 줄바꿈을 포함할 때
+     */
+    public void write(long playdateMillis, long playtimeMillis, boolean success, String device) throws IOException {
+        if (playtimeMillis < 0) throw new IllegalArgumentException("negative playtime: " + playtimeMillis);
+        if (device == null) device = "";
+        if (format == HistoryFormat.BINARY) writeBinary(playdateMillis, playtimeMillis, success, device);
+        else writeCsv(playdateMillis, playtimeMillis, success, device);
+        count++;
+    }
+
+    /** 지금까지 쓴 기록 수 */
+    public long getCount() {
+        return count;
+    }
+
+    private void writeBinary(long playdate, long playtime, boolean success, String device) throws IOException {
+        Integer id = deviceIds.get(device);
+        byte[] inline = null;
+        if (id == null) {
+            inline = deviceBytes(device);
+            if (deviceIds.size() < MAX_DEVICES) deviceIds.put(device, deviceIds.size() + 1);
+        }
+        ensure(3 * 10 + (inline == null ? 0 : 5 + inline.length));
+        long delta = playdate - previousPlaydate;
+        previousPlaydate = playdate;
+        position = putVarLong(buffer, position, (delta << 1) ^ (delta >> 63));
+        position = putVarLong(buffer, position, playtime);
+        position = putVarLong(buffer, position, (long) (id == null ? 0 : id) << 1 | (success ? 1 : 0));
+        if (inline != null) {
+            position = putVarLong(buffer, position, inline.length);
+            System.arraycopy(inline, 0, buffer, position, inline.length);
+            position += inline.length;
+        }
+    }
+
+    private void writeCsv(long playdate, long playtime, boolean success, String device) throws IOException {
+        if (!device.equals(lastDevice)) {
+            if (device.indexOf('\n') >= 0 || device.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("device contains a line break");
+            }
+            lastDeviceBytes = deviceBytes(quoteIfNeeded(device));
+            lastDevice = device;
+        }
+        ensure(24 + 1 + 20 + 3 + lastDeviceBytes.length + 1);
+        position = putDateTime(playdate, position);
+        buffer[position++] = ',';
+        position = putDecimal(playtime, position);
+        buffer[position++] = ',';
+        buffer[position++] = (byte) (success ? '1' : '0');
+        buffer[position++] = ',';
+        System.arraycopy(lastDeviceBytes, 0, buffer, position, lastDeviceBytes.length);
+        position += lastDeviceBytes.length;
+        buffer[position++] = '\n';
+    }
+
+    private static byte[] deviceBytes(String device) {
+        byte[] bytes = device.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_DEVICE_BYTES) throw new IllegalArgumentException("device too long: " + bytes.length);
+        return bytes;
+    }
+
+    /** 쉼표나 따옴표가 있으면 따옴표로 감쌈 (RFC 4180) */
+    private static String quoteIfNeeded(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /** "yyyy-MM-ddTHH:mm:ss" (밀리초가 있으면 ".SSS" 추가) */
+    private int putDateTime(long epochMillis, int pos) {
+        long days = Math.floorDiv(epochMillis, DAY_MILLIS);
+        int millisOfDay = (int) Math.floorMod(epochMillis, DAY_MILLIS);
+        // 0000~9999년 밖이면(보드 시계 오류) 숫자 그대로 씀 (읽을 때도 받음)
+        if (days < MIN_EPOCH_DAY || days > MAX_EPOCH_DAY) return putDecimal(epochMillis, pos);
+        long date = civilFromDays(days);
+        pos = putDigits((int) (date / 10_000), 4, pos);
+        buffer[pos++] = '-';
+        pos = putDigits((int) (date / 100 % 100), 2, pos);
+        buffer[pos++] = '-';
+        pos = putDigits((int) (date % 100), 2, pos);
+        buffer[pos++] = 'T';
+        pos = putDigits(millisOfDay / 3_600_000, 2, pos);
+        buffer[pos++] = ':';
+        pos = putDigits(millisOfDay / 60_000 % 60, 2, pos);
+        buffer[pos++] = ':';
+        pos = putDigits(millisOfDay / 1000 % 60, 2, pos);
+        int millis = millisOfDay % 1000;
+        if (millis != 0) {
+            buffer[pos++] = '.';
+            pos = putDigits(millis, 3, pos);
+        }
+        return pos;
+    }
+
+    static final long DAY_MILLIS = 86_400_000L;
+    static final long MIN_EPOCH_DAY = -719_528; // 0000-01-01
+    static final long MAX_EPOCH_DAY = 2_932_896; // 9999-12-31
+
+    /** 1970-01-01부터의 날 수 → yyyyMMdd (객체를 만들지 않는 그레고리력 변환) */
+    static long civilFromDays(long days) {
+        days += 719_468;
+        long era = Math.floorDiv(days, 146_097);
+        long dayOfEra = days - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10_000 + month * 100 + day;
+    }
+
+    /** yyyy, MM, dd → 1970-01-01부터의 날 수 (civilFromDays의 역) */
+    static long daysFromCivil(long year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        long era = Math.floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private int putDigits(int value, int width, int pos) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private int putDecimal(long value, int pos) {
+        if (value < 0) {
+            buffer[pos++] = '-';
+            if (value == Long.MIN_VALUE) return putAscii("9223372036854775808", pos);
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) digits++;
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+
+    private int putAscii(String s, int pos) {
+        for (int i = 0; i < s.length(); i++) buffer[pos++] = (byte) s.charAt(i);
+        return pos;
+    }
+
+    static int putVarLong(byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    /** 버퍼에 n바이트 자리가 없으면 먼저 내보냄 */
+    private void ensure(int n) throws IOException {
+        if (position + n > buffer.length) flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        wrapped.clear().limit(position);
+        while (wrapped.hasRemaining()) channel.write(wrapped);
+        position = 0;
+    }
+
+    /** 버퍼에 남은 내용을 채널로 내보냅니다. */
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import java.util.Locale;
+
+/**
+ * 한 구간(시간, 날짜, 전체)의 플레이 집계입니다. 집계 테이블(RECORD_STATS)의 행 하나와 같습니다.
+ * <p>
+ * 플레이 수, 성공 수, 플레이 시간 합계, 성공 기록 중 최단 시간과 성공 기록의 플레이 시간 분포(PlaytimeSketch)를 가지며,
+ * 모두 더하기만으로 합쳐지므로 여러 행을 merge()해 기간 전체의 통계를 만들 수 있습니다.
+ * <p>
+ * 분포에는 성공 기록만 넣습니다. (실패한 판은 길이가 제각각이라 넣으면 "클리어 시간" 중앙값이 밀림)
+ * 보존 정책으로 정리된 날짜별 집계(RECORD_DAILY)에서 옮겨 온 기록은 분포가 없으므로,
+ * 분위수는 getSketch().getCount()개의 성공 기록만으로 계산됩니다.
+ */
+public final class PlayStats {
+
+    private long plays;
+    private long successes;
+    private long totalPlaytimeMillis;
+    private long bestPlaytimeMillis = -1; // 성공 기록 중 가장 짧은 플레이 시간 (없으면 -1)
+    private final PlaytimeSketch sketch;
+
+    public PlayStats() {
+        this(0, 0, 0, -1, new PlaytimeSketch());
+    }
+
+    /** 저장된 값으로 만듭니다. (bestPlaytimeMillis가 없으면 -1) */
+    public PlayStats(long plays, long successes, long totalPlaytimeMillis, long bestPlaytimeMillis,
+                     PlaytimeSketch sketch) {
+        this.plays = plays;
+        this.successes = successes;
+        this.totalPlaytimeMillis = totalPlaytimeMillis;
+        this.bestPlaytimeMillis = bestPlaytimeMillis;
+        this.sketch = sketch;
+    }
+
+    public void add(GameRecord record) {
+        add(record.Playtime().toMillis(), Boolean.TRUE.equals(record.Success()));
+    }
+
+    public void add(long playtimeMillis, boolean success) {
+        plays++;
+        totalPlaytimeMillis += playtimeMillis;
+        if (success) {
+            successes++;
+            if (bestPlaytimeMillis < 0 || playtimeMillis < bestPlaytimeMillis) bestPlaytimeMillis = playtimeMillis;
+            sketch.add(playtimeMillis);
+        }
+    }
+
+    /** 다른 구간의 집계를 더합니다. (other는 바뀌지 않음) */
+    public void merge(PlayStats other) {
+        plays += other.plays;
+        successes += other.successes;
+        totalPlaytimeMillis += other.totalPlaytimeMillis;
+        if (other.bestPlaytimeMillis >= 0
+                && (bestPlaytimeMillis < 0 || other.bestPlaytimeMillis < bestPlaytimeMillis)) {
+            bestPlaytimeMillis = other.bestPlaytimeMillis;
+        }
+        sketch.merge(other.sketch);
+    }
+
+    public long getPlays() {
+        return plays;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    /** 성공률 (0~1, 플레이가 없으면 0) */
+    public double getSuccessRate() {
+        return plays == 0 ? 0 : (double) successes / plays;
+    }
+
+    public long getTotalPlaytimeMillis() {
+        return totalPlaytimeMillis;
+    }
+
+    /** 평균 플레이 시간 (플레이가 없으면 -1) */
+    public long getMeanPlaytimeMillis() {
+        return plays == 0 ? -1 : totalPlaytimeMillis / plays;
+    }
+
+    /** 성공 기록 중 가장 짧은 플레이 시간 (없으면 -1) */
+    public long getBestPlaytimeMillis() {
+        return bestPlaytimeMillis;
+    }
+
+    /** 성공 기록의 플레이 시간 중앙값 추정 (분포가 없으면 -1) */
+    public long getMedianPlaytimeMillis() {
+        return sketch.getMedianMillis();
+    }
+
+    /** 성공 기록의 플레이 시간 분위수 추정 (q: 0~1, 분포가 없으면 -1) */
+    public long getPlaytimeQuantileMillis(double q) {
+        return sketch.getQuantileMillis(q);
+    }
+
+    public PlaytimeSketch getSketch() {
+        return sketch;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "PlayStats{plays=%d, successRate=%.1f%%, mean=%dms, median=%dms, best=%dms}",
+                plays, getSuccessRate() * 100, getMeanPlaytimeMillis(), getMedianPlaytimeMillis(), bestPlaytimeMillis);
+    }
+}
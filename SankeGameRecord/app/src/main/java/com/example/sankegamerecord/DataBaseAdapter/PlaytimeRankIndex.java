@@ -0,0 +1,130 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import java.util.Locale;
+
+/**
+ * 모든 성공 기록의 플레이 시간으로 순위와 백분위를 구하는 순서 통계 인덱스입니다. (Fenwick tree)
+ * <p>
+ * - 플레이 시간을 BUCKET_MILLIS(10ms) 단위 버킷으로 나눠 세며, 약 21분(BUCKETS개)보다 긴 기록은 마지막 버킷에 넣습니다.
+ * - 기록 추가, "이 기록은 몇 위인가"(rankOf), "상위 p%는 몇 초인가"(playtimeAtFraction)가 모두 O(log BUCKETS)입니다.
+ * - 같은 버킷(10ms 안)의 기록은 같은 순위입니다. 순위 = 1 + 이 기록보다 빠른(더 짧은) 기록 수.
+ * - 버킷별 개수(0이 아닌 것만)로 O(BUCKETS)에 다시 만들 수 있으므로 저장은 RANK_HISTOGRAM 테이블의 버킷별 개수로 합니다.
+ * <p>
+ * 스레드 안전하지 않습니다. (RankAdapter가 리더보드와 같은 락으로 보호)
+ */
+public final class PlaytimeRankIndex {
+
+    /** 버킷 하나의 폭 (순위를 구분하는 최소 시간 차) */
+    public static final long BUCKET_MILLIS = 10;
+    /** 버킷 수 (2의 거듭제곱이라 k번째 찾기를 비트 단위로 내려감) */
+    public static final int BUCKETS = 1 << 17;
+
+    private final int[] tree = new int[BUCKETS + 1]; // 1부터 시작하는 Fenwick 배열
+    private long total;
+
+    /** 순위 조회 결과 */
+    public record Placement(long rank, long total) {
+        /** 상위 몇 %인지 (1위 = 가장 작은 값, 기록이 없으면 100) */
+        public double topPercent() {
+            return total == 0 ? 100 : 100.0 * rank / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d/%d (top %.1f%%)", rank, total, topPercent());
+        }
+    }
+
+    public PlaytimeRankIndex() {
+    }
+
+    /**
+     * 버킷별 개수로 인덱스를 만듭니다. O(BUCKETS)
+     * @param buckets 버킷 번호 (중복 가능, 범위 밖은 가장 가까운 버킷)
+     * @param counts 각 버킷의 기록 수
+     */
+    public static PlaytimeRankIndex fromBuckets(int[] buckets, int[] counts) {
+        PlaytimeRankIndex index = new PlaytimeRankIndex();
+        int[] tree = index.tree;
+        for (int i = 0; i < buckets.length; i++) {
+            tree[clampBucket(buckets[i]) + 1] += counts[i];
+            index.total += counts[i];
+        }
+        for (int i = 1; i <= BUCKETS; i++) {
+            int parent = i + (i & -i);
+            if (parent <= BUCKETS) tree[parent] += tree[i];
+        }
+        return index;
+    }
+
+    /** 플레이 시간이 들어갈 버킷 */
+    public static int bucketOf(long playtimeMillis) {
+        return clampBucket(playtimeMillis / BUCKET_MILLIS);
+    }
+
+    private static int clampBucket(long bucket) {
+        return (int) Math.max(0, Math.min(BUCKETS - 1, bucket));
+    }
+
+    /** 성공 기록 하나를 더합니다. */
+    public void add(long playtimeMillis) {
+        for (int i = bucketOf(playtimeMillis) + 1; i <= BUCKETS; i += i & -i) tree[i]++;
+        total++;
+    }
+
+    /** 인덱스에 든 기록 수 */
+    public long getTotal() {
+        return total;
+    }
+
+    /** playtimeMillis보다 빠른(다른 버킷의 더 짧은) 기록 수 */
+    public long countFaster(long playtimeMillis) {
+        long sum = 0;
+        for (int i = bucketOf(playtimeMillis); i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    /** 이 플레이 시간의 순위 (1부터, 이미 들어 있는 기록이든 가정한 기록이든 같음) */
+    public long rankOf(long playtimeMillis) {
+        return countFaster(playtimeMillis) + 1;
+    }
+
+    /** 이미 인덱스에 들어 있는 기록의 순위와 전체 수 */
+    public Placement placementOf(long playtimeMillis) {
+        return new Placement(rankOf(playtimeMillis), total);
+    }
+
+    /**
+     * rank번째로 빠른 기록의 플레이 시간 (버킷 시작값)
+     * @return 밀리초, rank가 범위 밖이면 -1
+     */
+    public long playtimeAtRank(long rank) {
+        if (rank < 1 || rank > total) return -1;
+        // 누적 개수가 rank보다 작은 가장 긴 접두사를 찾음 → 그 다음 버킷에 rank번째 기록이 있음
+        int position = 0;
+        long remaining = rank;
+        for (int step = BUCKETS; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= BUCKETS && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position * BUCKET_MILLIS; // position = 버킷 번호 (0부터)
+    }
+
+    /**
+     * 빠른 쪽에서 fraction(0~1) 지점의 플레이 시간입니다. (0.5 = 중앙값, 0.1 = 상위 10% 기준)
+     * @return 밀리초, 기록이 없으면 -1
+     */
+    public long playtimeAtFraction(double fraction) {
+        if (total == 0) return -1;
+        long rank = (long) Math.ceil(Math.max(0, Math.min(1, fraction)) * total);
+        return playtimeAtRank(Math.max(1, rank));
+    }
+
+    @Override
+    public String toString() {
+        return "PlaytimeRankIndex{total=" + total + ", median=" + playtimeAtFraction(0.5) + "ms}";
+    }
+}
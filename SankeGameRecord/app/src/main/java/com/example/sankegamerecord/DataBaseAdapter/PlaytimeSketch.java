@@ -0,0 +1,183 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import com.example.sankegamerecord.Adapter.LogLinearBuckets;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * 플레이 시간 분포를 고정된 로그-선형 버킷으로 세는 분위수 스케치입니다. (집계 테이블의 BLOB 컬럼에 저장)
+ * <p>
+ * - 2의 거듭제곱 구간마다 32개의 로그-선형 버킷(LogLinearBuckets)으로 나누므로 분위수의 상대 오차는 최대 1/64(버킷 가운데 값)입니다.
+ *   0~31ms는 1ms 단위로 정확합니다. 최소/최대값은 따로 정확히 보관합니다.
+ * - 버킷 경계가 고정이라 두 스케치는 버킷별로 더하기만 하면 합쳐집니다. (시간별 → 일별 → 기간 전체)
+ * - 직렬화는 0이 아닌 버킷만 (번호 차이, 개수) varint 쌍으로 적으므로 보통 수십~수백 바이트입니다.
+ */
+public final class PlaytimeSketch {
+
+    // 버킷 경계는 저장된 스케치의 형식이므로 바꾸려면 FORMAT_VERSION도 올려야 함
+    private static final LogLinearBuckets BUCKETS = new LogLinearBuckets(5, 40); // 2^44ms(약 557년)까지
+    static final int BUCKET_COUNT = BUCKETS.getBucketCount();
+
+    private static final int FORMAT_VERSION = 1;
+
+    private long[] counts = new long[0]; // 쓰인 가장 큰 버킷까지만 늘림
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public PlaytimeSketch() {
+    }
+
+    /**
+     * toBytes()로 저장한 스케치를 읽습니다.
+     * @param bytes 저장된 값 (null이거나 비어 있으면 빈 스케치)
+     * @throws IllegalArgumentException 형식이 맞지 않을 때
+     */
+    public static PlaytimeSketch fromBytes(byte[] bytes) {
+        PlaytimeSketch sketch = new PlaytimeSketch();
+        if (bytes == null || bytes.length == 0) return sketch;
+        int[] pos = {0};
+        if (bytes[pos[0]++] != FORMAT_VERSION) throw new IllegalArgumentException("unknown sketch format " + bytes[0]);
+        long min = readVarLong(bytes, pos);
+        long max = readVarLong(bytes, pos);
+        int bucket = -1;
+        while (pos[0] < bytes.length) {
+            bucket += (int) readVarLong(bytes, pos) + 1;
+            long n = readVarLong(bytes, pos);
+            if (bucket >= BUCKET_COUNT || n <= 0) throw new IllegalArgumentException("corrupt sketch");
+            sketch.grow(bucket);
+            sketch.counts[bucket] += n;
+            sketch.count += n;
+        }
+        if (sketch.count > 0) {
+            sketch.min = min;
+            sketch.max = max;
+        }
+        return sketch;
+    }
+
+    /** 플레이 시간 하나를 셉니다. 음수는 0으로 봅니다. */
+    public void add(long millis) {
+        if (millis < 0) millis = 0;
+        int bucket = bucketOf(millis);
+        grow(bucket);
+        counts[bucket]++;
+        count++;
+        if (millis < min) min = millis;
+        if (millis > max) max = millis;
+    }
+
+    /** other의 분포를 더합니다. (other는 바뀌지 않음) */
+    public void merge(PlaytimeSketch other) {
+        if (other.count == 0) return;
+        grow(other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) counts[i] += other.counts[i];
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /** 가장 짧은 플레이 시간 (비어 있으면 -1) */
+    public long getMinMillis() {
+        return count == 0 ? -1 : min;
+    }
+
+    /** 가장 긴 플레이 시간 (비어 있으면 -1) */
+    public long getMaxMillis() {
+        return count == 0 ? -1 : max;
+    }
+
+    /**
+     * 분위수 q(0~1)의 플레이 시간을 추정합니다. (0.5 = 중앙값)
+     * 해당 순위가 들어 있는 버킷의 가운데 값을 최소/최대값 안으로 맞춰 반환합니다.
+     * @return 밀리초, 비어 있으면 -1
+     */
+    public long getQuantileMillis(double q) {
+        if (count == 0) return -1;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long mid = bucketLowerBound(i) + (bucketWidth(i) - 1) / 2;
+                return Math.max(min, Math.min(max, mid));
+            }
+        }
+        return max;
+    }
+
+    public long getMedianMillis() {
+        return getQuantileMillis(0.5);
+    }
+
+    /** 저장용 바이트 (비어 있으면 길이 0) */
+    public byte[] toBytes() {
+        if (count == 0) return new byte[0];
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + counts.length / 4);
+        out.write(FORMAT_VERSION);
+        writeVarLong(out, min);
+        writeVarLong(out, max);
+        int previous = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            writeVarLong(out, i - previous - 1);
+            writeVarLong(out, counts[i]);
+            previous = i;
+        }
+        return out.toByteArray();
+    }
+
+    private void grow(int bucket) {
+        if (bucket < counts.length) return;
+        // 플레이 시간은 대부분 몇 분 이내라 보통 수백 칸을 넘지 않음
+        counts = Arrays.copyOf(counts, Math.min(BUCKET_COUNT, Math.max(bucket + 1, counts.length * 2)));
+    }
+
+    /** 밀리초 값이 들어갈 버킷 번호 */
+    static int bucketOf(long millis) {
+        return BUCKETS.bucketOf(millis); // 0~31ms는 1ms 단위
+    }
+
+    /** 버킷에 들어가는 가장 작은 값 */
+    static long bucketLowerBound(int bucket) {
+        return BUCKETS.lowerBound(bucket);
+    }
+
+    /** 버킷에 들어가는 값의 개수 */
+    static long bucketWidth(int bucket) {
+        return BUCKETS.width(bucket);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] pos) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos[0] >= bytes.length) throw new IllegalArgumentException("truncated sketch");
+            int b = bytes[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("corrupt sketch");
+    }
+
+    @Override
+    public String toString() {
+        if (count == 0) return "PlaytimeSketch{empty}";
+        return "PlaytimeSketch{count=" + count + ", min=" + min + "ms, p50=" + getQuantileMillis(0.5)
+                + "ms, p90=" + getQuantileMillis(0.9) + "ms, max=" + max + "ms}";
+    }
+}
@@ -5,154 +5,578 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 import com.example.sankegamerecord.Adapter.GameRecord;
+import com.example.sankegamerecord.Adapter.PagedRowSource;
+import com.example.sankegamerecord.Adapter.RecordRow;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * 게임의 랭킹(순위) 정보를 데이터베이스에 저장하고 관리하는 어댑터 클래스입니다.
- * AbstractDataBaseAdapter를 상속받아 데이터베이스 연결 및 JSON 처리를 공유합니다.
- * 이 클래스는 성공 기록 중 상위 5개의 최고 기록(가장 짧은 플레이 시간)만 관리하는 로직을 포함합니다.
+ * AbstractDataBaseAdapter를 상속받아 데이터베이스 연결 및 컬럼 변환을 공유합니다.
+ * 이 클래스는 성공 기록 중 상위 N개(기본 5개)의 최고 기록(가장 짧은 플레이 시간)만 관리하는 로직을 포함합니다.
+ * <p>
+ * 랭킹은 프로세스 전체에서 공유하는 메모리 리더보드(TopNLeaderboard)로 관리합니다.
+ * 처음 사용할 때 테이블을 한 번만 읽어 들이고, 이후에는 새 기록이 N위보다 좋을 때만
+ * 행 하나를 쓰기(INSERT 또는 밀려난 N위 행의 UPDATE) 때문에 매번 전체를 다시 읽고 정렬하지 않습니다.
+ * <p>
+ * 상위 N개 밖의 순위("이번 기록은 전체 몇 위인가", "상위 10%는 몇 초인가")는 모든 성공 기록의 플레이 시간을
+ * 10ms 버킷별로 센 히스토그램 테이블(RANK_HISTOGRAM)과 그 위의 메모리 인덱스(PlaytimeRankIndex)로 답합니다.
+ * 성공 기록마다 버킷 행 하나만 갱신하고, 조회는 O(log n)입니다.
+ * <p>
+ * 전체 랭킹 외에 오늘/이번 주 랭킹(WindowedLeaderboards)도 같은 addScore에서 함께 갱신합니다.
+ * 기간 랭킹은 따로 저장하지 않고 처음 사용할 때 그 기간의 기록(RECORD)에서 한 번 만들며,
+ * 기간이 바뀌면 비우고 새 기간으로 넘어갈 뿐 다시 계산하지 않습니다.
+ * <p>
+ * runInTransaction 안에서 바꾼 랭킹은 그 스레드의 복사본(PendingRanks)에만 반영해 두었다가 커밋된 뒤에 공유 랭킹으로
+ * 바꿔 넣고, 롤백되면 버립니다. 화면은 커밋되지 않은 순위를 보지 않고, 호출자가 롤백 뒤에 따로 정리할 필요도 없습니다.
  */
 public class RankAdapter extends AbstractDataBaseAdapter {
 
     public static final String TABLE_NAME = "RANK"; // 이 어댑터가 관리하는 데이터베이스 테이블 이름
-    private static final String COLUMN_RANK = "rank"; // 테이블에 추가된 순위 정보를 저장하는 컬럼 이름 (1위, 2위 등)
+
+    public static final int DEFAULT_RANK_SIZE = 5; // 기본 랭킹 크기 (상위 5개)
+
+    // addScore가 메모리에서만 갱신하는 기간 랭킹 (전체 랭킹은 RANK 테이블에 저장)
+    private static final WindowedLeaderboards.Window[] PERIOD_WINDOWS =
+            {WindowedLeaderboards.Window.DAY, WindowedLeaderboards.Window.WEEK};
+
+    // 프로세스 전체에서 공유하는 메모리 리더보드 (서비스와 화면이 같은 랭킹을 보도록 static으로 유지)
+    private static final Object LEADERBOARD_LOCK = new Object();
+    // 창별 행 ID: 전체(ALL)는 RANK 테이블의 행, 오늘/이번 주는 RECORD 테이블의 행
+    private static WindowedLeaderboards<GameRecord> leaderboards;
+    private static PlaytimeRankIndex rankIndex; // 전체 성공 기록의 순위 인덱스 (같은 락으로 보호)
+    private static boolean rankTableTrimmed; // 쓰기 경로에서 RANK의 N위 밖 행을 정리했는지 (같은 락으로 보호)
+    // 쓰는 스레드에서 진행 중인 트랜잭션이 바꾼 랭킹 (커밋되면 공유 랭킹에 반영)
+    private static final ThreadLocal<PendingRanks> pendingRanks = new ThreadLocal<>();
+
+    private final int rankSize; // 이 어댑터가 관리하는 랭킹 크기 (N)
+    private SQLiteStatement histogramUpdate; // 히스토그램 버킷 +1 (처음 쓸 때 컴파일, LEADERBOARD_LOCK으로 보호)
 
     /**
      * 랭킹 테이블을 생성하는 SQL 명령어입니다.
      * COLUMN_ID: 고유 ID (자동 증가), Primary Key
-     * COLUMN_RECORD: 실제 게임 기록 데이터 (JSON 문자열 형태로 저장)
-     * COLUMN_RANK: 해당 기록의 순위 (1, 2, 3, ...)
+     * COLUMN_PLAYDATE / COLUMN_PLAYTIME_MS / COLUMN_SUCCESS: 게임 기록 (타입 컬럼)
+     * 순위는 따로 저장하지 않고 플레이 시간(같으면 플레이 날짜) 순서로 정합니다.
      */
     public static final String CREATE_TABLE_SQL =
             "CREATE TABLE " + TABLE_NAME + "("
                     + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
-                    + COLUMN_RECORD + " TEXT NOT NULL, "
-                    + COLUMN_RANK + " INTEGER NOT NULL);";
+                    + COLUMN_PLAYDATE + " INTEGER NOT NULL, "
+                    + COLUMN_PLAYTIME_MS + " INTEGER NOT NULL, "
+                    + COLUMN_SUCCESS + " INTEGER NOT NULL, "
+                    + COLUMN_DEVICE + " TEXT NOT NULL DEFAULT '');";
+    // 순위 순서: 플레이 시간 오름차순, 같으면 먼저 플레이한 기록이 상위 (idx_rank_playtime 사용)
+    private static final String RANK_ORDER = COLUMN_PLAYTIME_MS + " ASC, " + COLUMN_PLAYDATE + " ASC";
+    // 순위 순서(플레이 시간, 플레이 날짜)로 바로 읽기 위한 인덱스
+    public static final String CREATE_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_rank_playtime ON " + TABLE_NAME
+                    + "(" + COLUMN_PLAYTIME_MS + ", " + COLUMN_PLAYDATE + ");";
+
+    /**
+     * 전체 성공 기록의 플레이 시간 히스토그램 테이블입니다. (PlaytimeRankIndex의 저장 형태)
+     * COLUMN_BUCKET: 플레이 시간 / PlaytimeRankIndex.BUCKET_MILLIS (마지막 버킷에 긴 기록을 모음)
+     * COLUMN_COUNT: 그 버킷의 성공 기록 수 (0인 버킷은 행이 없음)
+     */
+    public static final String HISTOGRAM_TABLE_NAME = "RANK_HISTOGRAM";
+    public static final String COLUMN_BUCKET = "bucket";
+    public static final String COLUMN_COUNT = "count";
+    public static final String CREATE_HISTOGRAM_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS " + HISTOGRAM_TABLE_NAME + "("
+                    + COLUMN_BUCKET + " INTEGER PRIMARY KEY, "
+                    + COLUMN_COUNT + " INTEGER NOT NULL);";
 
     /**
      * 생성자: 부모 클래스(AbstractDataBaseAdapter)를 호출하여 초기화합니다.
      * @param context 앱 컨텍스트
      */
     public RankAdapter(Context context) {
+        this(context, DEFAULT_RANK_SIZE);
+    }
+
+    /**
+     * 생성자: 랭킹 크기(N)를 지정합니다.
+     * 랭킹은 프로세스 전체에서 공유되므로 모든 RankAdapter는 같은 N을 사용해야 합니다.
+     * @param context 앱 컨텍스트
+     * @param rankSize 유지할 상위 기록 수
+     */
+    public RankAdapter(Context context, int rankSize) {
         super(context);
+        this.rankSize = checkRankSize(rankSize);
         try {
-            open(); // database = dbHelper.getWritableDatabase() 호출
+            open(); // 공유 연결 가져오기 (DatabaseManager.acquire)
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * 생성자: 다른 어댑터의 데이터베이스 연결을 공유합니다.
+     * 랭킹 갱신을 기록 저장과 같은 트랜잭션으로 묶을 때 사용합니다.
+     * @param shared 연결을 공유할 어댑터 (예: RecordAdapter)
+     */
+    public RankAdapter(AbstractDataBaseAdapter shared) {
+        this(shared, DEFAULT_RANK_SIZE);
+    }
+
+    public RankAdapter(AbstractDataBaseAdapter shared, int rankSize) {
+        super(shared);
+        this.rankSize = checkRankSize(rankSize);
+    }
+
+    private static int checkRankSize(int rankSize) {
+        if (rankSize <= 0) throw new IllegalArgumentException("rankSize must be positive: " + rankSize);
+        return rankSize;
+    }
+
     // -----------------------------
     // 외부용 public (데이터 추가 및 조회)
     // -----------------------------
 
     /**
-     * 새로운 게임 기록(Score)을 랭킹에 추가하고, 랭킹 목록(상위 5개)을 갱신합니다.
-     * 이 작업은 데이터 일관성을 위해 트랜잭션(Transaction) 내에서 처리됩니다.
-     *
+     * 새로운 게임 기록(Score)을 랭킹에 반영합니다. 기간 랭킹의 행 ID를 모를 때 사용합니다. (-1로 표시)
+     * 기록은 먼저 RECORD 테이블에 저장되어 있어야 합니다. (기간 랭킹을 처음 만들 때 RECORD에서 읽음)
      * @param gameRecord 새로 추가할 게임 기록 객체
      */
     public void addScore(GameRecord gameRecord) {
+        addScore(gameRecord, -1);
+    }
+
+    /**
+     * 새로운 게임 기록(Score)을 전체/오늘/이번 주 랭킹에 반영합니다.
+     * N위 안에 들지 못하는 기록은 메모리에서 O(1)로 걸러지고 데이터베이스에 접근하지 않습니다.
+     * 전체 랭킹에 드는 기록은 행 하나만 씁니다. (랭킹이 가득 찼으면 밀려난 N위 행을 덮어씀)
+     * 기간 랭킹은 메모리에서만 갱신합니다.
+     *
+     * @param gameRecord 새로 추가할 게임 기록 객체
+     * @param recordId RECORD 테이블에 저장된 행 ID (기간 랭킹의 행 ID로 사용)
+     */
+    public void addScore(GameRecord gameRecord, long recordId) {
         // 1. 실패 기록 필터링: 게임을 성공하지 못한 기록은 랭킹에 반영하지 않고 즉시 종료합니다.
         if (!gameRecord.Success()) return;
 
-        SQLiteDatabase db = this.database;
-        db.beginTransaction(); // 데이터베이스 트랜잭션 시작 (작업 단위 묶기)
-        try {
-            List<GameRecord> records = new ArrayList<>();
+        long millis = gameRecord.Playtime().toMillis();
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (LEADERBOARD_LOCK) {
+            // 트랜잭션 안이면 이 스레드의 복사본을 고치고 커밋된 뒤에 반영, 밖이면 공유 랭킹을 바로 고침
+            PendingRanks pending = pendingRanks();
+            WindowedLeaderboards<GameRecord> boards = pending != null ? pending.leaderboards : sharedLeaderboards();
 
-            // 2. 현재 DB에 저장된 모든 랭킹 기록을 조회 (순위 순으로 정렬)
-            Cursor cursor = db.query(TABLE_NAME, null, null, null, null, null,
-                    COLUMN_RANK + " ASC");
+            // 2. 전체 순위 히스토그램은 모든 성공 기록을 셈 (버킷 행 하나)
+            addToRankIndex(millis, pending);
 
-            // 3. 조회된 모든 기록을 GameRecord 객체로 파싱하여 리스트에 추가
-            while (cursor.moveToNext()) {
-                // JSON 문자열을 GameRecord 객체로 변환 (부모 클래스 메서드 사용)
-                GameRecord gr = parseGameRecord(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_RECORD)));
-                // 파싱이 성공한 기록만 리스트에 추가
-                if (gr != null && gr.Success()) records.add(gr);
-            }
-            cursor.close();
-
-            // 4. 새 기록을 리스트에 추가하고 전체 리스트를 "플레이 시간(밀리초)" 기준으로 다시 정렬합니다.
-            // 플레이 시간이 짧을수록 (toMillis() 값이 작을수록) 상위 랭크입니다.
-            records.add(gameRecord);
-            records.sort(Comparator.comparingLong(r -> r.Playtime().toMillis()));
-
-            // 5. 상위 5개의 기록만 데이터베이스에 갱신하거나 삽입합니다.
-            // Math.min(5, records.size()): 최대 5개 또는 리스트 크기만큼만 반복
-            for (int i = 0; i < Math.min(5, records.size()); i++) {
-                GameRecord gr = records.get(i);
-                ContentValues values = new ContentValues();
-
-                // 갱신될 데이터 준비: JSON 기록 및 새로운 순위 (i+1)
-                values.put(COLUMN_RECORD, gameRecordToJson(gr)); // GameRecord를 JSON 문자열로 변환하여 저장
-                values.put(COLUMN_RANK, i + 1); // 1위, 2위, ...
-
-                // 현재 순위(i+1)에 이미 레코드가 있는지 확인
-                Cursor check = db.query(TABLE_NAME, new String[]{COLUMN_ID}, COLUMN_RANK + "=?",
-                        new String[]{String.valueOf(i + 1)}, null, null, null);
-
-                // 해당 순위에 기존 레코드가 있다면 (UPDATE)
-                if (check.moveToFirst()) {
-                    long id = check.getLong(check.getColumnIndexOrThrow(COLUMN_ID));
-                    // 기존 레코드 ID를 찾아 데이터 갱신
-                    db.update(TABLE_NAME, values, COLUMN_ID + "=?", new String[]{String.valueOf(id)});
-                } else {
-                    // 기존 레코드가 없다면 (테이블이 비어있을 때 등) 새로운 레코드 삽입 (INSERT)
-                    db.insert(TABLE_NAME, null, values);
+            // 3. 전체 랭킹 (데이터베이스에 먼저 쓰고 메모리 갱신)
+            boolean allTimeChanged = addAllTime(boards, pending, gameRecord, millis);
+
+            // 4. 기간 랭킹 (메모리만, 지난 기간은 이때 비워짐)
+            LocalDateTime playdate = gameRecord.Playdate();
+            boolean changed = false;
+            LocalDateTime at = playdate.isAfter(now) ? playdate : now;
+            for (WindowedLeaderboards.Window window : PERIOD_WINDOWS) {
+                if (boards.current(window, at) == null) {
+                    // 처음 사용하는 기간: 같은 트랜잭션에서 방금 저장된 이 기록까지 RECORD에서 함께 읽힘
+                    loadWindow(boards, window, at);
+                    changed = true;
+                } else if (boards.offer(window, playdate, millis, recordId, gameRecord, now) >= 0) {
+                    changed = true;
                 }
-                check.close(); // 커서 해제
             }
+            // 기간 랭킹만 바뀌어도 랭킹 화면이 다시 읽도록 알림 (바뀐 RANK 행은 없으므로 테이블 단위)
+            if (changed && !allTimeChanged) changes.tableChanged(TABLE_NAME);
+        }
+    }
+
+    /**
+     * 전체 랭킹에 반영합니다. LEADERBOARD_LOCK을 잡은 상태에서 호출해야 합니다.
+     * @return 랭킹이 바뀌었으면 true
+     */
+    private boolean addAllTime(WindowedLeaderboards<GameRecord> boards, PendingRanks pending,
+                               GameRecord gameRecord, long millis) {
+        TopNLeaderboard<GameRecord> board = loadLeaderboard(boards);
+        trimRankTable(pending);
+
+        // 현재 N위보다 좋지 않으면 바로 종료 (O(1))
+        if (!board.qualifies(millis)) return false;
 
-            db.setTransactionSuccessful(); // 모든 작업 성공: 변경 사항을 최종적으로 데이터베이스에 반영
-        } finally {
-            db.endTransaction(); // 트랜잭션 종료 (성공 여부에 관계없이 반드시 호출되어야 함)
+        ContentValues values = toContentValues(gameRecord);
+
+        // 데이터베이스에 먼저 쓰고, 성공했을 때만 메모리 리더보드를 갱신합니다.
+        long id = -1;
+        if (board.isFull()) {
+            // 밀려나는 N위 행을 새 기록으로 덮어씀 (UPDATE 한 번)
+            id = board.idAt(board.size() - 1);
+            if (database.update(TABLE_NAME, values, COLUMN_ID + "=?", new String[]{String.valueOf(id)}) == 0) {
+                id = -1; // 메모리에만 남은 행 (다른 연결이 지웠거나 롤백됨) → 새 행으로 넣음
+            }
+        }
+        if (id == -1) {
+            // 아직 N개가 안 되면 새 행 추가 (INSERT 한 번)
+            id = database.insert(TABLE_NAME, null, values);
+            if (id == -1) return false;
         }
+        board.insert(millis, id, gameRecord);
+        changes.rowChanged(TABLE_NAME, id);
+        return true;
     }
 
     /**
-     * 현재 데이터베이스에 저장된 모든 랭킹 기록을 화면 표시에 적합한 문자열 리스트로 가져옵니다.
-     * @return "순위 날짜 이름 플레이시간" 형식의 문자열 리스트
+     * 가져오기로 한꺼번에 저장된 기록(RECORD의 id &gt; afterRecordId)을 랭킹에 반영합니다.
+     * 기록마다 addScore를 부르는 대신, 순위 히스토그램은 버킷별 개수를 한 번에 더하고
+     * 전체 랭킹에는 그중 상위 N개만 넣어 봅니다. 기간 랭킹과 순위 인덱스는 (커밋된 뒤) 다음 사용 시 다시 읽습니다.
+     * 가져오는 트랜잭션 안에서 호출해야 합니다.
      */
-    public List<String> getAllRanksForDisplay() {
-        List<String> list = new ArrayList<>();
-        Cursor cursor = getAllRanks(); // 랭킹을 순위 순으로 가져오는 내부 함수 호출
+    public void addImportedScores(long afterRecordId) {
+        String imported = COLUMN_SUCCESS + "=1 AND " + COLUMN_ID + " > ?";
+        String[] args = {String.valueOf(afterRecordId)};
+        synchronized (LEADERBOARD_LOCK) {
+            PendingRanks pending = pendingRanks();
+            WindowedLeaderboards<GameRecord> boards = pending != null ? pending.leaderboards : sharedLeaderboards();
 
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                int rank = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_RANK));
-                // JSON 문자열에서 GameRecord 객체를 복원
-                GameRecord gr = parseGameRecord(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_RECORD)));
+            // 기존 개수 + 가져온 개수 (minSdk 26의 SQLite는 UPSERT 미지원이라 REPLACE로 합침)
+            database.execSQL("INSERT OR REPLACE INTO " + HISTOGRAM_TABLE_NAME
+                    + "(" + COLUMN_BUCKET + ", " + COLUMN_COUNT + ")"
+                    + " SELECT i.b, i.n + COALESCE((SELECT h." + COLUMN_COUNT + " FROM " + HISTOGRAM_TABLE_NAME
+                    + " h WHERE h." + COLUMN_BUCKET + " = i.b), 0) FROM ("
+                    + "SELECT MIN(" + COLUMN_PLAYTIME_MS + " / " + PlaytimeRankIndex.BUCKET_MILLIS + ", "
+                    + (PlaytimeRankIndex.BUCKETS - 1) + ") AS b, COUNT(*) AS n FROM " + RecordAdapter.TABLE_NAME
+                    + " WHERE " + imported + " GROUP BY b) i", args);
 
-                if (gr != null) {
-                    // 표시할 문자열 포맷 생성: "1위 2025-11-13T17:11 이름 01:30.123"
-                    String text = rank + ". " + gr.Playdate() + " "  + formatDuration(gr.Playtime());
-                    list.add(text);
+            try (Cursor cursor = database.query(RecordAdapter.TABLE_NAME, RECORD_COLUMNS, imported, args,
+                    null, null, COLUMN_PLAYTIME_MS + " ASC, " + COLUMN_PLAYDATE + " ASC", String.valueOf(rankSize))) {
+                while (cursor.moveToNext()) {
+                    GameRecord gr = readGameRecord(cursor);
+                    addAllTime(boards, pending, gr, gr.Playtime().toMillis());
                 }
-            } while (cursor.moveToNext());
-            cursor.close();
+            }
+            // 가져온 기록이 어느 기간에 속하든 맞도록 전체 랭킹(RANK에 저장됨)까지 다시 읽음
+            if (pending != null) {
+                pending.leaderboards = new WindowedLeaderboards<>(rankSize);
+                pending.reloadIndex = true;
+            } else {
+                leaderboards = null;
+                rankIndex = null;
+            }
+        }
+    }
+
+    /**
+     * 메모리 리더보드와 순위 인덱스를 버리고 다음 사용 시 데이터베이스에서 다시 읽도록 합니다.
+     * RankAdapter를 거치지 않고 랭킹 테이블을 바꿨을 때 호출합니다. (runInTransaction의 롤백은 자동으로 처리됨)
+     */
+    public static void invalidateLeaderboard() {
+        synchronized (LEADERBOARD_LOCK) {
+            leaderboards = null;
+            rankIndex = null;
+            rankTableTrimmed = false;
+        }
+    }
+
+    /**
+     * 이 플레이 시간이 전체 성공 기록 중 몇 위인지 반환합니다. (O(log n))
+     * 이미 저장된 기록이면 자기 자신을 포함한 순위, 아니면 지금 들어온다고 가정했을 때의 순위입니다.
+     * 10ms 안의 차이는 같은 순위로 봅니다.
+     * @param playtimeMillis 플레이 시간 (밀리초)
+     * @return 순위(1부터)와 전체 성공 기록 수
+     */
+    public PlaytimeRankIndex.Placement getPlacement(long playtimeMillis) {
+        synchronized (LEADERBOARD_LOCK) {
+            return loadRankIndex().placementOf(playtimeMillis);
+        }
+    }
+
+    /** 순위 인덱스에 든 성공 기록 수 */
+    public long getRankedCount() {
+        synchronized (LEADERBOARD_LOCK) {
+            return loadRankIndex().getTotal();
         }
-        return list;
     }
 
     /**
-     * 데이터베이스에서 랭킹 테이블의 모든 레코드를 순위(COLUMN_RANK) 오름차순으로 조회합니다.
-     * 이 함수는 내부적으로 사용됩니다.
-     * @return 조회된 레코드를 가리키는 Cursor 객체
+     * 빠른 쪽에서 fraction(0~1) 지점의 플레이 시간입니다. (0.1 = 상위 10%에 들기 위한 기록, O(log n))
+     * @return 밀리초 (10ms 단위), 성공 기록이 없으면 -1
      */
-    private Cursor getAllRanks() {
-        // database.query()를 사용하여 SELECT * FROM RANK ORDER BY rank ASC 쿼리 실행
-        return database.query(TABLE_NAME, // 테이블 이름
-                null,       // 모든 컬럼 조회 (null)
-                null, null, // 조건 없음 (WHERE 절 없음)
-                null, null, // GROUP BY, HAVING 절 없음
-                COLUMN_RANK + " ASC"); // 순위(rank) 오름차순으로 정렬
+    public long getPlaytimeAtFraction(double fraction) {
+        synchronized (LEADERBOARD_LOCK) {
+            return loadRankIndex().playtimeAtFraction(fraction);
+        }
+    }
+
+    /**
+     * 현재 전체 랭킹을 순위 순서의 행 목록으로 가져옵니다. (메모리 리더보드에서 바로 생성, 최대 N개)
+     */
+    public List<RecordRow> getRankRows() {
+        return getRankRows(WindowedLeaderboards.Window.ALL);
+    }
+
+    /**
+     * 기간 랭킹을 순위 순서의 행 목록으로 가져옵니다. (메모리에서 바로 생성, 최대 N개)
+     * 기간이 지났으면 이때 비워지고 새 기간의 랭킹(아직 없으면 빈 목록)이 반환됩니다.
+     */
+    public List<RecordRow> getRankRows(WindowedLeaderboards.Window window) {
+        synchronized (LEADERBOARD_LOCK) {
+            // 쓰는 스레드가 트랜잭션 안에서 읽으면 자기가 바꾼 랭킹을 봄
+            PendingRanks pending = pendingRanks.get();
+            WindowedLeaderboards<GameRecord> boards = pending != null ? pending.leaderboards : sharedLeaderboards();
+            TopNLeaderboard<GameRecord> board = window == WindowedLeaderboards.Window.ALL
+                    ? loadLeaderboard(boards) : loadWindow(boards, window, LocalDateTime.now());
+            List<RecordRow> rows = new ArrayList<>(board.size());
+            for (int i = 0; i < board.size(); i++) {
+                rows.add(new RecordRow(board.idAt(i), i + 1, board.valueAt(i)));
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * 전체 랭킹 목록 화면용 페이지 로더입니다.
+     */
+    public PagedRowSource.PageLoader rankPages() {
+        return rankPages(WindowedLeaderboards.Window.ALL);
+    }
+
+    /**
+     * 랭킹 목록 화면용 페이지 로더입니다. 랭킹은 최대 N개뿐이므로 메모리 리더보드에서 잘라 줍니다.
+     * @param window 보여줄 기간 (읽을 때마다 그 시점의 기간 기준)
+     */
+    public PagedRowSource.PageLoader rankPages(WindowedLeaderboards.Window window) {
+        return new PagedRowSource.PageLoader() {
+            @Override
+            public int count() {
+                return getRankRows(window).size();
+            }
+
+            @Override
+            public List<RecordRow> loadFirst(int limit) {
+                return loadAt(0, limit);
+            }
+
+            @Override
+            public List<RecordRow> loadAfter(RecordRow last, int limit) {
+                return loadAt(last.rank(), limit); // 순위(1부터) = 다음 행의 위치
+            }
+
+            @Override
+            public List<RecordRow> loadAt(int offset, int limit) {
+                List<RecordRow> rows = getRankRows(window);
+                int from = Math.min(offset, rows.size());
+                return new ArrayList<>(rows.subList(from, Math.min(from + limit, rows.size())));
+            }
+        };
+    }
+
+    /**
+     * 공유 메모리 랭킹(창 묶음)을 반환합니다. 아직 없거나 N이 바뀌었으면 빈 묶음을 만듭니다.
+     * LEADERBOARD_LOCK을 잡은 상태에서 호출해야 합니다.
+     */
+    private WindowedLeaderboards<GameRecord> sharedLeaderboards() {
+        if (leaderboards == null || leaderboards.capacity() != rankSize) {
+            leaderboards = new WindowedLeaderboards<>(rankSize);
+        }
+        return leaderboards;
+    }
+
+    /**
+     * 현재 스레드의 runInTransaction이 바꿀 랭킹 복사본을 반환합니다. 트랜잭션에서 처음 부를 때 공유 랭킹을 복사하고
+     * 커밋/롤백 시 알림을 받도록 등록합니다. LEADERBOARD_LOCK을 잡은 상태에서 호출해야 합니다.
+     * @return runInTransaction 밖이면 null (공유 랭킹을 바로 고침)
+     */
+    private PendingRanks pendingRanks() {
+        PendingRanks pending = pendingRanks.get();
+        if (pending != null) return pending;
+        WindowedLeaderboards<GameRecord> shared = sharedLeaderboards();
+        pending = new PendingRanks(shared, shared.copy(), rankIndex);
+        if (!addTransactionListener(pending)) return null;
+        pendingRanks.set(pending);
+        return pending;
+    }
+
+    /**
+     * boards의 전체 랭킹을 반환합니다. 아직 채우지 않았으면 랭킹 테이블을 한 번 읽어 만듭니다.
+     * 화면(조회 스레드)에서도 불리므로 읽기만 하고, 상위 N개에 들지 못하는 행은 건너뜁니다. (삭제는 trimRankTable)
+     * LEADERBOARD_LOCK을 잡은 상태에서 호출해야 합니다.
+     */
+    private TopNLeaderboard<GameRecord> loadLeaderboard(WindowedLeaderboards<GameRecord> boards) {
+        TopNLeaderboard<GameRecord> current = boards.current(WindowedLeaderboards.Window.ALL, LocalDateTime.MIN);
+        if (current != null) return current;
+
+        TopNLeaderboard<GameRecord> board = new TopNLeaderboard<>(rankSize);
+        try (Cursor cursor = database.query(TABLE_NAME,
+                RECORD_COLUMNS,
+                COLUMN_SUCCESS + "=1", null, null, null, RANK_ORDER, String.valueOf(rankSize))) {
+            while (cursor.moveToNext()) {
+                GameRecord gr = readGameRecord(cursor);
+                board.insert(gr.Playtime().toMillis(), cursor.getLong(0), gr);
+            }
+        }
+        boards.install(WindowedLeaderboards.Window.ALL, LocalDateTime.MIN, board);
+        return board;
+    }
+
+    /**
+     * 상위 N개에 들지 못하는 RANK 행(실패 기록, N이 줄어든 경우 등)을 한 번에 삭제합니다.
+     * 프로세스마다(또는 메모리 랭킹을 버린 뒤) 한 번, 기록을 쓰는 트랜잭션 안에서만 실행합니다.
+     * LEADERBOARD_LOCK을 잡은 상태에서 호출해야 합니다.
+     */
+    private void trimRankTable(PendingRanks pending) {
+        if (rankTableTrimmed || (pending != null && pending.trimmed)) return;
+        database.execSQL("DELETE FROM " + TABLE_NAME + " WHERE " + COLUMN_ID + " NOT IN ("
+                + "SELECT " + COLUMN_ID + " FROM " + TABLE_NAME + " WHERE " + COLUMN_SUCCESS + "=1"
+                + " ORDER BY " + RANK_ORDER + " LIMIT " + rankSize + ")");
+        if (pending != null) pending.trimmed = true; // 롤백되면 다음 트랜잭션에서 다시 정리
+        else rankTableTrimmed = true;
+    }
+
+    /**
+     * now가 속한 기간의 메모리 랭킹을 반환합니다. 처음 사용할 때만 그 기간의 성공 기록(RECORD)에서
+     * 상위 N개를 한 번 읽어 만들고, 이후 기간이 바뀌면 비우고 넘어갑니다. (다시 읽지 않음)
+     * LEADERBOARD_LOCK을 잡은 상태에서 호출해야 합니다.
+     */
+    private TopNLeaderboard<GameRecord> loadWindow(WindowedLeaderboards<GameRecord> boards,
+                                                   WindowedLeaderboards.Window window, LocalDateTime now) {
+        TopNLeaderboard<GameRecord> current = boards.current(window, now);
+        if (current != null) return current;
+
+        LocalDateTime start = window.startOf(now);
+        TopNLeaderboard<GameRecord> board = new TopNLeaderboard<>(rankSize);
+        // 플레이 날짜 범위는 RECORD의 (playdate, device) 인덱스로 좁힘
+        try (Cursor cursor = database.query(RecordAdapter.TABLE_NAME, RECORD_COLUMNS,
+                COLUMN_SUCCESS + "=1 AND " + COLUMN_PLAYDATE + ">=? AND " + COLUMN_PLAYDATE + "<?",
+                new String[]{String.valueOf(toEpochMillis(start)), String.valueOf(toEpochMillis(window.endOf(start)))},
+                null, null, COLUMN_PLAYTIME_MS + " ASC, " + COLUMN_PLAYDATE + " ASC", String.valueOf(rankSize))) {
+            while (cursor.moveToNext()) {
+                GameRecord gr = readGameRecord(cursor);
+                board.insert(gr.Playtime().toMillis(), cursor.getLong(0), gr);
+            }
+        }
+        boards.install(window, start, board);
+        return board;
+    }
+
+    /**
+     * 성공 기록 하나를 히스토그램 테이블과 (이미 읽어 둔 경우) 메모리 인덱스에 더합니다.
+     * UPSERT가 없는 SQLite 버전(minSdk 26)도 있으므로 UPDATE 후 바뀐 행이 없으면 INSERT합니다.
+     * 트랜잭션 안이면 메모리 인덱스에는 커밋된 뒤에 더합니다.
+     * LEADERBOARD_LOCK을 잡은 상태에서 호출해야 합니다.
+     */
+    private void addToRankIndex(long millis, PendingRanks pending) {
+        int bucket = PlaytimeRankIndex.bucketOf(millis);
+        if (histogramUpdate == null) {
+            histogramUpdate = database.compileStatement("UPDATE " + HISTOGRAM_TABLE_NAME
+                    + " SET " + COLUMN_COUNT + "=" + COLUMN_COUNT + "+1 WHERE " + COLUMN_BUCKET + "=?");
+        }
+        histogramUpdate.bindLong(1, bucket);
+        if (histogramUpdate.executeUpdateDelete() == 0) {
+            ContentValues values = new ContentValues();
+            values.put(COLUMN_BUCKET, bucket);
+            values.put(COLUMN_COUNT, 1);
+            if (database.insert(HISTOGRAM_TABLE_NAME, null, values) == -1) return;
+        }
+        if (pending != null) {
+            pending.addToIndex(millis);
+        } else if (rankIndex != null) {
+            rankIndex.add(millis); // 아직 읽지 않았으면 다음 loadRankIndex()가 방금 쓴 행까지 함께 읽음
+        }
+    }
+
+    /**
+     * 메모리 순위 인덱스를 반환합니다. 아직 없으면 히스토그램 테이블(0이 아닌 버킷만)을 한 번 읽어 O(버킷 수)에 만듭니다.
+     * 히스토그램을 바꾼 트랜잭션 안에서 부르면 커밋되지 않은 행까지 읽으므로 공유 인덱스에 두지 않고 매번 읽습니다.
+     * LEADERBOARD_LOCK을 잡은 상태에서 호출해야 합니다.
+     */
+    private PlaytimeRankIndex loadRankIndex() {
+        PendingRanks pending = pendingRanks.get();
+        boolean uncommitted = pending != null && (pending.indexAddCount > 0 || pending.reloadIndex);
+        if (rankIndex != null && !uncommitted) return rankIndex;
+        PlaytimeRankIndex index;
+        try (Cursor cursor = database.query(HISTOGRAM_TABLE_NAME, new String[]{COLUMN_BUCKET, COLUMN_COUNT},
+                null, null, null, null, null)) {
+            int[] buckets = new int[cursor.getCount()];
+            int[] counts = new int[buckets.length];
+            for (int i = 0; cursor.moveToNext(); i++) {
+                buckets[i] = cursor.getInt(0);
+                counts[i] = cursor.getInt(1);
+            }
+            index = PlaytimeRankIndex.fromBuckets(buckets, counts);
+        }
+        if (!uncommitted) rankIndex = index;
+        return index;
+    }
+
+    /**
+     * 저장된 성공 기록으로 히스토그램 테이블을 다시 만듭니다. (마이그레이션용)
+     * 보존 정책으로 이미 정리된 기록은 날짜별 최고 기록만 남아 있으므로 포함하지 않습니다.
+     */
+    static void rebuildHistogram(SQLiteDatabase db) {
+        db.delete(HISTOGRAM_TABLE_NAME, null, null);
+        db.execSQL("INSERT INTO " + HISTOGRAM_TABLE_NAME + "(" + COLUMN_BUCKET + ", " + COLUMN_COUNT + ")"
+                + " SELECT MIN(" + COLUMN_PLAYTIME_MS + " / " + PlaytimeRankIndex.BUCKET_MILLIS + ", "
+                + (PlaytimeRankIndex.BUCKETS - 1) + ") AS b, COUNT(*) FROM " + RecordAdapter.TABLE_NAME
+                + " WHERE " + COLUMN_SUCCESS + "=1 GROUP BY b");
+    }
+
+    /** 컴파일해 둔 문장을 닫고 연결을 반납합니다. (공유받은 연결이면 반납은 원래 어댑터의 몫) */
+    @Override
+    public void close() {
+        synchronized (LEADERBOARD_LOCK) {
+            if (histogramUpdate != null) {
+                histogramUpdate.close();
+                histogramUpdate = null;
+            }
+        }
+        super.close();
+    }
+
+    /**
+     * 한 트랜잭션이 바꾼 랭킹입니다. 쓰는 스레드만 만지고, 커밋되면 공유 랭킹으로 바꿔 넣습니다.
+     */
+    private static final class PendingRanks implements TransactionListener {
+        final WindowedLeaderboards<GameRecord> base; // 복사한 공유 랭킹 (커밋 때 그대로일 때만 바꿔 넣음)
+        WindowedLeaderboards<GameRecord> leaderboards; // 공유 랭킹의 복사본 + 이 트랜잭션의 변경
+        final PlaytimeRankIndex baseIndex; // 복사할 때의 공유 순위 인덱스 (커밋 때 그대로면 더하기만 함)
+        long[] indexAdds = new long[16]; // 커밋되면 순위 인덱스에 더할 플레이 시간
+        int indexAddCount;
+        boolean reloadIndex; // 가져오기처럼 한꺼번에 바뀌어 순위 인덱스를 다시 읽어야 함
+        boolean trimmed; // 이 트랜잭션에서 RANK의 N위 밖 행을 정리함
+
+        PendingRanks(WindowedLeaderboards<GameRecord> base, WindowedLeaderboards<GameRecord> leaderboards,
+                     PlaytimeRankIndex baseIndex) {
+            this.base = base;
+            this.leaderboards = leaderboards;
+            this.baseIndex = baseIndex;
+        }
+
+        void addToIndex(long millis) {
+            if (indexAddCount == indexAdds.length) indexAdds = Arrays.copyOf(indexAdds, indexAddCount * 2);
+            indexAdds[indexAddCount++] = millis;
+        }
+
+        @Override
+        public void afterCommit() {
+            pendingRanks.remove();
+            synchronized (LEADERBOARD_LOCK) {
+                // endTransaction()과 이 알림 사이에 다른 트랜잭션(가져오기 등)이 먼저 반영했으면 그 결과를 덮어쓰지 않고
+                // 다음 사용 시 RANK/RECORD에서 다시 읽음 (커밋된 두 트랜잭션이 모두 들어 있음)
+                RankAdapter.leaderboards = RankAdapter.leaderboards == base ? leaderboards : null;
+                if (trimmed) rankTableTrimmed = true;
+                if (rankIndex == null) return; // 다음 loadRankIndex()가 커밋된 행을 읽음
+                if (reloadIndex || rankIndex != baseIndex) {
+                    // 트랜잭션 도중 다른 스레드가 다시 읽은 인덱스는 이 트랜잭션의 행을 포함했는지 알 수 없음
+                    rankIndex = null;
+                    return;
+                }
+                for (int i = 0; i < indexAddCount; i++) rankIndex.add(indexAdds[i]);
+            }
+        }
+
+        @Override
+        public void afterRollback() {
+            pendingRanks.remove(); // 데이터베이스 쓰기와 함께 버려짐
+        }
     }
 
-}
\ No newline at end of file
+}
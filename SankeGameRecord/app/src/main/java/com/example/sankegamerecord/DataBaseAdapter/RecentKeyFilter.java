@@ -0,0 +1,61 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 최근에 본 키(예: playdate epoch 밀리초)를 최대 capacity개까지 기억하는 LRU 집합입니다.
+ * <p>
+ * 블루투스 재연결 후 기기가 같은 기록을 다시 보내는 경우처럼, 방금 저장한 기록이 반복해서 들어오는 것을
+ * 데이터베이스에 접근하지 않고 걸러내는 데 사용합니다. 여기에 없다고 해서 중복이 아닌 것은 아니므로
+ * 최종 판단은 데이터베이스의 UNIQUE 인덱스가 합니다.
+ * <p>
+ * 스레드 안전하지 않습니다.
+ */
+public final class RecentKeyFilter {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Boolean> keys;
+
+    public RecentKeyFilter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RecentKeyFilter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        // accessOrder = true: 조회된 키도 최근 사용으로 취급해 오래 안 쓰인 키부터 밀려남
+        this.keys = new LinkedHashMap<Long, Boolean>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > RecentKeyFilter.this.capacity;
+            }
+        };
+    }
+
+    /** 최근에 본 키인지 */
+    public boolean contains(long key) {
+        return keys.get(key) != null;
+    }
+
+    /** 키를 기억합니다. 가득 차 있으면 가장 오래 사용되지 않은 키가 밀려납니다. */
+    public void add(long key) {
+        keys.put(key, Boolean.TRUE);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void clear() {
+        keys.clear();
+    }
+}
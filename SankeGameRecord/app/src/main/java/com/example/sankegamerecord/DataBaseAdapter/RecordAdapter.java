@@ -1,114 +1,436 @@
 package com.example.sankegamerecord.DataBaseAdapter;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 import com.example.sankegamerecord.Adapter.GameRecord;
+import com.example.sankegamerecord.Adapter.PagedRowSource;
+import com.example.sankegamerecord.Adapter.RecordRow;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RecordAdapter extends AbstractDataBaseAdapter {
 
     public static final String TABLE_NAME = "RECORD";
-    public static final int MAX_SIZE = 20;
     public static final String CREATE_TABLE_SQL =
             "CREATE TABLE " + TABLE_NAME + "("
                     + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
-                    + COLUMN_RECORD + " TEXT NOT NULL);";
+                    + COLUMN_PLAYDATE + " INTEGER NOT NULL, "
+                    + COLUMN_PLAYTIME_MS + " INTEGER NOT NULL, "
+                    + COLUMN_SUCCESS + " INTEGER NOT NULL, "
+                    + COLUMN_DEVICE + " TEXT NOT NULL DEFAULT '');";
+    // 같은 보드의 같은 playdate 기록은 한 번만 저장되도록 하는 UNIQUE 인덱스 (중복 확인을 INSERT OR IGNORE 한 번으로 처리)
+    // playdate가 앞에 있으므로 보존 정책의 "playdate < ?" 범위 삭제에도 그대로 쓰임
+    public static final String CREATE_INDEX_SQL =
+            "CREATE UNIQUE INDEX IF NOT EXISTS ux_record_playdate_device ON " + TABLE_NAME
+                    + "(" + COLUMN_PLAYDATE + ", " + COLUMN_DEVICE + ");";
+
+    /**
+     * 보존 정책으로 정리된 기록을 날짜별로 합쳐 두는 집계 테이블입니다.
+     * COLUMN_DAY: 날짜 키 (1970-01-01부터 센 일 수), Primary Key
+     * plays / successes: 플레이 수, 성공 수
+     * total_playtime_ms: 플레이 시간 합계, best_playtime_ms: 성공 기록 중 가장 짧은 플레이 시간 (없으면 NULL)
+     */
+    public static final String DAILY_TABLE_NAME = "RECORD_DAILY";
+    static final String COLUMN_DAY = "day";
+    static final String COLUMN_PLAYS = "plays";
+    static final String COLUMN_SUCCESSES = "successes";
+    static final String COLUMN_TOTAL_PLAYTIME_MS = "total_playtime_ms";
+    static final String COLUMN_BEST_PLAYTIME_MS = "best_playtime_ms";
+    public static final String CREATE_DAILY_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS " + DAILY_TABLE_NAME + "("
+                    + COLUMN_DAY + " INTEGER PRIMARY KEY, "
+                    + COLUMN_PLAYS + " INTEGER NOT NULL, "
+                    + COLUMN_SUCCESSES + " INTEGER NOT NULL, "
+                    + COLUMN_TOTAL_PLAYTIME_MS + " INTEGER NOT NULL, "
+                    + COLUMN_BEST_PLAYTIME_MS + " INTEGER);";
+
+    // 최근 키 = (장치 번호 << 44) | playdate epoch 밀리초 (2^44 ms ≈ 2527년까지)
+    private static final int DEVICE_SLOT_SHIFT = 44;
+    private static final int MAX_DEVICE_SLOTS = 1 << (63 - DEVICE_SLOT_SHIFT);
+    private static final long NO_KEY = -1; // 키를 만들 수 없음 → 최근 키 확인을 건너뛰고 UNIQUE 인덱스로 판정
+
+    // 정리할 때 트랜잭션 하나에서 지우는 최대 행 수 (writer 스레드가 오래 기다리지 않도록 나눠서 처리)
+    private static final int PRUNE_CHUNK_SIZE = 5000;
+    // 내보낼 때 한 번에 읽는 행 수 (id 순 keyset 페이지, 읽기를 짧게 끊어 writer가 기다리지 않도록)
+    private static final int EXPORT_CHUNK_SIZE = 5000;
+    // 가져올 때 트랜잭션 하나에 넣는 최대 행 수
+    private static final int IMPORT_CHUNK_SIZE = 5000;
+
+    // 최근에 저장했거나 중복으로 판정된 (장치, playdate) 키 (재전송된 프레임을 디스크 접근 없이 거름)
+    private final RecentKeyFilter recentKeys = new RecentKeyFilter();
+    // 장치 문자열 → 최근 키에 넣을 작은 번호 (보드 수만큼만 늘어남)
+    private final Map<String, Integer> deviceSlots = new HashMap<>();
+    private long duplicateCount; // 중복으로 저장하지 않은 기록 수
+    // 시간별/날짜별/전체 통계 (저장한 기록을 같은 트랜잭션에서 더함)
+    private final StatsAdapter stats;
 
     public RecordAdapter(Context context) {
         super(context);
         try {
-            open(); // database = dbHelper.getWritableDatabase() 호출
+            open(); // 공유 연결 가져오기 (DatabaseManager.acquire)
+            loadRecentKeys();
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        stats = new StatsAdapter(this); // 같은 연결을 공유 (open() 뒤에 만들어야 함)
     }
 
     // -----------------------------
     // 외부용 public
     // -----------------------------
+    /**
+     * 기록을 저장합니다. 같은 보드(device)의 같은 playdate 기록이 이미 있으면 저장하지 않습니다.
+     * 오래된 기록은 여기서 지우지 않고 applyRetention()이 백그라운드에서 한꺼번에 정리합니다.
+     * 새로 저장된 기록은 통계(RECORD_STATS)에도 더해지며, runInTransaction 안이면 커밋 직전에 한꺼번에 쓰고
+     * 바깥 트랜잭션이 없으면 이 기록 하나를 트랜잭션으로 묶어 바로 씁니다.
+     * runInTransaction 안에서 저장에 실패하면 예외를 그대로 던져 바깥 트랜잭션(묶음 전체)이 롤백되게 합니다.
+     * @return 새로 저장된 행 ID, 중복이면 -1 (트랜잭션 밖에서 실패해도 -1)
+     */
     public long addRecord(GameRecord record) {
-        try {
-            String recordValue = gameRecordToJson(record);
-
-            // -----------------------------
-            // 1. 중복 확인 (playdate 기준)
-            // -----------------------------
-            try (Cursor cursor = database.query(
-                    TABLE_NAME,
-                    new String[]{COLUMN_RECORD},
-                    null, null, null, null,
-                    COLUMN_ID + " ASC")) {
-
-                while (cursor.moveToNext()) {
-                    GameRecord existing = parseGameRecord(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_RECORD)));
-                    if (existing != null && existing.Playdate().equals(record.Playdate())) {
-                        // 중복 발견 → 삽입하지 않고 -1 반환
-                        return -1;
+        if (!database.inTransaction()) {
+            long[] id = {-1};
+            try {
+                runInTransaction(() -> id[0] = insertRecord(record));
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                forgetRecentKeys(); // 롤백되어 실제로는 저장되지 않은 키
+                return -1;
+            }
+            return id[0];
+        }
+        return insertRecord(record);
+    }
+
+    /** 기록 하나를 씀. 실패하면 예외를 던짐 (바깥 트랜잭션이 롤백되고 호출자가 다시 시도할 수 있도록) */
+    private long insertRecord(GameRecord record) {
+        long key = recentKey(record.Device(), toEpochMillis(record.Playdate()));
+
+        // -----------------------------
+        // 1. 중복 확인 (최근 키 → UNIQUE 인덱스)
+        // -----------------------------
+        if (key != NO_KEY && recentKeys.contains(key)) {
+            duplicateCount++;
+            return -1; // 방금 본 기록 → 디스크 접근 없이 거름
+        }
+
+        // -----------------------------
+        // 2. 새로운 레코드 삽입 (이미 있으면 UNIQUE 인덱스에 걸려 무시되고 -1 반환)
+        // -----------------------------
+        long id = database.insertWithOnConflict(TABLE_NAME, null, toContentValues(record),
+                SQLiteDatabase.CONFLICT_IGNORE);
+        if (key != NO_KEY) recentKeys.add(key);
+        if (id == -1) {
+            duplicateCount++;
+            return -1;
+        }
+
+        stats.add(record); // 커밋 직전(beforeCommit)에 씀
+        changes.rowChanged(TABLE_NAME, id); // 커밋되면 열려 있는 화면에 알림
+        return id;
+    }
+
+
+
+    /**
+     * 모든 기록을 저장된 순서(id 오름차순)로 channel에 씁니다. (백그라운드 스레드에서 호출)
+     * EXPORT_CHUNK_SIZE개씩 앞 페이지의 마지막 id 다음부터 읽으므로(PK 범위 탐색) 기록 수와 관계없이
+     * 메모리 사용량이 일정하고, 내보내는 동안에도 새 기록이 저장될 수 있습니다. 끝나면 channel을 닫습니다.
+     * @param format 파일 형식
+     * @return 쓴 기록 수
+     * @throws IOException 쓰기 실패 (그때까지 쓴 내용은 채널에 남음)
+     */
+    public long exportHistory(WritableByteChannel channel, HistoryFormat format) throws IOException {
+        String[] columns = {COLUMN_ID, COLUMN_PLAYDATE, COLUMN_PLAYTIME_MS, COLUMN_SUCCESS, COLUMN_DEVICE};
+        String[] args = {"0"};
+        try (HistoryWriter writer = new HistoryWriter(channel, format)) {
+            while (true) {
+                int rows = 0;
+                try (Cursor cursor = database.query(TABLE_NAME, columns, COLUMN_ID + " > ?", args,
+                        null, null, COLUMN_ID + " ASC", String.valueOf(EXPORT_CHUNK_SIZE))) {
+                    while (cursor.moveToNext()) {
+                        writer.write(cursor.getLong(1), cursor.getLong(2), cursor.getInt(3) != 0, cursor.getString(4));
+                        args[0] = String.valueOf(cursor.getLong(0));
+                        rows++;
                     }
                 }
+                if (rows < EXPORT_CHUNK_SIZE) return writer.getCount();
             }
+        }
+    }
 
-            // -----------------------------
-            // 2. FIFO 최대 20개 유지
-            // -----------------------------
-            int count = 0;
-            try (Cursor cursor = database.rawQuery("SELECT COUNT(*) FROM " + TABLE_NAME, null)) {
-                if (cursor.moveToFirst()) count = cursor.getInt(0);
+    /**
+     * exportHistory()로 내보낸 파일(CSV 또는 바이너리, 자동 판단)의 기록을 저장합니다. (백그라운드 스레드에서 호출)
+     * 미리 컴파일한 INSERT 문 하나로 IMPORT_CHUNK_SIZE개씩 트랜잭션을 나눠 넣으며, 이미 있는 기록은
+     * UNIQUE 인덱스로 건너뜁니다. 새로 저장된 기록은 통계와 랭킹(RankAdapter.addImportedScores)에도 반영됩니다.
+     * 도중에 형식 오류가 나면 그 트랜잭션만 롤백되고 앞서 커밋된 기록은 남으므로, 고친 파일을 다시 가져오면 됩니다.
+     * 끝나면 channel을 닫습니다.
+     * @return 새로 저장된 기록 수
+     * @throws IOException 읽기 실패 또는 형식 오류
+     */
+    public long importHistory(ReadableByteChannel channel) throws IOException {
+        RankAdapter rank = new RankAdapter(this); // 같은 트랜잭션에서 랭킹 갱신
+        long[] inserted = {0};
+        try (HistoryReader reader = new HistoryReader(channel);
+             SQLiteStatement insert = database.compileStatement("INSERT OR IGNORE INTO " + TABLE_NAME + "("
+                     + COLUMN_PLAYDATE + ", " + COLUMN_PLAYTIME_MS + ", " + COLUMN_SUCCESS + ", " + COLUMN_DEVICE
+                     + ") VALUES (?, ?, ?, ?)")) {
+            boolean[] more = {true};
+            while (more[0]) {
+                runInTransaction(() -> {
+                    long firstId = -1;
+                    for (int i = 0; i < IMPORT_CHUNK_SIZE; i++) {
+                        if (!nextImported(reader)) {
+                            more[0] = false;
+                            break;
+                        }
+                        insert.bindLong(1, reader.getPlaydateMillis());
+                        insert.bindLong(2, reader.getPlaytimeMillis());
+                        insert.bindLong(3, reader.isSuccess() ? 1 : 0);
+                        insert.bindString(4, reader.getDevice());
+                        long id = insert.executeInsert(); // 이미 있으면 -1
+                        if (id == -1) continue;
+                        if (firstId == -1) firstId = id;
+                        stats.add(new GameRecord(fromEpochMillis(reader.getPlaydateMillis()),
+                                Duration.ofMillis(reader.getPlaytimeMillis()), reader.isSuccess(), reader.getDevice()));
+                        changes.rowChanged(TABLE_NAME, id);
+                        inserted[0]++;
+                    }
+                    // AUTOINCREMENT라 이번에 저장된 행의 id는 모두 firstId 이상
+                    if (firstId != -1) rank.addImportedScores(firstId - 1);
+                });
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // 롤백된 랭킹 변경은 RankAdapter가 버림
+        } finally {
+            rank.close(); // 컴파일해 둔 문장만 닫힘 (연결은 이 어댑터의 것)
+        }
+        return inserted[0];
+    }
 
-            if (count >= MAX_SIZE) {
-                // 가장 오래된 레코드 ID 찾기
-                try (Cursor oldest = database.rawQuery(
-                        "SELECT " + COLUMN_ID + " FROM " + TABLE_NAME + " ORDER BY " + COLUMN_ID + " ASC LIMIT 1",
-                        null)) {
-                    if (oldest.moveToFirst()) {
-                        long oldestId = oldest.getLong(0);
-                        database.delete(TABLE_NAME, COLUMN_ID + "=?", new String[]{String.valueOf(oldestId)});
-                    }
+    /** runInTransaction 안에서 다음 기록을 읽음 (IOException은 트랜잭션을 롤백하도록 감싸서 던짐) */
+    private static boolean nextImported(HistoryReader reader) {
+        try {
+            return reader.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 보존 정책에 따라 오래된 기록을 한꺼번에 정리합니다. (백그라운드 스레드에서 주기적으로 호출)
+     * 1. 기간 제한: 기준 시각보다 이전에 플레이한 기록 삭제 (playdate UNIQUE 인덱스 사용)
+     * 2. 개수 제한: 최신 maxRecords개보다 오래된 기록 삭제 (id 기준)
+     * downsample이 켜져 있으면 지우기 전에 RECORD_DAILY에 날짜별로 합칩니다.
+     * @return 삭제된 행 수
+     */
+    public int applyRetention(RetentionPolicy policy) {
+        return applyRetention(policy, toEpochMillis(LocalDateTime.now()));
+    }
+
+    public int applyRetention(RetentionPolicy policy, long nowEpochMillis) {
+        int pruned = 0;
+        try {
+            if (policy.limitsAge()) {
+                String cutoff = String.valueOf(policy.cutoffEpochMillis(nowEpochMillis));
+                pruned += pruneWhere(COLUMN_PLAYDATE + " < ?", new String[]{cutoff}, policy.isDownsample());
+            }
+            if (policy.limitsCount()) {
+                // 최신 maxRecords개 바로 다음(더 오래된) 행의 id를 찾아 그 이하를 정리
+                long boundaryId = -1;
+                try (Cursor cursor = database.query(TABLE_NAME, new String[]{COLUMN_ID},
+                        null, null, null, null, COLUMN_ID + " DESC", policy.getMaxRecords() + ",1")) {
+                    if (cursor.moveToFirst()) boundaryId = cursor.getLong(0);
+                }
+                if (boundaryId != -1) {
+                    pruned += pruneWhere(COLUMN_ID + " <= ?", new String[]{String.valueOf(boundaryId)},
+                            policy.isDownsample());
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return pruned;
+    }
+
+    /** 조건에 맞는 행을 PRUNE_CHUNK_SIZE개씩 나눠 (집계 후) 삭제합니다. */
+    private int pruneWhere(String where, String[] args, boolean downsample) {
+        // ORDER BY 없이 잘라야 playdate 조건이 인덱스 범위 탐색으로 처리됨 (어느 행부터 지우든 결과는 같음)
+        String chunk = COLUMN_ID + " IN (SELECT " + COLUMN_ID + " FROM " + TABLE_NAME
+                + " WHERE " + where + " LIMIT " + PRUNE_CHUNK_SIZE + ")";
+        int total = 0;
+        while (true) {
+            int deleted;
+            database.beginTransaction();
+            try {
+                if (downsample) foldIntoDaily(chunk, args);
+                deleted = database.delete(TABLE_NAME, chunk, args);
+                database.setTransactionSuccessful();
+            } finally {
+                database.endTransaction();
+            }
+            total += deleted;
+            changes.rowsRemoved(TABLE_NAME, deleted);
+            if (deleted < PRUNE_CHUNK_SIZE) return total;
+        }
+    }
+
+    /**
+     * 조건에 맞는 행을 날짜별로 집계해 RECORD_DAILY에 더합니다.
+     * 날짜 번호는 RetentionPolicy.dayOf()와 같도록 내림 나눗셈으로 구합니다. (SQLite의 /는 0 쪽으로 잘라서
+     * 1970년 이전의 playdate가 다음 날로 들어감)
+     */
+    private void foldIntoDaily(String where, String[] args) {
+        long day = RetentionPolicy.DAY_MILLIS;
+        String dayOf = "(" + COLUMN_PLAYDATE + " - ((" + COLUMN_PLAYDATE + " % " + day + ") + " + day + ") % " + day
+                + ") / " + day;
+        String sql = "SELECT " + dayOf + " AS " + COLUMN_DAY + ", "
+                + "COUNT(*), SUM(" + COLUMN_SUCCESS + "), SUM(" + COLUMN_PLAYTIME_MS + "), "
+                + "MIN(CASE WHEN " + COLUMN_SUCCESS + "=1 THEN " + COLUMN_PLAYTIME_MS + " END) "
+                + "FROM " + TABLE_NAME + " WHERE " + where + " GROUP BY " + COLUMN_DAY;
+        try (Cursor cursor = database.rawQuery(sql, args);
+             SQLiteStatement update = database.compileStatement("UPDATE " + DAILY_TABLE_NAME + " SET "
+                     + COLUMN_PLAYS + "=" + COLUMN_PLAYS + "+?1, "
+                     + COLUMN_SUCCESSES + "=" + COLUMN_SUCCESSES + "+?2, "
+                     + COLUMN_TOTAL_PLAYTIME_MS + "=" + COLUMN_TOTAL_PLAYTIME_MS + "+?3, "
+                     + COLUMN_BEST_PLAYTIME_MS + "=CASE WHEN ?4 IS NULL THEN " + COLUMN_BEST_PLAYTIME_MS
+                     + " WHEN " + COLUMN_BEST_PLAYTIME_MS + " IS NULL OR ?4 < " + COLUMN_BEST_PLAYTIME_MS
+                     + " THEN ?4 ELSE " + COLUMN_BEST_PLAYTIME_MS + " END "
+                     + "WHERE " + COLUMN_DAY + "=?5");
+             SQLiteStatement insert = database.compileStatement("INSERT INTO " + DAILY_TABLE_NAME + "("
+                     + COLUMN_PLAYS + ", " + COLUMN_SUCCESSES + ", " + COLUMN_TOTAL_PLAYTIME_MS + ", "
+                     + COLUMN_BEST_PLAYTIME_MS + ", " + COLUMN_DAY + ") VALUES (?, ?, ?, ?, ?)")) {
+            while (cursor.moveToNext()) {
+                // 같은 날짜의 집계가 이미 있으면 더하고, 없으면 새로 추가 (minSdk 26의 SQLite는 UPSERT 미지원)
+                if (bindDaily(update, cursor).executeUpdateDelete() == 0) {
+                    bindDaily(insert, cursor).executeInsert();
                 }
             }
+        }
+    }
 
-            // -----------------------------
-            // 3. 새로운 레코드 삽입
-            // -----------------------------
-            ContentValues values = new ContentValues();
-            values.put(COLUMN_RECORD, recordValue);
-            return database.insert(TABLE_NAME, null, values);
+    private static SQLiteStatement bindDaily(SQLiteStatement statement, Cursor cursor) {
+        statement.clearBindings();
+        statement.bindLong(1, cursor.getLong(1)); // plays
+        statement.bindLong(2, cursor.getLong(2)); // successes
+        statement.bindLong(3, cursor.getLong(3)); // total_playtime_ms
+        if (cursor.isNull(4)) statement.bindNull(4);
+        else statement.bindLong(4, cursor.getLong(4)); // best_playtime_ms
+        statement.bindLong(5, cursor.getLong(0)); // day
+        return statement;
+    }
+
+    /**
+     * 기록 목록 화면용 페이지 로더입니다. 최신 기록부터(id 내림차순) 페이지 단위로 읽습니다.
+     * 다음 페이지는 앞 페이지의 마지막 id보다 작은 행을 읽는 keyset 방식이라 PK 범위 탐색만 합니다.
+     */
+    public PagedRowSource.PageLoader historyPages() {
+        return new PagedRowSource.PageLoader() {
+            @Override
+            public int count() {
+                return countRecords();
+            }
+
+            @Override
+            public List<RecordRow> loadFirst(int limit) {
+                return queryRows(null, null, limit, 0);
+            }
 
+            @Override
+            public List<RecordRow> loadAfter(RecordRow last, int limit) {
+                return queryRows(COLUMN_ID + " < ?", new String[]{String.valueOf(last.id())}, limit, 0);
+            }
+
+            @Override
+            public List<RecordRow> loadAt(int offset, int limit) {
+                return queryRows(null, null, limit, offset);
+            }
+        };
+    }
+
+    /** 저장된 기록 수 */
+    public int countRecords() {
+        try (Cursor cursor = database.rawQuery("SELECT COUNT(*) FROM " + TABLE_NAME, null)) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
         } catch (Exception e) {
             e.printStackTrace();
-            return -1;
+            return 0;
         }
     }
 
+    private List<RecordRow> queryRows(String where, String[] args, int limit, int offset) {
+        List<RecordRow> rows = new ArrayList<>(limit);
+        String limitClause = offset > 0 ? offset + "," + limit : String.valueOf(limit);
+        try (Cursor cursor = database.query(TABLE_NAME,
+                RECORD_COLUMNS,
+                where, args, null, null, COLUMN_ID + " DESC", limitClause)) {
+            while (cursor.moveToNext()) {
+                rows.add(new RecordRow(cursor.getLong(0), 0, readGameRecord(cursor)));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return rows;
+    }
 
+    /** 트랜잭션 안에서 모아 둔 통계 갱신을 씁니다. */
+    @Override
+    protected void beforeCommit() {
+        if (stats.hasPending()) stats.flush();
+    }
 
-    public List<String> getAllRecordsForDisplay() {
-        List<String> list = new ArrayList<>();
-        Cursor cursor = getAllRecords();
-        if (cursor != null && cursor.moveToLast()) {  // 마지막 레코드부터 시작
-            do {
-                GameRecord gr = parseGameRecord(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_RECORD)));
-                if (gr != null) {
-                    String text = gr.Playdate() + " " + formatDuration(gr.Playtime())
-                            + " " + (gr.Success() ? "성공" : "실패");
-                    list.add(text);
-                }
-            } while (cursor.moveToPrevious()); // 이전 레코드로 이동
-            cursor.close();
-        }
-        return list;
+    /** 롤백되면 메모리의 통계 행에 커밋되지 않은 값이 들어 있으므로 버림 */
+    @Override
+    protected void afterRollback() {
+        stats.discardPending();
     }
 
+    /** 중복으로 판정되어 저장하지 않은 기록 수 */
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
 
-    private Cursor getAllRecords() {
-        return database.query(TABLE_NAME, null, null, null, null, null,
-                COLUMN_ID + " ASC");
+    /**
+     * 최근 키 기억을 모두 지웁니다.
+     * addRecord를 감싼 바깥 트랜잭션이 롤백되면 기억한 키가 실제로는 저장되지 않은 것이므로 호출해야 합니다.
+     */
+    public void forgetRecentKeys() {
+        recentKeys.clear();
+    }
+
+    /** 최근 저장된 기록의 (장치, playdate)를 읽어 두어, 서비스가 다시 시작된 직후의 재전송도 메모리에서 거릅니다. */
+    private void loadRecentKeys() {
+        try (Cursor cursor = database.query(TABLE_NAME, new String[]{COLUMN_PLAYDATE, COLUMN_DEVICE},
+                null, null, null, null, COLUMN_ID + " DESC", String.valueOf(recentKeys.capacity()))) {
+            while (cursor.moveToNext()) {
+                long key = recentKey(cursor.getString(1), cursor.getLong(0));
+                if (key != NO_KEY) recentKeys.add(key);
+            }
+        }
+    }
+
+    /** (장치, playdate)를 최근 키 하나(long)로 합칩니다. 합칠 수 없으면 NO_KEY */
+    private long recentKey(String device, long playdateMillis) {
+        if (playdateMillis < 0 || (playdateMillis >>> DEVICE_SLOT_SHIFT) != 0) return NO_KEY;
+        Integer slot = deviceSlots.get(device);
+        if (slot == null) {
+            if (deviceSlots.size() >= MAX_DEVICE_SLOTS) return NO_KEY;
+            slot = deviceSlots.size();
+            deviceSlots.put(device, slot);
+        }
+        return ((long) slot << DEVICE_SLOT_SHIFT) | playdateMillis;
     }
 
 }
@@ -0,0 +1,80 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RECORD 테이블에 기록을 얼마나 남길지 정하는 보존 정책입니다.
+ * <p>
+ * - maxRecords: 최신 기록을 최대 몇 개까지 남길지 (0 = 제한 없음)
+ * - maxAgeDays: 플레이 날짜가 며칠 이내인 기록만 남길지 (0 = 제한 없음)
+ * - downsample: 지워지는 기록을 버리지 않고 날짜별 집계(RECORD_DAILY)에 합칠지
+ * <p>
+ * 정리(prune)는 기록을 저장할 때마다가 아니라 백그라운드에서 주기적으로 한꺼번에 수행됩니다.
+ */
+public final class RetentionPolicy {
+
+    /** 기본 정책: 최근 100만 개, 1년 이내 기록을 남기고 그보다 오래된 기록은 날짜별 집계로 합침 */
+    public static final RetentionPolicy DEFAULT = new RetentionPolicy(1_000_000, 365, true);
+
+    /** 하루의 밀리초 (날짜별 집계 키 계산용) */
+    public static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final int maxRecords;
+    private final int maxAgeDays;
+    private final boolean downsample;
+
+    /**
+     * @param maxRecords 남길 최신 기록 수 (0 = 제한 없음)
+     * @param maxAgeDays 남길 기간(일) (0 = 제한 없음)
+     * @param downsample 지워지는 기록을 날짜별 집계에 합칠지
+     */
+    public RetentionPolicy(int maxRecords, int maxAgeDays, boolean downsample) {
+        if (maxRecords < 0 || maxAgeDays < 0) {
+            throw new IllegalArgumentException("invalid retention policy: " + maxRecords + " records, " + maxAgeDays + " days");
+        }
+        this.maxRecords = maxRecords;
+        this.maxAgeDays = maxAgeDays;
+        this.downsample = downsample;
+    }
+
+    public int getMaxRecords() {
+        return maxRecords;
+    }
+
+    public int getMaxAgeDays() {
+        return maxAgeDays;
+    }
+
+    public boolean isDownsample() {
+        return downsample;
+    }
+
+    public boolean limitsCount() {
+        return maxRecords > 0;
+    }
+
+    public boolean limitsAge() {
+        return maxAgeDays > 0;
+    }
+
+    /**
+     * 이 시각(epoch 밀리초)보다 이전에 플레이한 기록은 정리 대상입니다.
+     * @param nowEpochMillis 현재 시각 (playdate와 같은 기준으로 환산한 값)
+     * @return 기준 시각, 기간 제한이 없으면 Long.MIN_VALUE
+     */
+    public long cutoffEpochMillis(long nowEpochMillis) {
+        if (!limitsAge()) return Long.MIN_VALUE;
+        return nowEpochMillis - maxAgeDays * DAY_MILLIS;
+    }
+
+    /** playdate(epoch 밀리초)가 속한 날짜 키 (1970-01-01부터 센 일 수) */
+    public static long dayOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, DAY_MILLIS);
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionPolicy{maxRecords=" + maxRecords + ", maxAgeDays=" + maxAgeDays
+                + ", downsample=" + downsample + "}";
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+/**
+ * 여러 사용자가 함께 쓰는 자원(데이터베이스 연결 등)을 참조 수(reference count)로 관리합니다.
+ * <p>
+ * - 처음 acquire()할 때 opener로 엽니다. (생성 시점에는 열지 않음)
+ * - release()로 마지막 사용자가 반납했을 때만 closer로 닫습니다.
+ *   그래서 한 화면이 종료되며 반납해도 다른 사용자(서비스 등)가 쓰는 중이면 닫히지 않습니다.
+ * - 닫힌 뒤 다시 acquire()하면 새로 엽니다.
+ * <p>
+ * 스레드 안전합니다. 여는 동안 다른 스레드의 acquire()는 열기가 끝날 때까지 기다립니다.
+ *
+ * @param <T> 자원의 타입
+ */
+public final class SharedResource<T> {
+
+    /** 자원을 여는 방법 */
+    public interface Opener<T> {
+        T open();
+    }
+
+    /** 자원을 닫는 방법 */
+    public interface Closer<T> {
+        void close(T resource);
+    }
+
+    private final Opener<T> opener;
+    private final Closer<T> closer;
+
+    private T resource;
+    private int refCount;
+    private long openCount;
+
+    public SharedResource(Opener<T> opener, Closer<T> closer) {
+        this.opener = opener;
+        this.closer = closer;
+    }
+
+    /**
+     * 참조 수를 하나 늘리고 자원을 반환합니다. 아직 열리지 않았으면 엽니다.
+     * 열다가 예외가 발생하면 참조 수는 늘지 않고 예외가 그대로 전달됩니다.
+     */
+    public synchronized T acquire() {
+        if (resource == null) {
+            resource = opener.open();
+            openCount++;
+        }
+        refCount++;
+        return resource;
+    }
+
+    /**
+     * 참조 수를 하나 줄이고, 0이 되면 자원을 닫습니다.
+     * @throws IllegalStateException acquire()보다 release()가 많을 때
+     */
+    public synchronized void release() {
+        if (refCount == 0) throw new IllegalStateException("release() without acquire()");
+        if (--refCount > 0) return;
+        T closing = resource;
+        resource = null;
+        closer.close(closing);
+    }
+
+    /** 현재 자원을 사용 중인 수 */
+    public synchronized int getRefCount() {
+        return refCount;
+    }
+
+    public synchronized boolean isOpen() {
+        return resource != null;
+    }
+
+    /** 지금까지 자원을 연 횟수 (닫혔다가 다시 열리면 증가) */
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 플레이 통계를 시간별/날짜별/전체 구간마다 미리 합쳐 두는 집계 테이블(RECORD_STATS) 어댑터입니다.
+ * <p>
+ * - 기록이 저장될 때(RecordAdapter.addRecord) 같은 트랜잭션 안에서 해당 시간, 날짜, 전체 행을 갱신하므로
+ *   "오늘 몇 판, 성공률, 플레이 시간 중앙값" 같은 질문은 저장된 기록 수와 관계없이 행 하나(또는 구간의 행 몇 개)만 읽습니다.
+ * - 구간마다 모든 보드를 합친 행(device = ALL_DEVICES)과, 장치를 아는 기록이면 보드별 행을 따로 둡니다.
+ * - 갱신은 메모리의 행(캐시)에 모아 두었다가 트랜잭션이 커밋되기 직전에 flush()로 한 번씩만 씁니다.
+ *   (같은 시간대의 기록 64개를 한 묶음으로 저장하면 행마다 64번이 아니라 한 번 씀)
+ * - 보존 정책으로 RECORD에서 지워진 기록도 통계에는 그대로 남습니다.
+ * <p>
+ * 쓰기는 서비스의 writer 스레드 하나(RecordAdapter가 공유 연결로 만든 인스턴스)에서만 합니다.
+ * 화면은 따로 만든 인스턴스로 커밋된 행만 읽습니다.
+ */
+public class StatsAdapter extends AbstractDataBaseAdapter {
+
+    public static final String TABLE_NAME = "RECORD_STATS";
+
+    /** 구간 단위 */
+    public static final int PERIOD_HOUR = 0;
+    public static final int PERIOD_DAY = 1;
+    public static final int PERIOD_ALL = 2; // 전체 기간 (start = 0)
+
+    /** 모든 보드를 합친 행의 device 값 (장치를 모르는 기록은 이 행에만 더해짐) */
+    public static final String ALL_DEVICES = "";
+
+    public static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final String COLUMN_PERIOD = "period";
+    private static final String COLUMN_START = "start"; // 구간 시작 (epoch 밀리초, playdate와 같은 기준)
+    private static final String COLUMN_PLAYS = "plays";
+    private static final String COLUMN_SUCCESSES = "successes";
+    private static final String COLUMN_TOTAL_PLAYTIME_MS = "total_playtime_ms";
+    private static final String COLUMN_BEST_PLAYTIME_MS = "best_playtime_ms";
+    private static final String COLUMN_SKETCH = "sketch"; // PlaytimeSketch.toBytes(), 분포가 없으면 NULL
+    private static final String[] STATS_COLUMNS = {COLUMN_PLAYS, COLUMN_SUCCESSES, COLUMN_TOTAL_PLAYTIME_MS,
+            COLUMN_BEST_PLAYTIME_MS, COLUMN_SKETCH};
+
+    /**
+     * (구간 단위, 구간 시작, 장치)마다 한 행. 키로만 찾으므로 rowid 없이 기본 키 B-tree에 바로 저장합니다.
+     */
+    public static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + "("
+                    + COLUMN_PERIOD + " INTEGER NOT NULL, "
+                    + COLUMN_START + " INTEGER NOT NULL, "
+                    + COLUMN_DEVICE + " TEXT NOT NULL, "
+                    + COLUMN_PLAYS + " INTEGER NOT NULL, "
+                    + COLUMN_SUCCESSES + " INTEGER NOT NULL, "
+                    + COLUMN_TOTAL_PLAYTIME_MS + " INTEGER NOT NULL, "
+                    + COLUMN_BEST_PLAYTIME_MS + " INTEGER, "
+                    + COLUMN_SKETCH + " BLOB, "
+                    + "PRIMARY KEY(" + COLUMN_PERIOD + ", " + COLUMN_START + ", " + COLUMN_DEVICE + ")) WITHOUT ROWID;";
+
+    // 메모리에 두는 최대 행 수 (현재 시간/날짜/전체 × 보드 수면 충분)
+    private static final int CACHE_ROWS = 64;
+
+    /** 행의 기본 키 */
+    private record RowKey(int period, long start, String device) {
+    }
+
+    // writer: 최근에 쓴 행 (접근 순서), 아직 쓰지 않은 행
+    private final Map<RowKey, PlayStats> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<RowKey> dirty = new HashSet<>();
+    // 프로세스 전체에서 통계를 쓴 횟수: 다른 어댑터(예: 기록 가져오기)가 쓴 뒤면 캐시를 버리고 다시 읽음
+    private static final AtomicLong writeGeneration = new AtomicLong();
+    private long seenGeneration;
+
+    /**
+     * 생성자: 통계를 읽을 화면용 (공유 연결을 직접 가져옴)
+     * @param context 앱 컨텍스트
+     */
+    public StatsAdapter(Context context) {
+        super(context);
+        try {
+            open(); // 공유 연결 가져오기 (DatabaseManager.acquire)
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 생성자: 다른 어댑터의 연결을 공유합니다. 기록 저장과 같은 트랜잭션으로 통계를 갱신할 때 사용합니다.
+     * @param shared 연결을 공유할 어댑터 (예: RecordAdapter)
+     */
+    public StatsAdapter(AbstractDataBaseAdapter shared) {
+        super(shared);
+    }
+
+    // -----------------------------
+    // 쓰기 (writer 스레드)
+    // -----------------------------
+
+    /**
+     * 기록 하나를 시간별, 날짜별, 전체 행(모든 보드 + 해당 보드)에 더합니다.
+     * 메모리의 행만 바꾸며, 트랜잭션이 커밋되기 전에 flush()해야 저장됩니다.
+     */
+    public void add(GameRecord record) {
+        long playdate = toEpochMillis(record.Playdate());
+        long playtime = record.Playtime().toMillis();
+        boolean success = Boolean.TRUE.equals(record.Success());
+        // 트랜잭션의 첫 add: 그 사이 다른 어댑터가 쓴 행이 있으면 캐시가 낡았음 (트랜잭션은 서로 겹치지 않음)
+        if (dirty.isEmpty() && seenGeneration != writeGeneration.get()) cache.clear();
+        for (RowKey key : keysFor(playdate, record.Device())) {
+            PlayStats stats = cache.get(key);
+            if (stats == null) {
+                stats = load(database, key);
+                cache.put(key, stats);
+            }
+            stats.add(playtime, success);
+            dirty.add(key);
+        }
+    }
+
+    /** add()로 바뀐 행을 씁니다. (현재 트랜잭션 안에서) */
+    public void flush() {
+        for (RowKey key : dirty) store(database, key, cache.get(key));
+        if (!dirty.isEmpty()) seenGeneration = writeGeneration.incrementAndGet();
+        dirty.clear();
+        // 모두 저장됐으므로 오래 안 쓴 행부터 버려도 됨
+        Iterator<RowKey> eldest = cache.keySet().iterator();
+        while (cache.size() > CACHE_ROWS && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * 메모리의 행을 모두 버립니다. 트랜잭션이 롤백되었을 때 호출해야 합니다.
+     * (캐시에 커밋되지 않은 값이 들어 있으므로 다음에 다시 읽음)
+     */
+    public void discardPending() {
+        dirty.clear();
+        cache.clear();
+    }
+
+    /** flush되지 않은 행이 있는지 */
+    public boolean hasPending() {
+        return !dirty.isEmpty();
+    }
+
+    // -----------------------------
+    // 읽기 (화면)
+    // -----------------------------
+
+    /** 전체 기간 통계 (행 하나) */
+    public PlayStats getTotal(String device) {
+        return query(new RowKey(PERIOD_ALL, 0, device));
+    }
+
+    /** 하루 통계 (행 하나) */
+    public PlayStats getDay(LocalDate day, String device) {
+        return query(new RowKey(PERIOD_DAY, periodStart(PERIOD_DAY, toEpochMillis(day.atStartOfDay())), device));
+    }
+
+    /** 한 시간 통계 (행 하나). hour가 속한 정시부터 한 시간 */
+    public PlayStats getHour(LocalDateTime hour, String device) {
+        return query(new RowKey(PERIOD_HOUR, periodStart(PERIOD_HOUR, toEpochMillis(hour)), device));
+    }
+
+    /**
+     * [from, to) 안에서 시작하는 구간들을 합친 통계입니다. (예: 최근 7일 = PERIOD_DAY로 7행)
+     * @param period PERIOD_HOUR 또는 PERIOD_DAY
+     */
+    public PlayStats getRange(int period, LocalDateTime from, LocalDateTime to, String device) {
+        PlayStats total = new PlayStats();
+        for (PlayStats stats : getSeries(period, from, to, device).values()) total.merge(stats);
+        return total;
+    }
+
+    /**
+     * [from, to) 안의 구간별 통계를 시간 순서로 반환합니다. 플레이가 없는 구간은 빠집니다. (그래프용)
+     * @param period PERIOD_HOUR 또는 PERIOD_DAY
+     */
+    public Map<LocalDateTime, PlayStats> getSeries(int period, LocalDateTime from, LocalDateTime to, String device) {
+        Map<LocalDateTime, PlayStats> series = new LinkedHashMap<>();
+        String[] columns = new String[STATS_COLUMNS.length + 1];
+        System.arraycopy(STATS_COLUMNS, 0, columns, 0, STATS_COLUMNS.length);
+        columns[STATS_COLUMNS.length] = COLUMN_START;
+        try (Cursor cursor = database.query(TABLE_NAME, columns,
+                COLUMN_PERIOD + "=? AND " + COLUMN_START + ">=? AND " + COLUMN_START + "<? AND " + COLUMN_DEVICE + "=?",
+                new String[]{String.valueOf(period), String.valueOf(toEpochMillis(from)),
+                        String.valueOf(toEpochMillis(to)), device},
+                null, null, COLUMN_START + " ASC")) {
+            while (cursor.moveToNext()) {
+                series.put(fromEpochMillis(cursor.getLong(STATS_COLUMNS.length)), readStats(cursor));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return series;
+    }
+
+    /** 통계가 있는 보드 목록 (ALL_DEVICES 제외) */
+    public List<String> getDevices() {
+        List<String> devices = new ArrayList<>();
+        try (Cursor cursor = database.query(TABLE_NAME, new String[]{COLUMN_DEVICE},
+                COLUMN_PERIOD + "=? AND " + COLUMN_START + "=0 AND " + COLUMN_DEVICE + "<>?",
+                new String[]{String.valueOf(PERIOD_ALL), ALL_DEVICES}, null, null, COLUMN_DEVICE)) {
+            while (cursor.moveToNext()) devices.add(cursor.getString(0));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return devices;
+    }
+
+    private PlayStats query(RowKey key) {
+        try {
+            return load(database, key);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new PlayStats();
+        }
+    }
+
+    // -----------------------------
+    // 행 읽기/쓰기 (마이그레이션에서도 사용)
+    // -----------------------------
+
+    /** 구간 단위별 시작 시각 (전체 기간은 0) */
+    static long periodStart(int period, long epochMillis) {
+        switch (period) {
+            case PERIOD_HOUR:
+                return Math.floorDiv(epochMillis, HOUR_MILLIS) * HOUR_MILLIS;
+            case PERIOD_DAY:
+                return Math.floorDiv(epochMillis, RetentionPolicy.DAY_MILLIS) * RetentionPolicy.DAY_MILLIS;
+            default:
+                return 0;
+        }
+    }
+
+    /** 기록 하나가 더해질 행들 (장치를 모르면 모든 보드 행만) */
+    private static List<RowKey> keysFor(long playdate, String device) {
+        List<RowKey> keys = new ArrayList<>(6);
+        for (int period = PERIOD_HOUR; period <= PERIOD_ALL; period++) {
+            long start = periodStart(period, playdate);
+            keys.add(new RowKey(period, start, ALL_DEVICES));
+            if (!ALL_DEVICES.equals(device)) keys.add(new RowKey(period, start, device));
+        }
+        return keys;
+    }
+
+    /** 저장된 행 (없으면 빈 통계) */
+    private static PlayStats load(SQLiteDatabase db, RowKey key) {
+        try (Cursor cursor = db.query(TABLE_NAME, STATS_COLUMNS,
+                COLUMN_PERIOD + "=? AND " + COLUMN_START + "=? AND " + COLUMN_DEVICE + "=?",
+                new String[]{String.valueOf(key.period()), String.valueOf(key.start()), key.device()},
+                null, null, null)) {
+            return cursor.moveToFirst() ? readStats(cursor) : new PlayStats();
+        }
+    }
+
+    /** 커서의 현재 행 (STATS_COLUMNS 순서) */
+    private static PlayStats readStats(Cursor cursor) {
+        return new PlayStats(cursor.getLong(0), cursor.getLong(1), cursor.getLong(2),
+                cursor.isNull(3) ? -1 : cursor.getLong(3),
+                PlaytimeSketch.fromBytes(cursor.isNull(4) ? null : cursor.getBlob(4)));
+    }
+
+    /** 행 전체를 덮어씀 (메모리의 값이 행의 전체 상태이므로 UPDATE/INSERT 구분 없이 REPLACE) */
+    private static void store(SQLiteDatabase db, RowKey key, PlayStats stats) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_PERIOD, key.period());
+        values.put(COLUMN_START, key.start());
+        values.put(COLUMN_DEVICE, key.device());
+        values.put(COLUMN_PLAYS, stats.getPlays());
+        values.put(COLUMN_SUCCESSES, stats.getSuccesses());
+        values.put(COLUMN_TOTAL_PLAYTIME_MS, stats.getTotalPlaytimeMillis());
+        if (stats.getBestPlaytimeMillis() < 0) values.putNull(COLUMN_BEST_PLAYTIME_MS);
+        else values.put(COLUMN_BEST_PLAYTIME_MS, stats.getBestPlaytimeMillis());
+        byte[] sketch = stats.getSketch().toBytes();
+        if (sketch.length == 0) values.putNull(COLUMN_SKETCH);
+        else values.put(COLUMN_SKETCH, sketch);
+        if (db.insertWithOnConflict(TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE) == -1) {
+            throw new SQLException("failed to store stats row " + key);
+        }
+    }
+
+    /**
+     * RECORD와 RECORD_DAILY에서 통계를 처음부터 다시 만듭니다. (스키마 v6, v8 마이그레이션)
+     * 기록을 playdate 순서로 한 번 훑으며, 지나간 시간/날짜의 행은 바로 써서 메모리에는 현재 구간만 둡니다.
+     * RECORD_DAILY(이미 정리된 기록)는 분포 없이 날짜별/전체 행에 더합니다.
+     */
+    static void rebuild(SQLiteDatabase db) {
+        db.delete(TABLE_NAME, null, null);
+        Map<RowKey, PlayStats> open = new HashMap<>();
+        long hour = Long.MIN_VALUE, day = Long.MIN_VALUE;
+        try (Cursor cursor = db.query(RecordAdapter.TABLE_NAME,
+                new String[]{COLUMN_PLAYDATE, COLUMN_PLAYTIME_MS, COLUMN_SUCCESS, COLUMN_DEVICE},
+                null, null, null, null, COLUMN_PLAYDATE + " ASC")) {
+            while (cursor.moveToNext()) {
+                long playdate = cursor.getLong(0);
+                if (periodStart(PERIOD_HOUR, playdate) != hour) {
+                    storePeriod(db, open, PERIOD_HOUR);
+                    hour = periodStart(PERIOD_HOUR, playdate);
+                }
+                if (periodStart(PERIOD_DAY, playdate) != day) {
+                    storePeriod(db, open, PERIOD_DAY);
+                    day = periodStart(PERIOD_DAY, playdate);
+                }
+                for (RowKey key : keysFor(playdate, cursor.getString(3))) {
+                    open.computeIfAbsent(key, k -> new PlayStats()).add(cursor.getLong(1), cursor.getInt(2) != 0);
+                }
+            }
+        }
+        for (int period = PERIOD_HOUR; period <= PERIOD_ALL; period++) storePeriod(db, open, period);
+
+        try (Cursor cursor = db.query(RecordAdapter.DAILY_TABLE_NAME,
+                new String[]{RecordAdapter.COLUMN_DAY, RecordAdapter.COLUMN_PLAYS, RecordAdapter.COLUMN_SUCCESSES,
+                        RecordAdapter.COLUMN_TOTAL_PLAYTIME_MS, RecordAdapter.COLUMN_BEST_PLAYTIME_MS},
+                null, null, null, null, null)) {
+            PlayStats pruned = new PlayStats();
+            while (cursor.moveToNext()) {
+                PlayStats daily = new PlayStats(cursor.getLong(1), cursor.getLong(2), cursor.getLong(3),
+                        cursor.isNull(4) ? -1 : cursor.getLong(4), new PlaytimeSketch());
+                RowKey key = new RowKey(PERIOD_DAY, cursor.getLong(0) * RetentionPolicy.DAY_MILLIS, ALL_DEVICES);
+                PlayStats stats = load(db, key); // 일부만 정리된 날은 RECORD에서 만든 행과 합침
+                stats.merge(daily);
+                store(db, key, stats);
+                pruned.merge(daily);
+            }
+            if (pruned.getPlays() > 0) {
+                RowKey key = new RowKey(PERIOD_ALL, 0, ALL_DEVICES);
+                PlayStats stats = load(db, key);
+                stats.merge(pruned);
+                store(db, key, stats);
+            }
+        }
+    }
+
+    /** 해당 구간 단위의 열린 행을 모두 쓰고 메모리에서 뺌 */
+    private static void storePeriod(SQLiteDatabase db, Map<RowKey, PlayStats> open, int period) {
+        Iterator<Map.Entry<RowKey, PlayStats>> it = open.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<RowKey, PlayStats> entry = it.next();
+            if (entry.getKey().period() != period) continue;
+            store(db, entry.getKey(), entry.getValue());
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 점수(작을수록 상위, 예: 플레이 시간 ms) 기준 상위 N개만 유지하는 고정 크기 리더보드입니다.
+ * <p>
+ * 점수는 기본형 long 배열에 오름차순으로 보관합니다.
+ * - 새 점수가 N위 안에 들 수 있는지는 {@link #qualifies(long)}로 O(1)에 판단합니다.
+ * - 들어갈 수 있으면 이진 탐색으로 위치를 찾고 뒤쪽을 한 칸씩 밀어 넣습니다. (N이 작으므로 O(N) 이동이면 충분)
+ * - 같은 점수는 먼저 들어온 기록이 상위입니다.
+ * <p>
+ * 각 항목은 데이터베이스 행 ID와 표시용 값(value)을 함께 가집니다. 스레드 안전하지 않습니다.
+ *
+ * @param <T> 항목에 함께 보관할 값의 타입 (예: GameRecord)
+ */
+public final class TopNLeaderboard<T> {
+
+    private final int capacity;
+    private final long[] scores;
+    private final long[] ids;
+    private final Object[] values;
+    private int size;
+
+    public TopNLeaderboard(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.scores = new long[capacity];
+        this.ids = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /** 새 점수가 현재 N위보다 좋아서 리더보드에 들어갈 수 있는지 (O(1)) */
+    public boolean qualifies(long score) {
+        return size < capacity || score < scores[size - 1];
+    }
+
+    /** 점수를 넣었을 때 들어갈 위치 (0 = 1위). 리더보드는 바꾸지 않습니다. */
+    public int positionFor(long score) {
+        return upperBound(score);
+    }
+
+    /**
+     * 점수를 알맞은 위치에 넣습니다. 가득 차 있으면 N위 항목이 밀려납니다.
+     * 호출 전에 {@link #qualifies(long)}로 확인해야 합니다.
+     * @return 들어간 위치 (0 = 1위)
+     */
+    public int insert(long score, long id, T value) {
+        if (!qualifies(score)) {
+            throw new IllegalStateException("score does not qualify: " + score);
+        }
+        int pos = upperBound(score);
+        int moved = Math.min(size, capacity - 1) - pos;
+        if (moved > 0) {
+            System.arraycopy(scores, pos, scores, pos + 1, moved);
+            System.arraycopy(ids, pos, ids, pos + 1, moved);
+            System.arraycopy(values, pos, values, pos + 1, moved);
+        }
+        scores[pos] = score;
+        ids[pos] = id;
+        values[pos] = value;
+        if (size < capacity) size++;
+        return pos;
+    }
+
+    public long scoreAt(int index) {
+        checkIndex(index);
+        return scores[index];
+    }
+
+    public long idAt(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T valueAt(int index) {
+        checkIndex(index);
+        return (T) values[index];
+    }
+
+    /** 현재 순위대로 값을 복사한 리스트 */
+    public List<T> snapshot() {
+        List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(valueAt(i));
+        return list;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    /** 같은 내용의 독립된 복사본 (값 객체는 공유) */
+    public TopNLeaderboard<T> copy() {
+        TopNLeaderboard<T> copy = new TopNLeaderboard<>(capacity);
+        System.arraycopy(scores, 0, copy.scores, 0, size);
+        System.arraycopy(ids, 0, copy.ids, 0, size);
+        System.arraycopy(values, 0, copy.values, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    /** score보다 큰 첫 위치 (같은 점수 뒤에 들어가도록) */
+    private int upperBound(long score) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (scores[mid] <= score) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 기간(오늘, 이번 주, 전체)별 상위 N개 리더보드를 함께 유지합니다.
+ * <p>
+ * - 창마다 TopNLeaderboard 하나와 그 창의 시작 시각을 가집니다. 기록 하나는 offer()로 모든 창에 한 번에 넣습니다.
+ * - 창이 끝나면 다음에 쓰거나 읽을 때(lazy) 비우고 새 창으로 넘어갑니다. 새 창에는 아직 기록이 없으므로
+ *   다시 계산할 것이 없습니다. 처음 사용할 때만 install()로 저장된 기록에서 한 번 채웁니다.
+ * - 기록의 플레이 날짜가 지금보다 뒤의 창이면(보드 시계가 앞선 경우) 그 창으로 넘어가고, 지난 창의 기록은 버립니다.
+ * <p>
+ * 시각은 보드가 보낸 LocalDateTime(현지 시각)을 그대로 씁니다. 스레드 안전하지 않습니다.
+ *
+ * @param <T> 항목에 함께 보관할 값의 타입 (예: GameRecord)
+ */
+public final class WindowedLeaderboards<T> {
+
+    /** 리더보드 기간 */
+    public enum Window {
+        DAY, WEEK, ALL;
+
+        /** time이 속한 창의 시작 시각 (ALL은 LocalDateTime.MIN) */
+        public LocalDateTime startOf(LocalDateTime time) {
+            switch (this) {
+                case DAY:
+                    return time.truncatedTo(ChronoUnit.DAYS);
+                case WEEK:
+                    return time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                default:
+                    return LocalDateTime.MIN;
+            }
+        }
+
+        /** start에서 시작한 창의 끝 (다음 창의 시작, ALL은 LocalDateTime.MAX) */
+        public LocalDateTime endOf(LocalDateTime start) {
+            switch (this) {
+                case DAY:
+                    return start.plusDays(1);
+                case WEEK:
+                    return start.plusWeeks(1);
+                default:
+                    return LocalDateTime.MAX;
+            }
+        }
+    }
+
+    private final int capacity;
+    private final Map<Window, TopNLeaderboard<T>> boards = new EnumMap<>(Window.class);
+    private final Map<Window, LocalDateTime> starts = new EnumMap<>(Window.class); // 없으면 아직 채우지 않은 창
+
+    public WindowedLeaderboards(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * now 기준 현재 창의 리더보드를 반환합니다. 이전 창이 끝났으면 이때 비우고 넘어갑니다.
+     * @return 아직 채우지 않은 창이면 null (install() 필요)
+     */
+    public TopNLeaderboard<T> current(Window window, LocalDateTime now) {
+        LocalDateTime start = starts.get(window);
+        if (start == null) return null;
+        LocalDateTime nowStart = window.startOf(now);
+        if (nowStart.isAfter(start)) {
+            boards.get(window).clear();
+            starts.put(window, nowStart);
+        }
+        return boards.get(window);
+    }
+
+    /** 현재 창의 시작 시각 (아직 채우지 않았으면 null) */
+    public LocalDateTime startOf(Window window) {
+        return starts.get(window);
+    }
+
+    /**
+     * 저장된 기록으로 채운 창을 넣습니다.
+     * @param start 창의 시작 시각 (window.startOf()의 값)
+     * @param board 그 창의 기록으로 만든 리더보드 (크기는 capacity()와 같아야 함)
+     */
+    public void install(Window window, LocalDateTime start, TopNLeaderboard<T> board) {
+        if (board.capacity() != capacity) {
+            throw new IllegalArgumentException("capacity " + board.capacity() + " != " + capacity);
+        }
+        boards.put(window, board);
+        starts.put(window, start);
+    }
+
+    /**
+     * 기록 하나를 한 창에 넣습니다. 창이 채워져 있고, 기록이 그 창에 속하고, N위 안에 들 때만 들어갑니다.
+     * @param playdate 기록의 플레이 날짜 (창을 고르는 기준)
+     * @param now 현재 시각 (지난 창을 넘기는 기준)
+     * @return 들어간 위치 (0 = 1위), 들어가지 않았으면 -1
+     */
+    public int offer(Window window, LocalDateTime playdate, long score, long id, T value, LocalDateTime now) {
+        TopNLeaderboard<T> board = current(window, playdate.isAfter(now) ? playdate : now);
+        if (board == null || !window.startOf(playdate).equals(starts.get(window))) return -1;
+        if (!board.qualifies(score)) return -1;
+        return board.insert(score, id, value);
+    }
+
+    /** 채워진 창과 그 시작 시각까지 같은 독립된 복사본 (한쪽을 바꿔도 다른 쪽은 그대로) */
+    public WindowedLeaderboards<T> copy() {
+        WindowedLeaderboards<T> copy = new WindowedLeaderboards<>(capacity);
+        for (Map.Entry<Window, TopNLeaderboard<T>> entry : boards.entrySet()) {
+            copy.install(entry.getKey(), starts.get(entry.getKey()), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    /** 모든 창을 버립니다. 다음 사용 시 다시 채워야 합니다. */
+    public void invalidate() {
+        boards.clear();
+        starts.clear();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.sankegamerecord.Screens;
+
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.ParcelFileDescriptor;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.sankegamerecord.Background.PipelineMetrics;
+import com.example.sankegamerecord.DataBaseAdapter.HistoryFormat;
+import com.example.sankegamerecord.DataBaseAdapter.RecordAdapter;
+import com.example.sankegamerecord.R; // 리소스(레이아웃, 문자열 등) 접근 클래스
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 기록 수집 경로(수신 → 파싱 → 커밋 → 화면)의 단계별 지연 시간을 보여주는 진단 화면입니다.
+ * <p>
+ * PipelineMetrics의 분포(p50/p90/p99/최대)를 화면이 보이는 동안 1초마다 다시 그립니다.
+ * "파일로 저장"은 원본 버킷까지 앱 전용 외부 저장소(Android/data/패키지/files)에 텍스트로 남겨
+ * adb pull 등으로 가져가 분석할 수 있게 합니다.
+ * <p>
+ * 전체 기록을 CSV/바이너리 파일로 내보내거나, 내보낸 파일을 다시 가져올 수도 있습니다. (다른 기기로 옮기기, 백업)
+ */
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    private static final String TAG = "DiagnosticsActivity";
+    private static final long REFRESH_INTERVAL_MS = 1000;
+
+    private TextView textMetrics;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private ExecutorService fileExecutor; // 파일 쓰기는 메인 스레드 밖에서
+
+    // 저장 위치/파일 선택 (결과는 메인 스레드로 옴)
+    private final ActivityResultLauncher<String> exportCsv = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(HistoryFormat.CSV.getMimeType()),
+            uri -> exportTo(uri, HistoryFormat.CSV));
+    private final ActivityResultLauncher<String> exportBinary = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(HistoryFormat.BINARY.getMimeType()),
+            uri -> exportTo(uri, HistoryFormat.BINARY));
+    private final ActivityResultLauncher<String[]> importHistory = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(),
+            this::importFrom);
+
+    private final Runnable refresher = new Runnable() {
+        @Override
+        public void run() {
+            showMetrics();
+            mainHandler.postDelayed(this, REFRESH_INTERVAL_MS);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_diagnostics);
+
+        textMetrics = findViewById(R.id.textMetrics);
+        Button btnDump = findViewById(R.id.btnDump);
+        Button btnReset = findViewById(R.id.btnReset);
+        fileExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "MetricsDump"));
+
+        findViewById(R.id.btnExportCsv).setOnClickListener(v -> exportCsv.launch(historyFileName(HistoryFormat.CSV)));
+        findViewById(R.id.btnExportBinary).setOnClickListener(v -> exportBinary.launch(historyFileName(HistoryFormat.BINARY)));
+        findViewById(R.id.btnImport).setOnClickListener(v -> importHistory.launch(new String[]{"*/*"}));
+
+        btnDump.setOnClickListener(v -> fileExecutor.execute(this::dumpToFile));
+        btnReset.setOnClickListener(v -> {
+            PipelineMetrics.getInstance().reset();
+            showMetrics();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mainHandler.post(refresher);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        mainHandler.removeCallbacks(refresher);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        fileExecutor.shutdown();
+    }
+
+    private void showMetrics() {
+        PipelineMetrics metrics = PipelineMetrics.getInstance();
+        String since = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).format(new Date(metrics.getStartedMillis()));
+        textMetrics.setText("측정 시작: " + since + "\n\n" + metrics.summary());
+    }
+
+    private static String historyFileName(HistoryFormat format) {
+        return "snake-history-" + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date())
+                + "." + format.getExtension();
+    }
+
+    /** 선택한 위치에 전체 기록을 씀 (취소하면 uri가 null) */
+    private void exportTo(Uri uri, HistoryFormat format) {
+        if (uri == null) return;
+        fileExecutor.execute(() -> {
+            String message;
+            long started = System.nanoTime();
+            RecordAdapter recordDB = new RecordAdapter(this);
+            try (ParcelFileDescriptor fd = getContentResolver().openFileDescriptor(uri, "w")) {
+                if (fd == null) throw new IOException("cannot open " + uri);
+                long count = recordDB.exportHistory(new FileOutputStream(fd.getFileDescriptor()).getChannel(), format);
+                message = "기록 " + count + "개 내보냄 (" + (System.nanoTime() - started) / 1_000_000 + "ms)";
+                Log.i(TAG, message);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "History export failed", e);
+                message = "내보내기 실패: " + e.getMessage();
+            } finally {
+                recordDB.close();
+            }
+            toast(message);
+        });
+    }
+
+    /** 선택한 파일의 기록을 저장 (이미 있는 기록은 건너뜀) */
+    private void importFrom(Uri uri) {
+        if (uri == null) return;
+        fileExecutor.execute(() -> {
+            String message;
+            long started = System.nanoTime();
+            RecordAdapter recordDB = new RecordAdapter(this);
+            try (ParcelFileDescriptor fd = getContentResolver().openFileDescriptor(uri, "r")) {
+                if (fd == null) throw new IOException("cannot open " + uri);
+                long count = recordDB.importHistory(new FileInputStream(fd.getFileDescriptor()).getChannel());
+                message = "기록 " + count + "개 가져옴 (" + (System.nanoTime() - started) / 1_000_000 + "ms)";
+                Log.i(TAG, message);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "History import failed", e);
+                message = "가져오기 실패: " + e.getMessage();
+            } finally {
+                recordDB.close();
+            }
+            toast(message);
+        });
+    }
+
+    private void toast(String message) {
+        mainHandler.post(() -> Toast.makeText(this, message, Toast.LENGTH_LONG).show());
+    }
+
+    /** 파일 스레드: 현재 분포를 새 파일에 저장 */
+    private void dumpToFile() {
+        File dir = getExternalFilesDir(null);
+        if (dir == null) dir = getFilesDir(); // 외부 저장소를 쓸 수 없으면 내부 저장소
+        String name = "pipeline-latency-"
+                + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date()) + ".txt";
+        File file = new File(dir, name);
+        String message;
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            PipelineMetrics.getInstance().dumpTo(out);
+            message = "저장됨: " + file.getAbsolutePath();
+            Log.i(TAG, message);
+        } catch (IOException e) {
+            Log.e(TAG, "Metrics dump failed", e);
+            message = "저장 실패: " + e.getMessage();
+        }
+        String toast = message;
+        mainHandler.post(() -> Toast.makeText(this, toast, Toast.LENGTH_LONG).show());
+    }
+}
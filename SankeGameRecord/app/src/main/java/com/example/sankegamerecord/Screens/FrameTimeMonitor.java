@@ -0,0 +1,78 @@
+package com.example.sankegamerecord.Screens;
+
+import android.view.Choreographer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메인 스레드의 프레임 간격을 Choreographer로 측정하는 간단한 모니터입니다.
+ * <p>
+ * 매 vsync마다 doFrame이 호출되므로, 두 호출 사이 간격이 길었다면 그만큼 메인 스레드가 막혀 프레임을 놓친 것입니다.
+ * (60Hz 기준 16.7ms 초과 = 끊김(jank), 33.3ms 초과 = 두 프레임 이상 놓침)
+ * start()/stop() 사이의 프레임 수, 끊긴 프레임 수, 최대 간격을 모아 toString()으로 로그에 남길 수 있습니다.
+ * 메인 스레드 전용입니다.
+ */
+public final class FrameTimeMonitor implements Choreographer.FrameCallback {
+
+    private static final long JANK_NANOS = TimeUnit.MICROSECONDS.toNanos(16_700);
+    private static final long SEVERE_JANK_NANOS = TimeUnit.MICROSECONDS.toNanos(33_300);
+
+    private boolean running;
+    private long lastFrameNanos;
+
+    private long frames;
+    private long jankFrames;
+    private long severeJankFrames;
+    private long totalIntervalNanos;
+    private long maxIntervalNanos;
+
+    /** 측정을 시작합니다. 이전 측정값은 지웁니다. */
+    public void start() {
+        if (running) return;
+        running = true;
+        lastFrameNanos = 0;
+        frames = jankFrames = severeJankFrames = totalIntervalNanos = maxIntervalNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /** 측정을 멈춥니다. 측정값은 다음 start()까지 유지됩니다. */
+    public void stop() {
+        if (!running) return;
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+        if (lastFrameNanos != 0) {
+            long interval = frameTimeNanos - lastFrameNanos;
+            frames++;
+            totalIntervalNanos += interval;
+            if (interval > maxIntervalNanos) maxIntervalNanos = interval;
+            if (interval > JANK_NANOS) jankFrames++;
+            if (interval > SEVERE_JANK_NANOS) severeJankFrames++;
+        }
+        lastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this); // 다음 프레임도 측정
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+
+    public long getJankFrameCount() {
+        return jankFrames;
+    }
+
+    public long getMaxFrameIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxIntervalNanos);
+    }
+
+    @Override
+    public String toString() {
+        long avgMicros = frames == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalIntervalNanos / frames);
+        return "frames=" + frames + ", jank(>16.7ms)=" + jankFrames + ", severe(>33.3ms)=" + severeJankFrames
+                + ", avgIntervalUs=" + avgMicros + ", maxIntervalMs=" + getMaxFrameIntervalMillis();
+    }
+}
@@ -23,9 +23,14 @@ import androidx.core.view.WindowInsetsCompat;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import com.example.sankegamerecord.Adapter.BluetoothConnectionAdapter;
+import com.example.sankegamerecord.Adapter.RecordFormatter;
 import com.example.sankegamerecord.Background.GetRecordService;
 import com.example.sankegamerecord.R;
 
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public class MainActivity extends AppCompatActivity {
 
     private static final int REQ_BT_CONNECT = 1001;
@@ -34,6 +39,8 @@ public class MainActivity extends AppCompatActivity {
     private ProgressDialog asyncDialog;
 
     private BluetoothConnectionAdapter btAdapter;
+    // 서비스가 알려 준 보드 MAC → 상태 (연결됨, 또는 연결/재연결 중). 세션이 끝난 보드는 없음
+    private final Map<String, Integer> boardStates = new LinkedHashMap<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,27 +63,28 @@ public class MainActivity extends AppCompatActivity {
         connectBtn.setOnTouchListener(effect);
 
         // 🔥 showDeviceList 직접 호출 X → 권한 체크 먼저
-        connectBtn.setOnClickListener(v -> {
-            if (btAdapter.getCurrentState()==btAdapter.STATE_NONE || btAdapter.getCurrentState()==btAdapter.STATE_DISCONNECTED) {
-                // 연결 상태가 아니면 장치 목록 보여주고 연결 시도
-                checkBluetoothPermission();
-            } else {
-                // 이미 연결된 상태 → Disconnect
-                btAdapter.stop();
-                connectBtn.setText("연결하기");
-            }
-        });
+        // 장치 목록에서 연결 안 된 보드를 고르면 추가 연결, 연결된 보드를 고르면 연결 해제
+        connectBtn.setOnClickListener(v -> checkBluetoothPermission());
 
 
         rankingBtn.setOnTouchListener(effect);
         rankingBtn.setOnClickListener(v -> {
             startActivity(new Intent(MainActivity.this, RankingActivity.class));
         });
+        // 길게 누르면 수집 경로 지연 시간 진단 화면 (개발/현장 점검용)
+        rankingBtn.setOnLongClickListener(v -> {
+            startActivity(new Intent(MainActivity.this, DiagnosticsActivity.class));
+            return true;
+        });
 
         LocalBroadcastManager.getInstance(this).registerReceiver(
                 btEventReceiver,
                 new IntentFilter(BluetoothConnectionAdapter.ACTION_BT_EVENT)
         );
+        LocalBroadcastManager.getInstance(this).registerReceiver(
+                recordPlacedReceiver,
+                new IntentFilter(GetRecordService.ACTION_RECORD_PLACED)
+        );
     }
 
     /**
@@ -128,30 +136,61 @@ public class MainActivity extends AppCompatActivity {
             int state = intent.getIntExtra(BluetoothConnectionAdapter.EXTRA_STATE,
                     BluetoothConnectionAdapter.STATE_NONE);
             String msg = intent.getStringExtra(BluetoothConnectionAdapter.EXTRA_MESSAGE);
-
-            if (state == BluetoothConnectionAdapter.STATE_CONNECTED) {
-                asyncDialog.dismiss();
+            String mac = intent.getStringExtra(BluetoothConnectionAdapter.EXTRA_DEVICE_ADDRESS);
+
+            Integer previous = boardStates.get(mac);
+            if (state == BluetoothConnectionAdapter.STATE_CONNECTING) {
+                // 처음 연결 중이면 진행 다이얼로그가 이미 떠 있음. 연결됐던 보드면 끊겨서 재연결을 기다리는 중
+                boardStates.put(mac, state);
+                if (previous != null && previous == BluetoothConnectionAdapter.STATE_CONNECTED) {
+                    Toast.makeText(MainActivity.this, "연결이 끊어져 다시 연결합니다: " + mac, Toast.LENGTH_SHORT).show();
+                }
+            } else if (state == BluetoothConnectionAdapter.STATE_CONNECTED) {
+                dismissProgress();
+                boardStates.put(mac, state);
                 Toast.makeText(MainActivity.this, "연결 성공: " + msg, Toast.LENGTH_SHORT).show();
-
-                Intent serviceIntent = new Intent(MainActivity.this, GetRecordService.class);
-                serviceIntent.setAction(GetRecordService.ACTION_CONNECT);
-                serviceIntent.putExtra(GetRecordService.EXTRA_DEVICE_ADDRESS,
-                        btAdapter.getConnectedDeviceAddress());
-                startService(serviceIntent);
-
-                connectBtn.setText("연결 해제");
-
             } else if (state == BluetoothConnectionAdapter.STATE_DISCONNECTED) {
-                asyncDialog.dismiss();
+                // 재연결 시도를 모두 실패함
+                dismissProgress();
+                boardStates.remove(mac);
                 Toast.makeText(MainActivity.this, "연결 실패. 다시 시도해주세요", Toast.LENGTH_SHORT).show();
-                connectBtn.setText("연결하기");
             } else if (state == BluetoothConnectionAdapter.STATE_NONE){
+                boardStates.remove(mac);
                 Toast.makeText(MainActivity.this, "연결 해제되었습니다.", Toast.LENGTH_SHORT).show();
-                connectBtn.setText("연결하기");
             }
+            updateConnectButton();
+        }
+    };
+
+    // 새 성공 기록이 저장되면 전체 성공 기록 중 순위를 보여줌
+    private final BroadcastReceiver recordPlacedReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            long millis = intent.getLongExtra(GetRecordService.EXTRA_PLAYTIME_MS, -1);
+            long rank = intent.getLongExtra(GetRecordService.EXTRA_RANK, 0);
+            long total = intent.getLongExtra(GetRecordService.EXTRA_RANKED_COUNT, 0);
+            if (millis < 0 || rank <= 0 || total <= 0) return;
+
+            StringBuilder sb = new StringBuilder("이번 기록 ");
+            RecordFormatter.appendDuration(sb, millis);
+            sb.append(String.format(Locale.getDefault(), " — %,d개 중 %,d위 (상위 %.1f%%)",
+                    total, rank, 100.0 * rank / total));
+            Toast.makeText(MainActivity.this, sb, Toast.LENGTH_SHORT).show();
         }
     };
 
+    private void dismissProgress() {
+        if (asyncDialog != null && asyncDialog.isShowing()) asyncDialog.dismiss();
+    }
+
+    private void updateConnectButton() {
+        int connected = 0;
+        for (int state : boardStates.values()) {
+            if (state == BluetoothConnectionAdapter.STATE_CONNECTED) connected++;
+        }
+        connectBtn.setText(boardStates.isEmpty() ? "연결하기" : "연결 관리 (" + connected + "/" + boardStates.size() + "대)");
+    }
+
     @RequiresPermission(Manifest.permission.BLUETOOTH_CONNECT)
     private void showDeviceList() {
         String[] names = btAdapter.getPairedDeviceNames();
@@ -162,11 +201,21 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
+        // 연결됐거나 (재)연결 중인 보드는 표시해 두고, 고르면 연결 해제 (재연결 시도도 멈춤)
+        String[] items = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Integer state = boardStates.get(macs[i]);
+            if (state == null) items[i] = names[i];
+            else if (state == BluetoothConnectionAdapter.STATE_CONNECTED) items[i] = "[연결됨] " + names[i];
+            else items[i] = "[연결 중] " + names[i];
+        }
+
         new AlertDialog.Builder(this)
                 .setTitle("연결할 장치 선택")
-                .setItems(names, (dialog, which) -> {
+                .setItems(items, (dialog, which) -> {
                     String mac = macs[which];
-                    connectToService(mac);
+                    if (boardStates.containsKey(mac)) disconnectFromService(mac);
+                    else connectToService(mac);
                 })
                 .setCancelable(true)
                 .show();
@@ -184,10 +233,18 @@ public class MainActivity extends AppCompatActivity {
         startService(intent);
     }
 
+    private void disconnectFromService(String mac) {
+        Intent intent = new Intent(this, GetRecordService.class);
+        intent.setAction(GetRecordService.ACTION_DISCONNECT);
+        intent.putExtra(GetRecordService.EXTRA_DEVICE_ADDRESS, mac);
+        startService(intent);
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
         LocalBroadcastManager.getInstance(this).unregisterReceiver(btEventReceiver);
-        if (btAdapter != null) btAdapter.stop();
+        LocalBroadcastManager.getInstance(this).unregisterReceiver(recordPlacedReceiver);
+        dismissProgress();
     }
 }
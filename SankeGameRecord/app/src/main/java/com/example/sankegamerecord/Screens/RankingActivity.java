@@ -2,7 +2,9 @@ package com.example.sankegamerecord.Screens;
 
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
+import android.view.View;
 import android.widget.Button;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -10,31 +12,70 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import com.example.sankegamerecord.DataBaseAdapter.DataChangeNotifier;
 import com.example.sankegamerecord.DataBaseAdapter.RankAdapter;
 import com.example.sankegamerecord.DataBaseAdapter.RecordAdapter;
+import com.example.sankegamerecord.DataBaseAdapter.WindowedLeaderboards;
+import com.example.sankegamerecord.Adapter.PagedRowSource;
 import com.example.sankegamerecord.Adapter.RecordListAdapter;
 import com.example.sankegamerecord.R; // 리소스(레이아웃, 문자열 등) 접근 클래스
 import com.google.android.material.floatingactionbutton.FloatingActionButton; // 화면 오른쪽 아래 등에 뜨는 동그란 버튼
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 게임의 랭킹(Rank)과 전체 기록(Record)을 사용자에게 보여주는 안드로이드 화면(Activity)입니다.
  * 두 가지 탭(버튼) 전환과 화면을 아래로 당겨 새로고침(SwipeRefresh) 기능을 구현합니다.
+ * <p>
+ * 데이터베이스 열기/조회/닫기는 모두 조회 전용 스레드(queryExecutor) 하나에서 순서대로 실행되고,
+ * 결과만 메인 스레드로 전달됩니다. 탭을 바꾸면 이전 탭의 조회는 취소됩니다.
+ * <p>
+ * 화면이 열려 있는 동안 GetRecordService가 새 기록을 저장하면 DataChangeNotifier로 알림을 받아
+ * 현재 탭만 다시 읽고 바뀐 행만 반영합니다. (당겨서 새로고침 없이 바로 표시)
+ * <p>
+ * 랭킹 탭은 기간(오늘 / 이번 주 / 전체)을 고를 수 있고, 기간마다 메모리 랭킹을 바로 읽는 행 소스를 따로 둡니다.
  */
 public class RankingActivity extends AppCompatActivity {
 
+    private static final String TAG = "RankingActivity";
+
     // UI 컴포넌트 변수
     private RecyclerView recyclerView; // 리스트 형태로 데이터를 보여주는 뷰
     private RecordListAdapter adapter; // RecyclerView에 데이터를 연결해주는 어댑터
     private Button btnRank, btnRecord; // "랭킹 보기"와 "기록 보기" 버튼
     private SwipeRefreshLayout swipeRefreshLayout; // 화면 당겨서 새로고침 기능 제공 뷰
     private FloatingActionButton fabBack; // 뒤로 가기 버튼
+    private View windowContainer; // 랭킹 기간 선택 버튼 묶음 (랭킹 탭에서만 보임)
+    private final Map<WindowedLeaderboards.Window, Button> windowButtons = new EnumMap<>(WindowedLeaderboards.Window.class);
 
-    // 데이터베이스 어댑터 변수
+    // 데이터베이스 어댑터 변수 (조회 스레드에서만 생성/사용/해제)
     private RankAdapter rankAdapter; // 랭킹 테이블 데이터 관리 객체
     private RecordAdapter recordAdapter; // 전체 기록 테이블 데이터 관리 객체
 
+    // 조회 스레드와 메인 스레드 전달용 Executor
+    private ExecutorService queryExecutor;
+    private Executor mainThread;
+
+    // 탭별 행 소스 (화면에 보이는 페이지만 읽어 옴, 랭킹은 기간마다 하나)
+    private final Map<WindowedLeaderboards.Window, PagedRowSource> rankSources =
+            new EnumMap<>(WindowedLeaderboards.Window.class);
+    private PagedRowSource recordSource;
+
+    // 테이블 변경 알림 등록 토큰 (onDestroy에서 해제)
+    private Object rankChangeToken;
+    private Object recordChangeToken;
+
+    // 화면이 보이는 동안 프레임 간격 측정 (목록 갱신/스크롤 시 끊김 확인용)
+    private final FrameTimeMonitor frameTimeMonitor = new FrameTimeMonitor();
+
     // 상태 관리 변수
     private String buttonState; // 현재 어떤 탭(btnRank 또는 btnRecord)이 선택되었는지 저장하는 상태
+    private WindowedLeaderboards.Window rankWindow = WindowedLeaderboards.Window.ALL; // 랭킹 탭의 기간
 
     /**
      * Activity가 처음 생성될 때 호출됩니다. (화면 초기화)
@@ -50,44 +91,62 @@ public class RankingActivity extends AppCompatActivity {
         btnRank = findViewById(R.id.btnRank);
         btnRecord = findViewById(R.id.btnRecord);
         swipeRefreshLayout = findViewById(R.id.swipeRefreshLayout);
+        windowContainer = findViewById(R.id.window_container);
+        windowButtons.put(WindowedLeaderboards.Window.DAY, findViewById(R.id.btnWindowDay));
+        windowButtons.put(WindowedLeaderboards.Window.WEEK, findViewById(R.id.btnWindowWeek));
+        windowButtons.put(WindowedLeaderboards.Window.ALL, findViewById(R.id.btnWindowAll));
 
 
-        // 2. 데이터베이스 어댑터 초기화 및 연결 열기
-        // *주의: Activity가 살아있는 동안 데이터베이스 연결을 유지합니다.
-        rankAdapter = new RankAdapter(this);
-        rankAdapter.open(); // 데이터베이스 연결 시작
-
-        recordAdapter = new RecordAdapter(this);
-        recordAdapter.open(); // 데이터베이스 연결 시작
-
-        // 3. RecyclerView 설정
+        // 2. RecyclerView 설정
         // 리스트를 세로 방향으로 배치하도록 LayoutManager 설정
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
-        // 초기 데이터: 랭크 어댑터에서 랭킹 데이터를 가져와 리스트 어댑터에 설정
-        adapter = new RecordListAdapter(rankAdapter.getAllRanksForDisplay());
+        // 데이터베이스가 열리기 전까지는 빈 목록으로 시작
+        adapter = new RecordListAdapter();
+        adapter.setOnRefreshedListener((size, timeToFirstRowNanos) -> {
+            // 새로고침 애니메이션을 종료합니다.
+            if (swipeRefreshLayout != null) swipeRefreshLayout.setRefreshing(false);
+            Log.i(TAG, buttonState + ": " + size + " rows, time-to-first-row "
+                    + TimeUnit.NANOSECONDS.toMillis(timeToFirstRowNanos) + " ms");
+        });
         recyclerView.setAdapter(adapter);
 
+        // 3. 데이터베이스 어댑터 초기화 및 연결 열기 (조회 스레드에서)
+        // *주의: Activity가 살아있는 동안 데이터베이스 연결을 유지합니다.
+        queryExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "RankingQuery"));
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainThread = mainHandler::post;
+        queryExecutor.execute(this::openDatabases);
+
         // 4. 초기 상태 설정
         selectTab(btnRank); // 랭크 버튼을 선택된 상태로 표시
         buttonState="btnRank"; // 현재 상태를 랭크로 설정
+        selectWindow(rankWindow);
 
         // 5. 버튼 클릭 리스너 설정
 
         // [랭크 버튼] 클릭 시
         btnRank.setOnClickListener(v -> {
-            // 랭킹 데이터를 새로 가져와 어댑터 데이터 갱신
-            adapter.updateData(rankAdapter.getAllRanksForDisplay());
             buttonState="btnRank";
             selectTab(btnRank); // 탭 선택 상태 업데이트
+            // 랭킹 소스로 바꾸고 background에서 다시 읽음 (기록 탭의 조회는 취소)
+            showCurrentTab();
         });
 
+        // [기간 버튼] 클릭 시: 랭킹 탭의 기간을 바꿈 (메모리 랭킹이라 바로 표시됨)
+        for (Map.Entry<WindowedLeaderboards.Window, Button> entry : windowButtons.entrySet()) {
+            entry.getValue().setOnClickListener(v -> {
+                selectWindow(entry.getKey());
+                showCurrentTab();
+            });
+        }
+
         // [기록 버튼] 클릭 시
         btnRecord.setOnClickListener(v -> {
-            // 전체 기록 데이터를 새로 가져와 어댑터 데이터 갱신 (RecordAdapter의 getAllRecordsForDisplay() 필요)
-            adapter.updateData(recordAdapter.getAllRecordsForDisplay());
             buttonState="btnRecord";
             selectTab(btnRecord); // 탭 선택 상태 업데이트
+            // 전체 기록 소스로 바꾸고 background에서 다시 읽음 (랭킹 탭의 조회는 취소)
+            showCurrentTab();
         });
 
         // [당겨서 새로고침] 리스너 설정
@@ -109,43 +168,98 @@ public class RankingActivity extends AppCompatActivity {
         btnRecord.setSelected(false);
         // 선택된 버튼만 선택 상태로 설정(true) (이 상태에 따라 XML의 Selector 스타일이 적용됨)
         selectedButton.setSelected(true);
+        // 기간 선택은 랭킹 탭에서만 보임
+        windowContainer.setVisibility(selectedButton == btnRank ? View.VISIBLE : View.GONE);
+    }
+
+    /** 랭킹 탭의 기간을 바꾸고 해당 버튼을 선택된 상태로 표시합니다. */
+    private void selectWindow(WindowedLeaderboards.Window window) {
+        rankWindow = window;
+        for (Map.Entry<WindowedLeaderboards.Window, Button> entry : windowButtons.entrySet()) {
+            entry.getValue().setSelected(entry.getKey() == window);
+        }
+    }
+
+    /**
+     * 조회 스레드: 데이터베이스를 열고(필요하면 마이그레이션 포함) 탭별 행 소스를 만든 뒤 현재 탭을 표시합니다.
+     */
+    private void openDatabases() {
+        rankAdapter = new RankAdapter(this);
+        recordAdapter = new RecordAdapter(this);
+        Map<WindowedLeaderboards.Window, PagedRowSource.PageLoader> rankPages =
+                new EnumMap<>(WindowedLeaderboards.Window.class);
+        for (WindowedLeaderboards.Window window : WindowedLeaderboards.Window.values()) {
+            rankPages.put(window, rankAdapter.rankPages(window));
+        }
+        PagedRowSource.PageLoader historyPages = recordAdapter.historyPages();
+        mainThread.execute(() -> {
+            if (isDestroyed()) return;
+            // 탭별 행 소스: 전체를 미리 읽지 않고 RecyclerView가 요청하는 페이지만 조회 스레드에서 읽음
+            for (Map.Entry<WindowedLeaderboards.Window, PagedRowSource.PageLoader> entry : rankPages.entrySet()) {
+                rankSources.put(entry.getKey(), new PagedRowSource(entry.getValue(), queryExecutor, mainThread));
+            }
+            recordSource = new PagedRowSource(historyPages, queryExecutor, mainThread);
+            // 새 기록이 커밋되면 메인 스레드로 알림 (몰려 들어온 변경은 합쳐서 전달됨)
+            DataChangeNotifier notifier = DataChangeNotifier.getInstance();
+            rankChangeToken = notifier.addListener(RankAdapter.TABLE_NAME, this::onTableChanged, mainThread);
+            recordChangeToken = notifier.addListener(RecordAdapter.TABLE_NAME, this::onTableChanged, mainThread);
+            showCurrentTab();
+        });
+    }
+
+    /** 현재 선택된 탭의 행 소스 (데이터베이스가 아직 열리지 않았으면 null) */
+    private PagedRowSource currentSource() {
+        return "btnRecord".equals(buttonState) ? recordSource : rankSources.get(rankWindow);
+    }
+
+    /** 현재 선택된 탭의 소스를 목록에 연결합니다. (데이터베이스가 아직 열리지 않았으면 열린 뒤에 연결됨) */
+    private void showCurrentTab() {
+        PagedRowSource source = currentSource();
+        if (source != null) adapter.setSource(source);
     }
 
     /**
-     * SwipeRefreshLayout에 의해 호출되며, 현재 선택된 탭에 따라 데이터를 새로 로드합니다.
-     * 1초의 지연(Handler().postDelayed)은 사용자에게 새로고침이 진행 중임을 느끼게 하기 위함입니다.
+     * 메인 스레드: 테이블이 바뀌었다는 알림. 보고 있는 탭의 테이블이면 다시 읽어 바뀐 행만 반영합니다.
+     * 다른 탭은 전환할 때 어차피 처음부터 다시 읽으므로 무시합니다.
+     */
+    private void onTableChanged(DataChangeNotifier.TableChange change) {
+        // 랭킹 알림은 어느 기간의 랭킹이 바뀌어도 오므로 보고 있는 기간의 랭킹을 다시 읽음
+        PagedRowSource changed = RankAdapter.TABLE_NAME.equals(change.getTable())
+                ? rankSources.get(rankWindow) : recordSource;
+        if (isDestroyed() || changed == null || changed != currentSource()) return;
+        Log.d(TAG, "live update: " + change);
+        changed.requestRefresh();
+    }
+
+    /**
+     * SwipeRefreshLayout에 의해 호출되며, 현재 선택된 탭의 데이터를 background에서 새로 읽습니다.
+     * 결과가 도착하면 OnRefreshedListener에서 새로고침 애니메이션을 종료합니다.
      */
     private void fetchNewData() {
-        new Handler().postDelayed(
-                new Runnable() {
-                    public void run() {
-                        // 현재 상태(buttonState)에 따라 랭킹 또는 기록 데이터를 새로 가져옵니다.
-                        switch (buttonState){
-                            case "btnRank":
-                                // 데이터베이스 연결이 닫혀있을 경우를 대비해 다시 open 시도
-                                rankAdapter.open();
-                                adapter.updateData(rankAdapter.getAllRanksForDisplay());
-                                break;
-                            case "btnRecord":
-                                // 데이터베이스 연결이 닫혀있을 경우를 대비해 다시 open 시도
-                                recordAdapter.open();
-                                adapter.updateData(recordAdapter.getAllRecordsForDisplay());
-                                break;
-                            default:
-                                // 예상치 못한 오류 상태 로깅
-                                Log.e("ERROR","MissFire: Unknown buttonState " + buttonState);
-                        }
-
-                        // RecyclerView에 데이터가 변경되었음을 알려 화면을 갱신합니다.
-                        adapter.notifyDataSetChanged();
-
-                        // 새로고침 애니메이션을 종료합니다.
-                        if (swipeRefreshLayout != null) {
-                            swipeRefreshLayout.setRefreshing(false);
-                        }
-                    }
-                },
-                1000); // 1000ms (1초) 지연 후 실행
+        if (recordSource != null) {
+            adapter.refresh();
+            return;
+        }
+        // 데이터베이스가 아직 열리지 않음 → 열리면 자동으로 표시되므로 애니메이션만 종료
+        if (swipeRefreshLayout != null) {
+            swipeRefreshLayout.setRefreshing(false);
+        }
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        frameTimeMonitor.start();
+    }
+
+    /**
+     * 화면이 가려질 때 호출됩니다. 보이는 동안 측정한 프레임 간격을 로그로 남깁니다.
+     */
+    @Override
+    protected void onPause() {
+        super.onPause();
+        frameTimeMonitor.stop();
+        Log.i(TAG, "frame time: " + frameTimeMonitor);
     }
 
     /**
@@ -155,8 +269,15 @@ public class RankingActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        // 데이터베이스 연결을 닫아 메모리 누수를 방지합니다.
-        if (rankAdapter != null) rankAdapter.close();
-        if (recordAdapter != null) recordAdapter.close();
+        // 변경 알림을 해제하고, 대기 중인 조회를 취소하고, 조회 스레드에서 마지막으로 데이터베이스 연결을 닫아 메모리 누수를 방지합니다.
+        DataChangeNotifier.getInstance().removeListener(rankChangeToken);
+        DataChangeNotifier.getInstance().removeListener(recordChangeToken);
+        for (PagedRowSource source : rankSources.values()) source.cancel();
+        if (recordSource != null) recordSource.cancel();
+        queryExecutor.execute(() -> {
+            if (rankAdapter != null) rankAdapter.close();
+            if (recordAdapter != null) recordAdapter.close();
+        });
+        queryExecutor.shutdown();
     }
 }
\ No newline at end of file
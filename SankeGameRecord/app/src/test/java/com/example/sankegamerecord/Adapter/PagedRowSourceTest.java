@@ -0,0 +1,322 @@
+package com.example.sankegamerecord.Adapter;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * PagedRowSource 단위 테스트 (호스트 JVM에서 실행)
+ */
+public class PagedRowSourceTest {
+
+    /** 호출한 스레드에서 바로 실행 (동기) */
+    private static final Executor DIRECT = Runnable::run;
+
+    /** 작업을 모아 두었다가 runAll()로 실행하는 Executor (background/메인 스레드 흉내) */
+    private static class QueuedExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.poll().run();
+        }
+    }
+
+    /** id 내림차순(최신순) 기록 테이블을 흉내 내는 로더 */
+    private static class FakeHistory implements PagedRowSource.PageLoader {
+        final List<RecordRow> rows = new ArrayList<>();
+        int rowsRead;
+
+        FakeHistory(int n) {
+            LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+            for (int id = n; id >= 1; id--) {
+                rows.add(new RecordRow(id, 0, new GameRecord(base.plusMinutes(id), Duration.ofMillis(id), true)));
+            }
+        }
+
+        @Override
+        public int count() {
+            return rows.size();
+        }
+
+        @Override
+        public List<RecordRow> loadFirst(int limit) {
+            return loadAt(0, limit);
+        }
+
+        @Override
+        public List<RecordRow> loadAfter(RecordRow last, int limit) {
+            int from = 0;
+            while (from < rows.size() && rows.get(from).id() >= last.id()) from++;
+            return loadAt(from, limit);
+        }
+
+        @Override
+        public List<RecordRow> loadAt(int offset, int limit) {
+            List<RecordRow> page = new ArrayList<>(rows.subList(Math.min(offset, rows.size()),
+                    Math.min(offset + limit, rows.size())));
+            rowsRead += page.size();
+            return page;
+        }
+    }
+
+    @Test
+    public void sequentialScrollUsesKeysetAndBoundedCache() {
+        FakeHistory history = new FakeHistory(10_000);
+        PagedRowSource source = new PagedRowSource(history, DIRECT, DIRECT, 50, 4);
+        source.refresh();
+        assertEquals(10_000, source.size());
+
+        for (int position = 0; position < 10_000; position++) {
+            assertEquals(10_000 - position, source.get(position).id());
+            assertTrue(source.getCachedPageCount() <= 4);
+        }
+        assertEquals(200, source.getKeysetLoadCount());
+        assertEquals(0, source.getOffsetLoadCount());
+        assertEquals(10_000, history.rowsRead); // 각 행을 한 번씩만 읽음
+    }
+
+    @Test
+    public void jumpFallsBackToOffset() {
+        PagedRowSource source = new PagedRowSource(new FakeHistory(1000), DIRECT, DIRECT, 50, 4);
+        source.refresh();
+        assertEquals(1, source.getKeysetLoadCount()); // 첫 페이지
+        assertEquals(1000 - 730, source.get(730).id());
+        assertEquals(1, source.getOffsetLoadCount());
+        assertEquals(1000 - 751, source.get(751).id()); // 앞 페이지가 있으므로 keyset
+        assertEquals(2, source.getKeysetLoadCount());
+    }
+
+    @Test
+    public void refreshPicksUpNewRows() {
+        FakeHistory history = new FakeHistory(10);
+        PagedRowSource source = new PagedRowSource(history, DIRECT, DIRECT, 4, 2);
+        source.refresh();
+        assertEquals(10, source.get(0).id());
+        history.rows.add(0, new RecordRow(11, 0, history.rows.get(0).record()));
+        assertEquals(10, source.get(0).id()); // 캐시된 페이지
+        source.refresh();
+        assertEquals(11, source.size());
+        assertEquals(11, source.get(0).id());
+        assertNull(source.get(11));
+    }
+
+    @Test
+    public void loadsInBackgroundAndNotifiesOnMainThread() {
+        QueuedExecutor background = new QueuedExecutor();
+        QueuedExecutor main = new QueuedExecutor();
+        PagedRowSource source = new PagedRowSource(new FakeHistory(200), background, main, 50, 4);
+        List<String> events = new ArrayList<>();
+        source.setListener(new PagedRowSource.Listener() {
+            @Override
+            public void onRefreshed(PagedRowSource.Refresh refresh) {
+                events.add("refreshed " + refresh.getSize());
+                assertTrue(refresh.getTimeToFirstRowNanos() >= 0);
+            }
+
+            @Override
+            public void onRowsLoaded(int position, int count) {
+                events.add("rows " + position + "+" + count);
+            }
+        });
+
+        source.refresh();
+        assertEquals(0, source.size()); // 아직 아무것도 읽지 않음
+        background.runAll();
+        assertTrue(events.isEmpty()); // 메인 스레드로 전달되기 전
+        main.runAll();
+        assertEquals(List.of("refreshed 200"), events);
+
+        assertNull(source.get(120)); // 읽는 중 → 빈 행
+        assertNull(source.get(121)); // 같은 페이지는 한 번만 요청
+        assertEquals(1, background.tasks.size());
+        background.runAll();
+        main.runAll();
+        assertEquals("rows 100+50", events.get(1));
+        assertEquals(200 - 120, source.get(120).id());
+    }
+
+    @Test
+    public void cancelDropsQueuedAndInFlightLoads() {
+        QueuedExecutor background = new QueuedExecutor();
+        QueuedExecutor main = new QueuedExecutor();
+        FakeHistory history = new FakeHistory(200);
+        PagedRowSource source = new PagedRowSource(history, background, main, 50, 4);
+        List<Integer> refreshed = new ArrayList<>();
+        source.setListener(new PagedRowSource.Listener() {
+            @Override
+            public void onRefreshed(PagedRowSource.Refresh refresh) {
+                refreshed.add(refresh.getSize());
+            }
+
+            @Override
+            public void onRowsLoaded(int position, int count) {
+                fail("cancelled load must not be delivered");
+            }
+        });
+
+        source.refresh();
+        source.cancel(); // 탭 전환: 시작 전 취소
+        background.runAll();
+        assertEquals(0, history.rowsRead); // 조회 자체를 하지 않음
+
+        source.refresh();
+        background.runAll(); // 조회는 끝났지만
+        source.cancel();     // 결과가 메인 스레드에 도착하기 전에 취소
+        main.runAll();
+        assertTrue(refreshed.isEmpty());
+        assertEquals(0, source.size());
+    }
+
+    /** 전달받은 연산을 문자열로 모으는 콜백 */
+    private static class RecordingCallback implements RowDiff.UpdateCallback {
+        final List<String> ops = new ArrayList<>();
+
+        @Override
+        public void onInserted(int position, int count) {
+            ops.add("insert " + position + "+" + count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            ops.add("remove " + position + "+" + count);
+        }
+
+        @Override
+        public void onChanged(int position, int count) {
+            ops.add("change " + position + "+" + count);
+        }
+    }
+
+    private static PagedRowSource.Refresh refreshWithDiff(PagedRowSource source) {
+        List<PagedRowSource.Refresh> result = new ArrayList<>();
+        source.setListener(new PagedRowSource.Listener() {
+            @Override
+            public void onRefreshed(PagedRowSource.Refresh refresh) {
+                result.add(refresh);
+            }
+
+            @Override
+            public void onRowsLoaded(int position, int count) {
+            }
+        });
+        source.refresh();
+        assertEquals(1, result.size());
+        return result.get(0);
+    }
+
+    @Test
+    public void newGameOnLargeHistoryIsSingleInsert() {
+        FakeHistory history = new FakeHistory(10_000);
+        PagedRowSource source = new PagedRowSource(history, DIRECT, DIRECT, 50, 6);
+        RecordingCallback first = new RecordingCallback();
+        refreshWithDiff(source).dispatchTo(first);
+        assertEquals(List.of("insert 0+50", "insert 50+9950"), first.ops); // 빈 목록에서 시작
+        for (int position = 0; position < 120; position++) source.get(position); // 세 페이지까지 스크롤
+
+        history.rows.add(0, new RecordRow(10_001, 0, history.rows.get(0).record()));
+        RecordingCallback second = new RecordingCallback();
+        refreshWithDiff(source).dispatchTo(second);
+        assertEquals(List.of("insert 0+1"), second.ops);
+        assertEquals(10_001, source.size());
+        assertEquals(10_001, source.get(0).id());
+        assertEquals(10_000 - 149, source.get(150).id());
+    }
+
+    @Test
+    public void refreshWithFullCacheKeepsFirstPage() {
+        FakeHistory history = new FakeHistory(10_000);
+        PagedRowSource source = new PagedRowSource(history, DIRECT, DIRECT, 50, 6);
+        refreshWithDiff(source);
+        for (int position = 0; position < 300; position++) source.get(position); // 6페이지 모두 캐시
+        assertEquals(6, source.getCachedPageCount());
+
+        // 창이 가득 차 있으면 한 페이지 더 읽지만, 캐시 한도를 넘겨 0번 페이지가 밀려나면 안 됨
+        for (int i = 1; i <= 2; i++) {
+            history.rows.add(0, new RecordRow(10_000 + i, 0, history.rows.get(0).record()));
+            RecordingCallback callback = new RecordingCallback();
+            refreshWithDiff(source).dispatchTo(callback);
+            assertEquals(List.of("insert 0+1"), callback.ops);
+            assertEquals(6, source.getCachedPageCount());
+        }
+        long loads = source.getKeysetLoadCount() + source.getOffsetLoadCount();
+        assertEquals(10_002, source.get(0).id()); // 캐시된 0번 페이지
+        assertEquals(10_002 - 299, source.get(299).id());
+        assertEquals(loads, source.getKeysetLoadCount() + source.getOffsetLoadCount());
+    }
+
+    @Test
+    public void prunedTailIsRemovedFromEnd() {
+        FakeHistory history = new FakeHistory(500);
+        PagedRowSource source = new PagedRowSource(history, DIRECT, DIRECT, 50, 6);
+        refreshWithDiff(source);
+        history.rows.subList(400, 500).clear(); // 오래된 기록 100개 정리
+        history.rows.add(0, new RecordRow(501, 0, history.rows.get(0).record()));
+        RecordingCallback callback = new RecordingCallback();
+        refreshWithDiff(source).dispatchTo(callback);
+        assertEquals(List.of("insert 0+1", "remove 401+100"), callback.ops);
+        assertEquals(401, source.size());
+    }
+
+    @Test
+    public void rankChangeRebindsOnlyMovedSlots() {
+        FakeHistory board = new FakeHistory(0);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 1; i <= 5; i++) {
+            board.rows.add(new RecordRow(i, i, new GameRecord(base, Duration.ofSeconds(10 * i), true)));
+        }
+        PagedRowSource source = new PagedRowSource(board, DIRECT, DIRECT);
+        refreshWithDiff(source);
+
+        // 새 기록이 3위에 들어옴 → 3, 4위는 한 칸씩 밀리고 5위는 밀려남
+        RecordRow third = board.rows.get(2), fourth = board.rows.get(3);
+        board.rows.set(4, new RecordRow(fourth.id(), 5, fourth.record()));
+        board.rows.set(3, new RecordRow(third.id(), 4, third.record()));
+        board.rows.set(2, new RecordRow(6, 3, new GameRecord(base, Duration.ofSeconds(25), true)));
+        RecordingCallback callback = new RecordingCallback();
+        refreshWithDiff(source).dispatchTo(callback);
+        assertEquals(List.of("remove 4+1", "change 2+2", "insert 2+1"), callback.ops);
+    }
+
+    @Test
+    public void requestRefreshCoalescesWhileLoading() {
+        QueuedExecutor background = new QueuedExecutor();
+        QueuedExecutor main = new QueuedExecutor();
+        FakeHistory history = new FakeHistory(100);
+        PagedRowSource source = new PagedRowSource(history, background, main, 50, 4);
+        List<Integer> refreshed = new ArrayList<>();
+        source.setListener(new PagedRowSource.Listener() {
+            @Override
+            public void onRefreshed(PagedRowSource.Refresh refresh) {
+                refreshed.add(refresh.getSize());
+            }
+
+            @Override
+            public void onRowsLoaded(int position, int count) {
+            }
+        });
+
+        source.requestRefresh();
+        background.runAll(); // 첫 조회는 끝났지만 아직 메인 스레드에 도착하지 않음
+        for (int i = 0; i < 10; i++) {
+            history.rows.add(0, new RecordRow(101 + i, 0, history.rows.get(0).record()));
+            source.requestRefresh(); // 진행 중인 조회는 취소하지 않고 한 번으로 합침
+        }
+        while (!background.tasks.isEmpty() || !main.tasks.isEmpty()) {
+            background.runAll();
+            main.runAll();
+        }
+        assertEquals(List.of(100, 110), refreshed);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.sankegamerecord.Adapter;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.*;
+
+/**
+ * RecordFormatter 단위 테스트 (호스트 JVM에서 실행)
+ */
+public class RecordFormatterTest {
+
+    /** 이전에 쓰던 String.format 방식 */
+    private static String legacyDuration(Duration duration) {
+        long minutes = duration.toMinutes();
+        long seconds = duration.minusMinutes(minutes).getSeconds();
+        long millis = duration.minusMinutes(minutes).minusSeconds(seconds).toMillis();
+        return String.format("%02d:%02d.%03d", minutes, seconds, millis);
+    }
+
+    @Test
+    public void durationMatchesLegacyFormat() {
+        StringBuilder sb = new StringBuilder();
+        long[] samples = {0, 7, 59, 999, 1000, 61_005, 90_123, 599_999, 3_600_000, 6_000_000 + 1};
+        for (long ms : samples) {
+            sb.setLength(0);
+            assertEquals(legacyDuration(Duration.ofMillis(ms)), RecordFormatter.appendDuration(sb, ms).toString());
+        }
+    }
+
+    @Test
+    public void formatsRankAndHistoryRows() {
+        GameRecord record = new GameRecord(LocalDateTime.of(2025, 11, 13, 17, 11), Duration.ofMillis(90_123), true);
+        StringBuilder sb = new StringBuilder();
+        assertEquals("1. 2025-11-13T17:11 01:30.123",
+                RecordFormatter.formatRow(new RecordRow(3, 1, record), sb).toString());
+        assertEquals("2025-11-13T17:11 01:30.123 성공",
+                RecordFormatter.formatRow(new RecordRow(3, 0, record), sb).toString());
+    }
+
+    @Test
+    public void appendsDeviceSuffix() {
+        GameRecord record = new GameRecord(LocalDateTime.of(2025, 11, 13, 17, 11), Duration.ofMillis(90_123), false,
+                "AA:BB:CC:DD:EE:FF");
+        StringBuilder sb = new StringBuilder();
+        assertEquals("2025-11-13T17:11 01:30.123 실패 @EE:FF",
+                RecordFormatter.formatRow(new RecordRow(3, 0, record), sb).toString());
+        assertEquals("1. 2025-11-13T17:11 01:30.123 @EE:FF",
+                RecordFormatter.formatRow(new RecordRow(3, 1, record), sb).toString());
+    }
+}
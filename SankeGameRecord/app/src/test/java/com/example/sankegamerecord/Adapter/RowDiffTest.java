@@ -0,0 +1,133 @@
+package com.example.sankegamerecord.Adapter;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * RowDiff 단위 테스트 (호스트 JVM에서 실행)
+ */
+public class RowDiffTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static RecordRow row(long id, int rank, long playtimeMs) {
+        return new RecordRow(id, rank, new GameRecord(BASE.plusMinutes(id), Duration.ofMillis(playtimeMs), true));
+    }
+
+    /** RecyclerView처럼 연산을 목록에 적용해 보는 콜백 (삽입/변경 위치는 after의 해당 행으로 채움) */
+    private static class ListApplier implements RowDiff.UpdateCallback {
+        final List<RecordRow> list;
+        final List<String> log = new ArrayList<>();
+        int rebinds;
+
+        ListApplier(List<RecordRow> before) {
+            list = new ArrayList<>(before);
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            log.add("insert " + position + "+" + count);
+            for (int i = 0; i < count; i++) list.add(position, null);
+            rebinds += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            log.add("remove " + position + "+" + count);
+            for (int i = 0; i < count; i++) list.remove(position);
+        }
+
+        @Override
+        public void onChanged(int position, int count) {
+            log.add("change " + position + "+" + count);
+            for (int i = 0; i < count; i++) list.set(position + i, null);
+            rebinds += count;
+        }
+
+        /** 연산을 적용한 뒤 남은(다시 그리지 않은) 행이 after와 같은지 확인 */
+        void assertMatches(List<RecordRow> after) {
+            assertEquals(after.size(), list.size());
+            for (int i = 0; i < after.size(); i++) {
+                RecordRow kept = list.get(i);
+                if (kept != null) {
+                    assertTrue("row " + i, RowDiff.sameRow(kept, after.get(i)));
+                    assertTrue("content " + i, RowDiff.sameContent(kept, after.get(i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void newGameOnTopIsOneInsert() {
+        List<RecordRow> before = new ArrayList<>();
+        for (int id = 300; id >= 1; id--) before.add(row(id, 0, id));
+        List<RecordRow> after = new ArrayList<>(before);
+        after.add(0, row(301, 0, 301));
+
+        ListApplier applier = new ListApplier(before);
+        RowDiff.calculate(before, after).dispatchTo(applier);
+        assertEquals(List.of("insert 0+1"), applier.log);
+        assertEquals(1, applier.rebinds);
+        applier.assertMatches(after);
+    }
+
+    @Test
+    public void rankInsertRebindsOnlyMovedSlots() {
+        // 5위 행(id 5)이 밀려나고 그 행 id를 재사용한 새 기록이 2위로 들어옴
+        List<RecordRow> before = List.of(row(1, 1, 100), row(2, 2, 200), row(3, 3, 300), row(4, 4, 400), row(5, 5, 500));
+        List<RecordRow> after = List.of(row(1, 1, 100), row(5, 2, 150), row(2, 3, 200), row(3, 4, 300), row(4, 5, 400));
+
+        ListApplier applier = new ListApplier(before);
+        RowDiff.calculate(before, after).dispatchTo(applier);
+        applier.assertMatches(after);
+        assertEquals(4, applier.rebinds); // 1위는 그대로, 새 2위 + 순위가 바뀐 3~5위
+        assertNotNull(applier.list.get(0));
+    }
+
+    @Test
+    public void identicalListsProduceNothing() {
+        List<RecordRow> rows = List.of(row(3, 0, 1), row(2, 0, 2), row(1, 0, 3));
+        assertEquals(0, RowDiff.calculate(rows, new ArrayList<>(rows)).size());
+        assertEquals(0, RowDiff.calculate(List.of(), List.of()).size());
+    }
+
+    @Test
+    public void randomEditsReplayToTarget() {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            List<RecordRow> before = new ArrayList<>();
+            int n = random.nextInt(40);
+            long nextId = 1;
+            for (int i = 0; i < n; i++) before.add(row(nextId++, 0, random.nextInt(5)));
+
+            List<RecordRow> after = new ArrayList<>(before);
+            int edits = random.nextInt(8);
+            for (int e = 0; e < edits; e++) {
+                int op = random.nextInt(4);
+                if (op == 0 || after.isEmpty()) {
+                    after.add(random.nextInt(after.size() + 1), row(nextId++, 0, random.nextInt(5)));
+                } else if (op == 1) {
+                    after.remove(random.nextInt(after.size()));
+                } else if (op == 2) {
+                    int i = random.nextInt(after.size());
+                    after.set(i, row(after.get(i).id(), 0, 100 + random.nextInt(5)));
+                } else {
+                    RecordRow moved = after.remove(random.nextInt(after.size()));
+                    after.add(random.nextInt(after.size() + 1), moved);
+                }
+            }
+
+            ListApplier applier = new ListApplier(before);
+            RowDiff.calculate(before, after).dispatchTo(applier);
+            applier.assertMatches(after);
+            assertTrue(applier.rebinds <= after.size());
+        }
+    }
+}
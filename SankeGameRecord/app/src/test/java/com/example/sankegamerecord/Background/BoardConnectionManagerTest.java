@@ -0,0 +1,420 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * BoardConnectionManager 다중 보드 수집 테스트 (가짜 Connector 사용)
+ */
+public class BoardConnectionManagerTest {
+
+    private static final String BOARD_A = "AA:AA:AA:AA:AA:01";
+    private static final String BOARD_B = "BB:BB:BB:BB:BB:02";
+
+    private static String frames(int count, int minute) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(String.format("RPL|2025-11-13 17:%02d:%02d|00:30:000|true\r\n", minute, 10 + i));
+        }
+        return sb.toString();
+    }
+
+    /** 버전 2 RECORD 프레임 (일련번호 포함) */
+    private static byte[] seqFrame(long seq) {
+        RplFrameParser.Result in = new RplFrameParser.Result();
+        in.year = 2025; in.month = 11; in.day = 13;
+        in.hour = 17; in.minute = 0; in.second = (int) seq;
+        in.playtimeMillis = 30_000; in.score = 12; in.success = true;
+        in.sequence = seq;
+        byte[] frame = new byte[WireProtocol.MAX_FRAME_SIZE];
+        return Arrays.copyOf(frame, WireProtocol.encodeRecord(in, frame, 0));
+    }
+
+    /** 텍스트 줄과 버전 2 프레임(Long)을 이어 붙인 보드 송신 데이터 */
+    private static InputStream script(Object... parts) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (Object part : parts) {
+            byte[] b = part instanceof Long ? seqFrame((Long) part)
+                    : (part + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            bytes.write(b, 0, b.length);
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    /** 주소마다 연결할 때마다 미리 정한 바이트를 보내고 끝나는(보드가 연결을 끊는) 가짜 연결 */
+    private static final class ScriptedConnector implements BoardConnectionManager.Connector {
+        final Map<String, Deque<InputStream>> inputs = new ConcurrentHashMap<>();
+        final Map<String, List<ByteArrayOutputStream>> outputs = new ConcurrentHashMap<>();
+
+        void add(String address, InputStream in) {
+            inputs.computeIfAbsent(address, a -> new ConcurrentLinkedDeque<>()).add(in);
+        }
+
+        /** address의 index번째 연결에서 앱이 보낸 내용 */
+        String sent(String address, int index) {
+            return new String(outputs.get(address).get(index).toByteArray(), StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public BoardConnectionManager.Link connect(String address) throws IOException {
+            Deque<InputStream> queue = inputs.get(address);
+            InputStream in = queue != null ? queue.poll() : null;
+            if (in == null) throw new IOException("no route to " + address);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outputs.computeIfAbsent(address, a -> new CopyOnWriteArrayList<>()).add(out);
+            return new BoardConnectionManager.Link() {
+                @Override
+                public InputStream getInputStream() {
+                    return in;
+                }
+
+                @Override
+                public OutputStream getOutputStream() {
+                    return out;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    in.close();
+                }
+            };
+        }
+    }
+
+    /** close()될 때까지 read가 블록되는 입력 (연결 유지 중인 보드) */
+    private static final class OpenStream extends InputStream {
+        private final LinkedBlockingQueue<Integer> bytes = new LinkedBlockingQueue<>();
+
+        void send(String text) {
+            for (byte b : text.getBytes(StandardCharsets.US_ASCII)) bytes.add(b & 0xFF);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return bytes.take();
+            } catch (InterruptedException e) {
+                throw new IOException("interrupted", e);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int first = read();
+            if (first < 0) return -1;
+            b[off] = (byte) first;
+            int n = 1;
+            Integer next;
+            while (n < len && (next = bytes.peek()) != null && next >= 0) {
+                b[off + n++] = (byte) (int) bytes.poll();
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            bytes.add(-1);
+        }
+    }
+
+    /** 상태 변화를 기록하고, 보드가 끝(연결 해제/실패)날 때마다 latch를 내림 */
+    private static class Events implements BoardConnectionManager.StateListener {
+        final List<String> log = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch ended;
+        final CountDownLatch connected;
+
+        Events(int boards) {
+            ended = new CountDownLatch(boards);
+            connected = new CountDownLatch(boards);
+        }
+
+        @Override
+        public void onStateChanged(String address, int state, String message) {
+            log.add(address + ":" + state);
+            if (state == BoardConnectionManager.STATE_CONNECTED) connected.countDown();
+            if (state == BoardConnectionManager.STATE_DISCONNECTED || state == BoardConnectionManager.STATE_NONE) {
+                ended.countDown();
+            }
+        }
+    }
+
+    @Test
+    public void recordsFromTwoBoardsAreTaggedWithTheirDevice() throws Exception {
+        ScriptedConnector connector = new ScriptedConnector();
+        // 두 보드 모두 프레임 중간에서 read가 나뉘도록 보내도 보드마다 디코더가 따로라 섞이지 않음
+        connector.add(BOARD_A, new ByteArrayInputStream(
+                (frames(30, 1) + "HEARTBEAT\r\nRPL|garbage\r\n").getBytes(StandardCharsets.US_ASCII)));
+        connector.add(BOARD_B, new ByteArrayInputStream(frames(20, 2).getBytes(StandardCharsets.US_ASCII)));
+
+        List<GameRecord> sink = Collections.synchronizedList(new ArrayList<>());
+        Events events = new Events(2);
+        BoardConnectionManager manager = new BoardConnectionManager(connector, sink::add, events, ReconnectPolicy.NONE);
+        assertTrue(manager.connect(BOARD_A));
+        assertTrue(manager.connect(BOARD_B));
+        assertTrue(events.ended.await(5, TimeUnit.SECONDS));
+
+        int fromA = 0, fromB = 0;
+        for (GameRecord record : sink) {
+            if (record.Device().equals(BOARD_A)) {
+                assertEquals(1, record.Playdate().getMinute());
+                fromA++;
+            } else {
+                assertEquals(BOARD_B, record.Device());
+                assertEquals(2, record.Playdate().getMinute());
+                fromB++;
+            }
+        }
+        assertEquals(30, fromA);
+        assertEquals(20, fromB);
+
+        BoardConnectionManager.BoardStats a = manager.getStats(BOARD_A);
+        assertEquals(32, a.getFrameCount());
+        assertEquals(30, a.getRecordCount());
+        assertEquals(1, a.getParseErrorCount()); // HEARTBEAT는 오류가 아님
+        assertEquals(1, a.getConnectCount());
+        assertTrue(a.getBytesRead() > 0);
+        assertEquals(20, manager.getStats(BOARD_B).getRecordCount());
+        assertEquals(0, manager.getSessionCount());
+
+        // 연결할 때 보드마다 HELLO를 보냄
+        assertArrayEquals(WireProtocol.HELLO_FRAME, connector.outputs.get(BOARD_A).get(0).toByteArray());
+        assertArrayEquals(WireProtocol.HELLO_FRAME, connector.outputs.get(BOARD_B).get(0).toByteArray());
+    }
+
+    @Test
+    public void rejectedRecordsAndConnectFailuresAreCounted() throws Exception {
+        ScriptedConnector connector = new ScriptedConnector();
+        connector.add(BOARD_A, new ByteArrayInputStream(frames(10, 1).getBytes(StandardCharsets.US_ASCII)));
+
+        int[] offered = {0};
+        Events events = new Events(2);
+        BoardConnectionManager manager = new BoardConnectionManager(connector,
+                record -> ++offered[0] % 2 == 0, events, ReconnectPolicy.NONE); // 절반은 큐가 가득 찬 것처럼 거부
+        manager.connect(BOARD_A);
+        manager.connect(BOARD_B); // Connector가 실패
+        assertTrue(events.ended.await(5, TimeUnit.SECONDS));
+
+        assertEquals(10, manager.getStats(BOARD_A).getRecordCount());
+        assertEquals(5, manager.getStats(BOARD_A).getRejectedCount());
+
+        BoardConnectionManager.BoardStats b = manager.getStats(BOARD_B);
+        assertEquals(1, b.getConnectFailureCount());
+        assertEquals(0, b.getConnectCount());
+        assertTrue(b.getLastError().contains("no route"));
+        assertTrue(events.log.contains(BOARD_B + ":" + BoardConnectionManager.STATE_DISCONNECTED));
+    }
+
+    @Test
+    public void disconnectStopsOnlyThatBoard() throws Exception {
+        OpenStream streamA = new OpenStream();
+        OpenStream streamB = new OpenStream();
+        ScriptedConnector connector = new ScriptedConnector();
+        connector.add(BOARD_A, streamA);
+        connector.add(BOARD_B, streamB);
+
+        List<GameRecord> sink = Collections.synchronizedList(new ArrayList<>());
+        Events events = new Events(2);
+        BoardConnectionManager manager = new BoardConnectionManager(connector, sink::add, events, ReconnectPolicy.NONE);
+        manager.connect(BOARD_A);
+        manager.connect(BOARD_B);
+        assertTrue(events.connected.await(5, TimeUnit.SECONDS));
+        assertFalse(manager.connect(BOARD_A)); // 이미 연결됨
+        assertEquals(List.of(BOARD_A, BOARD_B), manager.getConnectedAddresses());
+
+        manager.disconnect(BOARD_A, 5000);
+        assertEquals(List.of(BOARD_B), manager.getConnectedAddresses());
+        assertTrue(events.log.contains(BOARD_A + ":" + BoardConnectionManager.STATE_NONE));
+
+        // 남은 보드는 계속 수신
+        streamB.send(frames(3, 2));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sink.size() < 3 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(3, sink.size());
+
+        // 끊었던 보드는 다시 연결할 수 있고 통계는 이어서 집계
+        connector.add(BOARD_A, new ByteArrayInputStream(new byte[0]));
+        assertTrue(manager.connect(BOARD_A));
+        manager.disconnectAll(5000);
+        assertEquals(0, manager.getSessionCount());
+        assertTrue(manager.getStats(BOARD_A).getConnectCount() >= 1);
+    }
+
+    @Test
+    public void readersRunOnNamedPoolThreadsAndShutdownWaitsForThem() throws Exception {
+        OpenStream streamA = new OpenStream();
+        OpenStream streamB = new OpenStream();
+        ScriptedConnector connector = new ScriptedConnector();
+        connector.add(BOARD_A, streamA);
+        connector.add(BOARD_B, streamB);
+
+        List<String> readerNames = new CopyOnWriteArrayList<>();
+        Events events = new Events(2) {
+            @Override
+            public void onStateChanged(String address, int state, String message) {
+                if (state == BoardConnectionManager.STATE_CONNECTED) readerNames.add(Thread.currentThread().getName());
+                super.onStateChanged(address, state, message);
+            }
+        };
+        List<GameRecord> sink = Collections.synchronizedList(new ArrayList<>());
+        BoardConnectionManager manager = new BoardConnectionManager(connector, sink::add, events, ReconnectPolicy.NONE);
+        manager.connect(BOARD_A);
+        manager.connect(BOARD_B);
+        assertTrue(events.connected.await(5, TimeUnit.SECONDS));
+
+        // 보드마다 I/O 스레드 하나, 이름에 보드 주소가 붙음
+        IoWorkerPool pool = manager.getIoWorkerPool();
+        assertEquals(2, pool.getAliveThreadCount());
+        assertEquals(2, pool.getBusyThreadCount());
+        for (String name : readerNames) assertTrue(name, name.matches("BoardIo-\\d+:.*"));
+        assertTrue(readerNames.get(0).endsWith(BOARD_A) || readerNames.get(1).endsWith(BOARD_A));
+
+        // 데이터가 올 때까지 read가 블록된 시간이 집계됨
+        Thread.sleep(60);
+        BoardConnectionManager.BoardStats a = manager.getStats(BOARD_A);
+        assertTrue(a.getCurrentReadBlockedMillis() >= 50);
+        streamA.send(frames(1, 1));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sink.isEmpty() && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(1, sink.size());
+        assertTrue(a.getReadCount() >= 1);
+        assertTrue(a.toString(), a.getMaxReadBlockedMillis() >= 50);
+
+        // shutdown()이 돌아오면 I/O 스레드가 하나도 남아 있지 않음
+        assertTrue(manager.shutdown(5000));
+        assertEquals(0, pool.getAliveThreadCount());
+        assertEquals(0, manager.getSessionCount());
+        assertFalse(manager.connect(BOARD_A));
+        assertTrue(events.ended.await(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void reconnectsAndRecoversMissedRecordsBySequence() throws Exception {
+        ScriptedConnector connector = new ScriptedConnector();
+        // 첫 연결: 3번이 빠진 채 4번이 오고 끊김 → RRQ|3
+        connector.add(BOARD_A, script("SYNC|1", 1L, 2L, 4L));
+        // 재연결: 보드는 ACK받지 못한 3번부터 다시 보냄
+        connector.add(BOARD_A, script("SYNC|3", 3L, 4L, 5L));
+
+        List<GameRecord> sink = Collections.synchronizedList(new ArrayList<>());
+        Events events = new Events(1);
+        BoardConnectionManager manager = new BoardConnectionManager(connector, sink::add, events,
+                new ReconnectPolicy(1, 1, 0, 1));
+        manager.connect(BOARD_A);
+        assertTrue(events.ended.await(5, TimeUnit.SECONDS)); // 세 번째 연결은 실패하고 포기
+
+        String hello = new String(WireProtocol.HELLO_FRAME, StandardCharsets.US_ASCII);
+        assertEquals(hello + "ACK|1\r\nACK|2\r\nRRQ|3\r\n", connector.sent(BOARD_A, 0));
+        assertEquals(hello + "ACK|3\r\nACK|4\r\nACK|5\r\n", connector.sent(BOARD_A, 1));
+
+        // 4번은 두 번 넘어감 (at-least-once, 중복은 데이터베이스가 걸러 냄)
+        List<Integer> seconds = new ArrayList<>();
+        for (GameRecord record : sink) seconds.add(record.Playdate().getSecond());
+        assertEquals(List.of(1, 2, 4, 3, 4, 5), seconds);
+
+        BoardConnectionManager.BoardStats stats = manager.getStats(BOARD_A);
+        assertEquals(2, stats.getConnectCount());
+        assertEquals(2, stats.getReconnectCount());
+        assertEquals(1, stats.getRetransmitRequestCount());
+        assertEquals(5, stats.getLastAcked());
+        assertEquals(0, stats.getLostRecordCount());
+        assertTrue(events.log.contains(BOARD_A + ":" + BoardConnectionManager.STATE_DISCONNECTED));
+    }
+
+    @Test
+    public void rejectedRecordIsNotAckedAndRequestedAgainOnHeartbeat() throws Exception {
+        ScriptedConnector connector = new ScriptedConnector();
+        connector.add(BOARD_A, script("SYNC|1", 1L, 2L, "HEARTBEAT", 1L, 1L));
+
+        int[] offered = {0};
+        Events events = new Events(1);
+        BoardConnectionManager manager = new BoardConnectionManager(connector,
+                record -> ++offered[0] != 1, events, ReconnectPolicy.NONE); // 첫 기록만 큐가 거부
+        manager.connect(BOARD_A);
+        assertTrue(events.ended.await(5, TimeUnit.SECONDS));
+
+        // 1번 거부 → ACK 없음, 2번에서 구멍 발견 → RRQ|1, HEARTBEAT에서 다시 RRQ|1, 재전송된 1번 → ACK|1
+        // 한 번 더 온 1번은 중복이라 버리고 ACK만 다시 보냄
+        String hello = new String(WireProtocol.HELLO_FRAME, StandardCharsets.US_ASCII);
+        assertEquals(hello + "RRQ|1\r\nRRQ|1\r\nACK|1\r\nACK|1\r\n", connector.sent(BOARD_A, 0));
+
+        BoardConnectionManager.BoardStats stats = manager.getStats(BOARD_A);
+        assertEquals(1, stats.getRejectedCount());
+        assertEquals(1, stats.getDuplicateCount());
+        assertEquals(2, stats.getRetransmitRequestCount());
+    }
+
+    @Test
+    public void syncBeyondLastAckCountsLostRecords() throws Exception {
+        ScriptedConnector connector = new ScriptedConnector();
+        connector.add(BOARD_A, script("SYNC|1", 1L, 2L));
+        // 끊긴 동안 보드 버퍼가 넘쳐 3~9번이 밀려남
+        connector.add(BOARD_A, script("SYNC|10", 10L));
+
+        Events events = new Events(1);
+        BoardConnectionManager manager = new BoardConnectionManager(connector, record -> true, events,
+                new ReconnectPolicy(1, 1, 0, 1));
+        manager.connect(BOARD_A);
+        assertTrue(events.ended.await(5, TimeUnit.SECONDS));
+
+        assertEquals(7, manager.getStats(BOARD_A).getLostRecordCount());
+        assertEquals(10, manager.getStats(BOARD_A).getLastAcked());
+    }
+
+    @Test
+    public void acceptedRecordsAreJournaledBeforeAckAndReplayable() throws Exception {
+        ScriptedConnector connector = new ScriptedConnector();
+        connector.add(BOARD_A, script("SYNC|1", 1L, 2L, 3L, 2L, "HEARTBEAT"));
+
+        File dir = Files.createTempDirectory("journal").toFile();
+        try {
+            FrameJournal journal = new FrameJournal(dir);
+            int[] offered = {0};
+            Events events = new Events(1);
+            BoardConnectionManager manager = new BoardConnectionManager(connector,
+                    record -> ++offered[0] != 2, events, ReconnectPolicy.NONE, journal); // 처음 온 2번만 큐가 거부
+            manager.connect(BOARD_A);
+            assertTrue(events.ended.await(5, TimeUnit.SECONDS));
+
+            // 큐에 넣은 1, 3, 2번은 저장(commit)되기 전이므로 저널에 남고, 거부한 2번은 빠짐
+            assertEquals(3, journal.getPendingCount());
+            assertEquals(2, manager.getStats(BOARD_A).getLastAcked());
+
+            // 앱이 죽었다가 다시 열면 체크포인트(1번 앞) 뒤의 프레임이 모두 되살아남
+            // 거부했던 2번도 함께 오지만 데이터베이스의 중복 검사가 걸러 냄 (at-least-once)
+            ProtocolInterpreter interpreter = new ProtocolInterpreter(BOARD_A);
+            List<GameRecord> replayed = new FrameJournal(dir).replay((device, frame, offset, length) ->
+                    interpreter.makeRecord(frame, offset, length));
+            int[] seconds = new int[replayed.size()];
+            for (int i = 0; i < seconds.length; i++) seconds[i] = replayed.get(i).Playdate().getSecond();
+            assertArrayEquals(new int[]{1, 2, 3, 2}, seconds);
+            assertEquals(BOARD_A, replayed.get(0).Device());
+        } finally {
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+    }
+}
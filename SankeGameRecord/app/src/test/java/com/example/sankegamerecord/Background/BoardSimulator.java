@@ -0,0 +1,528 @@
+package com.example.sankegamerecord.Background;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * STM32 보드 펌웨어(user/bt.c, user/main.c)의 송신 동작을 흉내 내는 가짜 보드입니다.
+ * <p>
+ * - 재전송 버퍼 16칸, PROTO|n 협상(SYNC + 미확인 기록 재전송), ACK|n, RRQ|n, HEARTBEAT을 펌웨어와 같은 규칙으로 처리합니다.
+ *   버퍼에서 밀려난 번호를 RRQ하면 펌웨어처럼 SYNC로 가장 오래된 미확인 번호를 알립니다.
+ * - 게임은 연결 여부와 관계없이 정해진 속도(묶음 단위)로 끝나며, 연결이 없을 때 끝난 게임은 버퍼에만 남습니다.
+ * - 보내는 프레임의 비트 하나를 일정 확률로 뒤집고(corruptionRate), 연결을 임의로 끊을 수 있습니다(meanConnectedMillis).
+ * <p>
+ * index번째 게임의 내용은 index만으로 정해지므로(expectedPlaytime, expectedSuccess, playdateOf) 받는 쪽에서 그대로 검증할 수 있습니다.
+ * InMemoryTransport.Listener로 등록하거나 serveTcp()로 TCP 포트에서 앱(tcp://호스트:포트)의 연결을 받을 수 있습니다.
+ */
+public final class BoardSimulator implements InMemoryTransport.Listener, Closeable {
+
+    /** 펌웨어 BT_RETRANSMIT_SLOTS */
+    public static final int RETRANSMIT_SLOTS = 16;
+    /** 게임 index 0의 시각 (index번째 게임은 index초 뒤에 끝남) */
+    public static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0, 0);
+
+    private static final byte[] HEARTBEAT = "HEARTBEAT\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    /** 보드 설정 */
+    public static final class Profile {
+        int protocolVersion = WireProtocol.VERSION; // 펌웨어가 지원하는 최대 버전 (0: 텍스트만 보내는 구 펌웨어)
+        double gamesPerSecond = 10;
+        int burstSize = 1;              // 한 번에 이어서 끝나는 게임 수
+        double corruptionRate;          // 프레임마다 비트 하나가 뒤집힐 확률
+        long meanConnectedMillis;       // 보드가 연결을 끊기까지의 평균 시간 (0: 끊지 않음)
+        long heartbeatMillis = 5000;    // main.c BT_HEARTBEAT_MS
+        long seed = 1;
+
+        public Profile protocolVersion(int version) { this.protocolVersion = version; return this; }
+        public Profile gamesPerSecond(double rate) { this.gamesPerSecond = rate; return this; }
+        public Profile burstSize(int size) { this.burstSize = Math.max(1, size); return this; }
+        public Profile corruptionRate(double rate) { this.corruptionRate = rate; return this; }
+        public Profile meanConnectedMillis(long millis) { this.meanConnectedMillis = millis; return this; }
+        public Profile heartbeatMillis(long millis) { this.heartbeatMillis = millis; return this; }
+        public Profile seed(long seed) { this.seed = seed; return this; }
+    }
+
+    private final String name;
+    private final Profile profile;
+    private final Random random;
+    private final Object lock = new Object();
+    private final Thread mcu;
+
+    // 펌웨어 상태 (lock으로 보호, 연결이 바뀌어도 유지)
+    private int version;            // 협상된 버전 (s_protocol_version)
+    private long first = 1;         // 가장 오래된 미확인 번호 (s_first)
+    private long next = 1;          // 다음 기록 번호 (s_next)
+    private boolean syncPending;    // s_sync_pending
+    private long resendFrom;        // s_resend_from (0: 없음)
+    private boolean generating = true;
+    private boolean closed;
+    private Connection connection;
+
+    // 집계 (lock으로 보호)
+    private long games;
+    private long framesSent;
+    private long resentFrames;
+    private long corruptedFrames;
+    private long unsentFrames;      // 연결이 없을 때 끝난 게임 (텍스트, 버전 1에서는 그대로 유실)
+    private long evicted;           // ACK 전에 버퍼에서 밀려난 기록
+    private long connections;
+    private long boardDisconnects;
+    private long commands;
+
+    /** 연결 하나 (보드 쪽 Link와 명령 수신 스레드) */
+    private final class Connection {
+        final BoardConnectionManager.Link link;
+        final OutputStream out;
+        final long dropAtNanos;
+
+        Connection(BoardConnectionManager.Link link, long dropAtNanos) throws IOException {
+            this.link = link;
+            this.out = link.getOutputStream();
+            this.dropAtNanos = dropAtNanos;
+        }
+    }
+
+    public BoardSimulator(String name, Profile profile) {
+        this.name = name;
+        this.profile = profile;
+        this.random = new Random(profile.seed);
+        this.mcu = new Thread(this::mcuLoop, "BoardSim-" + name);
+        this.mcu.setDaemon(true);
+        this.mcu.start();
+    }
+
+    /** 새 연결 (이전 연결이 남아 있으면 끊음. HC-05는 연결을 하나만 받음) */
+    @Override
+    public void accept(BoardConnectionManager.Link boardSide) throws IOException {
+        Connection previous;
+        Connection current;
+        synchronized (lock) {
+            if (closed) throw new IOException("board " + name + " is off");
+            long connected = profile.meanConnectedMillis <= 0 ? Long.MAX_VALUE
+                    : System.nanoTime() + (long) (-Math.log(1 - random.nextDouble()) * profile.meanConnectedMillis * 1_000_000L);
+            previous = connection;
+            current = new Connection(boardSide, connected);
+            connection = current;
+            connections++;
+            lock.notifyAll();
+        }
+        closeQuietly(previous);
+        Thread rx = new Thread(() -> receiveLoop(current), "BoardSimRx-" + name);
+        rx.setDaemon(true);
+        rx.start();
+    }
+
+    /**
+     * TCP 포트에서 앱의 연결을 받습니다. (루프백만)
+     * @param port 0이면 빈 포트
+     * @return 닫으면 더 이상 연결을 받지 않는 서버 소켓 (getLocalPort()로 포트 확인)
+     */
+    public ServerSocket serveTcp(int port) throws IOException {
+        ServerSocket server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    socket.setTcpNoDelay(true);
+                    accept(new BoardConnectionManager.Link() {
+                        @Override
+                        public InputStream getInputStream() throws IOException {
+                            return socket.getInputStream();
+                        }
+
+                        @Override
+                        public OutputStream getOutputStream() throws IOException {
+                            return socket.getOutputStream();
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            socket.close();
+                        }
+                    });
+                } catch (IOException e) {
+                    // 서버 소켓이 닫힘
+                }
+            }
+        }, "BoardSimTcp-" + name);
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+
+    /** 보드 쪽에서 지금 연결을 끊습니다. (전원 버튼, 블루투스 모듈 리셋) */
+    public void dropConnection() {
+        Connection current;
+        synchronized (lock) {
+            current = connection;
+            connection = null;
+            if (current != null) boardDisconnects++;
+        }
+        closeQuietly(current);
+    }
+
+    /** 새 게임을 더 만들지 않음 (재전송, HEARTBEAT은 계속) */
+    public void stopGames() {
+        synchronized (lock) {
+            generating = false;
+        }
+    }
+
+    /** 보드를 끔 */
+    @Override
+    public void close() {
+        Connection current;
+        synchronized (lock) {
+            closed = true;
+            generating = false;
+            current = connection;
+            connection = null;
+            lock.notifyAll();
+        }
+        closeQuietly(current);
+        try {
+            mcu.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- 게임 내용 (index만으로 정해짐) ----
+
+    public static LocalDateTime playdateOf(long index) {
+        return EPOCH.plusSeconds(index);
+    }
+
+    /** playdate가 몇 번째 게임인지 (시뮬레이터가 만든 시각이 아니면 -1) */
+    public static long indexOf(LocalDateTime playdate) {
+        long index = Duration.between(EPOCH, playdate).getSeconds();
+        return index >= 0 && playdateOf(index).equals(playdate) ? index : -1;
+    }
+
+    static int scoreOf(long index) {
+        return (int) ((index * 7) % 23);
+    }
+
+    /** 텍스트 프레임은 초 단위로만 보내므로 모든 형식에서 같도록 초 단위 */
+    public static Duration expectedPlaytime(long index) {
+        return Duration.ofSeconds(5 + (index * 7919) % 600);
+    }
+
+    public static boolean expectedSuccess(long index) {
+        return scoreOf(index) >= RplFrameParser.SUCCESS_SCORE;
+    }
+
+    // ---- 보드 메인 루프 (main.c while(1) + BT_Poll) ----
+
+    private void mcuLoop() {
+        long periodNanos = (long) (profile.burstSize * 1e9 / profile.gamesPerSecond);
+        long nextGame = System.nanoTime() + periodNanos;
+        long nextHeartbeat = System.nanoTime() + profile.heartbeatMillis * 1_000_000L;
+        byte[] frame = new byte[WireProtocol.MAX_FRAME_SIZE];
+        List<byte[]> finished = new ArrayList<>();
+        while (true) {
+            Connection current;
+            boolean heartbeatDue;
+            byte[] sync = null;
+            long from;
+            synchronized (lock) {
+                if (closed) return;
+                long now = System.nanoTime();
+                current = connection;
+                if (current != null && now >= current.dropAtNanos) {
+                    connection = null;
+                    boardDisconnects++;
+                    closeQuietly(current);
+                    continue;
+                }
+                boolean gameDue = generating && now >= nextGame;
+                heartbeatDue = now >= nextHeartbeat;
+                from = resendFrom;
+                if (!gameDue && !heartbeatDue && !syncPending && from == 0) {
+                    long wake = Math.min(generating ? nextGame : Long.MAX_VALUE, nextHeartbeat);
+                    if (current != null) wake = Math.min(wake, current.dropAtNanos);
+                    awaitNanos(wake - now);
+                    continue;
+                }
+                if (from != 0 && from < first) {
+                    // 이미 ACK되었거나 버퍼에서 밀려난 번호: 앱이 넘어가도록 SYNC부터 보냄
+                    syncPending = true;
+                    from = first;
+                }
+                if (syncPending) sync = ("SYNC|" + first + "\r\n").getBytes(StandardCharsets.US_ASCII);
+                syncPending = false;
+                resendFrom = 0;
+                if (heartbeatDue) nextHeartbeat = now + profile.heartbeatMillis * 1_000_000L;
+                if (gameDue) {
+                    nextGame += periodNanos;
+                    for (int i = 0; i < profile.burstSize; i++) {
+                        byte[] record = finishGame(frame);
+                        if (record != null) finished.add(record);
+                    }
+                }
+            }
+            // 쓰기가 막혀도 ACK 처리(수신 스레드)는 멈추지 않도록 lock 밖에서 보냄
+            for (byte[] record : finished) send(current, record, record.length, true);
+            finished.clear();
+            if (heartbeatDue) send(current, HEARTBEAT, HEARTBEAT.length, false);
+            // BT_Poll: SYNC 다음 미확인 기록부터 재전송
+            if (sync != null) send(current, sync, sync.length, false);
+            if (from != 0) resend(from, frame);
+        }
+    }
+
+    /**
+     * BT_SendScoreFrame (lock 안에서): 게임 하나를 재전송 버퍼에 넣음
+     * @return 지금 연결로 보낼 프레임, 연결이 없으면 null
+     */
+    private byte[] finishGame(byte[] frame) {
+        long seq = next++;
+        games++;
+        if (next - first > RETRANSMIT_SLOTS) {
+            long newFirst = next - RETRANSMIT_SLOTS; // 가장 오래된 기록을 버림
+            if (version >= WireProtocol.VERSION) evicted += newFirst - first; // 재전송할 수 있었던 기록만
+            first = newFirst;
+        }
+        if (connection == null) {
+            unsentFrames++;
+            return null;
+        }
+        return Arrays.copyOf(frame, encode(seq, frame));
+    }
+
+    private void resend(long from, byte[] frame) {
+        for (long seq = from; ; seq++) {
+            Connection current;
+            int length;
+            synchronized (lock) {
+                if (seq < first) seq = first; // 이미 ACK되었거나 버퍼에서 밀려난 기록은 보낼 수 없음
+                if (seq >= next || resendFrom != 0 || connection == null) return;
+                current = connection;
+                length = encode(seq, frame);
+                resentFrames++;
+            }
+            send(current, frame, length, true);
+        }
+    }
+
+    /** 기록 seq를 협상된 형식으로 인코딩 (lock 안에서) */
+    private int encode(long seq, byte[] frame) {
+        long index = seq - 1;
+        if (version == 0) {
+            LocalDateTime t = playdateOf(index);
+            String line = String.format("RPL|20%02d-%02d-%02d %02d:%02d:%02d|%d|%d\r\n",
+                    t.getYear() % 100, t.getMonthValue(), t.getDayOfMonth(),
+                    t.getHour(), t.getMinute(), t.getSecond(),
+                    expectedPlaytime(index).getSeconds(), scoreOf(index));
+            byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(bytes, 0, frame, 0, bytes.length);
+            return bytes.length;
+        }
+        RplFrameParser.Result in = new RplFrameParser.Result();
+        LocalDateTime t = playdateOf(index);
+        in.year = t.getYear();
+        in.month = t.getMonthValue();
+        in.day = t.getDayOfMonth();
+        in.hour = t.getHour();
+        in.minute = t.getMinute();
+        in.second = t.getSecond();
+        in.playtimeMillis = expectedPlaytime(index).toMillis();
+        in.score = scoreOf(index);
+        in.success = expectedSuccess(index);
+        in.sequence = version >= WireProtocol.VERSION ? seq : -1;
+        return WireProtocol.encodeRecord(in, frame, 0);
+    }
+
+    /** 프레임 하나를 보냄 (lock 밖에서). 일정 확률로 비트 하나를 뒤집음 */
+    private void send(Connection current, byte[] frame, int length, boolean record) {
+        if (current == null) return;
+        byte[] data = frame;
+        synchronized (lock) {
+            if (record) framesSent++;
+            if (profile.corruptionRate > 0 && random.nextDouble() < profile.corruptionRate) {
+                data = Arrays.copyOf(frame, length);
+                data[random.nextInt(length)] ^= (byte) (1 << random.nextInt(8));
+                corruptedFrames++;
+            }
+        }
+        try {
+            current.out.write(data, 0, length);
+            current.out.flush();
+        } catch (IOException e) {
+            // 앱이 연결을 닫음: 다음 연결까지 버퍼에만 남음
+            synchronized (lock) {
+                if (connection == current) connection = null;
+            }
+        }
+    }
+
+    private void awaitNanos(long nanos) {
+        if (nanos <= 0) return;
+        try {
+            lock.wait(Math.max(1, nanos / 1_000_000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- 명령 수신 (USART2 수신 인터럽트 + BT_HandleCommand) ----
+
+    private void receiveLoop(Connection current) {
+        byte[] line = new byte[32]; // BT_RX_LINE_MAX
+        int length = 0;
+        try {
+            InputStream in = current.link.getInputStream();
+            int c;
+            while ((c = in.read()) >= 0) {
+                if (c == '\n') {
+                    handleCommand(new String(line, 0, length, StandardCharsets.US_ASCII));
+                    length = 0;
+                } else if (c != '\r' && length < line.length - 1) {
+                    line[length++] = (byte) c;
+                }
+            }
+        } catch (IOException e) {
+            // 연결이 끊김
+        }
+        synchronized (lock) {
+            if (connection == current) connection = null;
+        }
+        closeQuietly(current);
+    }
+
+    private void handleCommand(String line) {
+        synchronized (lock) {
+            commands++;
+            if (line.startsWith("PROTO|") && line.length() > 6 && Character.isDigit(line.charAt(6))) {
+                int requested = line.charAt(6) - '0';
+                version = Math.min(requested, profile.protocolVersion);
+                if (version >= WireProtocol.VERSION) {
+                    syncPending = true;
+                    resendFrom = first;
+                }
+            } else if (line.startsWith("ACK|")) {
+                long value = parseU32(line.substring(4));
+                if (value >= first && value < next) first = value + 1;
+            } else if (line.startsWith("RRQ|")) {
+                long value = parseU32(line.substring(4));
+                if (value > 0) resendFrom = value;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /** BT_ParseU32 (잘못된 값은 0) */
+    private static long parseU32(String s) {
+        if (s.isEmpty() || s.length() > 10) return 0;
+        long value = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return 0;
+            value = value * 10 + (c - '0');
+        }
+        return value <= WireProtocol.MAX_SEQUENCE ? value : 0;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.link.close();
+        } catch (IOException ignored) {
+            // 이미 닫힘
+        }
+    }
+
+    // ---- 집계 ----
+
+    public String getName() {
+        return name;
+    }
+
+    public Profile getProfile() {
+        return profile;
+    }
+
+    /** 끝난 게임 수 (index 0..games-1) */
+    public long getGameCount() {
+        synchronized (lock) {
+            return games;
+        }
+    }
+
+    /** 앱이 아직 ACK하지 않은 기록 수 */
+    public long getUnackedCount() {
+        synchronized (lock) {
+            return next - first;
+        }
+    }
+
+    public long getFramesSent() {
+        synchronized (lock) {
+            return framesSent;
+        }
+    }
+
+    public long getResentFrames() {
+        synchronized (lock) {
+            return resentFrames;
+        }
+    }
+
+    public long getCorruptedFrames() {
+        synchronized (lock) {
+            return corruptedFrames;
+        }
+    }
+
+    public long getUnsentFrames() {
+        synchronized (lock) {
+            return unsentFrames;
+        }
+    }
+
+    public long getEvictedCount() {
+        synchronized (lock) {
+            return evicted;
+        }
+    }
+
+    public long getConnectionCount() {
+        synchronized (lock) {
+            return connections;
+        }
+    }
+
+    public long getBoardDisconnectCount() {
+        synchronized (lock) {
+            return boardDisconnects;
+        }
+    }
+
+    public boolean isConnected() {
+        synchronized (lock) {
+            return connection != null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return "BoardSimulator{" + name + ", v" + version + ", games=" + games + ", sent=" + framesSent
+                    + ", resent=" + resentFrames + ", corrupted=" + corruptedFrames + ", unsent=" + unsentFrames
+                    + ", unacked=" + (next - first) + ", evicted=" + evicted + ", connections=" + connections
+                    + ", boardDisconnects=" + boardDisconnects + ", commands=" + commands + "}";
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 가짜 보드 여러 대를 InMemoryTransport로 붙여 수집 경로 전체(BoardConnectionManager → RecordIngestPipeline)를
+ * 오래 돌리는 소크 테스트입니다. 버전 2 보드는 비트 오류와 끊김을 섞어 보내고, 구 펌웨어(텍스트) 보드도 하나 섞습니다.
+ * <p>
+ * 기본은 단위 테스트로 몇 초만 돌고, 끝나면 보드가 만든 모든 게임이 정확히 도착했는지
+ * (버전 2는 버퍼에서 밀려난 기록 외에는 빠짐없이, 내용이 바뀐 기록 없이) 확인합니다.
+ * <p>
+ * soak.seconds를 주면 소크 모드로 길게 돌며, 주기마다 처리량, GC 후 힙 사용량, 재전송/CRC로 버린 프레임을 출력하고
+ * 힙이 계속 늘지 않는지도 확인합니다. (시간/메모리 측정은 장비마다 달라 기본 실행에서는 하지 않음)
+ *   ./gradlew :app:testDebugUnitTest --tests '*BoardSoakTest' -Dsoak.seconds=14400 -Dsoak.rate=50
+ * (soak.seconds, soak.boards, soak.rate[게임/초/보드], soak.corruption, soak.report[초])
+ */
+public class BoardSoakTest {
+
+    private static final boolean SOAK = System.getProperty("soak.seconds") != null;
+    private static final long SECONDS = Long.getLong("soak.seconds", 3);
+    private static final int BOARDS = Integer.getInteger("soak.boards", 4);
+    private static final double RATE = Double.parseDouble(System.getProperty("soak.rate", "40"));
+    private static final double CORRUPTION = Double.parseDouble(System.getProperty("soak.corruption", "0.01"));
+    private static final long REPORT_SECONDS = Long.getLong("soak.report", 60);
+
+    private static final long DRAIN_TIMEOUT_MS = 30_000;
+    // GC 후에도 이만큼 넘게 늘면 누수로 봄 (처음 측정은 워밍업 뒤)
+    private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    /** writer 스레드: 받은 기록을 보드별 게임 번호로 검증 */
+    private static final class Ledger {
+        private final Map<String, BitSet> delivered = new HashMap<>();
+        private final Map<String, long[]> counts = new HashMap<>(); // [받은 기록, 중복, 내용 불일치]
+        private long total;
+
+        synchronized void write(List<GameRecord> batch) {
+            for (GameRecord record : batch) {
+                total++;
+                long[] c = counts.computeIfAbsent(record.Device(), d -> new long[3]);
+                c[0]++;
+                long index = BoardSimulator.indexOf(record.Playdate());
+                if (index < 0 || index > Integer.MAX_VALUE
+                        || !BoardSimulator.expectedPlaytime(index).equals(record.Playtime())
+                        || BoardSimulator.expectedSuccess(index) != record.Success()) {
+                    c[2]++; // 비트 오류가 그대로 통과한 기록
+                    continue;
+                }
+                BitSet seen = delivered.computeIfAbsent(record.Device(), d -> new BitSet());
+                if (seen.get((int) index)) c[1]++;
+                else seen.set((int) index);
+            }
+        }
+
+        synchronized long total() {
+            return total;
+        }
+
+        synchronized long unique(String device) {
+            BitSet seen = delivered.get(device);
+            return seen == null ? 0 : seen.cardinality();
+        }
+
+        /** 0..games-1 중 도착하지 않은 게임 수 */
+        synchronized long missing(String device, long games) {
+            BitSet seen = delivered.get(device);
+            long present = seen == null ? 0 : seen.get(0, (int) games).cardinality();
+            return games - present;
+        }
+
+        synchronized long duplicates(String device) {
+            long[] c = counts.get(device);
+            return c == null ? 0 : c[1];
+        }
+
+        synchronized long mismatched(String device) {
+            long[] c = counts.get(device);
+            return c == null ? 0 : c[2];
+        }
+    }
+
+    @Test
+    public void boardsSurviveCorruptionAndDisconnectsWithoutLosingRecords() throws Exception {
+        InMemoryTransport transport = new InMemoryTransport(4096);
+        RoutingConnector connector = new RoutingConnector(null).register("mem", transport);
+        List<BoardSimulator> boards = new ArrayList<>();
+        for (int i = 0; i < BOARDS; i++) {
+            boolean legacy = i == BOARDS - 1 && BOARDS > 1; // 마지막 보드는 텍스트만 보내는 구 펌웨어
+            BoardSimulator board = new BoardSimulator("board-" + i, new BoardSimulator.Profile()
+                    .protocolVersion(legacy ? 0 : WireProtocol.VERSION)
+                    .gamesPerSecond(RATE)
+                    .burstSize(1 + i % 3 * 4) // 1, 5, 9개씩 몰아서
+                    .corruptionRate(CORRUPTION)
+                    .meanConnectedMillis(legacy ? 0 : 1500 + 1000L * i)
+                    .heartbeatMillis(200)
+                    .seed(42 + i));
+            transport.register(board.getName(), board);
+            boards.add(board);
+        }
+
+        Ledger ledger = new Ledger();
+        RecordIngestPipeline pipeline = new RecordIngestPipeline(ledger::write,
+                RecordIngestPipeline.DEFAULT_QUEUE_CAPACITY, RecordIngestPipeline.DEFAULT_MAX_BATCH_SIZE, 20);
+        pipeline.start();
+        BoardConnectionManager manager = new BoardConnectionManager(connector,
+                record -> pipeline.submit(record, 100), (address, state, message) -> { },
+                new ReconnectPolicy(10, 200, Integer.MAX_VALUE, Integer.MAX_VALUE));
+        for (BoardSimulator board : boards) assertTrue(manager.connect("mem://" + board.getName()));
+
+        Runtime runtime = Runtime.getRuntime();
+        long started = System.currentTimeMillis();
+        long end = started + SECONDS * 1000;
+        long reportEvery = Math.min(REPORT_SECONDS * 1000, SECONDS * 1000);
+        long baselineHeap = -1;
+        long maxHeap = 0;
+        long lastTotal = 0;
+        long lastReport = started;
+        while (System.currentTimeMillis() < end) {
+            Thread.sleep(Math.min(reportEvery, Math.max(1, end - System.currentTimeMillis())));
+            if (!SOAK) continue;
+            long now = System.currentTimeMillis();
+            long heap = usedHeapAfterGc(runtime);
+            if (baselineHeap < 0) baselineHeap = heap; // 첫 주기는 워밍업 (클래스 로딩, JIT, 버퍼 할당)
+            maxHeap = Math.max(maxHeap, heap);
+            long total = ledger.total();
+            report(String.format(Locale.US, "t=%ds records=%d (%.0f/s) heap=%.1fMB queue=%d",
+                    (now - started) / 1000, total, (total - lastTotal) * 1000.0 / Math.max(1, now - lastReport),
+                    heap / 1048576.0, pipeline.getMaxQueueDepth()), manager, boards, ledger);
+            lastTotal = total;
+            lastReport = now;
+        }
+
+        // 새 게임을 멈추고 미확인 기록이 모두 ACK될 때까지 기다림
+        for (BoardSimulator board : boards) board.stopGames();
+        long drainDeadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        for (BoardSimulator board : boards) {
+            if (board.getProfile().protocolVersion < WireProtocol.VERSION) continue;
+            long lastUnacked = board.getUnackedCount();
+            long stalledSince = System.currentTimeMillis();
+            while (board.getUnackedCount() > 0 && System.currentTimeMillis() < drainDeadline) {
+                Thread.sleep(20);
+                long unacked = board.getUnackedCount();
+                if (unacked != lastUnacked) {
+                    lastUnacked = unacked;
+                    stalledSince = System.currentTimeMillis();
+                } else if (System.currentTimeMillis() - stalledSince > 1000) {
+                    // 마지막 프레임이 깨지면 뒤따르는 프레임이 없어 앱이 구멍을 모름: 다시 연결하면 SYNC로 복구됨
+                    board.dropConnection();
+                    stalledSince = System.currentTimeMillis();
+                }
+            }
+            assertEquals(board + " not drained", 0, board.getUnackedCount());
+        }
+        Thread.sleep(300); // 텍스트 보드의 마지막 프레임
+        assertTrue(manager.shutdown(5000));
+        pipeline.stop(5000);
+        for (BoardSimulator board : boards) board.close();
+
+        long elapsed = System.currentTimeMillis() - started;
+        if (SOAK) report(String.format(Locale.US, "done in %ds: records=%d (%.0f/s) committed=%d heap growth=%.1fMB",
+                elapsed / 1000, ledger.total(), ledger.total() * 1000.0 / elapsed, pipeline.getCommittedCount(),
+                (maxHeap - baselineHeap) / 1048576.0), manager, boards, ledger);
+
+        assertEquals(0, pipeline.getFailedCount());
+        for (BoardSimulator board : boards) {
+            String device = "mem://" + board.getName();
+            long games = board.getGameCount();
+            long missing = ledger.missing(device, games);
+            assertTrue(board + " sent nothing", games > 0);
+            if (board.getProfile().protocolVersion >= WireProtocol.VERSION) {
+                // CRC가 비트 하나의 오류는 모두 잡고, 잃을 수 있는 기록은 버퍼에서 밀려난 것뿐
+                assertEquals(board + " phantom records", 0, ledger.mismatched(device));
+                assertTrue(board + " missing " + missing, missing <= board.getEvictedCount());
+            } else {
+                // 텍스트 프레임은 확인 없이 한 번만 보냄: 깨진 프레임(줄바꿈이 깨지면 다음 프레임까지)과 끊긴 동안의 게임만 잃음
+                assertTrue(board + " missing " + missing,
+                        missing <= 2 * board.getCorruptedFrames() + board.getUnsentFrames());
+            }
+        }
+        if (SOAK && SECONDS >= 600) { // 짧은 실행에서는 힙 측정 잡음이 더 큼
+            assertTrue("heap grew " + (maxHeap - baselineHeap) + " bytes", maxHeap - baselineHeap < MAX_HEAP_GROWTH_BYTES);
+        }
+    }
+
+    @Test
+    public void gapOlderThanRetransmitBufferIsSkippedAfterSync() throws Exception {
+        InMemoryTransport transport = new InMemoryTransport();
+        BoardSimulator board = new BoardSimulator("gap", new BoardSimulator.Profile()
+                .gamesPerSecond(200).heartbeatMillis(20));
+        transport.register(board.getName(), board);
+        RoutingConnector connector = new RoutingConnector(null).register("mem", transport);
+        // 게임 3은 수집 큐가 계속 받지 않음 → ACK되지 않은 채 버퍼에서 밀려남
+        BoardConnectionManager manager = new BoardConnectionManager(connector,
+                record -> BoardSimulator.indexOf(record.Playdate()) != 3, (address, state, message) -> { },
+                ReconnectPolicy.NONE);
+        assertTrue(manager.connect("mem://gap"));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (board.getGameCount() < 4 + 2 * BoardSimulator.RETRANSMIT_SLOTS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        board.stopGames();
+        // RRQ한 번호가 밀려났으면 보드가 SYNC로 알려 앱이 넘어가고 나머지를 모두 ACK함 (다시 연결하지 않음)
+        while (board.getUnackedCount() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        BoardConnectionManager.BoardStats stats = manager.getStats("mem://gap");
+        long unacked = board.getUnackedCount();
+        assertTrue(manager.shutdown(5000));
+        board.close();
+
+        assertEquals(0, unacked);
+        assertEquals(1, stats.getLostRecordCount());
+        assertEquals(0, stats.getReconnectCount());
+    }
+
+    private static long usedHeapAfterGc(Runtime runtime) {
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String headline, BoardConnectionManager manager, List<BoardSimulator> boards,
+                               Ledger ledger) {
+        StringBuilder sb = new StringBuilder("[soak] ").append(headline);
+        for (BoardSimulator board : boards) {
+            BoardConnectionManager.BoardStats stats = manager.getStats("mem://" + board.getName());
+            sb.append(String.format(Locale.US,
+                    "%n  %s games=%d sent=%d resent=%d corrupted=%d evicted=%d unsent=%d | app records=%d dropped=%d"
+                            + " parseErrors=%d rrq=%d dup=%d lost=%d reconnects=%d | stored=%d duplicates=%d phantoms=%d",
+                    board.getName(), board.getGameCount(), board.getFramesSent(), board.getResentFrames(),
+                    board.getCorruptedFrames(), board.getEvictedCount(), board.getUnsentFrames(),
+                    stats.getRecordCount(), stats.getDroppedFrameCount(), stats.getParseErrorCount(),
+                    stats.getRetransmitRequestCount(), stats.getDuplicateCount(), stats.getLostRecordCount(),
+                    stats.getReconnectCount(), ledger.unique("mem://" + board.getName()),
+                    ledger.duplicates("mem://" + board.getName()), ledger.mismatched("mem://" + board.getName())));
+        }
+        System.out.println(sb);
+    }
+}
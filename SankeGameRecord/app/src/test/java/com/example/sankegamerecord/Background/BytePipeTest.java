@@ -0,0 +1,86 @@
+package com.example.sankegamerecord.Background;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * BytePipe 테스트 (경계를 넘는 쓰기, 가득 찼을 때 대기, 닫힘)
+ */
+public class BytePipeTest {
+
+    @Test
+    public void bytesArriveInOrderAcrossWrapAround() throws Exception {
+        BytePipe pipe = new BytePipe(7); // 프레임보다 작아서 쓰기가 여러 번 기다림
+        byte[] data = new byte[10_000];
+        new Random(3).nextBytes(data);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try (OutputStream out = pipe.getOutputStream()) {
+                Random random = new Random(5);
+                for (int p = 0; p < data.length; ) {
+                    int n = Math.min(data.length - p, 1 + random.nextInt(20));
+                    out.write(data, p, n);
+                    p += n;
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        writer.start();
+
+        byte[] received = new byte[data.length + 1];
+        int total = 0;
+        InputStream in = pipe.getInputStream();
+        for (int n; (n = in.read(received, total, Math.min(13, received.length - total))) >= 0; ) total += n;
+        writer.join(5000);
+
+        assertNull(failure.get());
+        assertEquals(data.length, total);
+        assertArrayEquals(data, Arrays.copyOf(received, total));
+    }
+
+    @Test
+    public void closeLetsReaderDrainAndFailsWriter() throws Exception {
+        BytePipe pipe = new BytePipe(4);
+        pipe.getOutputStream().write(new byte[]{1, 2, 3});
+        pipe.close();
+
+        InputStream in = pipe.getInputStream();
+        assertEquals(3, in.read(new byte[8], 0, 8));
+        assertEquals(-1, in.read());
+        try {
+            pipe.getOutputStream().write(4);
+            fail("write after close");
+        } catch (IOException expected) {
+            // 닫힌 파이프
+        }
+    }
+
+    @Test
+    public void closeWakesBlockedWriter() throws Exception {
+        BytePipe pipe = new BytePipe(2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                pipe.getOutputStream().write(new byte[5]); // 2바이트 뒤 가득 차서 기다림
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        writer.start();
+        while (pipe.getInputStream().available() < 2) Thread.sleep(1);
+        pipe.close();
+        writer.join(5000);
+
+        assertFalse(writer.isAlive());
+        assertTrue(failure.get() instanceof IOException);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.sankegamerecord.Background;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * FrameDecoder 단위 테스트 (호스트 JVM에서 실행)
+ */
+public class FrameDecoderTest {
+
+    private final List<String> frames = new ArrayList<>();
+    private final FrameDecoder.FrameListener collector =
+            (buf, off, len) -> frames.add(new String(buf, off, len, StandardCharsets.UTF_8));
+
+    private void feed(FrameDecoder decoder, String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        decoder.feed(b, 0, b.length, collector);
+    }
+
+    @Test
+    public void splitsTrimmedFrames() {
+        FrameDecoder decoder = new FrameDecoder();
+        feed(decoder, "RPL|2025-11-13 17:00:00|01:30:500|true\r\nHEARTBEAT\r\n  \r\n");
+        assertEquals(List.of("RPL|2025-11-13 17:00:00|01:30:500|true", "HEARTBEAT"), frames);
+        assertEquals(2, decoder.getFrameCount());
+    }
+
+    @Test
+    public void resumesAcrossPartialChunks() {
+        FrameDecoder decoder = new FrameDecoder();
+        String line = "RPL|2025-11-13 17:00:00|01:30:500|true\r\n";
+        for (int i = 0; i < 3; i++) {
+            for (char c : line.toCharArray()) feed(decoder, String.valueOf(c));
+        }
+        assertEquals(3, frames.size());
+        assertEquals("RPL|2025-11-13 17:00:00|01:30:500|true", frames.get(2));
+    }
+
+    @Test
+    public void dropsOversizedFrameAndRecovers() {
+        FrameDecoder decoder = new FrameDecoder(16);
+        feed(decoder, "0123456789abcdefXYZ");   // 구분자 없이 최대 길이 초과
+        feed(decoder, "still garbage\nOK\n");
+        feed(decoder, "0123456789abcdefgh\nNEXT\n"); // 한 청크 안에서 최대 길이 초과
+        assertEquals(List.of("OK", "NEXT"), frames);
+        assertEquals(2, decoder.getDroppedFrameCount());
+    }
+
+    @Test
+    public void detectsBinaryFramesBetweenTextFrames() {
+        RplFrameParser.Result record = new RplFrameParser.Result();
+        record.year = 2025; record.month = 12; record.day = 20;
+        record.hour = 16; record.minute = 28; record.second = 0;
+        record.playtimeMillis = 90_500; record.score = 12; record.success = true;
+        byte[] binary = new byte[WireProtocol.MAX_FRAME_SIZE];
+        int binaryLength = WireProtocol.encodeRecord(record, binary, 0);
+
+        List<byte[]> raw = new ArrayList<>();
+        FrameDecoder decoder = new FrameDecoder();
+        FrameDecoder.FrameListener listener = (buf, off, len) -> {
+            byte[] copy = new byte[len];
+            System.arraycopy(buf, off, copy, 0, len);
+            raw.add(copy);
+        };
+
+        byte[] text = "HEARTBEAT\r\n".getBytes(StandardCharsets.US_ASCII);
+        decoder.feed(text, 0, text.length, listener);
+        for (int i = 0; i < binaryLength; i++) decoder.feed(binary, i, 1, listener); // 1바이트씩 도착
+        byte[] truncated = "RPL|2025-1".getBytes(StandardCharsets.US_ASCII); // 텍스트 전송 중 끊김
+        decoder.feed(truncated, 0, truncated.length, listener);
+        decoder.feed(binary, 0, binaryLength, listener);
+        binary[6] ^= 0x01; // CRC 오류
+        decoder.feed(binary, 0, binaryLength, listener);
+        decoder.feed(text, 0, text.length, listener);
+
+        assertEquals(4, raw.size());
+        assertEquals("HEARTBEAT", new String(raw.get(0), StandardCharsets.US_ASCII));
+        assertEquals(binaryLength, raw.get(1).length);
+        assertEquals(binaryLength, raw.get(2).length);
+        assertEquals("HEARTBEAT", new String(raw.get(3), StandardCharsets.US_ASCII));
+        assertEquals(2, decoder.getDroppedFrameCount());
+    }
+
+    @Test
+    public void resyncsAfterCorruptedLengthByte() {
+        RplFrameParser.Result record = new RplFrameParser.Result();
+        record.year = 2025; record.month = 12; record.day = 20;
+        record.hour = 16; record.minute = 28; record.second = 0;
+        record.playtimeMillis = 90_500; record.score = 12; record.success = true; record.sequence = 7;
+        byte[] stream = new byte[2 * WireProtocol.MAX_FRAME_SIZE];
+        int first = WireProtocol.encodeRecord(record, stream, 0);
+        record.sequence = 8;
+        int second = WireProtocol.encodeRecord(record, stream, first);
+        stream[3] += 5; // 첫 프레임의 길이 바이트가 깨짐 → 선언된 끝이 다음 프레임 안쪽
+
+        List<Integer> lengths = new ArrayList<>();
+        FrameDecoder decoder = new FrameDecoder();
+        decoder.feed(stream, 0, first + second, (buf, off, len) -> {
+            assertEquals(first, off);
+            lengths.add(len);
+        });
+
+        assertEquals(List.of(second), lengths);
+        assertEquals(1, decoder.getDroppedFrameCount());
+    }
+
+    @Test
+    public void readsLongStreamThroughCompaction() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) sb.append("RPL|2025-11-13 17:00:00|00:").append(i % 60).append(":000|true\n");
+        ByteArrayInputStream in = new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        FrameDecoder decoder = new FrameDecoder();
+        while (decoder.readFrom(in, collector) >= 0) { }
+
+        assertEquals(1000, frames.size());
+        assertEquals("RPL|2025-11-13 17:00:00|00:39:000|true", frames.get(999));
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FrameJournalTest {
+
+    private static final String BOARD = "AA:BB:CC:DD:EE:01";
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File file : files) file.delete();
+        dir.delete();
+    }
+
+    private static byte[] frame(int i) {
+        return ("RPL|2025-11-13 17:00:" + String.format("%02d", i % 60) + "|00:" + String.format("%02d", i % 60)
+                + ":500|true").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** 테스트용: 프레임 대신 순번만 담은 기록 (Playtime = 순번) */
+    private static GameRecord record(int i) {
+        return new GameRecord(LocalDateTime.of(2025, 11, 13, 17, 0), Duration.ofMillis(i), true, BOARD);
+    }
+
+    private static List<GameRecord> append(FrameJournal journal, int from, int to) throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            GameRecord record = record(i);
+            byte[] frame = frame(i);
+            journal.append(BOARD, frame, 0, frame.length, record);
+            records.add(record);
+        }
+        return records;
+    }
+
+    /** 다시 연 저널에서 되살아난 프레임 (close() 없이 버린 저널 = 프로세스 강제 종료) */
+    private static List<String> replay(FrameJournal journal) {
+        List<String> frames = new ArrayList<>();
+        journal.replay((device, frame, offset, length) -> {
+            assertEquals(BOARD, device);
+            String text = new String(frame, offset, length, StandardCharsets.UTF_8);
+            frames.add(text);
+            return record(frames.size());
+        });
+        return frames;
+    }
+
+    @Test
+    public void uncommittedFramesSurviveACrash() throws IOException {
+        FrameJournal journal = new FrameJournal(dir);
+        List<GameRecord> records = append(journal, 0, 10);
+        journal.commit(records.subList(0, 6));
+        assertEquals(4, journal.getPendingCount());
+        // close() 없이 다시 엶
+
+        FrameJournal reopened = new FrameJournal(dir);
+        List<String> frames = replay(reopened);
+        assertEquals(4, frames.size());
+        for (int i = 0; i < 4; i++) assertEquals(new String(frame(6 + i), StandardCharsets.UTF_8), frames.get(i));
+        assertEquals(4, reopened.getPendingCount());
+        assertEquals(4, reopened.getReplayedCount());
+    }
+
+    @Test
+    public void replayedRecordsAreCommittedLikeNewOnes() throws IOException {
+        FrameJournal journal = new FrameJournal(dir);
+        append(journal, 0, 3);
+
+        FrameJournal reopened = new FrameJournal(dir);
+        List<GameRecord> replayed = reopened.replay((device, frame, offset, length) -> record(length));
+        assertEquals(3, replayed.size());
+        List<GameRecord> more = append(reopened, 3, 5);
+        reopened.commit(replayed);
+        reopened.commit(more);
+        assertEquals(0, reopened.getUncommittedBytes());
+        reopened.close();
+
+        assertTrue(replay(new FrameJournal(dir)).isEmpty());
+    }
+
+    @Test
+    public void outOfOrderCommitKeepsEarlierFrameForReplay() throws IOException {
+        FrameJournal journal = new FrameJournal(dir);
+        List<GameRecord> records = append(journal, 0, 3);
+        // 다른 보드의 기록이 먼저 커밋되어도 앞선 기록은 다시 읽혀야 함 (at-least-once)
+        journal.commit(Collections.singletonList(records.get(2)));
+        journal.commit(Collections.singletonList(records.get(0)));
+
+        List<String> frames = replay(new FrameJournal(dir));
+        assertEquals(2, frames.size());
+        assertEquals(new String(frame(1), StandardCharsets.UTF_8), frames.get(0));
+    }
+
+    @Test
+    public void rejectedRecordsAreNotReplayed() throws IOException {
+        FrameJournal journal = new FrameJournal(dir);
+        List<GameRecord> records = append(journal, 0, 2);
+        journal.discard(records.get(0));
+        journal.commit(Collections.singletonList(records.get(1)));
+        assertEquals(0, journal.getPendingCount());
+        assertTrue(replay(new FrameJournal(dir)).isEmpty());
+    }
+
+    @Test
+    public void tornLastEntryIsTruncated() throws IOException {
+        FrameJournal journal = new FrameJournal(dir);
+        append(journal, 0, 3);
+        long end = FrameJournal.SEGMENT_HEADER_SIZE + journal.getUncommittedBytes();
+
+        // 마지막 항목의 끝부분을 덮어써 쓰다가 끊긴 것처럼 만듦
+        File segment = dir.listFiles((d, name) -> name.endsWith(".seg"))[0];
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.seek(end - 3);
+            raf.write(new byte[]{0, 0, 0});
+        }
+
+        FrameJournal reopened = new FrameJournal(dir);
+        assertEquals(1, reopened.getTruncatedCount());
+        List<GameRecord> replayed = reopened.replay((device, frame, offset, length) -> record(length));
+        assertEquals(2, replayed.size());
+        // 잘라 낸 자리부터 이어서 씀
+        append(reopened, 3, 4);
+
+        List<String> frames = replay(new FrameJournal(dir));
+        assertEquals(3, frames.size());
+        assertEquals(new String(frame(3), StandardCharsets.UTF_8), frames.get(2));
+    }
+
+    @Test
+    public void segmentsRotateAndCommittedOnesAreDeleted() throws IOException {
+        FrameJournal journal = new FrameJournal(dir, FrameJournal.MIN_SEGMENT_SIZE);
+        // 약 60바이트 항목 × 1000개 = 세그먼트 여러 개
+        for (int i = 0; i < 1000; i += 10) {
+            journal.commit(append(journal, i, i + 10));
+            assertTrue(journal.getSegmentCount() <= 2);
+        }
+        assertEquals(0, journal.getPendingCount());
+        assertTrue(dir.listFiles((d, name) -> name.endsWith(".seg")).length <= 2);
+
+        // 커밋되지 않은 기록이 세그먼트 경계를 넘어 있어도 모두 되살아남
+        List<GameRecord> held = append(journal, 0, 200);
+        journal.commit(held.subList(150, 200));
+        assertTrue(journal.getSegmentCount() >= 3);
+        List<String> frames = replay(new FrameJournal(dir, FrameJournal.MIN_SEGMENT_SIZE));
+        assertEquals(200, frames.size());
+        assertEquals(new String(frame(199), StandardCharsets.UTF_8), frames.get(199));
+    }
+
+    @Test
+    public void commitsAfterFailedBatchStillAdvanceAndCompact() throws IOException {
+        FrameJournal journal = new FrameJournal(dir, FrameJournal.MIN_SEGMENT_SIZE);
+        List<GameRecord> failed = append(journal, 0, 5);
+        assertEquals(5, journal.requeue(failed)); // 롤백된 묶음
+        assertEquals(0, journal.requeue(failed)); // 이미 보류됨
+
+        // 뒤의 묶음이 계속 커밋되면 보류된 기록은 새 세그먼트로 따라오고 지난 세그먼트는 지워짐
+        for (int i = 5; i < 1000; i += 10) {
+            journal.commit(append(journal, i, i + 10));
+            assertTrue(journal.getSegmentCount() <= 2);
+            assertTrue(journal.getUncommittedBytes() < 2 * FrameJournal.MIN_SEGMENT_SIZE);
+        }
+        assertEquals(5, journal.getPendingCount());
+        assertEquals(5, journal.getRequeuedCount());
+
+        // 보류된 기록은 다음 시작 때 되살아남 (그 뒤에 커밋된 기록이 함께 올 수 있음)
+        List<String> frames = replay(new FrameJournal(dir, FrameJournal.MIN_SEGMENT_SIZE));
+        assertTrue(frames.size() >= 5);
+        for (int i = 0; i < 5; i++) assertEquals(new String(frame(i), StandardCharsets.UTF_8), frames.get(i));
+    }
+
+    @Test
+    public void requeuedRecordIsCommittedLikeOthers() throws IOException {
+        FrameJournal journal = new FrameJournal(dir);
+        List<GameRecord> records = append(journal, 0, 3);
+        journal.requeue(records.subList(0, 1));
+        journal.commit(records.subList(1, 3));
+        assertEquals(1, journal.getPendingCount());
+
+        journal.commit(records.subList(0, 1));
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(0, journal.getUncommittedBytes());
+        assertTrue(replay(new FrameJournal(dir)).isEmpty());
+    }
+
+    @Test
+    public void appendBeforeReplayDoesNotSkipReplayedFrames() throws IOException {
+        FrameJournal journal = new FrameJournal(dir);
+        append(journal, 0, 2);
+
+        // 리더가 replay()보다 먼저 append()하고 커밋해도 되살릴 프레임은 남음
+        FrameJournal reopened = new FrameJournal(dir);
+        reopened.commit(append(reopened, 2, 4));
+        List<String> frames = replay(new FrameJournal(dir));
+        assertEquals(4, frames.size()); // 뒤에 커밋된 기록도 다시 오지만 중복 검사가 거름
+        assertEquals(new String(frame(0), StandardCharsets.UTF_8), frames.get(0));
+
+        FrameJournal again = new FrameJournal(dir);
+        again.commit(append(again, 4, 5));
+        List<GameRecord> replayed = again.replay((device, frame, offset, length) -> record(length));
+        assertEquals(4, replayed.size());
+        again.commit(replayed);
+        assertEquals(0, again.getUncommittedBytes());
+    }
+}
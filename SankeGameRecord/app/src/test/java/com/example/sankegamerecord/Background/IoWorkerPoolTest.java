@@ -0,0 +1,50 @@
+package com.example.sankegamerecord.Background;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * IoWorkerPool 스레드 재사용/이름/종료 테스트
+ */
+public class IoWorkerPoolTest {
+
+    @Test
+    public void idleThreadIsReusedAndShutdownWaitsForRunningTask() throws Exception {
+        IoWorkerPool pool = new IoWorkerPool("TestIo");
+        String[] name = new String[1];
+        pool.submit("first", () -> name[0] = Thread.currentThread().getName()).get();
+        assertEquals("TestIo-1:first", name[0]);
+        // 앞 연결이 끝난 뒤의 연결은 쉬고 있던 스레드를 다시 씀
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(10);
+            pool.submit("next", () -> name[0] = Thread.currentThread().getName()).get();
+            assertTrue(name[0], name[0].endsWith(":next"));
+        }
+        assertTrue(pool.getCreatedThreadCount() <= 2);
+        assertEquals(pool.getCreatedThreadCount(), pool.getAliveThreadCount());
+        assertEquals(0, pool.getBusyThreadCount());
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pool.submit("blocked", () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+                // 종료
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertFalse(pool.shutdown(50)); // 작업이 끝나지 않았으므로 시간 초과
+        assertEquals(1, pool.getBusyThreadCount());
+
+        release.countDown();
+        assertTrue(pool.shutdown(5000));
+        assertEquals(0, pool.getAliveThreadCount());
+        assertEquals(12, pool.getCompletedTaskCount());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.sankegamerecord.Background;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * LatencyHistogram 버킷/분위수/동시 기록 테스트
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void everyValueFallsInsideItsBucket() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            long micros = random.nextInt(4) == 0 ? random.nextInt(64) : (long) Math.pow(10, random.nextDouble() * 11);
+            int bucket = LatencyHistogram.bucketOf(micros);
+            assertTrue(micros + " > upper of " + bucket, micros <= LatencyHistogram.bucketUpperMicros(bucket));
+            if (bucket > 0) {
+                assertTrue(micros + " <= upper of " + (bucket - 1),
+                        micros > LatencyHistogram.bucketUpperMicros(bucket - 1));
+            }
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE / 1000));
+    }
+
+    @Test
+    public void quantilesAreWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int i = 1; i <= 1000; i++) histogram.recordNanos(i * 1_000_000L); // 1ms ~ 1000ms
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMaxMicros());
+        assertEquals(500_500, snapshot.getMeanMicros(), 1.0);
+        assertWithin(500_000, snapshot.getValueAtQuantile(0.5));
+        assertWithin(990_000, snapshot.getValueAtQuantile(0.99));
+        assertEquals(1_000_000, snapshot.getValueAtQuantile(1.0)); // 최대값을 넘지 않음
+
+        StringBuilder buckets = new StringBuilder();
+        snapshot.appendBuckets(buckets);
+        long total = 0;
+        for (String line : buckets.toString().split("\n")) total += Long.parseLong(line.split(" ")[1]);
+        assertEquals(1000, total);
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getValueAtQuantile(0.99));
+    }
+
+    @Test
+    public void concurrentRecordingLosesNothing() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final long value = (t + 1) * 1000L;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) histogram.recordNanos(value * 1000);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(200_000, histogram.snapshot().getCount());
+        assertEquals(4000, histogram.snapshot().getMaxMicros());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " vs " + actual, Math.abs(actual - expected) <= expected / 8);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * RplFrameParser 도입 이전의 ProtocolInterpreter.makeRecord 구현 (퍼즈/벤치마크 비교 기준)
+ * minSdk 26 기준 동작(Build.VERSION.SDK_INT >= O)을 그대로 옮겼습니다.
+ */
+final class LegacyProtocolInterpreter {
+
+    private static Duration parseDuration(String timeString) {
+        String[] parts = timeString.split(":");
+        if (parts.length != 3) {
+            throw new DateTimeParseException("Duration 형식이 'mm:ss:SSS'가 아닙니다.", timeString, 0);
+        }
+        try {
+            long minutes = Long.parseLong(parts[0]);
+            long seconds = Long.parseLong(parts[1]);
+            long millis = Long.parseLong(parts[2]);
+            return Duration.ofMinutes(minutes).plusSeconds(seconds).plusMillis(millis);
+        } catch (NumberFormatException e) {
+            throw new DateTimeParseException("Duration 구성 요소가 유효한 숫자가 아닙니다.", timeString, 0, e);
+        }
+    }
+
+    GameRecord makeRecord(String Frame) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        try {
+            String[] data = Frame.split("\\|");
+            if (data.length == 4 && data[0].equals("RPL")) {
+                LocalDateTime dateTime = LocalDateTime.parse(data[1], formatter);
+                Duration duration = parseDuration(data[2]);
+                Boolean success = Boolean.parseBoolean(data[3]);
+                return new GameRecord(dateTime, duration, success);
+            }
+        } catch (DateTimeParseException e) {
+            return null;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+        return null;
+    }
+}
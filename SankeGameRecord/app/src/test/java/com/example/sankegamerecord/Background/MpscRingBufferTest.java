@@ -0,0 +1,75 @@
+package com.example.sankegamerecord.Background;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * MpscRingBuffer 순서/용량/다중 생산자 테스트
+ */
+public class MpscRingBufferTest {
+
+    @Test
+    public void fifoAndFullRejection() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(3);
+        assertEquals(4, ring.capacity()); // 2의 거듭제곱으로 올림
+        assertTrue(ring.isEmpty());
+        for (int i = 0; i < 4; i++) assertTrue(ring.offer(i));
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+
+        assertEquals(Integer.valueOf(0), ring.poll());
+        assertTrue(ring.offer(4)); // 한 칸 비면 다시 들어감
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, ring.drainTo(drained, 3));
+        assertEquals(List.of(1, 2, 3), drained);
+        assertEquals(Integer.valueOf(4), ring.poll());
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void concurrentProducersLoseAndDuplicateNothing() throws Exception {
+        final int producers = 4;
+        final int perProducer = 200_000;
+        MpscRingBuffer<Long> ring = new MpscRingBuffer<>(64); // 작게 잡아 가득 참/랩어라운드를 자주 겪게 함
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final long base = (long) p << 32;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base | i)) Thread.yield(); // 코어가 하나여도 소비자가 진행하도록 양보
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        int[] next = new int[producers]; // 생산자별로 다음에 와야 할 번호 (생산자 안에서는 순서 유지)
+        long received = 0;
+        while (received < (long) producers * perProducer) {
+            Long value = ring.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) (value >>> 32);
+            assertEquals(next[producer], (int) (long) value);
+            next[producer]++;
+            received++;
+        }
+        for (Thread thread : threads) thread.join();
+        assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * PipelineMetrics 단계별 추적 테스트
+ */
+public class PipelineMetricsTest {
+
+    private static GameRecord record(int second, String device) {
+        return new GameRecord(LocalDateTime.of(2025, 11, 13, 17, 0, second), Duration.ofSeconds(30), true, device);
+    }
+
+    @Test
+    public void tracesRecordFromFrameToFirstBind() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        GameRecord a = record(1, "AA");
+        GameRecord b = record(1, "BB"); // 같은 playdate, 다른 보드
+        long frame = System.nanoTime();
+        metrics.frameParsed(a, frame);
+        metrics.frameParsed(b, frame);
+        Thread.sleep(5);
+        metrics.batchCommitted(List.of(a, b, a), System.nanoTime() - 1_000_000); // 같은 묶음의 중복은 한 번만
+        metrics.rowBound(a);
+        metrics.rowBound(a); // 스크롤로 다시 그려진 것은 세지 않음
+        metrics.rowBound(record(2, "AA")); // 추적하지 않은 기록
+
+        List<LatencyHistogram.Snapshot> snapshots = metrics.snapshots();
+        assertEquals(List.of("parse", "read->commit", "commit(batch)", "commit->bind", "read->bind"),
+                snapshots.stream().map(LatencyHistogram.Snapshot::getName).toList());
+        assertEquals(2, snapshots.get(0).getCount());
+        assertEquals(2, snapshots.get(1).getCount());
+        assertTrue(snapshots.get(1).getValueAtQuantile(0.5) >= 5000);
+        assertEquals(1, snapshots.get(2).getCount());
+        assertEquals(1, snapshots.get(3).getCount());
+        assertEquals(1, snapshots.get(4).getCount());
+        assertTrue(snapshots.get(4).getMaxMicros() >= snapshots.get(3).getMaxMicros());
+
+        StringWriter dump = new StringWriter();
+        metrics.dumpTo(dump);
+        assertTrue(dump.toString().contains("# stage read->bind\n"));
+
+        metrics.reset();
+        metrics.rowBound(b); // 초기화로 진행 중인 항목도 지워짐
+        assertEquals(0, metrics.snapshots().get(4).getCount());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.sankegamerecord.Background;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * ReconnectPolicy 백오프/지터/재시도 한도 테스트
+ */
+public class ReconnectPolicyTest {
+
+    @Test
+    public void delayDoublesWithinJitterBoundsUpToMax() {
+        ReconnectPolicy policy = new ReconnectPolicy(500, 30_000, 2, Integer.MAX_VALUE);
+        Random random = new Random(42);
+        long[] caps = {500, 1000, 2000, 4000, 8000, 16_000, 30_000, 30_000};
+        for (int failures = 1; failures <= caps.length; failures++) {
+            long cap = caps[failures - 1];
+            for (int i = 0; i < 200; i++) {
+                long delay = policy.delayMillis(failures, true, random);
+                assertTrue(failures + ": " + delay, delay >= cap / 2 && delay <= cap);
+            }
+        }
+        // 아주 많이 실패해도 오버플로 없이 상한 유지
+        long delay = policy.delayMillis(10_000, true, random);
+        assertTrue(delay >= 15_000 && delay <= 30_000);
+    }
+
+    @Test
+    public void jitterSpreadsSimultaneousReconnects() {
+        ReconnectPolicy policy = ReconnectPolicy.DEFAULT;
+        Random random = new Random(7);
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.delayMillis(5, true, random);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        assertTrue("expected spread, got " + min + ".." + max, max - min > 2000);
+    }
+
+    @Test
+    public void givesUpAfterRetryLimits() {
+        ReconnectPolicy policy = new ReconnectPolicy(100, 1000, 2, 5);
+        Random random = new Random(1);
+        assertTrue(policy.delayMillis(2, false, random) >= 0);
+        assertEquals(-1, policy.delayMillis(3, false, random)); // 한 번도 연결되지 않은 보드
+        assertTrue(policy.delayMillis(5, true, random) >= 0);
+        assertEquals(-1, policy.delayMillis(6, true, random));
+        assertEquals(-1, ReconnectPolicy.NONE.delayMillis(1, true, random));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * RecordIngestPipeline 묶음 처리/back-pressure 테스트
+ */
+public class RecordIngestPipelineTest {
+
+    private static GameRecord record(int i) {
+        return new GameRecord(LocalDateTime.of(2025, 1, 1, 0, 0).plusSeconds(i), Duration.ofMillis(i), true);
+    }
+
+    @Test
+    public void burstIsCommittedInBatches() {
+        List<Integer> batchSizes = new ArrayList<>();
+        RecordIngestPipeline pipeline = new RecordIngestPipeline(
+                batch -> batchSizes.add(batch.size()), 256, 16, 50);
+        pipeline.start();
+        for (int i = 0; i < 100; i++) assertTrue(pipeline.submit(record(i), 0));
+        pipeline.stop(5000);
+
+        assertEquals(100, pipeline.getCommittedCount());
+        assertEquals(batchSizes.size(), pipeline.getBatchCount());
+        assertTrue("expected batching, got " + batchSizes, batchSizes.size() <= 100 / 16 + 2);
+        for (int size : batchSizes) assertTrue(size <= 16);
+    }
+
+    @Test
+    public void concurrentBoardsDeliverEveryRecordOnce() throws Exception {
+        int boards = 4;
+        int perBoard = 20_000;
+        boolean[] seen = new boolean[boards * perBoard];
+        int[] duplicates = {0};
+        RecordIngestPipeline pipeline = new RecordIngestPipeline(batch -> {
+            for (GameRecord record : batch) {
+                int i = (int) record.Playtime().toMillis();
+                if (seen[i]) duplicates[0]++;
+                seen[i] = true;
+            }
+        }, 1024, 64, 0);
+        pipeline.start();
+        List<Thread> readers = new ArrayList<>();
+        for (int b = 0; b < boards; b++) {
+            int first = b * perBoard;
+            Thread reader = new Thread(() -> {
+                for (int i = first; i < first + perBoard; i++) assertTrue(pipeline.submit(record(i), 5000));
+            }, "BoardReader-" + b);
+            reader.start();
+            readers.add(reader);
+        }
+        for (Thread reader : readers) reader.join();
+        pipeline.stop(5000);
+
+        assertEquals(boards * perBoard, pipeline.getCommittedCount());
+        assertEquals(0, duplicates[0]);
+        for (int i = 0; i < seen.length; i++) assertTrue("missing " + i, seen[i]);
+    }
+
+    @Test
+    public void fullQueueRejectsAfterTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordIngestPipeline pipeline = new RecordIngestPipeline(
+                batch -> release.await(5, TimeUnit.SECONDS), 2, 1, 0);
+        pipeline.start();
+
+        assertTrue(pipeline.submit(record(0), 100)); // writer가 가져가서 막힘
+        Thread.sleep(50);
+        assertTrue(pipeline.submit(record(1), 100));
+        assertTrue(pipeline.submit(record(2), 100));
+        assertFalse(pipeline.submit(record(3), 20)); // 큐 가득 참
+        assertEquals(1, pipeline.getRejectedCount());
+
+        assertFalse(pipeline.stop(50)); // writer가 아직 묶음을 쓰는 중
+        release.countDown();
+        assertTrue(pipeline.stop(5000));
+        assertEquals(3, pipeline.getCommittedCount());
+        assertFalse(pipeline.submit(record(4), 0)); // 중지 후 거부
+    }
+
+    @Test
+    public void failedBatchIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<GameRecord> saved = new ArrayList<>();
+        RecordIngestPipeline pipeline = new RecordIngestPipeline(batch -> {
+            if (attempts.incrementAndGet() == 1) throw new IllegalStateException("disk busy");
+            saved.addAll(batch);
+        }, 16, 16, 0);
+        pipeline.start();
+        assertTrue(pipeline.submit(record(0), 0));
+        pipeline.stop(5000);
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, saved.size());
+        assertEquals(1, pipeline.getCommittedCount());
+        assertEquals(0, pipeline.getFailedCount());
+        assertEquals(1, pipeline.getRetryCount());
+    }
+
+    @Test
+    public void batchFailingEveryAttemptGoesToFailureListener() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<GameRecord> failedRecords = new ArrayList<>();
+        Exception[] failure = new Exception[1];
+        RecordIngestPipeline pipeline = new RecordIngestPipeline(batch -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("disk full");
+        }, (batch, cause) -> {
+            failedRecords.addAll(batch);
+            failure[0] = cause;
+        }, 16, 16, 0);
+        pipeline.start();
+        assertTrue(pipeline.submit(record(0), 0));
+        pipeline.stop(5000);
+
+        assertEquals(RecordIngestPipeline.MAX_WRITE_ATTEMPTS, attempts.get());
+        assertEquals(1, failedRecords.size());
+        assertEquals("disk full", failure[0].getMessage());
+        assertEquals(1, pipeline.getFailedCount());
+        assertEquals(0, pipeline.getCommittedCount());
+    }
+
+    @Test
+    public void acceptedRecordsAreWrittenEvenIfStopRaces() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            AtomicInteger written = new AtomicInteger();
+            RecordIngestPipeline pipeline = new RecordIngestPipeline(
+                    batch -> written.addAndGet(batch.size()), 1024, 64, 0);
+            pipeline.start();
+            AtomicInteger accepted = new AtomicInteger();
+            List<Thread> readers = new ArrayList<>();
+            for (int b = 0; b < 4; b++) {
+                Thread reader = new Thread(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (pipeline.submit(record(i), 100)) accepted.incrementAndGet();
+                    }
+                }, "BoardReader-" + b);
+                reader.start();
+                readers.add(reader);
+            }
+            pipeline.stop(5000); // 리더가 넣는 도중에 멈춤
+            for (Thread reader : readers) reader.join();
+
+            // true를 받은 기록은 모두 저장되고, 멈춘 뒤 들어온 기록은 거부됨
+            assertEquals(accepted.get(), written.get());
+            assertEquals(4000, accepted.get() + pipeline.getRejectedCount());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * 전송 방식별(메모리, TCP) 연결을 RoutingConnector로 골라 가짜 보드의 기록을 받는 테스트
+ */
+public class RoutingConnectorTest {
+
+    private static BoardSimulator.Profile steadyBoard() {
+        return new BoardSimulator.Profile().gamesPerSecond(200).heartbeatMillis(50);
+    }
+
+    /** address로 연결해 서로 다른 게임 count개를 받을 때까지 기다림 */
+    private static List<GameRecord> collect(BoardConnectionManager.Connector connector, String address,
+                                            BoardSimulator board, int count) throws InterruptedException {
+        List<GameRecord> received = new CopyOnWriteArrayList<>();
+        BoardConnectionManager manager = new BoardConnectionManager(connector, received::add,
+                (a, state, message) -> { }, ReconnectPolicy.NONE);
+        assertTrue(manager.connect(address));
+        long deadline = System.currentTimeMillis() + 10_000;
+        // 재전송으로 같은 게임이 두 번 올 수 있으므로 서로 다른 게임 수로 셈
+        while (received.stream().map(GameRecord::Playdate).distinct().count() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        board.stopGames();
+        assertTrue(manager.shutdown(5000));
+        board.close();
+        return received;
+    }
+
+    /**
+     * 보드는 연결 전부터 게임을 하고, 연결 직후에는 새 게임과 재전송이 섞여 오므로(펌웨어와 같음)
+     * 받은 게임 번호가 가장 작은 번호부터 count개 빠짐없이 있고 내용이 맞는지 확인
+     */
+    private static void assertGamesContiguous(List<GameRecord> received, String device, int count) {
+        TreeSet<Long> indexes = new TreeSet<>();
+        for (GameRecord record : received) {
+            long index = BoardSimulator.indexOf(record.Playdate());
+            assertTrue(index >= 0);
+            assertEquals(device, record.Device());
+            assertEquals(BoardSimulator.expectedPlaytime(index), record.Playtime());
+            assertEquals(BoardSimulator.expectedSuccess(index), record.Success());
+            indexes.add(index);
+        }
+        assertTrue("received " + indexes, indexes.size() >= count);
+        long first = indexes.first();
+        assertEquals(indexes.subSet(first, first + count).size(), count);
+    }
+
+    @Test
+    public void memorySchemeReachesRegisteredBoard() throws Exception {
+        InMemoryTransport transport = new InMemoryTransport();
+        BoardSimulator board = new BoardSimulator("sim", steadyBoard());
+        transport.register("sim", board);
+        RoutingConnector connector = new RoutingConnector(null).register("mem", transport);
+
+        assertGamesContiguous(collect(connector, "mem://sim", board, 50), "mem://sim", 50);
+    }
+
+    @Test
+    public void tcpSchemeReachesBoardOnLoopback() throws Exception {
+        BoardSimulator board = new BoardSimulator("tcp", steadyBoard());
+        try (ServerSocket server = board.serveTcp(0)) {
+            RoutingConnector connector = new RoutingConnector(null).register("tcp", new TcpConnector(2000));
+            String address = "tcp://127.0.0.1:" + server.getLocalPort();
+
+            assertGamesContiguous(collect(connector, address, board, 50), address, 50);
+        }
+    }
+
+    @Test
+    public void addressWithoutSchemeUsesDefaultConnector() throws Exception {
+        InMemoryTransport bluetooth = new InMemoryTransport(); // 기본 전송 대신
+        BoardSimulator board = new BoardSimulator("00:11:22:33:44:55", steadyBoard().protocolVersion(0));
+        bluetooth.register("00:11:22:33:44:55", board);
+        RoutingConnector connector = new RoutingConnector(bluetooth).register("tcp", new TcpConnector());
+
+        assertGamesContiguous(collect(connector, "00:11:22:33:44:55", board, 20), "00:11:22:33:44:55", 20);
+    }
+
+    @Test
+    public void unknownSchemeAndMissingBoardFailToConnect() {
+        InMemoryTransport transport = new InMemoryTransport();
+        RoutingConnector connector = new RoutingConnector(null).register("mem", transport);
+        for (String address : new String[]{"usb://x", "mem://nobody", "00:11:22:33:44:55"}) {
+            try {
+                connector.connect(address).close();
+                fail(address);
+            } catch (IOException expected) {
+                // 연결 실패
+            }
+        }
+    }
+}
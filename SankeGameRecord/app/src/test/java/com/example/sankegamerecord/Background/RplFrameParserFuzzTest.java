@@ -0,0 +1,128 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 시드 코퍼스(rpl_fuzz_corpus.txt)와 그 변형 입력으로 RplFrameParser를 기존 구현과 비교합니다.
+ * 새 파서는 더 엄격할 수는 있지만, 받아들인 프레임은 기존 구현과 같은 GameRecord를 만들어야 합니다.
+ */
+public class RplFrameParserFuzzTest {
+
+    private static final int MUTATIONS_PER_SEED = 2000;
+
+    private final LegacyProtocolInterpreter legacy = new LegacyProtocolInterpreter();
+    private final ProtocolInterpreter interpreter = new ProtocolInterpreter();
+
+    @Test
+    public void acceptsWellFormedFrames() {
+        assertNotNull(interpreter.makeRecord("RPL|2025-11-13 17:00:00|01:30:500|true"));
+        assertEquals(90_500L, interpreter.makeRecord("RPL|2025-11-13 17:00:00|01:30:500|true").Playtime().toMillis());
+        assertEquals(Boolean.FALSE, interpreter.makeRecord("RPL|2024-02-29 23:59:59|00:00:000|False").Success());
+        assertNull(interpreter.makeRecord("RPL|2023-02-29 17:00:00|01:30:500|true"));
+        assertEquals(RplFrameParser.Status.BAD_DATE, interpreter.getLastStatus());
+        assertNull(interpreter.makeRecord("HEARTBEAT"));
+        assertEquals(RplFrameParser.Status.NOT_RPL, interpreter.getLastStatus());
+    }
+
+    @Test
+    public void corpusAgreesWithLegacy() throws Exception {
+        List<String> corpus = loadCorpus();
+        assertTrue(corpus.size() > 10);
+        for (String frame : corpus) {
+            check(frame);
+        }
+    }
+
+    @Test
+    public void mutatedCorpusAgreesWithLegacy() throws Exception {
+        Random random = new Random(0x5EED);
+        for (String seed : loadCorpus()) {
+            for (int i = 0; i < MUTATIONS_PER_SEED; i++) {
+                check(mutate(seed, random));
+            }
+        }
+    }
+
+    @Test
+    public void acceptsLegacyFirmwareFrames() {
+        GameRecord record = interpreter.makeRecord("RPL|2025-12-20 16:28:00|42|12");
+        assertNotNull(record);
+        assertEquals(42_000L, record.Playtime().toMillis());
+        assertEquals(Boolean.TRUE, record.Success());
+        assertEquals(Boolean.FALSE, interpreter.makeRecord("RPL|2025-12-20 16:28:00|42|3").Success());
+        assertNull(interpreter.makeRecord("RPL|2025-12-20 16:28:00|42|3x"));
+        assertEquals(RplFrameParser.Status.BAD_SUCCESS, interpreter.getLastStatus());
+    }
+
+    private void check(String frame) {
+        byte[] bytes = frame.getBytes(StandardCharsets.UTF_8);
+        RplFrameParser.Result result = new RplFrameParser.Result();
+        if (RplFrameParser.parse(bytes, 0, bytes.length, result) == RplFrameParser.Status.OK && result.score >= 0) {
+            return; // 구 펌웨어 "초|점수" 형식은 기존 구현이 받아들이지 않던 형식이므로 비교하지 않음
+        }
+        GameRecord fast = interpreter.makeRecord(frame);
+        GameRecord reference;
+        try {
+            reference = legacy.makeRecord(frame);
+        } catch (RuntimeException e) {
+            reference = null; // 기존 구현은 일부 입력에서 처리되지 않은 예외를 던졌습니다.
+        }
+        if (fast != null) {
+            assertEquals("frame: " + frame, reference, fast);
+        }
+    }
+
+    private static String mutate(String seed, Random random) {
+        StringBuilder sb = new StringBuilder(seed);
+        int edits = 1 + random.nextInt(3);
+        for (int e = 0; e < edits; e++) {
+            int pos = sb.length() == 0 ? 0 : random.nextInt(sb.length());
+            switch (random.nextInt(6)) {
+                case 0: // 임의 문자로 교체
+                    if (sb.length() > 0) sb.setCharAt(pos, (char) (0x20 + random.nextInt(0x5F)));
+                    break;
+                case 1: // 숫자로 교체
+                    if (sb.length() > 0) sb.setCharAt(pos, (char) ('0' + random.nextInt(10)));
+                    break;
+                case 2: // 문자 삭제
+                    if (sb.length() > 0) sb.deleteCharAt(pos);
+                    break;
+                case 3: // 구분자 삽입
+                    sb.insert(pos, "|:- ".charAt(random.nextInt(4)));
+                    break;
+                case 4: // 잘라내기
+                    sb.setLength(pos);
+                    break;
+                default: // 구간 복제
+                    int to = Math.min(sb.length(), pos + 1 + random.nextInt(5));
+                    sb.insert(pos, sb.substring(pos, to));
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<String> loadCorpus() throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = RplFrameParserFuzzTest.class.getClassLoader().getResourceAsStream("rpl_fuzz_corpus.txt");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("#")) lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
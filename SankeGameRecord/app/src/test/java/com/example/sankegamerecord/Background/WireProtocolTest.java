@@ -0,0 +1,97 @@
+package com.example.sankegamerecord.Background;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.*;
+
+/**
+ * WireProtocol 바이너리 프레임 인코딩/디코딩 테스트
+ */
+public class WireProtocolTest {
+
+    @Test
+    public void crcMatchesCcittFalseCheckValue() {
+        byte[] check = "123456789".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0x29B1, WireProtocol.crc16(check, 0, check.length));
+    }
+
+    @Test
+    public void recordRoundTrip() {
+        RplFrameParser.Result in = new RplFrameParser.Result();
+        in.year = 2025; in.month = 12; in.day = 20;
+        in.hour = 16; in.minute = 28; in.second = 5;
+        in.playtimeMillis = 123_456; in.score = 7; in.success = false;
+
+        byte[] frame = new byte[WireProtocol.MAX_FRAME_SIZE];
+        int length = WireProtocol.encodeRecord(in, frame, 0);
+        assertEquals(WireProtocol.HEADER_SIZE + WireProtocol.RECORD_PAYLOAD_SIZE + WireProtocol.CRC_SIZE, length);
+
+        GameRecord record = new ProtocolInterpreter().makeRecord(frame, 0, length);
+        assertNotNull(record);
+        assertEquals(LocalDateTime.of(2025, 12, 20, 16, 28, 5), record.Playdate());
+        assertEquals(123_456L, record.Playtime().toMillis());
+        assertEquals(Boolean.FALSE, record.Success());
+    }
+
+    @Test
+    public void rejectsCorruptedOrUnknownFrames() {
+        RplFrameParser.Result in = new RplFrameParser.Result();
+        in.year = 2025; in.month = 1; in.day = 1;
+        byte[] frame = new byte[WireProtocol.MAX_FRAME_SIZE];
+        int length = WireProtocol.encodeRecord(in, frame, 0);
+        RplFrameParser.Result out = new RplFrameParser.Result();
+
+        frame[length - 1] ^= 0x55;
+        assertEquals(RplFrameParser.Status.BAD_CRC, WireProtocol.decodeRecord(frame, 0, length, out));
+        frame[length - 1] ^= 0x55;
+
+        frame[1] = 3; // 알 수 없는 버전 (CRC 재계산)
+        int crc = WireProtocol.crc16(frame, 1, length - 3);
+        frame[length - 2] = (byte) crc;
+        frame[length - 1] = (byte) (crc >>> 8);
+        assertEquals(RplFrameParser.Status.UNSUPPORTED_VERSION, WireProtocol.decodeRecord(frame, 0, length, out));
+
+        assertEquals(RplFrameParser.Status.BAD_LENGTH, WireProtocol.decodeRecord(frame, 0, length - 1, out));
+    }
+
+    @Test
+    public void sequenceRoundTripAndVersion1StillDecodes() {
+        RplFrameParser.Result in = new RplFrameParser.Result();
+        in.year = 2025; in.month = 12; in.day = 20;
+        in.sequence = 0xFFFF_FFFEL;
+        byte[] frame = new byte[WireProtocol.MAX_FRAME_SIZE];
+        int length = WireProtocol.encodeRecord(in, frame, 0);
+        assertEquals(WireProtocol.VERSION, frame[1]);
+
+        RplFrameParser.Result out = new RplFrameParser.Result();
+        assertEquals(RplFrameParser.Status.OK, WireProtocol.decodeRecord(frame, 0, length, out));
+        assertEquals(0xFFFF_FFFEL, out.sequence);
+
+        in.sequence = -1; // 버전 1 (일련번호 없음)
+        length = WireProtocol.encodeRecord(in, frame, 0);
+        assertEquals(WireProtocol.VERSION_NO_SEQUENCE, frame[1]);
+        assertEquals(RplFrameParser.Status.OK, WireProtocol.decodeRecord(frame, 0, length, out));
+        assertEquals(-1, out.sequence);
+    }
+
+    @Test
+    public void encodesCommandsAndParsesSync() {
+        byte[] dst = new byte[WireProtocol.MAX_COMMAND_SIZE];
+        int n = WireProtocol.encodeCommand(WireProtocol.ACK_PREFIX, 0, dst, 0);
+        assertEquals("ACK|0\r\n", new String(dst, 0, n, StandardCharsets.US_ASCII));
+        n = WireProtocol.encodeCommand(WireProtocol.RRQ_PREFIX, WireProtocol.MAX_SEQUENCE, dst, 0);
+        assertEquals("RRQ|4294967295\r\n", new String(dst, 0, n, StandardCharsets.US_ASCII));
+
+        byte[] sync = "SYNC|1234".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(1234, WireProtocol.parseSync(sync, 0, sync.length));
+        for (String bad : new String[]{"SYNC|", "SYNC|12a", "SYNC|99999999999", "HEARTBEAT"}) {
+            byte[] b = bad.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(bad, -1, WireProtocol.parseSync(b, 0, b.length));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * DataChangeNotifier 단위 테스트 (호스트 JVM에서 실행)
+ */
+public class DataChangeNotifierTest {
+
+    /** 작업을 모아 두었다가 runAll()로 실행하는 Executor (메인 스레드 흉내) */
+    private static class QueuedExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.poll().run();
+        }
+    }
+
+    private final DataChangeNotifier notifier = new DataChangeNotifier();
+    private final QueuedExecutor main = new QueuedExecutor();
+    private final List<DataChangeNotifier.TableChange> received = new ArrayList<>();
+
+    @Test
+    public void publishesOnCommitOnly() {
+        notifier.addListener("RECORD", received::add, main);
+
+        notifier.beginTransaction();
+        notifier.rowChanged("RECORD", 1);
+        notifier.rowChanged("RECORD", 2);
+        assertTrue(main.tasks.isEmpty()); // 커밋 전에는 알리지 않음
+        notifier.endTransaction(true);
+        main.runAll();
+
+        assertEquals(1, received.size());
+        assertArrayEquals(new long[]{1, 2}, received.get(0).getIds());
+        assertEquals(1, notifier.getGeneration("RECORD")); // 커밋당 한 세대
+
+        notifier.beginTransaction();
+        notifier.rowChanged("RECORD", 3);
+        notifier.endTransaction(false); // 롤백
+        main.runAll();
+        assertEquals(1, received.size());
+        assertEquals(1, notifier.getGeneration("RECORD"));
+    }
+
+    @Test
+    public void tableLevelChangeBumpsGenerationWithoutIds() {
+        notifier.addListener("RANK", received::add, main);
+        notifier.beginTransaction();
+        notifier.tableChanged("RANK");
+        notifier.endTransaction(true);
+        main.runAll();
+
+        assertEquals(1, received.size());
+        assertEquals(0, received.get(0).getIds().length);
+        assertEquals(1, notifier.getGeneration("RANK"));
+    }
+
+    @Test
+    public void failedNestedTransactionDiscardsOuter() {
+        notifier.addListener("RANK", received::add, main);
+        notifier.beginTransaction();
+        notifier.rowChanged("RANK", 7);
+        notifier.beginTransaction();
+        notifier.endTransaction(false);
+        notifier.endTransaction(true);
+        main.runAll();
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void coalescesBurstIntoOneDelivery() {
+        notifier.addListener("RECORD", received::add, main);
+        for (int batch = 0; batch < 20; batch++) {
+            notifier.beginTransaction();
+            for (int i = 0; i < 64; i++) notifier.rowChanged("RECORD", batch * 64 + i + 1);
+            notifier.endTransaction(true);
+        }
+        notifier.rowsRemoved("RECORD", 5); // 트랜잭션 밖 → 바로 알림
+
+        assertEquals(1, main.tasks.size()); // 전달은 한 번만 예약됨
+        main.runAll();
+        assertEquals(1, received.size());
+        DataChangeNotifier.TableChange change = received.get(0);
+        assertEquals(0, change.getFromGeneration());
+        assertEquals(21, change.getToGeneration());
+        assertEquals(21, change.getCommitCount());
+        assertEquals(DataChangeNotifier.MAX_IDS_PER_CHANGE, change.getIds().length);
+        assertTrue(change.isIdsOverflowed());
+        assertEquals(5, change.getRemovedRows());
+
+        notifier.rowChanged("RECORD", 9999);
+        main.runAll();
+        assertEquals(2, received.size());
+        assertArrayEquals(new long[]{9999}, received.get(1).getIds());
+        assertFalse(received.get(1).isIdsOverflowed());
+    }
+
+    @Test
+    public void filtersByTableAndStopsAfterRemove() {
+        Object token = notifier.addListener("RANK", received::add, main);
+        notifier.rowChanged("RECORD", 1);
+        assertTrue(main.tasks.isEmpty());
+
+        notifier.rowChanged("RANK", 1);
+        notifier.removeListener(token); // 전달 전에 해제
+        main.runAll();
+        assertTrue(received.isEmpty());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HistoryCodecTest {
+
+    private static final String[] DEVICES = {"", "AA:BB:CC:DD:EE:01", "tcp://10.0.2.2:7000", "보드,\"2\""};
+
+    private static long epochMillis(LocalDateTime t) {
+        return t.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /** 몇 바이트씩만 읽어 주는 채널 (버퍼 경계 처리 확인) */
+    private static ReadableByteChannel trickle(byte[] bytes, long seed) {
+        Random random = new Random(seed);
+        ByteBuffer source = ByteBuffer.wrap(bytes);
+        return new ReadableByteChannel() {
+            private boolean open = true;
+
+            @Override
+            public int read(ByteBuffer dst) {
+                if (!source.hasRemaining()) return -1;
+                int n = Math.min(Math.min(dst.remaining(), source.remaining()), 1 + random.nextInt(4096));
+                for (int i = 0; i < n; i++) dst.put(source.get());
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+            }
+        };
+    }
+
+    private static byte[] write(HistoryFormat format, long[][] rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (HistoryWriter writer = new HistoryWriter(Channels.newChannel(out), format)) {
+            for (long[] row : rows) writer.write(row[0], row[1], row[2] != 0, DEVICES[(int) row[3]]);
+            assertEquals(rows.length, writer.getCount());
+        }
+        return out.toByteArray();
+    }
+
+    private static long[][] randomRows(int n) {
+        Random random = new Random(11);
+        long[][] rows = new long[n][];
+        long playdate = epochMillis(LocalDateTime.of(2024, 12, 31, 23, 59, 30));
+        for (int i = 0; i < n; i++) {
+            playdate += random.nextInt(5) == 0 ? -random.nextInt(100_000) : random.nextInt(200_000); // 순서가 뒤섞임
+            if (i % 97 == 0) playdate += 1 + random.nextInt(999); // 밀리초가 있는 날짜
+            rows[i] = new long[]{playdate, random.nextInt(400_000), random.nextInt(3) == 0 ? 0 : 1,
+                    random.nextInt(DEVICES.length)};
+        }
+        rows[n - 1] = new long[]{epochMillis(LocalDateTime.of(1999, 2, 28, 0, 0)), 0, 1, 0};
+        return rows;
+    }
+
+    private static void assertRoundTrip(HistoryFormat format) throws IOException {
+        long[][] rows = randomRows(50_000); // 버퍼(64KB) 여러 개
+        byte[] bytes = write(format, rows);
+        try (HistoryReader reader = new HistoryReader(trickle(bytes, 3))) {
+            assertEquals(format, reader.getFormat());
+            for (long[] row : rows) {
+                assertTrue(reader.next());
+                assertEquals(row[0], reader.getPlaydateMillis());
+                assertEquals(row[1], reader.getPlaytimeMillis());
+                assertEquals(row[2] != 0, reader.isSuccess());
+                assertEquals(DEVICES[(int) row[3]], reader.getDevice());
+            }
+            assertFalse(reader.next());
+            assertEquals(rows.length, reader.getCount());
+        }
+    }
+
+    @Test
+    public void csvRoundTrip() throws IOException {
+        assertRoundTrip(HistoryFormat.CSV);
+    }
+
+    @Test
+    public void binaryRoundTripIsCompact() throws IOException {
+        assertRoundTrip(HistoryFormat.BINARY);
+        long[][] rows = randomRows(10_000);
+        assertTrue(write(HistoryFormat.BINARY, rows).length < rows.length * 9);
+    }
+
+    @Test
+    public void csvIsReadableAndAcceptsSpreadsheetVariants() throws IOException {
+        long playdate = epochMillis(LocalDateTime.of(2025, 3, 5, 14, 30, 7));
+        byte[] bytes = write(HistoryFormat.CSV, new long[][]{{playdate, 31234, 1, 1}, {playdate + 5, 9, 0, 3}});
+        assertEquals("playdate,playtime_ms,success,device\n"
+                        + "2025-03-05T14:30:07,31234,1,AA:BB:CC:DD:EE:01\n"
+                        + "2025-03-05T14:30:07.005,9,0,\"보드,\"\"2\"\"\"\n",
+                new String(bytes, StandardCharsets.UTF_8));
+
+        // 헤더 없음, CRLF, 공백 구분 날짜, true/false, 저장값 날짜, 빈 줄, 마지막 줄바꿈 없음
+        String csv = "2025-03-05 14:30:07,100,TRUE,board-a\r\n\r\n" + playdate + ",200,false,\n2025-03-06T00:00:00,300,1,board-a";
+        try (HistoryReader reader = new HistoryReader(Channels.newChannel(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))))) {
+            assertTrue(reader.next());
+            assertEquals(playdate, reader.getPlaydateMillis());
+            assertTrue(reader.isSuccess());
+            assertEquals("board-a", reader.getDevice());
+            assertTrue(reader.next());
+            assertEquals(playdate, reader.getPlaydateMillis());
+            assertFalse(reader.isSuccess());
+            assertEquals("", reader.getDevice());
+            assertTrue(reader.next());
+            assertEquals(epochMillis(LocalDateTime.of(2025, 3, 6, 0, 0)), reader.getPlaydateMillis());
+            assertEquals(300, reader.getPlaytimeMillis());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void malformedInputFailsWithLocation() throws IOException {
+        String csv = "playdate,playtime_ms,success,device\n2025-03-05T14:30:07,100,1,a\n2025-13-05T14:30:07,100,1,a\n";
+        try (HistoryReader reader = new HistoryReader(Channels.newChannel(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))))) {
+            assertTrue(reader.next());
+            reader.next();
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("line 3:"));
+        }
+
+        byte[] binary = write(HistoryFormat.BINARY, randomRows(100));
+        byte[] truncated = Arrays.copyOf(binary, binary.length - 1);
+        try (HistoryReader reader = new HistoryReader(Channels.newChannel(new ByteArrayInputStream(truncated)))) {
+            while (reader.next()) {
+                // 마지막 기록에서 실패해야 함
+            }
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("after 99 records"));
+        }
+    }
+
+    @Test
+    public void civilDateConversionMatchesJavaTime() {
+        for (long day = HistoryWriter.MIN_EPOCH_DAY; day <= HistoryWriter.MAX_EPOCH_DAY; day += 97) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            long civil = HistoryWriter.civilFromDays(day);
+            assertEquals(date.getYear() * 10_000L + date.getMonthValue() * 100 + date.getDayOfMonth(), civil);
+            assertEquals(day, HistoryWriter.daysFromCivil(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+        }
+    }
+}
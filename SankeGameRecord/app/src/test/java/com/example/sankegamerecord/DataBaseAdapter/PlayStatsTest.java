@@ -0,0 +1,88 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.*;
+
+/**
+ * PlayStats 테스트 (기록 더하기, 구간 합치기)
+ */
+public class PlayStatsTest {
+
+    private static GameRecord record(int seconds, boolean success) {
+        return new GameRecord(LocalDateTime.of(2025, 11, 13, 17, 0, seconds % 60), Duration.ofSeconds(seconds),
+                success, "AA:AA:AA:AA:AA:01");
+    }
+
+    @Test
+    public void addCountsPlaysSuccessesAndPlaytime() {
+        PlayStats stats = new PlayStats();
+        stats.add(record(30, true));
+        stats.add(record(90, false));
+        stats.add(record(20, true));
+        stats.add(record(60, false));
+
+        assertEquals(4, stats.getPlays());
+        assertEquals(2, stats.getSuccesses());
+        assertEquals(0.5, stats.getSuccessRate(), 1e-9);
+        assertEquals(200_000, stats.getTotalPlaytimeMillis());
+        assertEquals(50_000, stats.getMeanPlaytimeMillis());
+        assertEquals(20_000, stats.getBestPlaytimeMillis()); // 성공 기록 중 최단
+        assertEquals(20_000, stats.getMedianPlaytimeMillis(), 20_000 / 64.0); // 성공 기록(20초, 30초)의 아래쪽 중앙값
+    }
+
+    @Test
+    public void longFailedGamesDoNotShiftMedian() {
+        PlayStats stats = new PlayStats();
+        for (int i = 0; i < 5; i++) stats.add(record(28 + i, true)); // 성공: 28~32초
+        for (int i = 0; i < 20; i++) stats.add(record(600 + i, false)); // 실패: 10분 넘게 버티다 끝난 판
+
+        assertEquals(25, stats.getPlays());
+        assertEquals(5, stats.getSketch().getCount());
+        assertEquals(30_000, stats.getMedianPlaytimeMillis(), 30_000 / 64.0);
+        assertEquals(32_000, stats.getPlaytimeQuantileMillis(1), 0);
+        assertTrue(stats.getMeanPlaytimeMillis() > 400_000); // 평균은 모든 판 기준
+    }
+
+    @Test
+    public void mergeEqualsAddingAllRecords() {
+        PlayStats all = new PlayStats();
+        PlayStats morning = new PlayStats();
+        PlayStats evening = new PlayStats();
+        for (int i = 1; i <= 50; i++) {
+            GameRecord r = record(10 + i * 3, i % 3 == 0);
+            all.add(r);
+            (i <= 20 ? morning : evening).add(r);
+        }
+        PlayStats day = new PlayStats();
+        day.merge(morning);
+        day.merge(evening);
+
+        assertEquals(all.getPlays(), day.getPlays());
+        assertEquals(all.getSuccesses(), day.getSuccesses());
+        assertEquals(all.getTotalPlaytimeMillis(), day.getTotalPlaytimeMillis());
+        assertEquals(all.getBestPlaytimeMillis(), day.getBestPlaytimeMillis());
+        assertArrayEquals(all.getSketch().toBytes(), day.getSketch().toBytes());
+    }
+
+    @Test
+    public void prunedDailyTotalsHaveNoDistribution() {
+        // RECORD_DAILY에서 옮긴 집계: 개수와 합계만 있고 분포는 없음
+        PlayStats day = new PlayStats(10, 4, 600_000, 25_000, new PlaytimeSketch());
+        day.merge(new PlayStats());
+        assertEquals(10, day.getPlays());
+        assertEquals(60_000, day.getMeanPlaytimeMillis());
+        assertEquals(25_000, day.getBestPlaytimeMillis());
+        assertEquals(-1, day.getMedianPlaytimeMillis());
+
+        PlayStats empty = new PlayStats();
+        assertEquals(0, empty.getSuccessRate(), 0);
+        assertEquals(-1, empty.getMeanPlaytimeMillis());
+        assertEquals(-1, empty.getBestPlaytimeMillis());
+    }
+}
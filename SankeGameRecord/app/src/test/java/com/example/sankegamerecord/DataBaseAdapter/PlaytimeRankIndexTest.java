@@ -0,0 +1,103 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PlaytimeRankIndexTest {
+
+    @Test
+    public void rankCountsStrictlyFasterRecordsAndSharesTies() {
+        PlaytimeRankIndex index = new PlaytimeRankIndex();
+        assertEquals(1, index.rankOf(30_000));
+        assertEquals(-1, index.playtimeAtFraction(0.5));
+
+        for (long ms : new long[]{30_000, 12_000, 45_000, 12_005, 90_000}) index.add(ms);
+        assertEquals(5, index.getTotal());
+        assertEquals(1, index.rankOf(12_000));
+        assertEquals(1, index.rankOf(12_005)); // 같은 10ms 버킷은 같은 순위
+        assertEquals(3, index.rankOf(30_000));
+        assertEquals(4, index.rankOf(45_000));
+        assertEquals(5, index.rankOf(90_000));
+        assertEquals(6, index.rankOf(100_000)); // 가장 느린 기록 뒤
+        assertEquals(1, index.rankOf(1_000));
+
+        PlaytimeRankIndex.Placement placement = index.placementOf(30_000);
+        assertEquals(3, placement.rank());
+        assertEquals(5, placement.total());
+        assertEquals(60.0, placement.topPercent(), 1e-9);
+    }
+
+    @Test
+    public void playtimeAtRankInvertsRank() {
+        PlaytimeRankIndex index = new PlaytimeRankIndex();
+        for (long ms : new long[]{500, 1_230, 1_230, 9_990, 70_000}) index.add(ms);
+        assertEquals(500, index.playtimeAtRank(1));
+        assertEquals(1_230, index.playtimeAtRank(2));
+        assertEquals(1_230, index.playtimeAtRank(3));
+        assertEquals(9_990, index.playtimeAtRank(4));
+        assertEquals(70_000, index.playtimeAtRank(5));
+        assertEquals(-1, index.playtimeAtRank(0));
+        assertEquals(-1, index.playtimeAtRank(6));
+
+        assertEquals(1_230, index.playtimeAtFraction(0.5));
+        assertEquals(500, index.playtimeAtFraction(0));
+        assertEquals(70_000, index.playtimeAtFraction(1));
+    }
+
+    @Test
+    public void outOfRangePlaytimesClampToEdgeBuckets() {
+        PlaytimeRankIndex index = new PlaytimeRankIndex();
+        index.add(-5);
+        index.add(Long.MAX_VALUE);
+        index.add(PlaytimeRankIndex.BUCKETS * PlaytimeRankIndex.BUCKET_MILLIS * 3);
+        assertEquals(0, index.playtimeAtRank(1));
+        long last = (PlaytimeRankIndex.BUCKETS - 1) * PlaytimeRankIndex.BUCKET_MILLIS;
+        assertEquals(last, index.playtimeAtRank(2));
+        assertEquals(last, index.playtimeAtRank(3));
+        assertEquals(2, index.rankOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void bulkBuildMatchesIncrementalAddsAndSortedReference() {
+        Random random = new Random(7);
+        long[] playtimes = new long[5_000];
+        PlaytimeRankIndex incremental = new PlaytimeRankIndex();
+        int[] counts = new int[PlaytimeRankIndex.BUCKETS];
+        for (int i = 0; i < playtimes.length; i++) {
+            playtimes[i] = 5_000 + (long) (Math.abs(random.nextGaussian()) * 60_000);
+            incremental.add(playtimes[i]);
+            counts[PlaytimeRankIndex.bucketOf(playtimes[i])]++;
+        }
+        // 히스토그램 테이블처럼 0이 아닌 버킷만 넘김
+        int n = 0;
+        int[] buckets = new int[counts.length];
+        int[] nonZero = new int[counts.length];
+        for (int b = 0; b < counts.length; b++) {
+            if (counts[b] == 0) continue;
+            buckets[n] = b;
+            nonZero[n++] = counts[b];
+        }
+        PlaytimeRankIndex bulk = PlaytimeRankIndex.fromBuckets(Arrays.copyOf(buckets, n), Arrays.copyOf(nonZero, n));
+        assertEquals(incremental.getTotal(), bulk.getTotal());
+
+        long[] sorted = playtimes.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < 200; i++) {
+            long probe = random.nextInt(200_000);
+            long bucketStart = probe / PlaytimeRankIndex.BUCKET_MILLIS * PlaytimeRankIndex.BUCKET_MILLIS;
+            long faster = 0;
+            for (long ms : sorted) if (ms < bucketStart) faster++;
+            assertEquals(faster + 1, incremental.rankOf(probe));
+            assertEquals(faster + 1, bulk.rankOf(probe));
+        }
+        for (int rank = 1; rank <= sorted.length; rank += 97) {
+            long expected = sorted[rank - 1] / PlaytimeRankIndex.BUCKET_MILLIS * PlaytimeRankIndex.BUCKET_MILLIS;
+            assertEquals(expected, incremental.playtimeAtRank(rank));
+            assertEquals(expected, bulk.playtimeAtRank(rank));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * PlaytimeSketch 테스트 (분위수 오차, 합치기, 직렬화)
+ */
+public class PlaytimeSketchTest {
+
+    /** 정렬된 값에서 q 분위수 (ceil(q*n)번째) */
+    private static long exactQuantile(long[] sorted, double q) {
+        int rank = Math.max(1, (int) Math.ceil(q * sorted.length));
+        return sorted[rank - 1];
+    }
+
+    @Test
+    public void bucketsCoverEveryValueWithBoundedWidth() {
+        for (long v : new long[]{0, 1, 31, 32, 33, 63, 64, 65, 1000, 59_999, 60_000, 3_600_000, 1L << 40}) {
+            int bucket = PlaytimeSketch.bucketOf(v);
+            long lower = PlaytimeSketch.bucketLowerBound(bucket);
+            long width = PlaytimeSketch.bucketWidth(bucket);
+            assertTrue(v + " below bucket " + bucket, v >= lower);
+            assertTrue(v + " above bucket " + bucket, v < lower + width);
+            assertTrue("bucket too wide at " + v, width == 1 || width * 32 <= lower);
+        }
+        // 버킷 번호는 값 순서를 따름
+        int previous = -1;
+        for (long v = 0; v < 200_000; v += 7) {
+            int bucket = PlaytimeSketch.bucketOf(v);
+            assertTrue(bucket >= previous);
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void quantilesStayWithinRelativeError() {
+        Random random = new Random(11);
+        PlaytimeSketch sketch = new PlaytimeSketch();
+        long[] values = new long[20_000];
+        for (int i = 0; i < values.length; i++) {
+            // 5초~10분 플레이 시간, 로그 정규 분포에 가깝게
+            values[i] = (long) Math.min(600_000, 5_000 + Math.exp(10 + random.nextGaussian()));
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, sketch.getCount());
+        assertEquals(values[0], sketch.getMinMillis());
+        assertEquals(values[values.length - 1], sketch.getMaxMillis());
+        for (double q : new double[]{0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            long exact = exactQuantile(values, q);
+            long estimate = sketch.getQuantileMillis(q);
+            assertTrue("q=" + q + " exact=" + exact + " estimate=" + estimate,
+                    Math.abs(estimate - exact) <= exact / 32 + 1);
+        }
+    }
+
+    @Test
+    public void mergedSketchEqualsSketchOfAllValues() {
+        Random random = new Random(5);
+        PlaytimeSketch all = new PlaytimeSketch();
+        PlaytimeSketch merged = new PlaytimeSketch();
+        for (int part = 0; part < 24; part++) { // 시간별 스케치 24개 → 하루
+            PlaytimeSketch hour = new PlaytimeSketch();
+            for (int i = 0; i < 100 + part * 10; i++) {
+                long v = random.nextInt(700_000);
+                hour.add(v);
+                all.add(v);
+            }
+            merged.merge(hour);
+        }
+        merged.merge(new PlaytimeSketch()); // 빈 스케치는 영향 없음
+
+        assertArrayEquals(all.toBytes(), merged.toBytes());
+        assertEquals(all.getMedianMillis(), merged.getMedianMillis());
+    }
+
+    @Test
+    public void bytesRoundTrip() {
+        PlaytimeSketch sketch = new PlaytimeSketch();
+        for (long v : new long[]{0, 7, 7, 45_000, 45_100, 90_000, 1L << 50}) sketch.add(v);
+
+        byte[] bytes = sketch.toBytes();
+        PlaytimeSketch copy = PlaytimeSketch.fromBytes(bytes);
+        assertEquals(sketch.getCount(), copy.getCount());
+        assertEquals(sketch.getMinMillis(), copy.getMinMillis());
+        assertEquals(sketch.getMaxMillis(), copy.getMaxMillis());
+        assertArrayEquals(bytes, copy.toBytes());
+        assertTrue("sparse encoding: " + bytes.length, bytes.length < 40);
+    }
+
+    @Test
+    public void emptySketch() {
+        PlaytimeSketch empty = PlaytimeSketch.fromBytes(null);
+        assertEquals(0, empty.getCount());
+        assertEquals(-1, empty.getMedianMillis());
+        assertEquals(-1, empty.getMinMillis());
+        assertEquals(0, empty.toBytes().length);
+        assertEquals(0, PlaytimeSketch.fromBytes(new byte[0]).getCount());
+    }
+
+    @Test
+    public void rejectsCorruptBytes() {
+        PlaytimeSketch sketch = new PlaytimeSketch();
+        sketch.add(1234);
+        byte[] bytes = sketch.toBytes();
+        for (byte[] bad : new byte[][]{{9}, Arrays.copyOf(bytes, bytes.length - 1), {1, 0, 0, (byte) 0xFF}}) {
+            try {
+                PlaytimeSketch.fromBytes(bad);
+                fail(Arrays.toString(bad));
+            } catch (IllegalArgumentException expected) {
+                // 형식 오류
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * RecentKeyFilter 단위 테스트 (호스트 JVM에서 실행)
+ */
+public class RecentKeyFilterTest {
+
+    @Test
+    public void remembersKeysUpToCapacity() {
+        RecentKeyFilter filter = new RecentKeyFilter(3);
+        filter.add(1);
+        filter.add(2);
+        filter.add(3);
+        assertTrue(filter.contains(1));
+        assertTrue(filter.contains(3));
+
+        filter.add(4); // 1, 3은 방금 조회했으므로 가장 오래 안 쓰인 2가 밀려남
+        assertEquals(3, filter.size());
+        assertFalse(filter.contains(2));
+        assertTrue(filter.contains(1));
+        assertTrue(filter.contains(4));
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        RecentKeyFilter filter = new RecentKeyFilter(2);
+        filter.add(10);
+        filter.clear();
+        assertFalse(filter.contains(10));
+        assertEquals(0, filter.size());
+    }
+}
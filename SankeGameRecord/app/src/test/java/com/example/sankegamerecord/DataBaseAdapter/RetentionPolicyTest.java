@@ -0,0 +1,38 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * RetentionPolicy 단위 테스트 (호스트 JVM에서 실행)
+ */
+public class RetentionPolicyTest {
+
+    @Test
+    public void cutoffIsMaxAgeBeforeNow() {
+        RetentionPolicy policy = new RetentionPolicy(0, 7, true);
+        long now = 1_760_000_000_000L;
+        assertEquals(now - 7 * RetentionPolicy.DAY_MILLIS, policy.cutoffEpochMillis(now));
+        assertFalse(policy.limitsCount());
+    }
+
+    @Test
+    public void unlimitedAgeNeverCutsOff() {
+        RetentionPolicy policy = new RetentionPolicy(100, 0, false);
+        assertEquals(Long.MIN_VALUE, policy.cutoffEpochMillis(System.currentTimeMillis()));
+        assertTrue(policy.limitsCount());
+    }
+
+    @Test
+    public void dayKeyIsFloored() {
+        assertEquals(0, RetentionPolicy.dayOf(RetentionPolicy.DAY_MILLIS - 1));
+        assertEquals(1, RetentionPolicy.dayOf(RetentionPolicy.DAY_MILLIS));
+        assertEquals(-1, RetentionPolicy.dayOf(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeLimits() {
+        new RetentionPolicy(-1, 0, false);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * SharedResource 단위 테스트 (호스트 JVM에서 실행)
+ */
+public class SharedResourceTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private final List<String> closed = new ArrayList<>();
+    private final SharedResource<String> resource = new SharedResource<>(
+            () -> "db" + opened.incrementAndGet(), closed::add);
+
+    @Test
+    public void opensLazilyAndClosesOnLastRelease() {
+        assertFalse(resource.isOpen());
+        assertEquals(0, opened.get());
+
+        String service = resource.acquire();   // 서비스
+        String screen = resource.acquire();    // 화면
+        assertSame(service, screen);
+        assertEquals(1, opened.get());
+        assertEquals(2, resource.getRefCount());
+
+        resource.release(); // 화면 종료 → 서비스가 쓰는 중이므로 닫히지 않음
+        assertTrue(resource.isOpen());
+        assertTrue(closed.isEmpty());
+
+        resource.release();
+        assertFalse(resource.isOpen());
+        assertEquals(List.of("db1"), closed);
+
+        assertEquals("db2", resource.acquire()); // 닫힌 뒤에는 새로 엶
+        assertEquals(2, resource.getOpenCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void releaseWithoutAcquireFails() {
+        resource.release();
+    }
+
+    @Test
+    public void failedOpenDoesNotCount() {
+        SharedResource<String> failing = new SharedResource<>(() -> {
+            throw new IllegalStateException("disk full");
+        }, r -> { });
+        try {
+            failing.acquire();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0, failing.getRefCount());
+        assertFalse(failing.isOpen());
+    }
+
+    @Test
+    public void concurrentAcquireOpensOnce() throws Exception {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    resource.acquire();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        assertEquals(1, opened.get());
+        assertEquals(threads, resource.getRefCount());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * TopNLeaderboard 단위 테스트 (호스트 JVM에서 실행)
+ */
+public class TopNLeaderboardTest {
+
+    @Test
+    public void keepsBestScoresInOrder() {
+        TopNLeaderboard<String> board = new TopNLeaderboard<>(3);
+        assertEquals(0, board.insert(500, 1, "a"));
+        assertEquals(0, board.insert(300, 2, "b"));
+        assertEquals(2, board.insert(900, 3, "c"));
+        assertTrue(board.isFull());
+
+        // 3위보다 나쁜 점수는 거부
+        assertFalse(board.qualifies(900));
+        assertFalse(board.qualifies(1000));
+
+        // 들어오면 3위가 밀려남
+        assertEquals(1, board.insert(400, 4, "d"));
+        assertEquals(List.of("b", "d", "a"), board.snapshot());
+        assertEquals(1, board.idAt(2));
+    }
+
+    @Test
+    public void tiesKeepEarlierEntryFirst() {
+        TopNLeaderboard<String> board = new TopNLeaderboard<>(3);
+        board.insert(100, 1, "first");
+        assertEquals(1, board.positionFor(100));
+        board.insert(100, 2, "second");
+        assertEquals(List.of("first", "second"), board.snapshot());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsNonQualifyingInsert() {
+        TopNLeaderboard<String> board = new TopNLeaderboard<>(1);
+        board.insert(100, 1, "a");
+        board.insert(100, 2, "b");
+    }
+
+    @Test
+    public void matchesSortAndTruncate() {
+        Random random = new Random(42);
+        TopNLeaderboard<Long> board = new TopNLeaderboard<>(5);
+        List<Long> all = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long score = random.nextInt(10_000);
+            all.add(score);
+            if (board.qualifies(score)) board.insert(score, i, score);
+        }
+        all.sort(null);
+        assertEquals(all.subList(0, 5), board.snapshot());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.sankegamerecord.DataBaseAdapter;
+
+import com.example.sankegamerecord.DataBaseAdapter.WindowedLeaderboards.Window;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.*;
+
+public class WindowedLeaderboardsTest {
+
+    // 2025-03-05는 수요일
+    private static final LocalDateTime WED = LocalDateTime.of(2025, 3, 5, 14, 30);
+
+    private static WindowedLeaderboards<String> installed(LocalDateTime now) {
+        WindowedLeaderboards<String> boards = new WindowedLeaderboards<>(3);
+        for (Window window : Window.values()) {
+            boards.install(window, window.startOf(now), new TopNLeaderboard<>(3));
+        }
+        return boards;
+    }
+
+    @Test
+    public void windowStartsAtMidnightAndMonday() {
+        assertEquals(LocalDateTime.of(2025, 3, 5, 0, 0), Window.DAY.startOf(WED));
+        assertEquals(LocalDateTime.of(2025, 3, 3, 0, 0), Window.WEEK.startOf(WED));
+        assertEquals(LocalDateTime.of(2025, 3, 3, 0, 0), Window.WEEK.startOf(LocalDateTime.of(2025, 3, 3, 0, 0)));
+        assertEquals(LocalDateTime.of(2025, 3, 10, 0, 0), Window.WEEK.endOf(Window.WEEK.startOf(WED)));
+        assertEquals(LocalDateTime.MIN, Window.ALL.startOf(WED));
+    }
+
+    @Test
+    public void oneOfferFeedsEveryWindowItBelongsTo() {
+        WindowedLeaderboards<String> boards = installed(WED);
+        for (Window window : Window.values()) {
+            assertEquals(0, boards.offer(window, WED, 30_000, 1, "today", WED));
+        }
+        // 월요일 기록: 이번 주와 전체에는 들지만 오늘에는 들지 않음
+        LocalDateTime monday = WED.minusDays(2);
+        assertEquals(-1, boards.offer(Window.DAY, monday, 20_000, 2, "monday", WED));
+        assertEquals(0, boards.offer(Window.WEEK, monday, 20_000, 2, "monday", WED));
+        assertEquals(0, boards.offer(Window.ALL, monday, 20_000, 2, "monday", WED));
+        // 지난주 기록은 전체에만
+        LocalDateTime lastWeek = WED.minusDays(7);
+        assertEquals(-1, boards.offer(Window.WEEK, lastWeek, 10_000, 3, "last week", WED));
+        assertEquals(0, boards.offer(Window.ALL, lastWeek, 10_000, 3, "last week", WED));
+
+        assertEquals(1, boards.current(Window.DAY, WED).size());
+        assertEquals(2, boards.current(Window.WEEK, WED).size());
+        assertEquals("last week", boards.current(Window.ALL, WED).valueAt(0));
+    }
+
+    @Test
+    public void expiredWindowsAreClearedLazily() {
+        WindowedLeaderboards<String> boards = installed(WED);
+        for (Window window : Window.values()) boards.offer(window, WED, 30_000, 1, "wed", WED);
+
+        LocalDateTime thursday = WED.plusDays(1);
+        assertEquals(0, boards.current(Window.DAY, thursday).size());
+        assertEquals(Window.DAY.startOf(thursday), boards.startOf(Window.DAY));
+        assertEquals(1, boards.current(Window.WEEK, thursday).size());
+
+        LocalDateTime nextWeek = WED.plusDays(7);
+        assertEquals(0, boards.current(Window.WEEK, nextWeek).size());
+        assertEquals(1, boards.current(Window.ALL, nextWeek).size());
+        // 되돌아간 시계로는 창이 뒤로 가지 않음
+        boards.current(Window.WEEK, WED);
+        assertEquals(Window.WEEK.startOf(nextWeek), boards.startOf(Window.WEEK));
+    }
+
+    @Test
+    public void recordFromLaterWindowRollsForward() {
+        WindowedLeaderboards<String> boards = installed(WED);
+        boards.offer(Window.DAY, WED, 30_000, 1, "wed", WED);
+        // 보드 시계가 앞서 있어 다음 날 기록이 먼저 도착
+        LocalDateTime tomorrow = WED.plusDays(1).withHour(0).plusMinutes(1);
+        assertEquals(0, boards.offer(Window.DAY, tomorrow, 40_000, 2, "thu", WED));
+        assertEquals(1, boards.current(Window.DAY, WED).size());
+        assertEquals("thu", boards.current(Window.DAY, WED).valueAt(0));
+        // 지난 창의 늦은 기록은 버림
+        assertEquals(-1, boards.offer(Window.DAY, WED, 10_000, 3, "late", WED));
+    }
+
+    @Test
+    public void uninstalledWindowsAcceptNothingUntilLoaded() {
+        WindowedLeaderboards<String> boards = new WindowedLeaderboards<>(3);
+        assertNull(boards.current(Window.DAY, WED));
+        assertEquals(-1, boards.offer(Window.DAY, WED, 30_000, 1, "wed", WED));
+        boards.install(Window.DAY, Window.DAY.startOf(WED), new TopNLeaderboard<>(3));
+        assertEquals(0, boards.offer(Window.DAY, WED, 30_000, 1, "wed", WED));
+        boards.invalidate();
+        assertNull(boards.current(Window.DAY, WED));
+    }
+
+    @Test
+    public void copyIsIndependentOfOriginal() {
+        WindowedLeaderboards<String> boards = installed(WED);
+        boards.offer(Window.DAY, WED, 30_000, 1, "wed", WED);
+        WindowedLeaderboards<String> copy = boards.copy();
+        copy.offer(Window.DAY, WED, 20_000, 2, "better", WED);
+
+        assertEquals(1, boards.current(Window.DAY, WED).size());
+        assertEquals(2, copy.current(Window.DAY, WED).size());
+        assertEquals("better", copy.current(Window.DAY, WED).valueAt(0));
+        assertEquals(boards.startOf(Window.WEEK), copy.startOf(Window.WEEK));
+        assertNull(new WindowedLeaderboards<String>(3).copy().current(Window.ALL, WED));
+    }
+}
@@ -0,0 +1,155 @@
+// JVM 마이크로벤치마크 모듈 (JMH)
+//
+// 게임마다 실행되는 핫패스(프레임 자르기와 파싱, 수집 큐, 바이너리 직렬화, 행 포맷, 랭킹 갱신)와 기록 내보내기/가져오기 인코딩을 측정합니다.
+//   ./gradlew :benchmark:jmh                  전체 실행 → build/results/jmh/results.json
+//   ./gradlew :benchmark:jmhCompareBaseline   결과를 baselines/baseline.csv와 비교 (느려지거나 할당이 늘면 실패)
+//   ./gradlew :benchmark:jmhUpdateBaseline    현재 결과를 새 기준값으로 저장 (기준 장비에서 실행)
+// 기준값 파일은 기준 장비에서 jmh → jmhUpdateBaseline으로만 만들고, 파일이 없으면 비교를 건너뜁니다.
+// 허용 오차는 -Pbenchmark.tolerance=0.15 (기본 15%)로 바꿀 수 있습니다.
+import groovy.json.JsonSlurper
+import java.util.Locale
+
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
+}
+
+// app 모듈은 Android 플러그인이라 JVM 모듈이 의존할 수 없으므로, Android에 의존하지 않는 핫패스 소스만 직접 컴파일합니다.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "com/example/sankegamerecord/Adapter/GameRecord.java",
+                "com/example/sankegamerecord/Adapter/RecordRow.java",
+                "com/example/sankegamerecord/Adapter/RecordFormatter.java",
+                "com/example/sankegamerecord/Background/FrameDecoder.java",
+                "com/example/sankegamerecord/Background/RplFrameParser.java",
+                "com/example/sankegamerecord/Background/MpscRingBuffer.java",
+                "com/example/sankegamerecord/Background/ProtocolInterpreter.java",
+                "com/example/sankegamerecord/Background/RecordIngestPipeline.java",
+                "com/example/sankegamerecord/Background/WireProtocol.java",
+                "com/example/sankegamerecord/DataBaseAdapter/HistoryFormat.java",
+                "com/example/sankegamerecord/DataBaseAdapter/HistoryReader.java",
+                "com/example/sankegamerecord/DataBaseAdapter/HistoryWriter.java",
+                "com/example/sankegamerecord/DataBaseAdapter/TopNLeaderboard.java",
+            )
+        }
+    }
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    fork.set(2)
+    profilers.add("gc") // gc.alloc.rate.norm = 연산당 할당 바이트
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+val baselineFile = layout.projectDirectory.file("baselines/baseline.csv")
+val jmhResultsFile = layout.buildDirectory.file("results/jmh/results.json")
+
+/** JMH 결과 한 줄: 이름("클래스.메서드[파라미터=값;...]") → ns/op, B/op */
+data class BenchResult(val name: String, val nsPerOp: Double, val bytesPerOp: Double)
+
+fun readResults(file: File): List<BenchResult> {
+    if (!file.exists()) throw GradleException("No JMH results at $file, run :benchmark:jmh first")
+    @Suppress("UNCHECKED_CAST")
+    val entries = JsonSlurper().parse(file) as List<Map<String, Any?>>
+    return entries.map { entry ->
+        @Suppress("UNCHECKED_CAST")
+        val params = (entry["params"] as Map<String, Any?>?).orEmpty().toSortedMap()
+        val benchmark = (entry["benchmark"] as String).split('.').takeLast(2).joinToString(".") // 클래스.메서드
+        val name = if (params.isEmpty()) benchmark
+        else benchmark + params.entries.joinToString(";", "[", "]") { "${it.key}=${it.value}" }
+        @Suppress("UNCHECKED_CAST")
+        val primary = entry["primaryMetric"] as Map<String, Any?>
+        @Suppress("UNCHECKED_CAST")
+        val secondary = (entry["secondaryMetrics"] as Map<String, Map<String, Any?>>?).orEmpty()
+        val alloc = secondary.entries.firstOrNull { it.key.endsWith("gc.alloc.rate.norm") }?.value?.get("score")
+        BenchResult(name, (primary["score"] as Number).toDouble(), (alloc as Number?)?.toDouble() ?: 0.0)
+    }
+}
+
+/** 측정에 쓴 JVM (JMH 결과에 기록된 fork JVM) */
+fun jmhJvm(file: File): String {
+    @Suppress("UNCHECKED_CAST")
+    val first = (JsonSlurper().parse(file) as List<Map<String, Any?>>).firstOrNull() ?: return "unknown JVM"
+    return "${first["vmName"]} ${first["jdkVersion"]}"
+}
+
+fun readBaseline(file: File): Map<String, BenchResult> =
+    file.readLines()
+        .filter { it.isNotBlank() && !it.startsWith("#") && !it.startsWith("benchmark,") }
+        .map { line ->
+            val cols = line.split(',')
+            BenchResult(cols[0], cols[1].toDouble(), cols[2].toDouble())
+        }
+        .associateBy { it.name }
+
+tasks.register("jmhCompareBaseline") {
+    group = "benchmark"
+    description = "Compares the last JMH run with baselines/baseline.csv and fails on regressions."
+    mustRunAfter("jmh")
+    doLast {
+        if (!baselineFile.asFile.exists()) {
+            println("No baseline at ${baselineFile.asFile}, skipping comparison (run :benchmark:jmhUpdateBaseline " +
+                "on the reference machine to create one)")
+            return@doLast
+        }
+        val tolerance = (findProperty("benchmark.tolerance") as String?)?.toDouble() ?: 0.15
+        val baseline = readBaseline(baselineFile.asFile)
+        val regressions = mutableListOf<String>()
+        println(String.format(Locale.US, "%-60s %12s %10s %10s %8s", "benchmark", "ops/s", "ns/op", "B/op", "vs base"))
+        for (result in readResults(jmhResultsFile.get().asFile)) {
+            val base = baseline[result.name]
+            val change = base?.let { (result.nsPerOp - it.nsPerOp) / it.nsPerOp }
+            println(String.format(Locale.US, "%-60s %,12.0f %10.1f %10.1f %8s", result.name,
+                1e9 / result.nsPerOp, result.nsPerOp, result.bytesPerOp,
+                change?.let { String.format(Locale.US, "%+.1f%%", it * 100) } ?: "new"))
+            if (base == null) continue
+            if (change!! > tolerance) {
+                regressions += String.format(Locale.US, "%s: %.1f ns/op (baseline %.1f)", result.name,
+                    result.nsPerOp, base.nsPerOp)
+            }
+            // 할당량은 측정 잡음이 거의 없으므로 8바이트(객체 하나 미만)만 넘어도 회귀로 봄
+            if (result.bytesPerOp > base.bytesPerOp + 8) {
+                regressions += String.format(Locale.US, "%s: %.1f B/op (baseline %.1f)", result.name,
+                    result.bytesPerOp, base.bytesPerOp)
+            }
+        }
+        if (regressions.isNotEmpty()) {
+            throw GradleException("Benchmark regressions:\n  " + regressions.joinToString("\n  "))
+        }
+    }
+}
+
+tasks.register("jmhUpdateBaseline") {
+    group = "benchmark"
+    description = "Stores the last JMH run as baselines/baseline.csv."
+    mustRunAfter("jmh")
+    doLast {
+        val results = readResults(jmhResultsFile.get().asFile)
+        val lines = mutableListOf(
+            "# JMH baseline (ns/op = AverageTime, B/op = gc.alloc.rate.norm)",
+            "# ${jmhJvm(jmhResultsFile.get().asFile)}, ${Runtime.getRuntime().availableProcessors()} CPU, " +
+                System.getProperty("os.name"),
+            "benchmark,ns_per_op,bytes_per_op",
+        )
+        results.sortedBy { it.name }.forEach {
+            lines += String.format(Locale.US, "%s,%.1f,%.1f", it.name, it.nsPerOp, it.bytesPerOp)
+        }
+        baselineFile.asFile.parentFile.mkdirs()
+        baselineFile.asFile.writeText(lines.joinToString("\n", postfix = "\n"))
+        println("Baseline updated: ${baselineFile.asFile} (${results.size} benchmarks)")
+    }
+}
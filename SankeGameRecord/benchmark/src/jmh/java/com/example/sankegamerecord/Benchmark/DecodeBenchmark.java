@@ -0,0 +1,74 @@
+package com.example.sankegamerecord.Benchmark;
+
+import com.example.sankegamerecord.Background.FrameDecoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 보드가 몰아서 보낸 텍스트 프레임 버스트(약 8KB)를 소켓 read처럼 READ_CHUNK_SIZE 청크로 나눠 프레임으로 자르는 경로
+ * (리더 스레드에서 read마다 실행). 한 번의 연산 = 버스트 하나 = 프레임 BURST_FRAMES개
+ * - frameDecoder : FrameDecoder.feed (디코더 버퍼 위에서 자름, 할당 없음)
+ * - lineSplitter : 이전 BluetoothConnectionAdapter.startReceive 방식 (StringBuilder + substring + trim)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DecodeBenchmark {
+
+    private static final int BURST_FRAMES = 200;
+
+    private byte[] burst;
+    private final byte[] chunk = new byte[FrameDecoder.READ_CHUNK_SIZE];
+    private final FrameDecoder decoder = new FrameDecoder();
+    private final StringBuilder lineBuffer = new StringBuilder();
+    private long frameBytes;
+    private final FrameDecoder.FrameListener listener = (buf, off, len) -> frameBytes += len;
+
+    @Setup
+    public void setUp() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] frame : Frames.text()) {
+            if (out.size() > BURST_FRAMES * 40) break;
+            out.write(frame, 0, frame.length);
+            out.write('\r');
+            out.write('\n');
+        }
+        burst = out.toByteArray();
+    }
+
+    @Benchmark
+    public long frameDecoder() {
+        for (int off = 0; off < burst.length; off += chunk.length) {
+            int n = Math.min(chunk.length, burst.length - off);
+            System.arraycopy(burst, off, chunk, 0, n);
+            decoder.feed(chunk, 0, n, listener);
+        }
+        return frameBytes;
+    }
+
+    @Benchmark
+    public long lineSplitter() {
+        for (int off = 0; off < burst.length; off += chunk.length) {
+            int n = Math.min(chunk.length, burst.length - off);
+            System.arraycopy(burst, off, chunk, 0, n);
+            lineBuffer.append(new String(chunk, 0, n, StandardCharsets.UTF_8));
+            int newlineIndex;
+            while ((newlineIndex = lineBuffer.indexOf("\n")) != -1) {
+                String message = lineBuffer.substring(0, newlineIndex).trim();
+                lineBuffer.delete(0, newlineIndex + 1);
+                frameBytes += message.length();
+            }
+        }
+        return frameBytes;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.sankegamerecord.Benchmark;
+
+import com.example.sankegamerecord.Background.RplFrameParser;
+import com.example.sankegamerecord.Background.WireProtocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 벤치마크 입력으로 쓰는 보드 프레임 모음입니다. 모두 고정 시드로 만들어 실행마다 같습니다.
+ * <p>
+ * - text        : 구 펌웨어의 텍스트 RECORD 프레임 ("RPL|날짜 시간|mm:ss:mmm|true")
+ * - binary      : 프로토콜 버전 2 바이너리 RECORD 프레임 (일련번호, CRC 포함)
+ * - adversarial : 실패 경로 (잘린 프레임, 범위 밖 날짜, 너무 긴 숫자, CRC 오류, 모르는 버전, 쓰레기 바이트,
+ *                 HEARTBEAT/SYNC 같은 기록이 아닌 프레임)
+ */
+final class Frames {
+
+    static final int COUNT = 256; // 2의 거듭제곱 (인덱스 마스크용)
+
+    private Frames() {}
+
+    static byte[][] create(String kind) {
+        switch (kind) {
+            case "text": return text();
+            case "binary": return binary();
+            case "adversarial": return adversarial();
+            default: throw new IllegalArgumentException(kind);
+        }
+    }
+
+    static byte[][] text() {
+        byte[][] frames = new byte[COUNT][];
+        for (int i = 0; i < COUNT; i++) {
+            frames[i] = ascii(String.format("RPL|2025-11-%02d %02d:%02d:%02d|%02d:%02d:%03d|%s",
+                    1 + i % 28, i % 24, (i * 7) % 60, (i * 13) % 60, i % 10, (i * 17) % 60, (i * 37) % 1000,
+                    i % 3 == 0 ? "false" : "true"));
+        }
+        return frames;
+    }
+
+    static byte[][] binary() {
+        byte[][] frames = new byte[COUNT][];
+        RplFrameParser.Result in = new RplFrameParser.Result();
+        byte[] buffer = new byte[WireProtocol.MAX_FRAME_SIZE];
+        for (int i = 0; i < COUNT; i++) {
+            in.year = 2025; in.month = 11; in.day = 1 + i % 28;
+            in.hour = i % 24; in.minute = (i * 7) % 60; in.second = (i * 13) % 60;
+            in.playtimeMillis = 30_000 + i * 1_237L; in.score = i % 40; in.success = i % 3 != 0;
+            in.sequence = 1_000 + i;
+            frames[i] = Arrays.copyOf(buffer, WireProtocol.encodeRecord(in, buffer, 0));
+        }
+        return frames;
+    }
+
+    static byte[][] adversarial() {
+        Random random = new Random(19);
+        byte[][] valid = binary();
+        byte[][] frames = new byte[COUNT][];
+        for (int i = 0; i < COUNT; i++) {
+            switch (i % 10) {
+                case 0: frames[i] = ascii("RPL|2025-11-13 17:00"); break;                          // 잘림
+                case 1: frames[i] = ascii("RPL|2025-13-45 25:61:61|00:30:000|true"); break;        // 범위 밖 날짜
+                case 2: frames[i] = ascii("RPL|2025-11-13 17:00:00|" + "9".repeat(200) + "|true"); break; // 긴 숫자
+                case 3: frames[i] = ascii("HEARTBEAT"); break;
+                case 4: frames[i] = ascii("SYNC|4294967295"); break;
+                case 5: frames[i] = ascii("RPL|" + "|".repeat(120)); break;                        // 구분자만
+                case 6: {                                                                         // CRC 오류
+                    byte[] frame = valid[i].clone();
+                    frame[frame.length - 1] ^= 0x5A;
+                    frames[i] = frame;
+                    break;
+                }
+                case 7: {                                                                         // 모르는 버전
+                    byte[] frame = valid[i].clone();
+                    frame[1] = 9;
+                    frames[i] = frame;
+                    break;
+                }
+                case 8: {                                                                         // 최대 길이 쓰레기
+                    byte[] frame = new byte[WireProtocol.MAX_FRAME_SIZE];
+                    random.nextBytes(frame);
+                    frame[0] = 'R';
+                    frames[i] = frame;
+                    break;
+                }
+                default: frames[i] = ascii("RPL|2025-11-13 17:00:00|01:30:500|maybe"); break;     // 성공 여부 오류
+            }
+        }
+        return frames;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.sankegamerecord.Benchmark;
+
+import com.example.sankegamerecord.DataBaseAdapter.HistoryFormat;
+import com.example.sankegamerecord.DataBaseAdapter.HistoryReader;
+import com.example.sankegamerecord.DataBaseAdapter.HistoryWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기록 내보내기/가져오기 파일 인코딩 (RecordAdapter.exportHistory/importHistory에서 데이터베이스를 뺀 부분).
+ * 연산 하나가 기록 100만 개를 쓰거나 읽습니다. 쓰기는 바이트를 버리는 채널, 읽기는 메모리의 파일에서.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HistoryBenchmark {
+
+    static final int ROWS = 1_000_000;
+    private static final String[] DEVICES = {"AA:BB:CC:DD:EE:01", "AA:BB:CC:DD:EE:02", "tcp://10.0.2.2:7000"};
+
+    @Param({"CSV", "BINARY"})
+    public HistoryFormat format;
+
+    private long[] playdates;
+    private int[] playtimes;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        playdates = new long[ROWS];
+        playtimes = new int[ROWS];
+        long playdate = LocalDateTime.of(2023, 1, 1, 9, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+        for (int i = 0; i < ROWS; i++) {
+            playdate += 30_000 + random.nextInt(600_000); // 게임 간격 30초~10분
+            playdates[i] = playdate;
+            playtimes[i] = 10_000 + random.nextInt(300_000);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeAll(Channels.newChannel(out));
+        encoded = out.toByteArray();
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        NullChannel sink = new NullChannel();
+        writeAll(sink);
+        return sink.bytes;
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        ByteBuffer source = ByteBuffer.wrap(encoded);
+        long sum = 0;
+        try (HistoryReader reader = new HistoryReader(new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) {
+                if (!source.hasRemaining()) return -1;
+                int n = Math.min(dst.remaining(), source.remaining());
+                dst.put(source.slice().limit(n));
+                source.position(source.position() + n);
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        })) {
+            while (reader.next()) sum += reader.getPlaytimeMillis() + reader.getDevice().length();
+        }
+        return sum;
+    }
+
+    private void writeAll(WritableByteChannel channel) throws IOException {
+        try (HistoryWriter writer = new HistoryWriter(channel, format)) {
+            writeRows(writer);
+        }
+    }
+
+    private void writeRows(HistoryWriter writer) throws IOException {
+        for (int i = 0; i < ROWS; i++) {
+            writer.write(playdates[i], playtimes[i], (i & 3) != 0, DEVICES[(i >> 8) % DEVICES.length]);
+        }
+    }
+
+    /** 쓴 바이트 수만 세는 채널 */
+    private static final class NullChannel implements WritableByteChannel {
+        long bytes;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            bytes += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
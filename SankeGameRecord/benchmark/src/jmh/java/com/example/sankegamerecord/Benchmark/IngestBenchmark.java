@@ -0,0 +1,69 @@
+package com.example.sankegamerecord.Benchmark;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+import com.example.sankegamerecord.Background.ProtocolInterpreter;
+import com.example.sankegamerecord.Background.RecordIngestPipeline;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 보드 리더 스레드에서 writer 스레드까지 기록을 넘기는 경로 (보드 4대가 동시에 보내는 상황)
+ * - parseAndSubmit : 리더 스레드가 자기 인터프리터로 파싱해 RecordIngestPipeline(락 없는 링 버퍼)에 넣음.
+ *                    writer는 묶음 크기만 세므로 DB 쓰기 비용은 빠져 있음
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IngestBenchmark {
+
+    /** 모든 리더 스레드가 함께 쓰는 수집 큐 */
+    @State(Scope.Benchmark)
+    public static class Pipeline {
+        final AtomicLong delivered = new AtomicLong();
+        RecordIngestPipeline pipeline;
+
+        @Setup(Level.Trial)
+        public void start() {
+            pipeline = new RecordIngestPipeline(batch -> delivered.addAndGet(batch.size()),
+                    RecordIngestPipeline.DEFAULT_QUEUE_CAPACITY, RecordIngestPipeline.DEFAULT_MAX_BATCH_SIZE, 0);
+            pipeline.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            pipeline.stop(5000);
+        }
+    }
+
+    /** 보드 하나의 리더 스레드 */
+    @State(Scope.Thread)
+    public static class Board {
+        final ProtocolInterpreter interpreter = new ProtocolInterpreter("AA:BB:CC:DD:EE:FF");
+        byte[][] frames;
+        int next;
+
+        @Setup
+        public void setUp() {
+            frames = Frames.text();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean parseAndSubmit(Pipeline shared, Board board) {
+        byte[] frame = board.frames[board.next++ & (Frames.COUNT - 1)];
+        GameRecord record = board.interpreter.makeRecord(frame, 0, frame.length);
+        return record != null && shared.pipeline.submit(record, 100);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.sankegamerecord.Benchmark;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+import com.example.sankegamerecord.Background.ProtocolInterpreter;
+import com.example.sankegamerecord.Background.RplFrameParser;
+import com.example.sankegamerecord.Background.WireProtocol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 보드 프레임 한 개를 기록으로 바꾸는 경로 (리더 스레드에서 프레임마다 실행)
+ * - makeRecord : ProtocolInterpreter.makeRecord(byte[]) (GameRecord 생성 포함)
+ * - parseOnly  : RplFrameParser.parse / WireProtocol.decodeRecord (결과 홀더만 채움, 할당 없음)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParseBenchmark {
+
+    @Param({"text", "binary", "adversarial"})
+    public String input;
+
+    private byte[][] frames;
+    private int next;
+    private final ProtocolInterpreter interpreter = new ProtocolInterpreter("AA:BB:CC:DD:EE:FF");
+    private final RplFrameParser.Result result = new RplFrameParser.Result();
+
+    @Setup
+    public void setUp() {
+        frames = Frames.create(input);
+    }
+
+    @Benchmark
+    public GameRecord makeRecord() {
+        byte[] frame = frames[next++ & (Frames.COUNT - 1)];
+        return interpreter.makeRecord(frame, 0, frame.length);
+    }
+
+    @Benchmark
+    public RplFrameParser.Status parseOnly() {
+        byte[] frame = frames[next++ & (Frames.COUNT - 1)];
+        return WireProtocol.isBinaryFrame(frame, 0, frame.length)
+                ? WireProtocol.decodeRecord(frame, 0, frame.length, result)
+                : RplFrameParser.parse(frame, 0, frame.length, result);
+    }
+}
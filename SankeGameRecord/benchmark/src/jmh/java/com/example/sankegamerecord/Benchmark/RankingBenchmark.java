@@ -0,0 +1,69 @@
+package com.example.sankegamerecord.Benchmark;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+import com.example.sankegamerecord.DataBaseAdapter.TopNLeaderboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RankAdapter.addScore의 메모리 랭킹 갱신 (qualifies → insert). 데이터베이스 쓰기는 제외합니다.
+ * <p>
+ * - random    : 무작위 플레이 시간. 랭킹이 차면 대부분 O(1) 검사에서 걸러짐 (실제 사용에 가까움)
+ * - improving : 매번 1위 기록 → 항상 맨 앞에 들어가 N개 전체를 밀어냄 (최악)
+ * - worsening : 매번 꼴찌보다 나쁜 기록 → 항상 거부 (최선)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RankingBenchmark {
+
+    private static final int RANDOM_SCORES = 4096;
+
+    @Param({"random", "improving", "worsening"})
+    public String order;
+
+    @Param({"10", "100"})
+    public int capacity;
+
+    private TopNLeaderboard<GameRecord> board;
+    private GameRecord record;
+    private long[] randomScores;
+    private int mode; // 0 = random, 1 = improving, 2 = worsening
+    private long counter;
+
+    @Setup
+    public void setUp() {
+        mode = "improving".equals(order) ? 1 : "worsening".equals(order) ? 2 : 0;
+        board = new TopNLeaderboard<>(capacity);
+        record = new GameRecord(LocalDateTime.of(2025, 11, 13, 17, 0), Duration.ofSeconds(30), true);
+        Random random = new Random(42);
+        randomScores = new long[RANDOM_SCORES];
+        for (int i = 0; i < RANDOM_SCORES; i++) randomScores[i] = 10_000 + random.nextInt(600_000);
+        // 가득 찬 랭킹에서 시작 (10~60만 ms 사이)
+        for (int i = 0; i < capacity; i++) board.insert(10_000 + i * (600_000L / capacity), i, record);
+        counter = 0;
+    }
+
+    @Benchmark
+    public int addScore() {
+        long n = counter++;
+        long score;
+        if (mode == 1) score = 10_000 - n;           // 음수까지 내려가도 순서만 중요
+        else if (mode == 2) score = 1_000_000 + n;
+        else score = randomScores[(int) (n & (RANDOM_SCORES - 1))];
+        if (!board.qualifies(score)) return -1;
+        return board.insert(score, n, record);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.sankegamerecord.Benchmark;
+
+import com.example.sankegamerecord.Adapter.GameRecord;
+import com.example.sankegamerecord.Adapter.RecordFormatter;
+import com.example.sankegamerecord.Adapter.RecordRow;
+import com.example.sankegamerecord.Background.RplFrameParser;
+import com.example.sankegamerecord.Background.WireProtocol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기록의 직렬화/표시 경로
+ * - encodeRecord / decodeRecord : 바이너리 RECORD 프레임 (스키마 v2 이후 JSON 대신 쓰는 형식)
+ * - appendDuration              : 플레이 시간 "mm:ss.mmm" (이전 formatDuration), 0ms부터 수십 시간까지
+ * - formatRow                   : 목록 한 행 전체 (랭킹 행/기록 행, 보드 주소 유무 섞음)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+
+    private static final int COUNT = 256;
+
+    private final RplFrameParser.Result in = new RplFrameParser.Result();
+    private final RplFrameParser.Result out = new RplFrameParser.Result();
+    private final byte[] buffer = new byte[WireProtocol.MAX_FRAME_SIZE];
+    private final StringBuilder text = new StringBuilder(64);
+    private byte[][] frames;
+    private long[] durations;
+    private RecordRow[] rows;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        frames = Frames.binary();
+        durations = new long[COUNT];
+        rows = new RecordRow[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            // 짧은 게임 위주에, 자리 수가 바뀌는 경계값과 아주 긴 값을 섞음
+            durations[i] = i % 8 == 0 ? new long[]{0, 9, 59_999, 600_000, 36_000_000, Integer.MAX_VALUE}[i / 8 % 6]
+                    : 20_000 + i * 1_337L;
+            GameRecord record = new GameRecord(LocalDateTime.of(2025, 11, 1 + i % 28, i % 24, i % 60, i % 60),
+                    Duration.ofMillis(durations[i]), i % 3 != 0, i % 2 == 0 ? "" : "AA:BB:CC:DD:EE:" + (10 + i % 90));
+            rows[i] = new RecordRow(i, i % 4 == 0 ? 1 + i % 10 : 0, record);
+        }
+        in.year = 2025; in.month = 11; in.day = 13; in.hour = 17; in.minute = 5; in.second = 9;
+        in.score = 12; in.success = true;
+    }
+
+    @Benchmark
+    public int encodeRecord() {
+        in.playtimeMillis = durations[next & (COUNT - 1)];
+        in.sequence = next++;
+        return WireProtocol.encodeRecord(in, buffer, 0);
+    }
+
+    @Benchmark
+    public RplFrameParser.Status decodeRecord() {
+        byte[] frame = frames[next++ & (Frames.COUNT - 1)];
+        return WireProtocol.decodeRecord(frame, 0, frame.length, out);
+    }
+
+    @Benchmark
+    public int appendDuration() {
+        text.setLength(0);
+        return RecordFormatter.appendDuration(text, durations[next++ & (COUNT - 1)]).length();
+    }
+
+    @Benchmark
+    public int formatRow() {
+        return RecordFormatter.formatRow(rows[next++ & (COUNT - 1)], text).length();
+    }
+}
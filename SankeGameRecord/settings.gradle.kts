@@ -21,4 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "SankeGameRecord"
 include(":app")
+include(":benchmark")
  
\ No newline at end of file
@@ -14,6 +14,38 @@ static void NVIC_Configure(void);
 static void send_USART1(uint16_t data);
 static void send_USART2(uint16_t data);
 
+static void BT_SendBytes(const uint8_t *data, uint16_t len);
+static uint16_t BT_Crc16(uint16_t crc, const uint8_t *data, uint16_t len);
+static void BT_SendTextFrame(const DS1302_Time_t *now, int score, uint32_t duration_ms);
+static void BT_SendRecordFrame(const DS1302_Time_t *now, int score, uint32_t duration_ms, uint32_t seq);
+static void BT_SendSlot(uint32_t seq);
+static void BT_HandleCommand(const char *line);
+static uint8_t BT_ParseU32(const char *s, uint32_t *out);
+
+// 앱과 협상된 프로토콜 버전 (USART2 수신 인터럽트에서 갱신)
+static volatile uint8_t s_protocol_version = BT_PROTOCOL_TEXT;
+
+// 재전송 버퍼: 일련번호 s_first ~ s_next-1 의 기록을 보관 (슬롯 = seq % BT_RETRANSMIT_SLOTS)
+typedef struct
+{
+    DS1302_Time_t time;
+    uint32_t duration_ms;
+    int score;
+} BT_Slot_t;
+
+static BT_Slot_t s_slots[BT_RETRANSMIT_SLOTS];
+static volatile uint32_t s_first = 1; // 가장 오래된 미확인 번호 (ACK 수신 시 인터럽트에서 증가)
+static uint32_t s_next = 1;           // 다음 기록에 붙일 번호
+
+// 수신 인터럽트가 남긴 요청 (BT_Poll에서 처리)
+static volatile uint8_t s_sync_pending = 0;  // SYNC 응답 필요
+static volatile uint32_t s_resend_from = 0;  // 0이 아니면 이 번호부터 재전송
+
+// USART2 수신 라인 버퍼 (앱 → 보드 명령)
+#define BT_RX_LINE_MAX  32
+static char s_rx_line[BT_RX_LINE_MAX];
+static uint8_t s_rx_len = 0;
+
 // RTC 초기 세팅(1회) 보장 함수
 static void RTC_EnsureInit(void);
 
@@ -59,28 +91,247 @@ void BT_DelayMs(uint32_t ms)
     SysTick->CTRL = 0;
 }
 
-void BT_SendScoreFrame(int snake_length, uint32_t duration_ms)
+uint8_t BT_GetProtocolVersion(void)
 {
-    char buffer[128];
-    uint32_t total_sec = duration_ms / 1000;
+    return s_protocol_version;
+}
 
+void BT_SendScoreFrame(int score, uint32_t duration_ms)
+{
     DS1302_Time_t now;
+    uint32_t seq;
+    BT_Slot_t *slot;
+
     DS1302_GetTime(&now);
 
-    sprintf(buffer,
-            "RPL|20%02d-%02d-%02d %02d:%02d:%02d|%lu|%d\r\n",
-            now.year, now.month, now.day,
-            now.hour, now.minute, now.second,
-            (unsigned long)total_sec,
-            snake_length);
+    // 재전송 버퍼에 보관 (가득 찼으면 가장 오래된 기록을 버림)
+    // s_first는 ACK 인터럽트에서도 바뀌므로 갱신하는 동안 인터럽트를 막음
+    __disable_irq();
+    seq = s_next++;
+    if (s_next - s_first > BT_RETRANSMIT_SLOTS)
+        s_first = s_next - BT_RETRANSMIT_SLOTS;
+    __enable_irq();
+
+    slot = &s_slots[seq % BT_RETRANSMIT_SLOTS];
+    slot->time = now;
+    slot->duration_ms = duration_ms;
+    slot->score = score;
+
+    if (s_protocol_version >= BT_PROTOCOL_BINARY_V1)
+        BT_SendRecordFrame(&now, score, duration_ms, seq);
+    else
+        BT_SendTextFrame(&now, score, duration_ms);
+}
 
-    BT_SendString(buffer);
+void BT_Poll(void)
+{
+    uint32_t from;
+    uint32_t seq;
+    char buffer[24];
+
+    // 요청을 읽고 지우는 사이에 수신 인터럽트가 새 RRQ를 남기면 잃어버리므로 인터럽트를 막고 한 번에 처리
+    __disable_irq();
+    from = s_resend_from;
+    s_resend_from = 0;
+    if (from != 0 && from < s_first)
+    {
+        // 이미 ACK되었거나 버퍼에서 밀려난 기록은 보낼 수 없음
+        // 앱이 그 번호를 계속 기다리지 않도록 SYNC로 가장 오래된 미확인 번호를 알리고 거기서부터 보냄
+        s_sync_pending = 1;
+        from = s_first;
+    }
+    __enable_irq();
+
+    if (s_sync_pending)
+    {
+        s_sync_pending = 0;
+        sprintf(buffer, "SYNC|%lu\r\n", (unsigned long)s_first);
+        BT_SendString(buffer);
+    }
+
+    if (from != 0)
+    {
+        for (seq = from; seq != s_next; seq++)
+        {
+            // 재전송 중 ACK/새 요청이 오면 그에 맞춰 다시 시작
+            if (s_resend_from != 0 || seq < s_first)
+                break;
+            BT_SendSlot(seq);
+        }
+    }
+}
+
+// USART2 수신 인터럽트: 앱에서 오는 "\n" 단위 명령을 모아 처리
+void USART2_IRQHandler(void)
+{
+    if (USART_GetITStatus(USART2, USART_IT_RXNE) != RESET)
+    {
+        char c = (char)(USART_ReceiveData(USART2) & 0xFF);
+
+        if (c == '\n')
+        {
+            s_rx_line[s_rx_len] = '\0';
+            BT_HandleCommand(s_rx_line);
+            s_rx_len = 0;
+        }
+        else if (c != '\r')
+        {
+            // 너무 긴 줄은 버림 (다음 '\n'에서 다시 시작)
+            if (s_rx_len < BT_RX_LINE_MAX - 1)
+                s_rx_line[s_rx_len++] = c;
+        }
+    }
 }
 
 // ==============================
 // 내부 구현부
 // ==============================
 
+// 기존 텍스트 프레임: RPL|YYYY-MM-DD HH:MM:SS|경과시간(초)|점수\r\n
+static void BT_SendTextFrame(const DS1302_Time_t *now, int score, uint32_t duration_ms)
+{
+    char buffer[128];
+
+    sprintf(buffer,
+            "RPL|20%02d-%02d-%02d %02d:%02d:%02d|%lu|%d\r\n",
+            now->year, now->month, now->day,
+            now->hour, now->minute, now->second,
+            (unsigned long)(duration_ms / 1000),
+            score);
+
+    BT_SendString(buffer);
+}
+
+// 재전송 버퍼의 기록 하나를 다시 보냄
+static void BT_SendSlot(uint32_t seq)
+{
+    const BT_Slot_t *slot = &s_slots[seq % BT_RETRANSMIT_SLOTS];
+    BT_SendRecordFrame(&slot->time, slot->score, slot->duration_ms, seq);
+}
+
+// 바이너리 RECORD 프레임 (형식은 bt.h 참고). 버전 1로 협상되었으면 일련번호를 붙이지 않음
+static void BT_SendRecordFrame(const DS1302_Time_t *now, int score, uint32_t duration_ms, uint32_t seq)
+{
+    uint8_t frame[4 + BT_RECORD_SEQ_PAYLOAD_LEN + 2];
+    uint8_t *p = &frame[4];
+    uint8_t version = s_protocol_version;
+    uint8_t payload_len = (version >= BT_PROTOCOL_VERSION) ? BT_RECORD_SEQ_PAYLOAD_LEN : BT_RECORD_PAYLOAD_LEN;
+    uint16_t crc;
+
+    if (score < 0) score = 0;
+    if (score > 0xFFFF) score = 0xFFFF;
+
+    frame[0] = BT_FRAME_SOF;
+    frame[1] = version;
+    frame[2] = BT_FRAME_TYPE_RECORD;
+    frame[3] = payload_len;
+
+    p[0]  = now->year;
+    p[1]  = now->month;
+    p[2]  = now->day;
+    p[3]  = now->hour;
+    p[4]  = now->minute;
+    p[5]  = now->second;
+    p[6]  = (uint8_t)(duration_ms);
+    p[7]  = (uint8_t)(duration_ms >> 8);
+    p[8]  = (uint8_t)(duration_ms >> 16);
+    p[9]  = (uint8_t)(duration_ms >> 24);
+    p[10] = (uint8_t)(score);
+    p[11] = (uint8_t)(score >> 8);
+    p[12] = (score >= BT_SUCCESS_SCORE) ? BT_RECORD_FLAG_SUCCESS : 0;
+    p[13] = (uint8_t)(seq);
+    p[14] = (uint8_t)(seq >> 8);
+    p[15] = (uint8_t)(seq >> 16);
+    p[16] = (uint8_t)(seq >> 24);
+
+    crc = BT_Crc16(0xFFFF, &frame[1], 3 + payload_len);
+    frame[4 + payload_len]     = (uint8_t)(crc);
+    frame[4 + payload_len + 1] = (uint8_t)(crc >> 8);
+
+    BT_SendBytes(frame, 4 + payload_len + 2);
+}
+
+// 앱 → 보드 명령 처리 (USART2 수신 인터럽트에서 호출, 전송은 BT_Poll에서)
+//  - "PROTO|n" : 프로토콜 버전 n 요청 (지원하는 최대 버전으로 맞춤, 0이면 텍스트)
+//                버전 2면 SYNC 응답과 함께 미확인 기록을 다시 보냄 (새 연결)
+//  - "ACK|n"   : n 이하 기록을 재전송 버퍼에서 삭제
+//  - "RRQ|n"   : n부터 다시 보냄
+static void BT_HandleCommand(const char *line)
+{
+    uint32_t value;
+
+    if (line[0] == 'P' && line[1] == 'R' && line[2] == 'O' && line[3] == 'T'
+        && line[4] == 'O' && line[5] == '|')
+    {
+        uint8_t requested;
+        if (line[6] < '0' || line[6] > '9')
+            return;
+
+        requested = (uint8_t)(line[6] - '0');
+
+        s_protocol_version = (requested >= BT_PROTOCOL_VERSION) ? BT_PROTOCOL_VERSION
+                           : (requested >= BT_PROTOCOL_BINARY_V1) ? BT_PROTOCOL_BINARY_V1
+                           : BT_PROTOCOL_TEXT;
+
+        if (s_protocol_version >= BT_PROTOCOL_VERSION)
+        {
+            s_sync_pending = 1;
+            s_resend_from = s_first;
+        }
+    }
+    else if (line[0] == 'A' && line[1] == 'C' && line[2] == 'K' && line[3] == '|')
+    {
+        // 버퍼에 있는 번호만 받아들임 (늦게 도착한 이전 ACK, 잘못된 값 무시)
+        if (BT_ParseU32(&line[4], &value) && value >= s_first && value < s_next)
+            s_first = value + 1;
+    }
+    else if (line[0] == 'R' && line[1] == 'R' && line[2] == 'Q' && line[3] == '|')
+    {
+        if (BT_ParseU32(&line[4], &value) && value != 0)
+            s_resend_from = value;
+    }
+}
+
+// 10진수 문자열 → u32 (숫자가 없거나 숫자 이외 문자가 있으면 0 반환)
+static uint8_t BT_ParseU32(const char *s, uint32_t *out)
+{
+    uint32_t value = 0;
+    uint8_t digits = 0;
+
+    while (*s)
+    {
+        if (*s < '0' || *s > '9' || digits >= 10)
+            return 0;
+        value = value * 10 + (uint32_t)(*s - '0');
+        digits++;
+        s++;
+    }
+    *out = value;
+    return digits > 0;
+}
+
+static void BT_SendBytes(const uint8_t *data, uint16_t len)
+{
+    for (uint16_t i = 0; i < len; i++)
+    {
+        send_USART2(data[i]);
+    }
+}
+
+// CRC-16/CCITT-FALSE (poly 0x1021)
+static uint16_t BT_Crc16(uint16_t crc, const uint8_t *data, uint16_t len)
+{
+    for (uint16_t i = 0; i < len; i++)
+    {
+        crc ^= (uint16_t)data[i] << 8;
+        for (uint8_t b = 0; b < 8; b++)
+        {
+            crc = (crc & 0x8000) ? (uint16_t)((crc << 1) ^ 0x1021) : (uint16_t)(crc << 1);
+        }
+    }
+    return crc;
+}
+
 // DS1302 RAM을 이용해서 "최초 1회만" 시간 설정
 static void RTC_EnsureInit(void)
 {
@@ -172,6 +423,7 @@ static void USART2_Init(void)
     USART_InitStructure.USART_Mode                = USART_Mode_Rx | USART_Mode_Tx;
 
     USART_Init(USART2, &USART_InitStructure);
+    USART_ITConfig(USART2, USART_IT_RXNE, ENABLE); // 앱 명령 수신용
     USART_Cmd(USART2, ENABLE);
 }
 
@@ -18,9 +18,54 @@ void BT_SendString(const char *s);
 // 간단 ms 딜레이 (BT 테스트용 main_bt.c에서 사용)
 void BT_DelayMs(uint32_t ms);
 
-// 스네이크 게임 종료 시 점수/플레이시간을
-// main_bt 테스트와 동일한 포맷의 문자열로 전송.
-// 포맷: RPL|YYYY-MM-DD HH:MM:SS|mm:ss:mss|SCORE=NN\r\n
+// ==============================
+// 바이너리 프레임 프로토콜
+// ==============================
+// [SOF][VER][TYPE][LEN][PAYLOAD(LEN)][CRC16 L][CRC16 H]
+//  - SOF  : 0xA5 (ASCII 텍스트 프레임에는 나오지 않는 값)
+//  - CRC16: CRC-16/CCITT-FALSE (초기값 0xFFFF), VER부터 PAYLOAD 끝까지
+//
+// RECORD 페이로드 (리틀 엔디언)
+//  [0] 연(20xx의 xx) [1] 월 [2] 일 [3] 시 [4] 분 [5] 초
+//  [6..9] 플레이 시간(ms, u32) [10..11] 점수(u16) [12] 플래그(bit0 = 성공)
+//  [13..16] 일련번호(u32)  ← 버전 2부터
+//
+// 앱이 연결 직후 "PROTO|n\r\n" 을 보내면 바이너리 프레임으로 전환하고,
+// 요청이 없으면(구 버전 앱) 기존 텍스트 프레임을 계속 사용합니다.
+//
+// 버전 2 전달 보장
+//  - 게임 기록마다 1부터 증가하는 일련번호를 붙이고, 앱이 ACK할 때까지 재전송 버퍼에 보관합니다.
+//  - 보드 → 앱 "SYNC|n" : PROTO 요청에 대한 응답. n = 가장 오래된 미확인 번호. 이어서 n부터 다시 보냄
+//                         RRQ 번호가 이미 버퍼에서 밀려났을 때도 보냄 (앱은 n-1까지 받은 것으로 보고 넘어감)
+//  - 앱 → 보드 "ACK|n"  : n 이하 기록을 받음 (버퍼에서 삭제)
+//  - 앱 → 보드 "RRQ|n"  : n부터 다시 보내 달라는 요청
+//  - 버퍼(BT_RETRANSMIT_SLOTS개)가 가득 차면 가장 오래된 기록을 버립니다. (앱은 SYNC 번호로 알 수 있음)
+#define BT_FRAME_SOF            0xA5
+#define BT_PROTOCOL_TEXT        0
+#define BT_PROTOCOL_BINARY_V1   1   // 일련번호 없는 바이너리
+#define BT_PROTOCOL_VERSION     2
+#define BT_FRAME_TYPE_RECORD    0x01
+#define BT_RECORD_PAYLOAD_LEN   13
+#define BT_RECORD_SEQ_PAYLOAD_LEN (BT_RECORD_PAYLOAD_LEN + 4)
+#define BT_RECORD_FLAG_SUCCESS  0x01
+
+// ACK받지 못한 기록을 보관하는 재전송 버퍼 크기 (끊긴 동안 이만큼의 게임까지 보존)
+#define BT_RETRANSMIT_SLOTS     16
+
+// 이 점수(먹이 수) 이상이면 성공한 게임으로 기록 (앱의 RplFrameParser.SUCCESS_SCORE와 같은 값)
+#define BT_SUCCESS_SCORE        10
+
+// 현재 협상된 프로토콜 버전 (BT_PROTOCOL_TEXT 또는 BT_PROTOCOL_VERSION)
+uint8_t BT_GetProtocolVersion(void);
+
+// 스네이크 게임 종료 시 점수/플레이시간 전송.
+// 기록은 일련번호와 함께 재전송 버퍼에 남기고, 협상된 프로토콜에 따라
+// 바이너리 RECORD 프레임 또는 텍스트 프레임으로 보냅니다.
+// 텍스트 포맷: RPL|YYYY-MM-DD HH:MM:SS|경과시간(초)|점수\r\n
 void BT_SendScoreFrame(int score, uint32_t duration_ms);
 
+// 메인 루프에서 주기적으로 호출: 앱이 요청한 SYNC/재전송을 수행합니다.
+// (수신 인터럽트에서는 요청만 기록하고, 실제 전송은 여기서 합니다)
+void BT_Poll(void);
+
 #endif // BT_H
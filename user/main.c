@@ -21,23 +21,6 @@ static void delay_loop(volatile uint32_t count)
     }
 }
 
-static uint32_t TimeToSeconds(DS1302_Time_t t) {
-    return (t.hour * 3600) + (t.minute * 60) + t.second;
-}
-
-// 시작 시간과 종료 시간의 차이(초 단위) 계산
-static uint32_t Calculate_Duration_Sec(DS1302_Time_t start, DS1302_Time_t end) {
-    uint32_t s_sec = TimeToSeconds(start);
-    uint32_t e_sec = TimeToSeconds(end);
-
-    if (e_sec >= s_sec) {
-        return e_sec - s_sec;
-    } else {
-        // 자정을 넘긴 경우 (예: 23:59:50 시작 -> 00:00:10 종료)
-        return (e_sec + 86400) - s_sec;
-    }
-}
-
 // PIR 기반 절전 기능에서 사용할 사람 부재 시간(ms)
 // 10초 이상 사람이 없으면 절전 모드 진입
 #define PIR_IDLE_SLEEP_MS   10000U
@@ -45,30 +28,6 @@ static uint32_t Calculate_Duration_Sec(DS1302_Time_t start, DS1302_Time_t end) {
 // 블루투스 HEARTBEAT 주기(ms)
 #define BT_HEARTBEAT_MS     5000U
 
-// 게임 종료 시 결과 프레임 전송
-// 포맷: RPL|yyyy-MM-dd HH:mm:ss|경과시간(초)|점수\r\n
-static void BT_SendResultFrame(uint32_t duration_sec, int score)
-{
-    char buffer[128];
-
-    // 실제 RTC가 없으므로 예시로 고정된 날짜/시간 사용
-    // 필요하면 RTC 연동해서 실제 시각으로 교체
-    int year  = 2025;
-    int month = 11;
-    int day   = 13;
-    int hour  = 17;
-    int min   = 0;
-    int sec   = 0;
-
-    sprintf(buffer,
-            "RPL|%04d-%02d-%02d %02d:%02d:%02d|%lu|%d\r\n",
-            year, month, day, hour, min, sec,
-            (unsigned long)duration_sec,
-            score);
-
-    BT_SendString(buffer);
-}
-
 int main(void)
 {
     SystemInit();
@@ -99,12 +58,6 @@ int main(void)
     uint32_t gameStartTimeMs  = nowMs; // 현재 게임 시작 시각
     uint32_t lastHeartbeatMs  = nowMs; // 마지막 HEARTBEAT 전송 시각
 
-    // 게임 시간 측정용 변수
-    DS1302_Time_t start_time, end_time;
-    
-    // [중요] 최초 게임 시작 시간 기록
-    DS1302_GetTime(&start_time);
-
     while (1)
     {
         // 공통 시간 값 (루프 시작 시점 기준)
@@ -147,21 +100,17 @@ int main(void)
         if (snake_update() || Display_IsSleep()) {
             // === GAME OVER 상황 ===
             game_over_sound();
-            // 1. 종료 시간 기록
-            DS1302_GetTime(&end_time);
+            // 1. 플레이 시간(ms) 계산 (SysTick 기반, 자정을 넘겨도 그대로 동작)
+            uint32_t play_duration_ms = PIR_GetMillis() - gameStartTimeMs;
 
-            // 2. 플레이 시간(초) 계산
-            uint32_t play_duration = Calculate_Duration_Sec(start_time, end_time);
+            // 2. 블루투스 전송 (점수(먹은 먹이 수), 경과 시간(ms))
+            BT_SendScoreFrame(snake_get_score(), play_duration_ms);
 
-            // 3. 블루투스 전송 (점수(길이), 경과 시간(초))
-            // snake_get_score()가 길이를 반환한다고 가정
-            BT_SendScoreFrame(snake_get_score(), play_duration);
-
-            // 4. 게임 리셋
+            // 3. 게임 리셋
             snake_setup();
-            
-            // 5. 다음 게임을 위해 시작 시간 재설정
-            DS1302_GetTime(&start_time);
+
+            // 4. 다음 게임을 위해 시작 시간 재설정
+            gameStartTimeMs = PIR_GetMillis();
         }
 
         // ------------------------------------------
@@ -180,6 +129,9 @@ int main(void)
             lastHeartbeatMs = nowMs;
         }
 
+        // 5-1) 앱이 요청한 SYNC/재전송 처리
+        BT_Poll();
+
         // 6) 게임 속도 조절 (값 조정해서 원하는 스피드 맞추면 됨)
         delay_loop(10000);
 